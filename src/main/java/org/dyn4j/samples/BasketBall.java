@@ -33,15 +33,12 @@ import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.imageio.ImageIO;
 
 import org.dyn4j.collision.AxisAlignedBounds;
 import org.dyn4j.collision.CategoryFilter;
 import org.dyn4j.dynamics.BodyFixture;
-import org.dyn4j.dynamics.contact.Contact;
 import org.dyn4j.dynamics.joint.DistanceJoint;
 import org.dyn4j.dynamics.joint.RevoluteJoint;
 import org.dyn4j.geometry.Circle;
@@ -50,24 +47,21 @@ import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Vector2;
 import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.RenderBackend;
 import org.dyn4j.samples.framework.SimulationBody;
+import org.dyn4j.samples.framework.SimulationBodyPool;
 import org.dyn4j.samples.framework.SimulationFrame;
+import org.dyn4j.samples.framework.TriggerZones;
 import org.dyn4j.samples.framework.input.BooleanStateKeyboardInputHandler;
 import org.dyn4j.samples.framework.input.Key;
 import org.dyn4j.samples.framework.input.ToggleStateKeyboardInputHandler;
-import org.dyn4j.world.ContactCollisionData;
-import org.dyn4j.world.NarrowphaseCollisionData;
 import org.dyn4j.world.listener.BoundsListener;
 import org.dyn4j.world.listener.BoundsListenerAdapter;
-import org.dyn4j.world.listener.CollisionListener;
-import org.dyn4j.world.listener.CollisionListenerAdapter;
-import org.dyn4j.world.listener.ContactListener;
-import org.dyn4j.world.listener.ContactListenerAdapter;
 
 /**
  * A scene where the user can play basket ball by configuring the trajectory.
  * @author William Bittle
- * @version 5.0.0
+ * @version 5.0.2
  * @since 5.0.0
  */
 public class BasketBall extends SimulationFrame {
@@ -128,6 +122,24 @@ public class BasketBall extends SimulationFrame {
 				super.renderFixture(g, scale, fixture, color);
 			}
 		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.SimulationBody#renderFixture(org.dyn4j.samples.framework.RenderBackend, double, org.dyn4j.dynamics.BodyFixture, java.awt.Color)
+		 */
+		@Override
+		protected void renderFixture(RenderBackend backend, double scale, BodyFixture fixture, Color color) {
+			if (this.image != null) {
+				Convex convex = fixture.getShape();
+				if (convex instanceof Circle) {
+					Circle c = (Circle) convex;
+					double r = c.getRadius();
+					Vector2 cc = c.getCenter();
+					backend.image(this.image, cc.x - r, cc.y - r, r * 2, r * 2, this.transform);
+				}
+			} else {
+				super.renderFixture(backend, scale, fixture, color);
+			}
+		}
 	}
 	
 	private static final long ALL = Long.MAX_VALUE;
@@ -139,6 +151,10 @@ public class BasketBall extends SimulationFrame {
 	private static final CategoryFilter rimFilter = new CategoryFilter(RIM, ALL ^ BALL);
 	private static final CategoryFilter allFilter = new CategoryFilter(OTHER, ALL);
 	
+	// tags
+	
+	private static final int BALL_TAG = 1;
+	
 	// input control
 	
 	private final BooleanStateKeyboardInputHandler up;
@@ -161,11 +177,17 @@ public class BasketBall extends SimulationFrame {
 	
 	private SimulationBody rim;
 	
-	// cache of bodies to remove
-	private final List<SimulationBody> toRemove = new ArrayList<SimulationBody>();
+	/** The zone a ball must pass through first to score */
+	private TriggerZones.Zone scoreBegin;
 	
-	private final Object SCORE_BEGIN_IDENTIFIER = new Object();
-	private final Object SCORE_COMPLETE_IDENTIFIER = new Object();
+	/** The zone a ball must pass through and leave to score */
+	private TriggerZones.Zone scoreComplete;
+	
+	/** The shape shared by all the balls */
+	private static final Convex BALL_SHAPE = Geometry.createCircle(0.5);
+	
+	/** The balls that have been shot; reused across shots and resets */
+	private final SimulationBodyPool<ImageBody> balls;
 	
 	private final class BallUserData {
 		public final Vector2 start = new Vector2();
@@ -201,6 +223,18 @@ public class BasketBall extends SimulationFrame {
 		this.minus.install();
 		this.shoot.install();
 		this.path.install();
+		
+		this.balls = new SimulationBodyPool<ImageBody>(this.world, new SimulationBodyPool.Factory<ImageBody>() {
+			@Override
+			public ImageBody create() {
+				ImageBody ball = new ImageBody(BASKETBALL);
+				BodyFixture bf = ball.addFixture(BALL_SHAPE, 1.0, 0.2, 0.5);
+				bf.setFilter(ballFilter);
+				ball.setMass(MassType.NORMAL);
+				ball.setTags(BALL_TAG);
+				return ball;
+			}
+		});
 	}
 	
 	/* (non-Javadoc)
@@ -226,6 +260,9 @@ public class BasketBall extends SimulationFrame {
 	 * Creates game objects and adds them to the world.
 	 */
 	protected void initializeWorld() {
+		// any balls from before a reset can be reused
+		this.balls.releaseAll();
+		
 		this.start.set(-10.0, -3.0);
 		this.direction.set(new Vector2(Math.toRadians(45)));
 		this.power = 15.0;
@@ -324,125 +361,91 @@ public class BasketBall extends SimulationFrame {
 			y-=0.5;
 		}
 		
-		// for scoring setup some sensor bodies
-		SimulationBody sensorScoreBegin = new SimulationBody(new Color(255, 0, 0, 0));
-		sensorScoreBegin.setUserData(SCORE_BEGIN_IDENTIFIER);
-		bf = sensorScoreBegin.addFixture(Geometry.createRectangle(2.0, 2.0));
-		bf.setSensor(true);
-		sensorScoreBegin.setMass(MassType.INFINITE);
-		sensorScoreBegin.translate(9.5, 5.0);
-		this.world.addBody(sensorScoreBegin);
-		
-		SimulationBody sensorScoreAdd = new SimulationBody(new Color(0, 255, 0, 0));
-		sensorScoreAdd.setUserData(SCORE_COMPLETE_IDENTIFIER);
-		bf = sensorScoreAdd.addFixture(Geometry.createRectangle(1.7, 1.25));
-		bf.setSensor(true);
-		sensorScoreAdd.setMass(MassType.INFINITE);
-		sensorScoreAdd.translate(9.5, 3.0);
-		this.world.addBody(sensorScoreAdd);
+		// for scoring setup some trigger zones
+		this.scoreBegin = new TriggerZones.Zone(Geometry.createRectangle(2.0, 2.0), BALL_TAG, 9.5, 5.0);
+		this.scoreComplete = new TriggerZones.Zone(Geometry.createRectangle(1.7, 1.25), BALL_TAG, 9.5, 3.0);
+		this.getTriggerZones().addZone(this.scoreBegin);
+		this.getTriggerZones().addZone(this.scoreComplete);
 		
 		// listen for basketballs leaving the bounds
 		BoundsListener<SimulationBody, BodyFixture> bl = new BoundsListenerAdapter<SimulationBody, BodyFixture>() {
 			@Override
-			public void outside(SimulationBody body) {
-				toRemove.add(body);
+			public void outside(final SimulationBody body) {
+				if (isBall(body)) {
+					// return the ball to the pool once the step is complete
+					getMutationQueue().execute(new Runnable() {
+						@Override
+						public void run() {
+							balls.release((ImageBody)body);
+						}
+					});
+				} else {
+					getMutationQueue().removeBody(body);
+				}
 			}
 		};
 		this.world.addBoundsListener(bl);
 		
-		// use a CollisionListener to detect when the body is in the scoring zones
-		CollisionListener<SimulationBody, BodyFixture> cl = new CollisionListenerAdapter<SimulationBody, BodyFixture>() {
+		// track the balls through the scoring zones
+		TriggerZones.Listener tl = new TriggerZones.Listener() {
 			@Override
-			public boolean collision(NarrowphaseCollisionData<SimulationBody, BodyFixture> collision) {
-				SimulationBody b1 = collision.getBody1();
-				SimulationBody b2 = collision.getBody2();
-				
-				// check for a ball body
-				int ballBodyIndex = getBallBodyIndex(b1, b2);
-				if (ballBodyIndex < 0)
-					return super.collision(collision);
-				
-				// get the ball and the other body
-				SimulationBody ball = ballBodyIndex == 1 ? b1 : b2;
-				SimulationBody other = ballBodyIndex == 1 ? b2 : b1;
+			public void enter(TriggerZones.Zone zone, SimulationBody ball) {
+				this.inside(zone, ball);
+			}
+			
+			@Override
+			public void stay(TriggerZones.Zone zone, SimulationBody ball) {
+				this.inside(zone, ball);
+			}
+			
+			private void inside(TriggerZones.Zone zone, SimulationBody ball) {
+				BallUserData bud = (BallUserData)ball.getUserData();
+				if (bud == null) return;
 				
-				if (isScoreBegin(other)) {
-					BallUserData bud = (BallUserData)ball.getUserData();
+				if (zone == scoreBegin) {
 					if (!bud.scored) {
 						bud.enteredScoreBegin = true;
 						bud.enteredScoreComplete = false;
 					}
-				} else if (isScoreComplete(other)) {
-					BallUserData bud = (BallUserData)ball.getUserData();
+				} else if (zone == scoreComplete) {
 					if (!bud.scored && bud.enteredScoreBegin) {
 						bud.enteredScoreComplete = true;
 					} else {
 						bud.enteredScoreBegin = false;
 					}
 				}
-				return super.collision(collision);
 			}
-		};
-		this.world.addCollisionListener(cl);
-		
-		// use a ContactListener to detect when the body leaves the scoring zone
-		ContactListener<SimulationBody> ccl = new ContactListenerAdapter<SimulationBody>() {
+			
 			@Override
-			public void end(ContactCollisionData<SimulationBody> collision, Contact contact) {
-				SimulationBody b1 = collision.getBody1();
-				SimulationBody b2 = collision.getBody2();
-				
-				// check for a ball body
-				int ballBodyIndex = getBallBodyIndex(b1, b2);
-				if (ballBodyIndex < 0) {
-					super.end(collision, contact);
-					return;
-				}
-				
-				// get the ball and the other body
-				SimulationBody ball = ballBodyIndex == 1 ? b1 : b2;
-				SimulationBody other = ballBodyIndex == 1 ? b2 : b1;
+			public void exit(TriggerZones.Zone zone, SimulationBody ball) {
+				// balls returned to the pool have no data
+				BallUserData bud = (BallUserData)ball.getUserData();
+				if (bud == null || zone != scoreComplete) return;
 				
-				if (isScoreComplete(other)) {
-					BallUserData bud = (BallUserData)ball.getUserData();
-					// 1. if the ball hasn't been scored yet
-					// 2. if the ball entered the score begin region
-					// 3. if the ball entered the score complete region
-					// 4. if it's now exiting the score complete region
-					// then count it as a score
-					if (!bud.scored && bud.enteredScoreBegin && bud.enteredScoreComplete) {
-						bud.scored = true;
-						
-						// was it a two pointer or three pointer?
-						if (bud.start.x < -14) 
-							score += 3;
-						else
-							score += 2;
-					} else {
-						bud.enteredScoreBegin = false;
-						bud.enteredScoreComplete = false;
-					}
+				// 1. if the ball hasn't been scored yet
+				// 2. if the ball entered the score begin region
+				// 3. if the ball entered the score complete region
+				// 4. if it's now exiting the score complete region
+				// then count it as a score
+				if (!bud.scored && bud.enteredScoreBegin && bud.enteredScoreComplete) {
+					bud.scored = true;
+					
+					// was it a two pointer or three pointer?
+					if (bud.start.x < -14) 
+						score += 3;
+					else
+						score += 2;
+				} else {
+					bud.enteredScoreBegin = false;
+					bud.enteredScoreComplete = false;
 				}
-				super.end(collision, contact);
 			}
 		};
-		this.world.addContactListener(ccl);
-	}
-	
-	private int getBallBodyIndex(SimulationBody body1, SimulationBody body2) {
-		return isBall(body1) ? 1 : isBall(body2) ? 2 : -1;
+		this.getTriggerZones().addListener(tl);
 	}
 	
 	private boolean isBall(SimulationBody body) {
-		return body.getUserData() instanceof BallUserData;
-	}
-	
-	private boolean isScoreBegin(SimulationBody body) {
-		return body.getUserData() == SCORE_BEGIN_IDENTIFIER;
-	}
-	
-	private boolean isScoreComplete(SimulationBody body) {
-		return body.getUserData() == SCORE_COMPLETE_IDENTIFIER;
+		return body.hasAnyTag(BALL_TAG);
 	}
 	
 	/* (non-Javadoc)
@@ -585,19 +588,12 @@ public class BasketBall extends SimulationFrame {
 			data.start.x = start.x;
 			data.start.y = start.y;
 			
-			ImageBody circle = new ImageBody(BASKETBALL);
+			ImageBody circle = this.balls.obtain();
 			circle.setUserData(data);
-			BodyFixture bf = circle.addFixture(Geometry.createCircle(0.5), 1.0, 0.2, 0.5);
-			bf.setFilter(ballFilter);
-			circle.setMass(MassType.NORMAL);
 			circle.translate(start);
 			circle.setLinearVelocity(this.direction.x * this.power, this.direction.y * this.power);
 			this.world.addBody(circle);
 		}
-		
-		for (SimulationBody b : this.toRemove) {
-			this.world.removeBody(b);
-		}
 	}
 	
 	/* (non-Javadoc)
@@ -38,6 +38,7 @@ import org.dyn4j.geometry.Vector2;
 import org.dyn4j.samples.framework.Camera;
 import org.dyn4j.samples.framework.SimulationBody;
 import org.dyn4j.samples.framework.SimulationFrame;
+import org.dyn4j.samples.framework.TrajectoryPredictor;
 import org.dyn4j.samples.framework.input.BooleanStateKeyboardInputHandler;
 import org.dyn4j.samples.framework.input.Key;
 import org.dyn4j.world.World;
@@ -48,6 +49,9 @@ import org.dyn4j.world.World;
  * <p>
  * Primarily used to illustrate the computation of the mass and size
  * of the balls.  See the {@link Billiards#initializeWorld()} method.
+ * <p>
+ * While aiming, the path of the shot is predicted in the background
+ * with a {@link TrajectoryPredictor} and drawn on the table.
  * @author William Bittle
  * @version 5.0.2
  * @since 3.2.0
@@ -72,6 +76,8 @@ public final class Billiards extends SimulationFrame {
 	
 	private final BooleanStateKeyboardInputHandler shoot;
 	
+	private final TrajectoryPredictor predictor;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -89,6 +95,8 @@ public final class Billiards extends SimulationFrame {
 		this.plus.install();
 		this.minus.install();
 		this.shoot.install();	
+		
+		this.predictor = new TrajectoryPredictor();
 	}
 	
 	/* (non-Javadoc)
@@ -268,6 +276,17 @@ public final class Billiards extends SimulationFrame {
 		// check if all balls are at rest, if so, then reset the cue stick position
 		if (allBallsAtRest()) {
 			this.stickLocation = this.cueBall.getWorldCenter();
+			
+			// preview the shot
+			if (this.power > 0.0) {
+				this.predictor.request(this.world, this.cueBall, this.getShotVelocity());
+				this.predictor.update();
+				this.predictor.render(g, this.getCameraScale());
+			} else {
+				this.predictor.clear();
+			}
+		} else {
+			this.predictor.clear();
 		}
 		
 		Transform tx = new Transform();
@@ -278,6 +297,12 @@ public final class Billiards extends SimulationFrame {
 		this.render(g, elapsedTime, cueStick);
 	}
 	
+	private final Vector2 getShotVelocity() {
+		Vector2 v = new Vector2(this.angle);
+		v.multiply(this.power * 10.0);
+		return v;
+	}
+	
 	private final boolean allBallsAtRest() {
 		final int n = this.world.getBodyCount();
 		for (int i = 0; i < n; i++) {
@@ -302,6 +327,16 @@ public final class Billiards extends SimulationFrame {
 		this.angle = 0.0;
 		this.power = 0.0;
 		this.stickLocation.zero();
+		this.predictor.clear();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.SimulationFrame#stop()
+	 */
+	@Override
+	public void stop() {
+		super.stop();
+		this.predictor.stop();
 	}
 	
 	/* (non-Javadoc)
@@ -335,8 +370,7 @@ public final class Billiards extends SimulationFrame {
 				this.shoot.setHasBeenHandled(true);
 
 				if (this.power > 0.0) {
-					Vector2 v = new Vector2(this.cueStick.getTransform().getRotationAngle());
-					v.multiply(this.power * 10.0);
+					Vector2 v = this.getShotVelocity();
 					this.cueBall.setAtRest(false);
 					this.cueBall.setLinearVelocity(v);
 					this.power = 0.0;
@@ -24,12 +24,15 @@
  */
 package org.dyn4j.samples;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Vector2;
+import org.dyn4j.samples.framework.BulkBodyLoader;
 import org.dyn4j.samples.framework.Camera;
 import org.dyn4j.samples.framework.SimulationBody;
 import org.dyn4j.samples.framework.SimulationFrame;
@@ -38,7 +41,7 @@ import org.dyn4j.samples.framework.SimulationFrame;
  * A scene where we fill a "bucket" with shapes.
  * @author William Bittle
  * @since 5.0.0
- * @version 4.1.1
+ * @version 5.0.2
  */
 public class Bucket extends SimulationFrame {
 	/** The serial version id */
@@ -49,6 +52,15 @@ public class Bucket extends SimulationFrame {
 	 */
 	public Bucket() {
 		super("Bucket");
+		
+		// the scene has no state outside of the world
+		this.setSnapshotResetEnabled(true);
+		
+		// select bodies with the right mouse button to delete them
+		this.setMouseSelectionEnabled(true);
+		
+		// everything falls asleep once it settles
+		this.setIdleRenderSkippingEnabled(true);
 	}
 	
 	/**
@@ -87,6 +99,7 @@ public class Bucket extends SimulationFrame {
 	    double maxSize = 0.6;
 	    double minSize = 0.2;
 	    
+	    List<SimulationBody> bodies = new ArrayList<SimulationBody>();
 	    for (int i = 0; i < 1000; i++) {
 	    	double size = r.nextDouble() * maxSize + minSize;
 	    	
@@ -110,8 +123,10 @@ public class Bucket extends SimulationFrame {
 		    b.addFixture(c);
 		    b.translate(new Vector2(x, y));
 		    b.setMass(MassType.NORMAL);
-		    world.addBody(b);
+		    bodies.add(b);
 	    }
+	    
+	    BulkBodyLoader.addBodies(world, bodies);
 	}
 	
 	/* (non-Javadoc)
@@ -124,6 +139,28 @@ public class Bucket extends SimulationFrame {
 		camera.offsetY = -200;
 	}
 	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.SimulationFrame#onBodySelected(org.dyn4j.samples.framework.SimulationBody)
+	 */
+	@Override
+	protected boolean onBodySelected(SimulationBody body) {
+		// leave the bucket alone
+		if (!body.getMass().isInfinite()) {
+			this.getMutationQueue().removeBody(body);
+		}
+		return true;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.SimulationFrame#printControls()
+	 */
+	@Override
+	protected void printControls() {
+		super.printControls();
+		
+		printControl("Delete", "RMB", "Click & drag the right mouse button to delete the boxed objects");
+	}
+	
 	/**
 	 * Entry point for the example application.
 	 * @param args command line arguments
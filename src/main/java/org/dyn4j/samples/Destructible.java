@@ -24,22 +24,16 @@
  */
 package org.dyn4j.samples;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import org.dyn4j.dynamics.Body;
 import org.dyn4j.dynamics.contact.Contact;
-import org.dyn4j.dynamics.joint.Joint;
 import org.dyn4j.dynamics.joint.WeldJoint;
-import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.MassType;
-import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
-import org.dyn4j.geometry.Wound;
 import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.Fracturer;
 import org.dyn4j.samples.framework.SimulationBody;
 import org.dyn4j.samples.framework.SimulationFrame;
+import org.dyn4j.samples.framework.TagIndex;
 import org.dyn4j.world.ContactCollisionData;
 import org.dyn4j.world.listener.ContactListener;
 import org.dyn4j.world.listener.ContactListenerAdapter;
@@ -53,6 +47,12 @@ import org.dyn4j.world.listener.ContactListenerAdapter;
 public class Destructible extends SimulationFrame {
 	private static final long serialVersionUID = -3302959427805814281L;
 
+	/** The tag of the bodies held by the weld joint */
+	private static final int WELDED = 1;
+	
+	/** The tag of the bodies that break the weld joint */
+	private static final int SOLID = 2;
+
 	public Destructible() {
 		super("Destructible");
 	}
@@ -61,82 +61,26 @@ public class Destructible extends SimulationFrame {
 	 * Extends the contact counter to implement the destruction
 	 * of a joint when a contact is encountered.  Normally you would just
 	 * extend the {@link ContactListener} interface.
+	 * <p>
+	 * It's added to the {@link TagIndex} so that it's only called for
+	 * contacts between the welded bodies and the solid ones.
+	 * <p>
+	 * Breaking the icosigon is handled by the {@link Fracturer}.
 	 * @author William Bittle
 	 */
 	public class Destructor extends ContactListenerAdapter<SimulationBody> {
 		/** Used to flag that the joint has been removed */
 		private boolean removed = false;
 		
-		/** Used to flag that the test body has been destroyed */
-		private boolean broken = false;
-		
 		@Override
 		public void begin(ContactCollisionData<SimulationBody> collision, Contact contact) {
 			super.begin(collision, contact);
 			
-			// when a contact is added
+			// when a contact is added between a welded and a solid body
 			if (!this.removed) {
-				Body jb1 = joint.getBody1();
-				Body jb2 = joint.getBody2();
-				Body b1 = collision.getBody1();
-				Body b2 = collision.getBody2();
-				
-				// check the bodies involved
-				if (b2 == jb1 || b2 == jb2 || b1 == jb1 || b1 == jb2) {
-					// remove the joint
-					toDeleteJoints.add(joint);
-					this.removed = true;
-				}
-			}
-			
-			if (!this.broken) {
-				Body b1 = collision.getBody1();
-				Body b2 = collision.getBody2();
-				
-				// check the bodies involved
-				if (b2 == icosigon || b1 == icosigon) {
-					// remove the body from the world
-					toDeleteBodies.add(icosigon);
-					
-					// make the test body into triangles
-					
-					// get the velocity
-					Vector2 v = icosigon.getLinearVelocity().copy();
-					// half the velocity to give the effect of a broken body
-					v.multiply(0.5);
-					
-					Convex convex = icosigon.getFixture(0).getShape();
-					Transform tx = icosigon.getTransform();
-					Vector2 center = convex.getCenter();
-					// we assume its a unit circle polygon to make
-					// tessellation easy
-					Vector2[] vertices = ((Wound) convex).getVertices();
-					int size = vertices.length;
-					for (int i = 0; i < size; i++) {
-						// get the first and second vertices
-						Vector2 p1 = vertices[i];
-						Vector2 p2 = vertices[i + 1 == size ? 0 : i + 1];
-						// create a body for the triangle
-						SimulationBody b = new SimulationBody(icosigon.getColor());
-						b.addFixture(Geometry.createTriangle(p1, p2, center), 1.0, 0.3, 0.0);
-						b.setMass(MassType.NORMAL);
-						// copy over the transform
-						b.setTransform(tx.copy());
-						// copy over the velocity
-						b.setLinearVelocity(v.copy());
-						b.setUserData("Piece" + (i + 1));
-						// add the new body to the world
-						toAddBodies.add(b);
-					}
-					
-					this.broken = true;
-					
-					// set the requires setMass flag
-					world.setUpdateRequired(true);
-					
-					// don't allow the contact
-					collision.getContactConstraint().setEnabled(false);
-				}
+				// remove the joint once the step is complete
+				getMutationQueue().removeJoint(joint);
+				this.removed = true;
 			}
 		}
 	}
@@ -153,11 +97,8 @@ public class Destructible extends SimulationFrame {
 	/** The destrution class */
 	private Destructor destructor;
 	
-	// buffer the deletes/adds
-	
-	private List<Joint<SimulationBody>> toDeleteJoints = new ArrayList<Joint<SimulationBody>>();
-	private List<SimulationBody> toDeleteBodies = new ArrayList<SimulationBody>();
-	private List<SimulationBody> toAddBodies = new ArrayList<SimulationBody>();
+	/** Breaks the icosigon; kept across resets so the fragments are reused */
+	private final Fracturer fracturer = new Fracturer(this.world);
 	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.samples.framework.SimulationFrame#initializeWorld()
@@ -170,6 +111,7 @@ public class Destructible extends SimulationFrame {
 		this.floor.addFixture(Geometry.createRectangle(15.0, 1.0));
 		this.floor.setMass(MassType.INFINITE);
 		this.floor.setUserData("Floor");
+		this.floor.setTags(SOLID);
 		
 		// create the weld joint bodies
 		SimulationBody top = new SimulationBody();
@@ -178,12 +120,14 @@ public class Destructible extends SimulationFrame {
 		top.translate(0.0, 3.0);
 		top.getLinearVelocity().set(2.0, 0.0);
 		top.setUserData("Top");
+		top.setTags(WELDED);
 		
 		SimulationBody bot = new SimulationBody();
 		bot.addFixture(Geometry.createRectangle(0.5, 1.0));
 		bot.setMass(MassType.NORMAL);
 		bot.translate(0.0, 2.0);
 		bot.setUserData("Bottom");
+		bot.setTags(WELDED);
 		
 		this.joint = new WeldJoint<SimulationBody>(top, bot, new Vector2(0.0, 2.5));
 		this.joint.setUserData("WeldJoint1");
@@ -193,15 +137,25 @@ public class Destructible extends SimulationFrame {
 		this.icosigon.setMass(MassType.NORMAL);
 		this.icosigon.translate(-2.5, 2.0);
 		this.icosigon.setUserData("Icosigon");
+		this.icosigon.setTags(SOLID);
 		
 		this.destructor = new Destructor();
 		
+		// break the icosigon on any meaningful impact and
+		// half the velocity to give the effect of a broken body
+		this.fracturer.clear();
+		this.fracturer.setFragmentVelocityScale(0.5);
+		this.fracturer.setFragmentLifetime(0.0);
+		this.fracturer.addFracturable(this.icosigon, 1.0);
+		
 		this.world.addBody(this.floor);
 		this.world.addBody(this.icosigon);
 		this.world.addBody(top);
 		this.world.addBody(bot);
 		this.world.addJoint(this.joint);
-		this.world.addContactListener(this.destructor);
+		this.getTagIndex().addContactListener(WELDED, SOLID, this.destructor);
+		this.world.addContactListener(this.fracturer);
+		this.world.addStepListener(this.fracturer);
 	}
 	
 	/* (non-Javadoc)
@@ -213,29 +167,6 @@ public class Destructible extends SimulationFrame {
 		camera.scale = 64.0;
 	}
 	
-	/* (non-Javadoc)
-	 * @see org.dyn4j.samples.framework.SimulationFrame#handleEvents()
-	 */
-	@Override
-	protected void handleEvents() {
-		super.handleEvents();
-		
-		for (Joint<SimulationBody> joint : this.toDeleteJoints) {
-			this.world.removeJoint(joint);
-		}
-		this.toDeleteJoints.clear();
-		
-		for (SimulationBody body : this.toDeleteBodies) {
-			this.world.removeBody(body);
-		}
-		this.toDeleteBodies.clear();
-		
-		for (SimulationBody body : this.toAddBodies) {
-			this.world.addBody(body);
-		}
-		this.toAddBodies.clear();
-	}
-	
 	/**
 	 * Entry point for the example application.
 	 * @param args command line arguments
@@ -39,6 +39,7 @@ import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Rectangle;
 import org.dyn4j.geometry.Vector2;
 import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.RenderBackend;
 import org.dyn4j.samples.framework.SimulationBody;
 import org.dyn4j.samples.framework.SimulationFrame;
 
@@ -116,6 +117,30 @@ public class Images extends SimulationFrame {
 				super.renderFixture(g, scale, fixture, color);
 			}
 		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.SimulationBody#renderFixture(org.dyn4j.samples.framework.RenderBackend, double, org.dyn4j.dynamics.BodyFixture, java.awt.Color)
+		 */
+		@Override
+		protected void renderFixture(RenderBackend backend, double scale, BodyFixture fixture, Color color) {
+			if (this.image != null) {
+				Convex convex = fixture.getShape();
+				if (convex instanceof Rectangle) {
+					Rectangle r = (Rectangle)convex;
+					Vector2 c = r.getCenter();
+					double w = r.getWidth();
+					double h = r.getHeight();
+					backend.image(CRATE, c.x - w / 2.0, c.y - h / 2.0, w, h, this.transform);
+				} else if (convex instanceof Circle) {
+					Circle c = (Circle) convex;
+					double r = c.getRadius();
+					Vector2 cc = c.getCenter();
+					backend.image(BASKETBALL, cc.x - r, cc.y - r, r * 2, r * 2, this.transform);
+				}
+			} else {
+				super.renderFixture(backend, scale, fixture, color);
+			}
+		}
 	}
 	
 	/**
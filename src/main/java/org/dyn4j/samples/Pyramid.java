@@ -35,7 +35,7 @@ import org.dyn4j.samples.framework.SimulationFrame;
  * A scene where we build a Pyramid of blocks.
  * @author William Bittle
  * @since 5.0.0
- * @version 4.1.1
+ * @version 5.0.2
  */
 public class Pyramid extends SimulationFrame {
 	/** The serial version id */
@@ -46,6 +46,12 @@ public class Pyramid extends SimulationFrame {
 	 */
 	public Pyramid() {
 		super("Pyramid");
+		
+		// the scene has no state outside of the world
+		this.setSnapshotResetEnabled(true);
+		
+		// everything falls asleep once it settles
+		this.setIdleRenderSkippingEnabled(true);
 	}
 	
 	/* (non-Javadoc)
@@ -26,11 +26,13 @@ package org.dyn4j.samples;
 
 import java.awt.event.MouseEvent;
 
+import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Vector2;
 import org.dyn4j.samples.framework.Camera;
 import org.dyn4j.samples.framework.SimulationBody;
+import org.dyn4j.samples.framework.SimulationBodyPool;
 import org.dyn4j.samples.framework.SimulationFrame;
 import org.dyn4j.samples.framework.input.BooleanStateMouseInputHandler;
 
@@ -44,8 +46,14 @@ public class Stacking extends SimulationFrame {
 	/** The serial version id */
 	private static final long serialVersionUID = -1366264828445805140L;
 
+	/** The shape shared by all the boxes */
+	private static final Convex BOX = Geometry.createSquare(0.5);
+	
 	private final BooleanStateMouseInputHandler create;
 	
+	/** The created boxes; reused across resets */
+	private final SimulationBodyPool<SimulationBody> boxes;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -55,6 +63,16 @@ public class Stacking extends SimulationFrame {
 		this.create = new BooleanStateMouseInputHandler(this.canvas, MouseEvent.BUTTON3);
 		
 		this.create.install();
+		
+		this.boxes = new SimulationBodyPool<SimulationBody>(this.world, new SimulationBodyPool.Factory<SimulationBody>() {
+			@Override
+			public SimulationBody create() {
+				SimulationBody box = new SimulationBody();
+				box.addFixture(BOX, 1.0, 0.8, 0.0);
+				box.setMass(MassType.NORMAL);
+				return box;
+			}
+		});
 	}
 	
 	/* (non-Javadoc)
@@ -70,6 +88,9 @@ public class Stacking extends SimulationFrame {
 	 * Creates game objects and adds them to the world.
 	 */
 	protected void initializeWorld() {
+		// any boxes from before a reset can be reused
+		this.boxes.releaseAll();
+		
 		SimulationBody floor = new SimulationBody();
 	    floor.addFixture(Geometry.createRectangle(20, 1), 1.0, 0.5, 0.0);
 	    floor.setMass(MassType.INFINITE);
@@ -99,11 +120,9 @@ public class Stacking extends SimulationFrame {
 			// convert from screen space to world space coordinates
 			Vector2 v = this.toWorldCoordinates(this.create.getMouseLocation());
 			
-			// create a new body
-			SimulationBody no = new SimulationBody();
-			no.addFixture(Geometry.createSquare(0.5), 1.0, 0.8, 0.0);
+			// get a new or reused body
+			SimulationBody no = this.boxes.obtain();
 			no.translate(v.x, v.y);
-			no.setMass(MassType.NORMAL);
 			this.world.addBody(no);
 		}
 	}
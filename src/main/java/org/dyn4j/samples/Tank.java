@@ -29,7 +29,7 @@ import java.awt.Graphics2D;
 import java.awt.event.KeyEvent;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
-import java.util.List;
+import java.util.Iterator;
 
 import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.joint.FrictionJoint;
@@ -38,8 +38,10 @@ import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.Interval;
 import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.RaycastBatch;
 import org.dyn4j.samples.framework.SimulationBody;
 import org.dyn4j.samples.framework.SimulationFrame;
 import org.dyn4j.samples.framework.input.BooleanStateKeyboardInputHandler;
@@ -50,14 +52,15 @@ import org.dyn4j.world.result.RaycastResult;
 /**
  * A scene were a player controled tank raycasts against the world.
  * @author William Bittle
- * @version 5.0.1
+ * @version 5.0.2
  * @since 3.0.0
  */
 public class Tank extends SimulationFrame {
 	/** The serial version id */
 	private static final long serialVersionUID = 1462952703366297615L;
 
-	private static final Object INDESTRUCTIBLE = new Object();
+	/** The tag of bodies shots pass through */
+	private static final int INDESTRUCTIBLE = 1;
 	
 	// controls
 	private final BooleanStateKeyboardInputHandler driveForward;
@@ -71,6 +74,21 @@ public class Tank extends SimulationFrame {
 	private SimulationBody tank;
 	private SimulationBody barrel;
 	
+	/** The filter for the turret's line of sight */
+	private final DetectFilter<SimulationBody, BodyFixture> sightFilter;
+	
+	/** Casts the shots */
+	private final RaycastBatch shots;
+	
+	/** The ray out of the barrel, reused for the sight and the shots */
+	private final Ray[] rays;
+	
+	/** The start of the ray */
+	private final Vector2 rayStart;
+	
+	/** The direction of the ray */
+	private final Vector2 rayDirection;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -92,6 +110,21 @@ public class Tank extends SimulationFrame {
 		this.rotateTurretLeft.install();
 		this.rotateTurretRight.install();
 		this.shoot.install();
+		
+		this.sightFilter = new DetectFilter<SimulationBody, BodyFixture>(true, true, null);
+		
+		this.shots = new RaycastBatch(this.world);
+		this.shots.setFilter(new DetectFilter<SimulationBody, BodyFixture>(true, true, null) {
+			@Override
+			public boolean isAllowed(SimulationBody body, BodyFixture fixture) {
+				boolean isAllowed = super.isAllowed(body, fixture);
+				return isAllowed && !body.hasAnyTag(INDESTRUCTIBLE);
+			}
+		});
+		
+		this.rayStart = new Vector2();
+		this.rayDirection = new Vector2(0.0, 1.0);
+		this.rays = new Ray[] { new Ray(this.rayDirection) };
 	}
 	
 	/* (non-Javadoc)
@@ -137,7 +170,7 @@ public class Tank extends SimulationFrame {
 
 	    // Circle
 	    SimulationBody circle = new SimulationBody();
-	    circle.setUserData(INDESTRUCTIBLE);
+	    circle.setTags(INDESTRUCTIBLE);
 	    circle.addFixture(Geometry.createCircle(0.5));
 	    circle.translate(new Vector2(3.2, 3.5));
 	    circle.setMass(MassType.INFINITE);
@@ -213,10 +246,7 @@ public class Tank extends SimulationFrame {
 		final double scale = this.getCameraScale();
 		final double length = 100;
 		
-		Vector2 start = this.barrel.getTransform().getTransformed(new Vector2(0.0, 0.55));
-		Vector2 direction = this.barrel.getTransform().getTransformedR(new Vector2(0.0, 1.0));
-		
-		Ray ray = new Ray(start, direction);
+		Ray ray = this.aim();
 		g.setColor(Color.RED);
 		g.draw(new Line2D.Double(
 				ray.getStart().x * scale, 
@@ -224,8 +254,11 @@ public class Tank extends SimulationFrame {
 				ray.getStart().x * scale + ray.getDirectionVector().x * length * scale, 
 				ray.getStart().y * scale + ray.getDirectionVector().y * length * scale));
 		
-		List<RaycastResult<SimulationBody, BodyFixture>> results = this.world.raycast(ray, length, new DetectFilter<SimulationBody, BodyFixture>(true, true, null));
-		for (RaycastResult<SimulationBody, BodyFixture> result : results) {
+		// every hit along the ray, not just the closest
+		Iterator<RaycastResult<SimulationBody, BodyFixture>> it = this.world.raycastIterator(ray, length, this.sightFilter);
+		while (it.hasNext()) {
+			RaycastResult<SimulationBody, BodyFixture> result = it.next();
+			
 			// draw the intersection
 			Vector2 point = result.getRaycast().getPoint();
 			g.setColor(Color.GREEN);
@@ -243,6 +276,23 @@ public class Tank extends SimulationFrame {
 		}
 	}
 	
+	/**
+	 * Points the reused ray out of the end of the barrel and returns it.
+	 * @return {@link Ray}
+	 */
+	private Ray aim() {
+		Transform tx = this.barrel.getTransform();
+		this.rayStart.set(0.0, 0.55);
+		tx.transform(this.rayStart);
+		this.rayDirection.set(0.0, 1.0);
+		tx.transformR(this.rayDirection);
+		
+		Ray ray = this.rays[0];
+		ray.setStart(this.rayStart);
+		ray.setDirection(this.rayDirection);
+		return ray;
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.samples.framework.SimulationFrame#handleEvents()
 	 */
@@ -309,21 +359,9 @@ public class Tank extends SimulationFrame {
 			this.shoot.setHasBeenHandled(true);
 			final double length = 100;
 			
-			Vector2 start = this.barrel.getTransform().getTransformed(new Vector2(0.0, 0.55));
-			Vector2 direction = this.barrel.getTransform().getTransformedR(new Vector2(0.0, 1.0));
-			
-			Ray ray = new Ray(start, direction);
-			RaycastResult<SimulationBody, BodyFixture> result = 
-					this.world.raycastClosest(ray, length, new DetectFilter<SimulationBody, BodyFixture>(true, true, null) {
-						@Override
-						public boolean isAllowed(SimulationBody body, BodyFixture fixture) {
-							boolean isAllowed = super.isAllowed(body, fixture);
-							return isAllowed && body.getUserData() != INDESTRUCTIBLE;
-						}
-					});
-			
-			if (result != null) {
-				this.world.removeBody(result.getBody());
+			this.aim();
+			if (this.shots.cast(this.rays, 1, length) > 0) {
+				this.getMutationQueue().removeBody(this.shots.getBody(0));
 			}
 		}
 	}
@@ -24,89 +24,62 @@
  */
 package org.dyn4j.samples;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.dyn4j.dynamics.BodyFixture;
-import org.dyn4j.dynamics.contact.Contact;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Vector2;
+import org.dyn4j.samples.framework.AsyncLogger;
 import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.ContactTracker;
 import org.dyn4j.samples.framework.SimulationBody;
 import org.dyn4j.samples.framework.SimulationFrame;
-import org.dyn4j.world.ContactCollisionData;
-import org.dyn4j.world.listener.ContactListenerAdapter;
 
 /**
  * A simple scene with a few shape types that tracks the creation,
  * persistence and removal of contacts by using their unique ids.
  * @author William Bittle
- * @version 5.0.0
+ * @version 5.0.2
  * @since 3.0.0
  */
 public class Tracking extends SimulationFrame {
 	/** The serial version id */
 	private static final long serialVersionUID = -7551190289570564575L;
 
-	/**
-	 * A simple class to generate "id"s.
-	 * @author William Bittle
-	 * @version 4.1.1
-	 * @since 4.1.1
-	 */
-	private class IdGenerator {
-		private long lastId = -1;
-		public final Object getId() {
-			return Long.valueOf(++lastId);
-		}
-	}
-	
 	// contact listening
 	
-	/** A mapping of contact id to UUID */
-	private final Map<Contact, Object> idTracking = new HashMap<Contact, Object>();
-	
-	/** The id generator */
-	private final IdGenerator idGenerator = new IdGenerator();
+	/** The contact tracker */
+	private final ContactTracker contacts = new ContactTracker();
 	
 	/**
-	 * A custom contact listener for tracking contacts.
+	 * Logs the contact events after each step.
 	 * @author William Bittle
-	 * @version 3.2.1
-	 * @since 3.2.1
+	 * @version 5.0.2
+	 * @since 5.0.2
 	 */
-	private class CustomContactListener extends ContactListenerAdapter<SimulationBody> {
-		@Override
-		public void begin(ContactCollisionData<SimulationBody> collision, Contact contact) {
-			Object id = idGenerator.getId();
-			idTracking.put(contact, id);
-			System.out.println("BEGIN: " + id);
-		}
+	private static class ContactPrinter implements ContactTracker.EventHandler {
+		/** The logger */
+		private final AsyncLogger logger = AsyncLogger.getDefault();
+		
+		/** The begin log format */
+		private final int beginFormat = this.logger.register("BEGIN: %d");
+		
+		/** The end log format */
+		private final int endFormat = this.logger.register("END: %d (%d steps)");
 		
 		@Override
-		public void persist(ContactCollisionData<SimulationBody> collision, Contact oldContact, Contact newContact) {
-			Object id = idTracking.get(oldContact);
-			if (id == null) {
-				System.err.println("Shouldn't happen");
-			}
-			// since the contact object itself changes between iterations
-			// remove the old contact and add the new contact with the same id
-			idTracking.remove(oldContact);
-			idTracking.put(newContact, id);
+		public void begin(long id, long step) {
+			this.logger.log(this.beginFormat, id);
 		}
 		
 		@Override
-		public void end(ContactCollisionData<SimulationBody> collision, Contact contact) {
-			Object id = idTracking.get(contact);
-			if (id == null) {
-				System.err.println("Shouldn't happen");
-			}
-			System.out.println("END: " + id);
-			idTracking.remove(contact);
+		public void end(long id, long step, long lifetime) {
+			this.logger.log(this.endFormat, id, lifetime);
 		}
 	}
 	
+	/** The contact event printer */
+	private final ContactPrinter printer = new ContactPrinter();
+	
 	/**
 	 * Default constructor.
 	 */
@@ -202,8 +175,22 @@ public class Tracking extends SimulationFrame {
 		rightTri.translate(4.0, 3.0);
 		this.world.addBody(rightTri);
 		
-		// attach the contact listener
-		this.world.addContactListener(new CustomContactListener());
+		// attach the contact tracker
+		this.contacts.clear();
+		this.contacts.setLoggingEnabled(true);
+		this.world.addContactListener(this.contacts);
+		this.world.addStepListener(this.contacts);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.SimulationFrame#handleEvents()
+	 */
+	@Override
+	protected void handleEvents() {
+		super.handleEvents();
+		
+		// print the events from the last step outside of it
+		this.contacts.drainEvents(this.printer);
 	}
 	
 	/* (non-Javadoc)
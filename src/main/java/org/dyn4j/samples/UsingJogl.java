@@ -25,21 +25,27 @@
 package org.dyn4j.samples;
 
 import java.awt.Dimension;
+import java.awt.Image;
+import java.nio.ByteBuffer;
 
 import javax.swing.JFrame;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
-import org.dyn4j.dynamics.Body;
 import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.world.World;
-import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Polygon;
 import org.dyn4j.geometry.Rectangle;
+import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Triangle;
 import org.dyn4j.geometry.Vector2;
+import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.RenderBackend;
+import org.dyn4j.samples.framework.RenderCommandBuffer;
+import org.dyn4j.samples.framework.SimulationBody;
+import org.dyn4j.samples.framework.VertexPacker;
 
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
@@ -56,7 +62,7 @@ import com.jogamp.opengl.util.Animator;
  * <p>
  * This class can be used as a starting point for projects.
  * @author William Bittle
- * @version 3.2.0
+ * @version 5.0.2
  * @since 3.0.0
  */
 public class UsingJogl extends JFrame implements GLEventListener {
@@ -70,78 +76,130 @@ public class UsingJogl extends JFrame implements GLEventListener {
 	public static final double NANO_TO_BASE = 1.0e9;
 	
 	/**
-	 * Custom Body class to add drawing functionality.
+	 * A {@link RenderBackend} drawing with OpenGL, so that the same
+	 * {@link SimulationBody} drawing code used with Java2D works here.
+	 * <p>
+	 * Uses immediate mode to keep the example short; the color is only set
+	 * when it changes.  Images aren't loaded into textures, so they're drawn
+	 * as gray rectangles.
 	 * @author William Bittle
-	 * @version 3.0.2
-	 * @since 3.0.0
+	 * @version 5.0.2
+	 * @since 5.0.2
 	 */
-	public static class GameObject extends Body {
-		/** The color of the object */
-		protected float[] color = new float[4];
+	public static class GLBackend implements RenderBackend {
+		/** The number of segments used for circles */
+		private static final int CIRCLE_SEGMENTS = 24;
+		
+		/** The color images are drawn with */
+		private static final int IMAGE_COLOR = 0xFF808080;
+		
+		/** The corners of the last image drawn */
+		private final Vector2[] corners = new Vector2[] { new Vector2(), new Vector2(), new Vector2(), new Vector2() };
+		
+		/** The OpenGL context */
+		private GL2 gl;
+		
+		/** The current color */
+		private int color;
+		
+		/** True if the color has been set since the context was set */
+		private boolean colorSet;
 		
 		/**
-		 * Default constructor.
+		 * Sets the OpenGL context to draw with.
+		 * @param gl the OpenGL context
 		 */
-		public GameObject() {
-			// randomly generate the color
-			this.color[0] = (float)Math.random() * 0.5f + 0.5f;
-			this.color[1] = (float)Math.random() * 0.5f + 0.5f;
-			this.color[2] = (float)Math.random() * 0.5f + 0.5f;
-			this.color[3] = 1.0f;
+		public void setGL(GL2 gl) {
+			this.gl = gl;
+			this.colorSet = false;
 		}
 		
-		/**
-		 * Draws the body.
-		 * <p>
-		 * Only coded for polygons.
-		 * @param gl the OpenGL graphics context
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.RenderBackend#circle(double, double, double, int, boolean)
 		 */
-		public void render(GL2 gl) {
-			// save the original transform
-			gl.glPushMatrix();
-			
-			// transform the coordinate system from world coordinates to local coordinates	
-			gl.glTranslated(this.transform.getTranslationX(), this.transform.getTranslationY(), 0.0);
-			// rotate about the z-axis
-			gl.glRotated(Math.toDegrees(this.transform.getRotationAngle()), 0.0, 0.0, 1.0);
-			
-			// loop over all the body fixtures for this body
-			for (BodyFixture fixture : this.fixtures) {
-				// get the shape on the fixture
-				Convex convex = fixture.getShape();
-				// check the shape type
-				if (convex instanceof Polygon) {
-					// since Triangle, Rectangle, and Polygon are all of
-					// type Polygon in addition to their main type
-					Polygon p = (Polygon) convex;
-					
-					// set the color
-					gl.glColor4fv(this.color, 0);
-					
-					// fill the shape
-					gl.glBegin(GL2.GL_POLYGON);
-					for (Vector2 v : p.getVertices()) {
-						gl.glVertex3d(v.x, v.y, 0.0);
-					}
-					gl.glEnd();
-					
-					// set the color
-					gl.glColor4f(this.color[0] * 0.8f, this.color[1] * 0.8f, this.color[2] * 0.8f, 1.0f);
-					
-					// draw the shape
-					gl.glBegin(GL.GL_LINE_LOOP);
-					for (Vector2 v : p.getVertices()) {
-						gl.glVertex3d(v.x, v.y, 0.0);
-					}
-					gl.glEnd();
-				}
-				// circles and other curved shapes require a little more work, so to keep
-				// this example short we only include polygon shapes; see the RenderUtilities
-				// in the Sandbox application
+		@Override
+		public void circle(double x, double y, double radius, int color, boolean fill) {
+			this.setColor(color);
+			this.gl.glBegin(fill ? GL2.GL_TRIANGLE_FAN : GL.GL_LINE_LOOP);
+			for (int i = 0; i < CIRCLE_SEGMENTS; i++) {
+				double a = i * 2.0 * Math.PI / CIRCLE_SEGMENTS;
+				this.gl.glVertex3d(x + Math.cos(a) * radius, y + Math.sin(a) * radius, 0.0);
 			}
+			this.gl.glEnd();
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.RenderBackend#polygon(org.dyn4j.geometry.Vector2[], org.dyn4j.geometry.Transform, int, boolean)
+		 */
+		@Override
+		public void polygon(Vector2[] vertices, Transform transform, int color, boolean fill) {
+			this.setColor(color);
+			this.gl.glBegin(fill ? GL2.GL_POLYGON : GL.GL_LINE_LOOP);
+			for (Vector2 v : vertices) {
+				this.gl.glVertex3d(transform.getTransformedX(v), transform.getTransformedY(v), 0.0);
+			}
+			this.gl.glEnd();
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.RenderBackend#capsule(double, double, double, double, double, int, boolean)
+		 */
+		@Override
+		public void capsule(double x1, double y1, double x2, double y2, double radius, int color, boolean fill) {
+			this.setColor(color);
+			double a = Math.atan2(y2 - y1, x2 - x1);
+			int n = CIRCLE_SEGMENTS / 2;
 			
-			// set the original transform
-			gl.glPopMatrix();
+			// a half circle around each end makes a convex outline
+			this.gl.glBegin(fill ? GL2.GL_POLYGON : GL.GL_LINE_LOOP);
+			for (int i = 0; i <= n; i++) {
+				double t = a - Math.PI * 0.5 + i * Math.PI / n;
+				this.gl.glVertex3d(x2 + Math.cos(t) * radius, y2 + Math.sin(t) * radius, 0.0);
+			}
+			for (int i = 0; i <= n; i++) {
+				double t = a + Math.PI * 0.5 + i * Math.PI / n;
+				this.gl.glVertex3d(x1 + Math.cos(t) * radius, y1 + Math.sin(t) * radius, 0.0);
+			}
+			this.gl.glEnd();
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.RenderBackend#line(double, double, double, double, int)
+		 */
+		@Override
+		public void line(double x1, double y1, double x2, double y2, int color) {
+			this.setColor(color);
+			this.gl.glBegin(GL.GL_LINES);
+			this.gl.glVertex3d(x1, y1, 0.0);
+			this.gl.glVertex3d(x2, y2, 0.0);
+			this.gl.glEnd();
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.RenderBackend#image(java.awt.Image, double, double, double, double, org.dyn4j.geometry.Transform)
+		 */
+		@Override
+		public void image(Image image, double x, double y, double width, double height, Transform transform) {
+			this.corners[0].set(x, y);
+			this.corners[1].set(x + width, y);
+			this.corners[2].set(x + width, y + height);
+			this.corners[3].set(x, y + height);
+			this.polygon(this.corners, transform, IMAGE_COLOR, true);
+		}
+		
+		/**
+		 * Sets the current color if it's different.
+		 * @param color the color as an ARGB int
+		 */
+		private void setColor(int color) {
+			if (this.colorSet && this.color == color) return;
+			this.gl.glColor4ub(
+					(byte)(color >> 16), 
+					(byte)(color >> 8), 
+					(byte)color, 
+					(byte)(color >>> 24));
+			this.color = color;
+			this.colorSet = true;
 		}
 	}
 	
@@ -152,7 +210,22 @@ public class UsingJogl extends JFrame implements GLEventListener {
 	protected Animator animator;
 	
 	/** The dynamics engine */
-	protected World<Body> world;
+	protected World<SimulationBody> world;
+	
+	/** The commands the bodies are drawn into */
+	protected final RenderCommandBuffer commands = new RenderCommandBuffer();
+	
+	/** Draws the commands with OpenGL */
+	protected final GLBackend backend = new GLBackend();
+	
+	/** Packs the triangles of all the bodies into one buffer */
+	protected final VertexPacker packer = new VertexPacker();
+	
+	/** The view used to leave out bodies that can't be seen; matches the transform in render */
+	protected final Camera camera = new Camera();
+	
+	/** True to fill all the bodies with one draw call; false to draw them with outlines through the {@link GLBackend} */
+	protected boolean packed = true;
 	
 	/** The time stamp for the last iteration */
 	protected long last;
@@ -194,6 +267,10 @@ public class UsingJogl extends JFrame implements GLEventListener {
 		
 		// setup the world
 		this.initializeWorld();
+		
+		// the same view as render
+		this.camera.scale = SCALE;
+		this.camera.offsetY = -SCALE;
 	}
 	
 	/**
@@ -204,13 +281,13 @@ public class UsingJogl extends JFrame implements GLEventListener {
 	 */
 	protected void initializeWorld() {
 		// create the world
-		this.world = new World<Body>();
+		this.world = new World<SimulationBody>();
 		
 		// create all your bodies/joints
 		
 		// create the floor
 		Rectangle floorRect = new Rectangle(15.0, 1.0);
-		GameObject floor = new GameObject();
+		SimulationBody floor = new SimulationBody();
 		floor.addFixture(new BodyFixture(floorRect));
 		floor.setMass(MassType.INFINITE);
 		// move the floor down a bit
@@ -222,7 +299,7 @@ public class UsingJogl extends JFrame implements GLEventListener {
 				new Vector2(0.0, 0.5), 
 				new Vector2(-0.5, -0.5), 
 				new Vector2(0.5, -0.5));
-		GameObject triangle = new GameObject();
+		SimulationBody triangle = new SimulationBody();
 		triangle.addFixture(triShape);
 		triangle.setMass(MassType.NORMAL);
 		triangle.translate(-1.0, 2.0);
@@ -232,7 +309,7 @@ public class UsingJogl extends JFrame implements GLEventListener {
 		
 		// try a rectangle
 		Rectangle rectShape = new Rectangle(1.0, 1.0);
-		GameObject rectangle = new GameObject();
+		SimulationBody rectangle = new SimulationBody();
 		rectangle.addFixture(rectShape);
 		rectangle.setMass(MassType.NORMAL);
 		rectangle.translate(0.0, 2.0);
@@ -241,7 +318,7 @@ public class UsingJogl extends JFrame implements GLEventListener {
 		
 		// try a polygon with lots of vertices
 		Polygon polyShape = Geometry.createUnitCirclePolygon(10, 1.0);
-		GameObject polygon = new GameObject();
+		SimulationBody polygon = new SimulationBody();
 		polygon.addFixture(polyShape);
 		polygon.setMass(MassType.NORMAL);
 		polygon.translate(-2.5, 2.0);
@@ -249,19 +326,19 @@ public class UsingJogl extends JFrame implements GLEventListener {
 		polygon.setAngularVelocity(Math.toRadians(-20.0));
 		this.world.addBody(polygon);
 		
-		GameObject issTri = new GameObject();
+		SimulationBody issTri = new SimulationBody();
 		issTri.addFixture(Geometry.createIsoscelesTriangle(1.0, 3.0));
 		issTri.setMass(MassType.NORMAL);
 		issTri.translate(2.0, 3.0);
 		this.world.addBody(issTri);
 		
-		GameObject equTri = new GameObject();
+		SimulationBody equTri = new SimulationBody();
 		equTri.addFixture(Geometry.createEquilateralTriangle(2.0));
 		equTri.setMass(MassType.NORMAL);
 		equTri.translate(3.0, 3.0);
 		this.world.addBody(equTri);
 		
-		GameObject rightTri = new GameObject();
+		SimulationBody rightTri = new SimulationBody();
 		rightTri.addFixture(Geometry.createRightTriangle(2.0, 1.0));
 		rightTri.setMass(MassType.NORMAL);
 		rightTri.translate(4.0, 3.0);
@@ -377,13 +454,49 @@ public class UsingJogl extends JFrame implements GLEventListener {
 		// lets move the view up some
 		gl.glTranslated(0.0, -1.0, 0.0);
 		
-		// draw all the objects in the world
+		if (this.packed) {
+			this.renderPacked(gl);
+			return;
+		}
+		
+		// record all the objects in the world
+		this.commands.clear();
 		for (int i = 0; i < this.world.getBodyCount(); i++) {
 			// get the object
-			GameObject go = (GameObject) this.world.getBody(i);
-			// draw the object
-			go.render(gl);
+			SimulationBody go = this.world.getBody(i);
+			// record the object
+			go.render(this.commands, SCALE);
 		}
+		
+		// and draw them
+		this.backend.setGL(gl);
+		this.commands.replay(this.backend);
+		this.backend.setGL(null);
+	}
+	
+	/**
+	 * Fills all the bodies with one draw call.
+	 * @param gl the OpenGL context
+	 */
+	protected void renderPacked(GL2 gl) {
+		ByteBuffer buffer = this.packer.pack(this.world, this.camera, this.canvas.getWidth(), this.canvas.getHeight());
+		int count = this.packer.getVertexCount();
+		if (count == 0) return;
+		
+		gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+		
+		// the x, y floats and the color bytes are interleaved
+		buffer.position(0);
+		gl.glVertexPointer(2, GL.GL_FLOAT, VertexPacker.VERTEX_SIZE, buffer);
+		buffer.position(VertexPacker.COLOR_OFFSET);
+		gl.glColorPointer(4, GL.GL_UNSIGNED_BYTE, VertexPacker.VERTEX_SIZE, buffer);
+		buffer.position(0);
+		
+		gl.glDrawArrays(GL.GL_TRIANGLES, 0, count);
+		
+		gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
+		gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
 	}
 	
 	/**
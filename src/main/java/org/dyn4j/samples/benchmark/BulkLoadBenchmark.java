@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.samples.framework.BulkBodyLoader;
+import org.dyn4j.samples.framework.SimulationBody;
+import org.dyn4j.world.World;
+
+/**
+ * Compares adding bodies one at a time against the {@link BulkBodyLoader}
+ * using scaled up versions of the Bucket, Pyramid and Stacking scenes.
+ * <p>
+ * Both the time to add the bodies and the time of the first step are
+ * reported since the order bodies are added in affects the broad-phase.
+ * The number of bodies per scene can be given as the first argument.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class BulkLoadBenchmark {
+	/** The default number of bodies per scene */
+	private static final int DEFAULT_BODY_COUNT = 50000;
+	
+	/** The number of untimed runs */
+	private static final int WARMUP_RUNS = 2;
+	
+	/** The number of timed runs */
+	private static final int TIMED_RUNS = 5;
+	
+	/**
+	 * Builds the bodies of a scene.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static interface Scene {
+		/**
+		 * Returns the name of the scene.
+		 * @return String
+		 */
+		public String getName();
+		
+		/**
+		 * Returns new bodies for the scene.
+		 * @param count the approximate number of bodies
+		 * @return List&lt;SimulationBody&gt;
+		 */
+		public List<SimulationBody> create(int count);
+	}
+	
+	/** Random boxes and circles dropped into a wide bucket */
+	private static final Scene BUCKET = new Scene() {
+		public String getName() {
+			return "Bucket";
+		}
+		
+		public List<SimulationBody> create(int count) {
+			List<SimulationBody> bodies = new ArrayList<SimulationBody>(count);
+			Random r = new Random(23);
+			double width = Math.sqrt(count) * 0.75;
+			for (int i = 0; i < count; i++) {
+				double size = r.nextDouble() * 0.6 + 0.2;
+				Convex c = r.nextBoolean() ? Geometry.createSquare(size) : Geometry.createCircle(size * 0.5);
+				SimulationBody b = new SimulationBody();
+				b.addFixture(c);
+				b.translate(r.nextDouble() * width, r.nextDouble() * width);
+				b.setMass(MassType.NORMAL);
+				bodies.add(b);
+			}
+			return bodies;
+		}
+	};
+	
+	/** One large pyramid of blocks */
+	private static final Scene PYRAMID = new Scene() {
+		public String getName() {
+			return "Pyramid";
+		}
+		
+		public List<SimulationBody> create(int count) {
+			List<SimulationBody> bodies = new ArrayList<SimulationBody>(count);
+			double size = 0.5;
+			int ph = (int)Math.sqrt(2.0 * count);
+			for (int i = 0; i < ph; i++) {
+				for (int j = 0; j < ph - i; j++) {
+					SimulationBody b = new SimulationBody();
+					b.addFixture(Geometry.createSquare(size), 5.0, 0.5, 0.0);
+					b.translate(j * size - (ph - i) * size * 0.5, 0.5 + size / 2.0 + i * size);
+					b.setMass(MassType.NORMAL);
+					bodies.add(b);
+				}
+			}
+			return bodies;
+		}
+	};
+	
+	/** Rows of box stacks */
+	private static final Scene STACKING = new Scene() {
+		public String getName() {
+			return "Stacking";
+		}
+		
+		public List<SimulationBody> create(int count) {
+			List<SimulationBody> bodies = new ArrayList<SimulationBody>(count);
+			Convex box = Geometry.createSquare(0.5);
+			int height = 20;
+			int stacks = count / height;
+			for (int i = 0; i < stacks; i++) {
+				for (int j = 0; j < height; j++) {
+					SimulationBody b = new SimulationBody();
+					b.addFixture(box);
+					b.translate(i * 0.75, 0.25 + j * 0.5);
+					b.setMass(MassType.NORMAL);
+					bodies.add(b);
+				}
+			}
+			return bodies;
+		}
+	};
+	
+	/**
+	 * Creates a world with the scene's bodies and returns the time taken to
+	 * add them and take the first step in nanoseconds.
+	 * @param scene the scene
+	 * @param count the number of bodies
+	 * @param bulk true to use the {@link BulkBodyLoader}
+	 * @return long[] the add time and the step time
+	 */
+	private static long[] run(Scene scene, int count, boolean bulk) {
+		List<SimulationBody> bodies = scene.create(count);
+		World<SimulationBody> world = new World<SimulationBody>();
+		world.setGravity(World.EARTH_GRAVITY);
+		
+		long t0 = System.nanoTime();
+		if (bulk) {
+			BulkBodyLoader.addBodies(world, bodies);
+		} else {
+			for (int i = 0; i < bodies.size(); i++) {
+				world.addBody(bodies.get(i));
+			}
+		}
+		long t1 = System.nanoTime();
+		world.step(1);
+		long t2 = System.nanoTime();
+		
+		return new long[] { t1 - t0, t2 - t1 };
+	}
+	
+	/**
+	 * Runs the given scene both ways and prints the average times.
+	 * @param scene the scene
+	 * @param count the number of bodies
+	 */
+	private static void benchmark(Scene scene, int count) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			run(scene, count, false);
+			run(scene, count, true);
+		}
+		
+		long[] sequential = new long[2];
+		long[] bulk = new long[2];
+		for (int i = 0; i < TIMED_RUNS; i++) {
+			long[] s = run(scene, count, false);
+			long[] b = run(scene, count, true);
+			sequential[0] += s[0];
+			sequential[1] += s[1];
+			bulk[0] += b[0];
+			bulk[1] += b[1];
+		}
+		
+		System.out.println(String.format("%-10s %-10s %10.1f %10.1f %10.1f", scene.getName(), "addBody", ms(sequential[0]), ms(sequential[1]), ms(sequential[0] + sequential[1])));
+		System.out.println(String.format("%-10s %-10s %10.1f %10.1f %10.1f", scene.getName(), "bulk", ms(bulk[0]), ms(bulk[1]), ms(bulk[0] + bulk[1])));
+	}
+	
+	/**
+	 * Returns the average time of a timed run in milliseconds.
+	 * @param nanos the total time in nanoseconds
+	 * @return double
+	 */
+	private static double ms(long nanos) {
+		return nanos / 1.0e6 / TIMED_RUNS;
+	}
+	
+	/**
+	 * Entry point for the benchmark.
+	 * @param args the number of bodies per scene (optional)
+	 */
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BODY_COUNT;
+		
+		System.out.println(String.format("%-10s %-10s %10s %10s %10s", "Scene", "Method", "Add (ms)", "Step (ms)", "Total (ms)"));
+		benchmark(BUCKET, count);
+		benchmark(PYRAMID, count);
+		benchmark(STACKING, count);
+	}
+}
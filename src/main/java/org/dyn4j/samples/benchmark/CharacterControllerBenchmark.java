@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.benchmark;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.dyn4j.dynamics.TimeStep;
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.samples.framework.CharacterController;
+import org.dyn4j.samples.framework.CharacterControllers;
+import org.dyn4j.samples.framework.SimulationBody;
+import org.dyn4j.world.ContactCollisionData;
+import org.dyn4j.world.PhysicsWorld;
+import org.dyn4j.world.World;
+import org.dyn4j.world.listener.ContactListenerAdapter;
+import org.dyn4j.world.listener.StepListenerAdapter;
+
+/**
+ * Compares tracking the ground and one-way platforms for many characters by
+ * looking at every contact, as the Platformer sample used to, against the
+ * {@link CharacterControllers}.
+ * <p>
+ * The scene is a floor with rows of one-way platforms, the characters and a
+ * pile of boxes that have nothing to do with the characters.  Like the NPCs of
+ * a level, the characters don't roll, a quarter of them walk back and forth and
+ * the rest stand still.  The average step time is reported with no character
+ * handling and with each method.  Since the rest of the step is much more
+ * expensive and noisy than the character handling, the time spent in each
+ * method's listeners is also timed directly by listeners added before and
+ * after them; the cost of the timing itself is taken from the run without
+ * character handling.  Each is the best of a few runs.  The number of
+ * characters can be given as the first argument.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class CharacterControllerBenchmark {
+	/** The default character counts to run */
+	private static final int[] CHARACTER_COUNTS = new int[] { 100, 300, 1000 };
+
+	/** The number of boxes */
+	private static final int BOX_COUNT = 500;
+
+	/** The number of untimed steps */
+	private static final int WARMUP_STEPS = 120;
+
+	/** The number of timed steps */
+	private static final int TIMED_STEPS = 300;
+
+	/** The number of runs of each method; the best is reported */
+	private static final int RUNS = 5;
+
+	/** The number of steps a walking character walks each way */
+	private static final int WALK_STEPS = 120;
+
+	/** The floor type and tag */
+	private static final int FLOOR = 1;
+
+	/** The one-way platform type and tag */
+	private static final int ONE_WAY_PLATFORM = 2;
+
+	/** The user data of the floor for the contact method */
+	private static final Object FLOOR_DATA = new Object();
+
+	/** The user data of the one-way platforms for the contact method */
+	private static final Object ONE_WAY_PLATFORM_DATA = new Object();
+
+	/** The user data of the characters for the contact method */
+	private static final Object CHARACTER_DATA = new Object();
+
+	/** No character handling */
+	private static final int NONE = 0;
+
+	/** Looking at every contact */
+	private static final int CONTACTS = 1;
+
+	/** The {@link CharacterControllers} */
+	private static final int CONTROLLERS = 2;
+
+	/**
+	 * Times the listeners added between its start and stop listeners.
+	 * <p>
+	 * The world calls listeners in the order they were added.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static final class ListenerTimer {
+		/** The time the current listener call started */
+		private long start;
+
+		/** The total time */
+		private long total;
+
+		/** True to time the calls */
+		private boolean enabled;
+
+		/** Starts timing the step listeners */
+		private final StepListenerAdapter<SimulationBody> startStep = new StepListenerAdapter<SimulationBody>() {
+			@Override
+			public void begin(TimeStep step, PhysicsWorld<SimulationBody, ?> world) { start(); }
+			@Override
+			public void end(TimeStep step, PhysicsWorld<SimulationBody, ?> world) { start(); }
+		};
+
+		/** Stops timing the step listeners */
+		private final StepListenerAdapter<SimulationBody> stopStep = new StepListenerAdapter<SimulationBody>() {
+			@Override
+			public void begin(TimeStep step, PhysicsWorld<SimulationBody, ?> world) { stop(); }
+			@Override
+			public void end(TimeStep step, PhysicsWorld<SimulationBody, ?> world) { stop(); }
+		};
+
+		/** Starts timing the contact listeners */
+		private final ContactListenerAdapter<SimulationBody> startContact = new ContactListenerAdapter<SimulationBody>() {
+			@Override
+			public void collision(ContactCollisionData<SimulationBody> collision) { start(); }
+		};
+
+		/** Stops timing the contact listeners */
+		private final ContactListenerAdapter<SimulationBody> stopContact = new ContactListenerAdapter<SimulationBody>() {
+			@Override
+			public void collision(ContactCollisionData<SimulationBody> collision) { stop(); }
+		};
+
+		/**
+		 * Starts timing a listener call.
+		 */
+		private void start() {
+			if (this.enabled) this.start = System.nanoTime();
+		}
+
+		/**
+		 * Stops timing a listener call.
+		 */
+		private void stop() {
+			if (this.enabled) this.total += System.nanoTime() - this.start;
+		}
+	}
+
+	/**
+	 * Creates the scene.
+	 * @param characters the number of characters
+	 * @param result the characters created
+	 * @return World&lt;SimulationBody&gt;
+	 */
+	private static World<SimulationBody> create(int characters, List<SimulationBody> result) {
+		World<SimulationBody> world = new World<SimulationBody>();
+		Random r = new Random(7);
+
+		double width = Math.max(60.0, characters * 1.0);
+
+		SimulationBody floor = new SimulationBody();
+		floor.addFixture(Geometry.createRectangle(width + 10.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		floor.setTags(FLOOR);
+		floor.setUserData(FLOOR_DATA);
+		world.addBody(floor);
+
+		// rows of one-way platforms
+		for (double y = 3.0; y < 12.0; y += 3.0) {
+			for (double x = -width * 0.5; x < width * 0.5; x += 8.0) {
+				SimulationBody platform = new SimulationBody();
+				platform.addFixture(Geometry.createRectangle(5.0, 0.2));
+				platform.setMass(MassType.INFINITE);
+				platform.translate(x + 2.5, y);
+				platform.setTags(ONE_WAY_PLATFORM);
+				platform.setUserData(ONE_WAY_PLATFORM_DATA);
+				world.addBody(platform);
+			}
+		}
+
+		// a pile of boxes on the right
+		for (int i = 0; i < BOX_COUNT; i++) {
+			SimulationBody box = new SimulationBody();
+			box.addFixture(Geometry.createSquare(0.5));
+			box.setMass(MassType.NORMAL);
+			box.translate(width * 0.5 + 10.0 + (i % 20) * 0.55, 1.0 + (i / 20) * 0.55);
+			world.addBody(box);
+		}
+
+		SimulationBody wall = new SimulationBody();
+		wall.addFixture(Geometry.createRectangle(60.0, 1.0));
+		wall.setMass(MassType.INFINITE);
+		wall.translate(width * 0.5 + 20.0, -0.5);
+		world.addBody(wall);
+
+		// the characters, some starting under the platforms
+		for (int i = 0; i < characters; i++) {
+			SimulationBody character = new SimulationBody();
+			character.addFixture(Geometry.createCircle(0.4), 1.0, 20.0, 0.1);
+			character.setMass(MassType.FIXED_ANGULAR_VELOCITY);
+			character.translate((r.nextDouble() - 0.5) * width, 1.0 + r.nextDouble() * 10.0);
+			character.setUserData(CHARACTER_DATA);
+			world.addBody(character);
+			result.add(character);
+		}
+
+		return world;
+	}
+
+	/**
+	 * Adds the listeners of the contact method.
+	 * @param world the world
+	 * @param characters the characters
+	 * @param grounded the ground state of each character
+	 */
+	private static void addContactListeners(World<SimulationBody> world, final List<SimulationBody> characters, final boolean[] grounded) {
+		final Map<SimulationBody, Integer> indices = new IdentityHashMap<SimulationBody, Integer>();
+		for (int i = 0; i < characters.size(); i++) {
+			indices.put(characters.get(i), i);
+		}
+
+		world.addStepListener(new StepListenerAdapter<SimulationBody>() {
+			@Override
+			public void begin(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {
+				for (int i = 0; i < characters.size(); i++) {
+					SimulationBody character = characters.get(i);
+					boolean isGround = false;
+					List<ContactConstraint<SimulationBody>> contacts = world.getContacts(character);
+					for (ContactConstraint<SimulationBody> cc : contacts) {
+						Object data = cc.getOtherBody(character).getUserData();
+						if ((data == FLOOR_DATA || data == ONE_WAY_PLATFORM_DATA) && cc.isEnabled()) {
+							isGround = true;
+						}
+					}
+					if (!isGround) {
+						grounded[i] = false;
+					}
+				}
+			}
+		});
+
+		world.addContactListener(new ContactListenerAdapter<SimulationBody>() {
+			@Override
+			public void collision(ContactCollisionData<SimulationBody> collision) {
+				ContactConstraint<SimulationBody> cc = collision.getContactConstraint();
+				SimulationBody b1 = cc.getBody1();
+				SimulationBody b2 = cc.getBody2();
+				SimulationBody character = b1.getUserData() == CHARACTER_DATA ? b1 : b2.getUserData() == CHARACTER_DATA ? b2 : null;
+				if (character == null) return;
+				SimulationBody other = character == b1 ? b2 : b1;
+
+				if (other.getUserData() == ONE_WAY_PLATFORM_DATA &&
+					character.createAABB().getMinY() < other.createAABB().getMinY()) {
+					cc.setEnabled(false);
+				}
+
+				if ((other.getUserData() == FLOOR_DATA || other.getUserData() == ONE_WAY_PLATFORM_DATA) && cc.isEnabled()) {
+					grounded[indices.get(character)] = true;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Moves every fourth character back and forth.
+	 * @param characters the characters
+	 * @param step the step number
+	 */
+	private static void walk(List<SimulationBody> characters, int step) {
+		double vx = (step / WALK_STEPS) % 2 == 0 ? 2.0 : -2.0;
+		for (int i = 0; i < characters.size(); i += 4) {
+			SimulationBody character = characters.get(i);
+			character.setAtRest(false);
+			character.getLinearVelocity().x = vx;
+		}
+	}
+
+	/**
+	 * Returns the run with the lowest listener time of a few runs.
+	 * @param characters the number of characters
+	 * @param method the method
+	 * @return double[]
+	 */
+	private static double[] best(int characters, int method) {
+		double[] best = null;
+		for (int i = 0; i < RUNS; i++) {
+			double[] result = run(characters, method);
+			if (best == null || result[1] < best[1]) {
+				best = result;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Runs the scene with the given method and returns the average step time
+	 * and listener time in milliseconds and the number of characters on the
+	 * ground at the end.
+	 * @param characters the number of characters
+	 * @param method the method
+	 * @return double[]
+	 */
+	private static double[] run(int characters, int method) {
+		List<SimulationBody> bodies = new ArrayList<SimulationBody>();
+		World<SimulationBody> world = create(characters, bodies);
+
+		ListenerTimer timer = new ListenerTimer();
+		world.addStepListener(timer.startStep);
+		world.addContactListener(timer.startContact);
+
+		boolean[] grounded = new boolean[characters];
+		CharacterControllers controllers = new CharacterControllers(world);
+		if (method == CONTACTS) {
+			addContactListeners(world, bodies, grounded);
+		} else if (method == CONTROLLERS) {
+			controllers.install();
+			for (int i = 0; i < characters; i++) {
+				controllers.add(new CharacterController(bodies.get(i), FLOOR, ONE_WAY_PLATFORM));
+			}
+		}
+
+		world.addStepListener(timer.stopStep);
+		world.addContactListener(timer.stopContact);
+
+		for (int i = 0; i < WARMUP_STEPS; i++) {
+			walk(bodies, i);
+			world.step(1);
+		}
+
+		timer.enabled = true;
+		long t0 = System.nanoTime();
+		for (int i = 0; i < TIMED_STEPS; i++) {
+			walk(bodies, WARMUP_STEPS + i);
+			world.step(1);
+		}
+		long t1 = System.nanoTime();
+
+		int onGround = 0;
+		for (int i = 0; i < characters; i++) {
+			if (method == CONTACTS && grounded[i]) onGround++;
+			if (method == CONTROLLERS && controllers.get(i).isOnGround()) onGround++;
+		}
+
+		return new double[] { (t1 - t0) / 1.0e6 / TIMED_STEPS, timer.total / 1.0e6 / TIMED_STEPS, onGround };
+	}
+
+	/**
+	 * Entry point for the benchmark.
+	 * @param args the number of characters (optional)
+	 */
+	public static void main(String[] args) {
+		int[] counts = CHARACTER_COUNTS;
+		if (args.length > 0) {
+			counts = new int[] { Integer.parseInt(args[0]) };
+		}
+
+		System.out.println(String.format("%-12s %-12s %12s %15s %12s", "Characters", "Method", "Step (ms)", "Listeners (ms)", "On Ground"));
+		for (int i = 0; i < counts.length; i++) {
+			int n = counts[i];
+			// warm up the JIT with all three
+			run(n, NONE);
+			run(n, CONTACTS);
+			run(n, CONTROLLERS);
+
+			double[] none = best(n, NONE);
+			double[] contacts = best(n, CONTACTS);
+			double[] controllers = best(n, CONTROLLERS);
+
+			System.out.println(String.format("%-12d %-12s %12.3f %15s %12s", n, "none", none[0], "", ""));
+			System.out.println(String.format("%-12d %-12s %12.3f %15.3f %12d", n, "contacts", contacts[0], contacts[1] - none[1], (int)contacts[2]));
+			System.out.println(String.format("%-12d %-12s %12.3f %15.3f %12d", n, "controllers", controllers[0], controllers[1] - none[1], (int)controllers[2]));
+		}
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.benchmark;
+
+import java.awt.Component;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+
+import org.dyn4j.samples.framework.input.AbstractKeyboardInputHandler;
+import org.dyn4j.samples.framework.input.InputQueue;
+import org.dyn4j.samples.framework.input.Key;
+
+/**
+ * Compares the cost of delivering key events when each keyboard input handler
+ * has its own key listener that scans its keys, as they used to, against the
+ * {@link org.dyn4j.samples.framework.input.KeyboardDispatcher}, including
+ * queueing the events in the {@link InputQueue} and draining them.
+ * <p>
+ * Each handler is bound to one key out of a spread of letters and modifiers,
+ * so the number of handlers matching an event stays small while the number
+ * installed grows.  Events are given to the component's key listeners
+ * directly, the same way the component would, so no window is needed.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class KeyDispatchBenchmark {
+	/** The handler counts to run */
+	private static final int[] HANDLER_COUNTS = new int[] { 15, 50, 200, 1000 };
+
+	/** The modifiers handlers are bound with */
+	private static final int[] MODIFIERS = new int[] { 0, InputEvent.SHIFT_DOWN_MASK, InputEvent.CTRL_DOWN_MASK };
+
+	/** The number of distinct events */
+	private static final int EVENT_COUNT = 26 * 4;
+
+	/** The number of untimed passes over the events */
+	private static final int WARMUP_PASSES = 2000;
+
+	/** The number of timed passes over the events */
+	private static final int TIMED_PASSES = 5000;
+
+	/**
+	 * A handler that counts the times it's pressed.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static final class CountingHandler extends AbstractKeyboardInputHandler {
+		/** The number of presses */
+		private int presses;
+
+		/**
+		 * Full constructor.
+		 * @param component the component
+		 * @param key the key
+		 */
+		public CountingHandler(Component component, Key key) {
+			super(component, key);
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.input.AbstractKeyboardInputHandler#onKeyPressed()
+		 */
+		@Override
+		protected void onKeyPressed() {
+			this.presses++;
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.samples.framework.input.InputHandler#isActive()
+		 */
+		@Override
+		public boolean isActive() {
+			return false;
+		}
+	}
+
+	/**
+	 * A key listener per handler, as handlers were installed before the dispatcher.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static final class ScanningListener extends KeyAdapter {
+		/** The handler's keys */
+		private final Key[] keys;
+
+		/** The number of presses */
+		private int presses;
+
+		/**
+		 * Full constructor.
+		 * @param keys the keys
+		 */
+		public ScanningListener(Key... keys) {
+			this.keys = keys;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.awt.event.KeyAdapter#keyPressed(java.awt.event.KeyEvent)
+		 */
+		@Override
+		public void keyPressed(KeyEvent e) {
+			if (e.isConsumed()) return;
+			if (this.isKeyMatch(e.getKeyCode(), e.getModifiersEx())) {
+				this.presses++;
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see java.awt.event.KeyAdapter#keyReleased(java.awt.event.KeyEvent)
+		 */
+		@Override
+		public void keyReleased(KeyEvent e) {
+			if (e.isConsumed()) return;
+			this.isKeyMatch(e.getKeyCode(), e.getModifiersEx());
+		}
+
+		/**
+		 * Returns true if the given key is one of this listener's keys.
+		 * @param key the key code
+		 * @param modifiers the extended modifiers
+		 * @return boolean
+		 */
+		private boolean isKeyMatch(int key, int modifiers) {
+			for (int i = 0; i < this.keys.length; i++) {
+				if (this.keys[i].key == key && this.keys[i].modifiers == modifiers)
+					return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the key of the given handler.
+	 * @param i the handler index
+	 * @return {@link Key}
+	 */
+	private static Key getKey(int i) {
+		return new Key(KeyEvent.VK_A + i % 26, MODIFIERS[(i / 26) % MODIFIERS.length]);
+	}
+
+	/**
+	 * Returns pressed and released events for a spread of keys, some of which
+	 * no handler is bound to.
+	 * @param component the component
+	 * @return KeyEvent[]
+	 */
+	private static KeyEvent[] createEvents(Component component) {
+		KeyEvent[] events = new KeyEvent[EVENT_COUNT * 2];
+		for (int i = 0; i < EVENT_COUNT; i++) {
+			int code = KeyEvent.VK_A + i % 26;
+			// one in four with a modifier combination nothing is bound to
+			int modifiers = i / 26 < MODIFIERS.length ? MODIFIERS[i / 26] : InputEvent.ALT_DOWN_MASK;
+			events[i * 2] = new KeyEvent(component, KeyEvent.KEY_PRESSED, 0, modifiers, code, KeyEvent.CHAR_UNDEFINED);
+			events[i * 2 + 1] = new KeyEvent(component, KeyEvent.KEY_RELEASED, 0, modifiers, code, KeyEvent.CHAR_UNDEFINED);
+		}
+		return events;
+	}
+
+	/**
+	 * Returns the average time to deliver an event to the component's key
+	 * listeners in nanoseconds.
+	 * @param component the component
+	 * @param queue the queue to drain after each pass; can be null
+	 * @return double
+	 */
+	private static double run(Component component, InputQueue queue) {
+		KeyListener[] listeners = component.getKeyListeners();
+		KeyEvent[] events = createEvents(component);
+
+		for (int i = 0; i < WARMUP_PASSES; i++) {
+			dispatch(listeners, events);
+			if (queue != null) queue.drain();
+		}
+
+		long t0 = System.nanoTime();
+		for (int i = 0; i < TIMED_PASSES; i++) {
+			dispatch(listeners, events);
+			if (queue != null) queue.drain();
+		}
+		long t1 = System.nanoTime();
+
+		return (double)(t1 - t0) / TIMED_PASSES / events.length;
+	}
+
+	/**
+	 * Gives each event to each listener.
+	 * @param listeners the listeners
+	 * @param events the events
+	 */
+	private static void dispatch(KeyListener[] listeners, KeyEvent[] events) {
+		for (int i = 0; i < events.length; i++) {
+			KeyEvent e = events[i];
+			for (int j = 0; j < listeners.length; j++) {
+				if (e.getID() == KeyEvent.KEY_PRESSED) {
+					listeners[j].keyPressed(e);
+				} else {
+					listeners[j].keyReleased(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Entry point for the benchmark.
+	 * @param args unused
+	 */
+	public static void main(String[] args) {
+		System.out.println(String.format("%-10s %14s %14s %10s", "Handlers", "Scan (ns)", "Indexed (ns)", "Presses"));
+		for (int c = 0; c < HANDLER_COUNTS.length; c++) {
+			int n = HANDLER_COUNTS[c];
+
+			Component scanning = new Component() {};
+			ScanningListener[] listeners = new ScanningListener[n];
+			for (int i = 0; i < n; i++) {
+				listeners[i] = new ScanningListener(getKey(i));
+				scanning.addKeyListener(listeners[i]);
+			}
+
+			Component indexed = new Component() {};
+			CountingHandler[] handlers = new CountingHandler[n];
+			for (int i = 0; i < n; i++) {
+				handlers[i] = new CountingHandler(indexed, getKey(i));
+				handlers[i].install();
+			}
+
+			double scan = run(scanning, null);
+			double index = run(indexed, InputQueue.get(indexed));
+
+			// both should see the same presses
+			long scanPresses = 0;
+			long indexPresses = 0;
+			for (int i = 0; i < n; i++) {
+				scanPresses += listeners[i].presses;
+				indexPresses += handlers[i].presses;
+			}
+
+			System.out.println(String.format("%-10d %14.1f %14.1f %10s",
+					n,
+					scan,
+					index,
+					scanPresses == indexPresses ? "same" : scanPresses + " vs " + indexPresses));
+		}
+	}
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Mass;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.RasterRenderer;
+import org.dyn4j.samples.framework.SimulationBody;
+import org.dyn4j.world.World;
+
+/**
+ * Compares drawing a frame through Java2D, the way SimulationFrame does,
+ * against the {@link RasterRenderer} on one thread and on all of them, using
+ * scaled up versions of the Bucket and Organize scenes.
+ * <p>
+ * Each scene is drawn into a 1920x1080 image, once zoomed to fit the whole
+ * scene and once zoomed in.  The number of bodies per scene can be given as
+ * the first argument.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class RasterRenderBenchmark {
+	/** The default number of bodies per scene */
+	private static final int DEFAULT_BODY_COUNT = 50000;
+
+	/** The image width */
+	private static final int WIDTH = 1920;
+
+	/** The image height */
+	private static final int HEIGHT = 1080;
+
+	/** The number of untimed frames */
+	private static final int WARMUP_FRAMES = 5;
+
+	/** The number of timed frames */
+	private static final int TIMED_FRAMES = 10;
+
+	/**
+	 * Builds the world of a scene.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static interface Scene {
+		/**
+		 * Returns the name of the scene.
+		 * @return String
+		 */
+		public String getName();
+
+		/**
+		 * Returns a new world for the scene.
+		 * @param count the approximate number of bodies
+		 * @return World
+		 */
+		public World<SimulationBody> create(int count);
+
+		/**
+		 * Returns the width of the scene in world units.
+		 * @param count the approximate number of bodies
+		 * @return double
+		 */
+		public double getWidth(int count);
+	}
+
+	/** Random boxes and circles in a wide bucket */
+	private static final Scene BUCKET = new Scene() {
+		public String getName() {
+			return "Bucket";
+		}
+
+		public World<SimulationBody> create(int count) {
+			World<SimulationBody> world = new World<SimulationBody>();
+			double width = this.getWidth(count);
+
+			SimulationBody bottom = new SimulationBody();
+			bottom.addFixture(Geometry.createRectangle(width, 1.0));
+			bottom.translate(0.0, -0.5);
+			bottom.setMass(MassType.INFINITE);
+			world.addBody(bottom);
+
+			Random r = new Random(23);
+			for (int i = 0; i < count; i++) {
+				double size = r.nextDouble() * 0.6 + 0.2;
+				Convex c = r.nextBoolean() ? Geometry.createSquare(size) : Geometry.createCircle(size * 0.5);
+				SimulationBody b = new SimulationBody();
+				b.addFixture(c);
+				b.translate((r.nextDouble() - 0.5) * width, r.nextDouble() * width * 9.0 / 16.0);
+				b.rotate(r.nextDouble() * Math.PI);
+				b.setMass(MassType.NORMAL);
+				world.addBody(b);
+			}
+			return world;
+		}
+
+		public double getWidth(int count) {
+			return Math.sqrt(count) * 1.0;
+		}
+	};
+
+	/** Circles of many sizes and a few capsules in a box */
+	private static final Scene ORGANIZE = new Scene() {
+		public String getName() {
+			return "Organize";
+		}
+
+		public World<SimulationBody> create(int count) {
+			World<SimulationBody> world = new World<SimulationBody>();
+			double width = this.getWidth(count);
+
+			SimulationBody bottom = new SimulationBody();
+			bottom.addFixture(Geometry.createRectangle(width, 1.0));
+			bottom.translate(0.0, -0.5);
+			bottom.setMass(MassType.INFINITE);
+			world.addBody(bottom);
+
+			Random r = new Random(123);
+			for (int i = 0; i < count; i++) {
+				SimulationBody b = new SimulationBody();
+				if (i % 10 == 0) {
+					double w = r.nextDouble() * 1.5 + 0.5;
+					b.addFixture(Geometry.createCapsule(w, w * 0.4));
+				} else {
+					b.addFixture(Geometry.createCircle(r.nextDouble() * 0.9 + 0.1));
+				}
+				b.translate((r.nextDouble() - 0.5) * width, r.nextDouble() * width * 9.0 / 16.0);
+				b.rotate(r.nextDouble() * Math.PI);
+				b.setMass(new Mass(new Vector2(), 1, 10));
+				world.addBody(b);
+			}
+			return world;
+		}
+
+		public double getWidth(int count) {
+			return Math.sqrt(count) * 1.6;
+		}
+	};
+
+	/**
+	 * Draws one frame.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static interface Method {
+		/**
+		 * Returns the name of the method.
+		 * @return String
+		 */
+		public String getName();
+
+		/**
+		 * Draws the world into the given image.
+		 * @param world the world
+		 * @param camera the camera
+		 * @param image the image
+		 */
+		public void render(World<SimulationBody> world, Camera camera, BufferedImage image);
+	}
+
+	/** Java2D with the same transform, hints and background as SimulationFrame */
+	private static final Method JAVA2D = new Method() {
+		public String getName() {
+			return "Java2D";
+		}
+
+		public void render(World<SimulationBody> world, Camera camera, BufferedImage image) {
+			Graphics2D g = image.createGraphics();
+			g.transform(AffineTransform.getScaleInstance(1, -1));
+			g.transform(AffineTransform.getTranslateInstance(WIDTH / 2, -HEIGHT / 2));
+			g.setColor(Color.WHITE);
+			g.fillRect(-WIDTH / 2, -HEIGHT / 2, WIDTH, HEIGHT);
+			g.translate(camera.offsetX, camera.offsetY);
+			g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			for (int i = 0; i < world.getBodyCount(); i++) {
+				world.getBody(i).render(g, camera.scale);
+			}
+			g.dispose();
+		}
+	};
+
+	/**
+	 * Returns a method drawing with the given raster renderer.
+	 * @param name the name of the method
+	 * @param renderer the renderer
+	 * @return {@link Method}
+	 */
+	private static Method raster(final String name, final RasterRenderer renderer) {
+		return new Method() {
+			public String getName() {
+				return name;
+			}
+
+			public void render(World<SimulationBody> world, Camera camera, BufferedImage image) {
+				BufferedImage frame = renderer.render(world, camera, WIDTH, HEIGHT);
+				// blit once, as SimulationFrame would
+				Graphics2D g = image.createGraphics();
+				g.drawImage(frame, 0, 0, null);
+				g.dispose();
+			}
+		};
+	}
+
+	/**
+	 * Returns the average time to draw a frame in milliseconds.
+	 * @param method the method
+	 * @param world the world
+	 * @param camera the camera
+	 * @param image the image
+	 * @return double
+	 */
+	private static double run(Method method, World<SimulationBody> world, Camera camera, BufferedImage image) {
+		for (int i = 0; i < WARMUP_FRAMES; i++) {
+			method.render(world, camera, image);
+		}
+
+		long t0 = System.nanoTime();
+		for (int i = 0; i < TIMED_FRAMES; i++) {
+			method.render(world, camera, image);
+		}
+		long t1 = System.nanoTime();
+
+		return (t1 - t0) / 1.0e6 / TIMED_FRAMES;
+	}
+
+	/**
+	 * Runs the given scene with each method and prints the average times.
+	 * @param scene the scene
+	 * @param count the number of bodies
+	 * @param methods the methods
+	 */
+	private static void benchmark(Scene scene, int count, Method[] methods) {
+		World<SimulationBody> world = scene.create(count);
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+		// zoomed to fit the scene and zoomed in on the middle of it
+		Camera fit = new Camera();
+		fit.scale = WIDTH / scene.getWidth(count);
+		fit.offsetY = -HEIGHT * 0.5;
+		Camera close = new Camera();
+		close.scale = 32.0;
+		close.offsetY = -scene.getWidth(count) * 9.0 / 32.0 * close.scale;
+
+		for (int i = 0; i < methods.length; i++) {
+			Method method = methods[i];
+			System.out.println(String.format("%-10s %-12s %10.1f %10.1f",
+					scene.getName(),
+					method.getName(),
+					run(method, world, fit, image),
+					run(method, world, close, image)));
+		}
+	}
+
+	/**
+	 * Entry point for the benchmark.
+	 * @param args the number of bodies per scene (optional)
+	 */
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BODY_COUNT;
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		RasterRenderer parallel = new RasterRenderer();
+		parallel.setExecutor(executor);
+		parallel.setParallelism(threads);
+
+		Method[] methods = new Method[] {
+			JAVA2D,
+			raster("Raster", new RasterRenderer()),
+			raster("Raster x" + threads, parallel)
+		};
+
+		System.out.println(String.format("%-10s %-12s %10s %10s", "Scene", "Method", "Fit (ms)", "Close (ms)"));
+		benchmark(BUCKET, count, methods);
+		benchmark(ORGANIZE, count, methods);
+
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.Iterator;
+
+import org.dyn4j.collision.CollisionItem;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.DetectFilter;
+import org.dyn4j.world.World;
+
+/**
+ * Finds all the bodies in a region of the world, for box or lasso selection.
+ * <p>
+ * A body is in the region when its center of mass is.  Bodies are passed to a
+ * {@link Callback} as they're found instead of being collected into a list, so
+ * the size of the result doesn't matter.  The broad-phase is searched once with
+ * the bounds of the region and bodies with more than one fixture are only
+ * reported once.
+ * <p>
+ * The world must not be changed during a query; the callback should queue any
+ * changes with a {@link WorldMutationQueue}.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class AreaQuery {
+	/**
+	 * Receives the bodies found by a query.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	public static interface Callback {
+		/**
+		 * Called for each body in the region.
+		 * @param body the body
+		 * @return boolean true to continue the query; false to stop it
+		 */
+		public boolean found(SimulationBody body);
+	}
+
+	/** The world */
+	private final World<SimulationBody> world;
+
+	/** The query bounds */
+	private final AABB aabb;
+
+	/** The bodies with many fixtures already reported */
+	private final BodySet reported;
+
+	/** The filter for the fixtures to test */
+	private DetectFilter<SimulationBody, BodyFixture> filter;
+
+	// the current polygon
+
+	/** The x coordinates of the polygon; null for a box */
+	private double[] xs;
+
+	/** The y coordinates of the polygon */
+	private double[] ys;
+
+	/** The number of polygon points */
+	private int count;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world
+	 */
+	public AreaQuery(World<SimulationBody> world) {
+		this.world = world;
+		this.aabb = new AABB(0.0, 0.0, 0.0, 0.0);
+		this.reported = new BodySet();
+	}
+
+	/**
+	 * Finds the bodies in the given box.
+	 * @param x1 the x coordinate of one corner
+	 * @param y1 the y coordinate of one corner
+	 * @param x2 the x coordinate of the opposite corner
+	 * @param y2 the y coordinate of the opposite corner
+	 * @param callback the callback for the bodies found
+	 * @return int the number of bodies found
+	 */
+	public int queryBox(double x1, double y1, double x2, double y2, Callback callback) {
+		AABB.setFromPoints(
+				Math.min(x1, x2), Math.min(y1, y2),
+				Math.max(x1, x2), Math.max(y1, y2),
+				this.aabb);
+		this.xs = null;
+		this.ys = null;
+		this.count = 0;
+		return this.query(callback);
+	}
+
+	/**
+	 * Finds the bodies in the given polygon.
+	 * <p>
+	 * The polygon can be concave or self-intersecting, like a lasso drawn by
+	 * hand; it's closed automatically.
+	 * @param xs the x coordinates of the points
+	 * @param ys the y coordinates of the points
+	 * @param count the number of points
+	 * @param callback the callback for the bodies found
+	 * @return int the number of bodies found
+	 */
+	public int queryPolygon(double[] xs, double[] ys, int count, Callback callback) {
+		if (count < 3) {
+			return 0;
+		}
+
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+
+		AABB.setFromPoints(minX, minY, maxX, maxY, this.aabb);
+		this.xs = xs;
+		this.ys = ys;
+		this.count = count;
+		try {
+			return this.query(callback);
+		} finally {
+			this.xs = null;
+			this.ys = null;
+		}
+	}
+
+	/**
+	 * Searches the broad-phase with the current bounds.
+	 * @param callback the callback for the bodies found
+	 * @return int the number of bodies found
+	 */
+	private int query(Callback callback) {
+		int found = 0;
+		try {
+			Iterator<CollisionItem<SimulationBody, BodyFixture>> it = this.world.getBroadphaseDetector().detectIterator(this.aabb);
+			while (it.hasNext()) {
+				CollisionItem<SimulationBody, BodyFixture> item = it.next();
+				SimulationBody body = item.getBody();
+
+				if (this.filter != null && !this.filter.isAllowed(body, item.getFixture())) {
+					continue;
+				}
+
+				// only bodies with many fixtures can be found twice
+				if (body.getFixtureCount() > 1 && !this.reported.add(body)) {
+					continue;
+				}
+
+				if (!this.contains(body)) {
+					continue;
+				}
+
+				found++;
+				if (!callback.found(body)) {
+					break;
+				}
+			}
+		} finally {
+			this.reported.clear();
+		}
+		return found;
+	}
+
+	/**
+	 * Returns true if the center of the given body is in the region.
+	 * @param body the body
+	 * @return boolean
+	 */
+	private boolean contains(SimulationBody body) {
+		Transform tx = body.getTransform();
+		Vector2 lc = body.getMass().getCenter();
+		double x = tx.getTransformedX(lc);
+		double y = tx.getTransformedY(lc);
+
+		if (!this.aabb.contains(x, y)) {
+			return false;
+		}
+
+		if (this.xs == null) {
+			return true;
+		}
+
+		// even-odd rule
+		boolean inside = false;
+		for (int i = 0, j = this.count - 1; i < this.count; j = i++) {
+			double yi = this.ys[i];
+			double yj = this.ys[j];
+			if ((yi > y) != (yj > y)) {
+				double xi = this.xs[i];
+				double xj = this.xs[j];
+				if (x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+					inside = !inside;
+				}
+			}
+		}
+		return inside;
+	}
+
+	/**
+	 * Returns the filter for the fixtures to test.
+	 * @return DetectFilter
+	 */
+	public DetectFilter<SimulationBody, BodyFixture> getFilter() {
+		return this.filter;
+	}
+
+	/**
+	 * Sets the filter for the fixtures to test.
+	 * <p>
+	 * A body is found if any of its fixtures pass the filter.
+	 * @param filter the filter; null to test every fixture
+	 */
+	public void setFilter(DetectFilter<SimulationBody, BodyFixture> filter) {
+		this.filter = filter;
+	}
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A logger that never blocks the caller.
+ * <p>
+ * Callers write fixed size records (a format id and up to three long
+ * arguments, or a message that's already been built) into a preallocated ring
+ * buffer.  A background thread formats the records and writes them to the
+ * output stream.  When the buffer is full, records are dropped and counted
+ * instead of waiting.
+ * <p>
+ * Formats are registered once with {@link #register(String)} and use {@link String#format(String, Object...)}
+ * syntax with a %d for each argument.  For example:
+ * <pre>
+ * int begin = logger.register("BEGIN: %d");
+ * // in a listener
+ * logger.log(begin, id);
+ * </pre>
+ * Any thread may log.  Records from a single thread are written in order.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class AsyncLogger {
+	/** The default ring buffer capacity */
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	/** The number of arguments per record */
+	private static final int ARGUMENTS = 3;
+
+	/** The format id of a record holding a message */
+	private static final int MESSAGE = -1;
+
+	/** The shared logger writing to {@link System#out} */
+	private static AsyncLogger defaultLogger;
+
+	/** The stream written to */
+	private final PrintStream out;
+
+	/** The registered formats; copied on write */
+	private volatile String[] formats;
+
+	/** The ring buffer capacity minus one */
+	private final int mask;
+
+	/** The sequence each slot is ready to be read at; the slot's position plus one when written */
+	private final AtomicLongArray ready;
+
+	/** The format id of each slot */
+	private final int[] ids;
+
+	/** The arguments of each slot */
+	private final long[] arguments;
+
+	/** The message of each slot */
+	private final String[] messages;
+
+	/** The next position to write */
+	private final AtomicLong tail;
+
+	/** The next position to read; only written by the writer thread */
+	private final AtomicLong head;
+
+	/** The number of records dropped because the buffer was full */
+	private final AtomicLong dropped;
+
+	/** The writer thread */
+	private final Thread writer;
+
+	/** True if the logger has been stopped */
+	private volatile boolean stopped;
+
+	/** True while the writer thread is parked or about to park */
+	private volatile boolean waiting;
+
+	/**
+	 * Minimal constructor.
+	 * @param out the stream to write to
+	 */
+	public AsyncLogger(PrintStream out) {
+		this(out, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param out the stream to write to
+	 * @param capacity the number of records the buffer holds; rounded up to a power of two
+	 */
+	public AsyncLogger(PrintStream out, int capacity) {
+		if (out == null) throw new NullPointerException();
+		if (capacity <= 0) throw new IllegalArgumentException();
+
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) size <<= 1;
+
+		this.out = out;
+		this.formats = new String[0];
+		this.mask = size - 1;
+		this.ready = new AtomicLongArray(size);
+		this.ids = new int[size];
+		this.arguments = new long[size * ARGUMENTS];
+		this.messages = new String[size];
+		this.tail = new AtomicLong();
+		this.head = new AtomicLong();
+		this.dropped = new AtomicLong();
+
+		this.writer = new Thread("Logger") {
+			public void run() {
+				writeLoop();
+			}
+		};
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Returns the shared logger writing to {@link System#out}.
+	 * <p>
+	 * Anything left in its buffer is written when the JVM shuts down.
+	 * @return {@link AsyncLogger}
+	 */
+	public static synchronized AsyncLogger getDefault() {
+		if (defaultLogger == null) {
+			final AsyncLogger logger = new AsyncLogger(System.out);
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run() {
+					logger.stop();
+				}
+			});
+			defaultLogger = logger;
+		}
+		return defaultLogger;
+	}
+
+	/**
+	 * Registers a format and returns its id.
+	 * @param format the format
+	 * @return int
+	 */
+	public synchronized int register(String format) {
+		if (format == null) throw new NullPointerException();
+
+		String[] formats = this.formats;
+		for (int i = 0; i < formats.length; i++) {
+			if (formats[i].equals(format)) return i;
+		}
+
+		String[] copy = new String[formats.length + 1];
+		System.arraycopy(formats, 0, copy, 0, formats.length);
+		copy[formats.length] = format;
+		this.formats = copy;
+		return formats.length;
+	}
+
+	/**
+	 * Logs a record with no arguments.
+	 * @param id the format id
+	 * @return boolean true if the record was queued; false if it was dropped
+	 */
+	public boolean log(int id) {
+		return this.offer(id, 0, 0, 0, null);
+	}
+
+	/**
+	 * Logs a record with one argument.
+	 * @param id the format id
+	 * @param a the first argument
+	 * @return boolean true if the record was queued; false if it was dropped
+	 */
+	public boolean log(int id, long a) {
+		return this.offer(id, a, 0, 0, null);
+	}
+
+	/**
+	 * Logs a record with two arguments.
+	 * @param id the format id
+	 * @param a the first argument
+	 * @param b the second argument
+	 * @return boolean true if the record was queued; false if it was dropped
+	 */
+	public boolean log(int id, long a, long b) {
+		return this.offer(id, a, b, 0, null);
+	}
+
+	/**
+	 * Logs a record with three arguments.
+	 * @param id the format id
+	 * @param a the first argument
+	 * @param b the second argument
+	 * @param c the third argument
+	 * @return boolean true if the record was queued; false if it was dropped
+	 */
+	public boolean log(int id, long a, long b, long c) {
+		return this.offer(id, a, b, c, null);
+	}
+
+	/**
+	 * Logs a message that's already been built.
+	 * <p>
+	 * Only writing the message is deferred, so prefer a registered format
+	 * for frequent records.
+	 * @param message the message
+	 * @return boolean true if the record was queued; false if it was dropped
+	 */
+	public boolean log(String message) {
+		return this.offer(MESSAGE, 0, 0, 0, message);
+	}
+
+	/**
+	 * Claims a slot and writes the record to it.
+	 * @param id the format id
+	 * @param a the first argument
+	 * @param b the second argument
+	 * @param c the third argument
+	 * @param message the message; null unless id is {@link #MESSAGE}
+	 * @return boolean
+	 */
+	private boolean offer(int id, long a, long b, long c, String message) {
+		if (this.stopped) {
+			this.dropped.incrementAndGet();
+			return false;
+		}
+
+		long position;
+		do {
+			position = this.tail.get();
+			if (position - this.head.get() > this.mask) {
+				this.dropped.incrementAndGet();
+				return false;
+			}
+		} while (!this.tail.compareAndSet(position, position + 1));
+
+		int slot = (int)position & this.mask;
+		int offset = slot * ARGUMENTS;
+		this.ids[slot] = id;
+		this.arguments[offset] = a;
+		this.arguments[offset + 1] = b;
+		this.arguments[offset + 2] = c;
+		this.messages[slot] = message;
+		// publish the record; this must be a full write so that it can't be
+		// seen after the waiting flag is read below
+		this.ready.set(slot, position + 1);
+		if (this.waiting) {
+			LockSupport.unpark(this.writer);
+		}
+		return true;
+	}
+
+	/**
+	 * The writer thread's loop.
+	 */
+	private void writeLoop() {
+		while (!this.stopped) {
+			if (this.drain() > 0) continue;
+
+			// check again after setting the flag, since a record published
+			// before the flag was seen won't unpark the thread
+			this.waiting = true;
+			if (!this.isReady() && !this.stopped) {
+				LockSupport.park(this);
+			}
+			this.waiting = false;
+		}
+	}
+
+	/**
+	 * Returns true if the next record to write has been published.
+	 * @return boolean
+	 */
+	private boolean isReady() {
+		long position = this.head.get();
+		return this.ready.get((int)position & this.mask) == position + 1;
+	}
+
+	/**
+	 * Writes the published records and returns the number written.
+	 * @return int
+	 */
+	private synchronized int drain() {
+		int n = 0;
+		long position = this.head.get();
+		while (true) {
+			int slot = (int)position & this.mask;
+			if (this.ready.get(slot) != position + 1) break;
+
+			int id = this.ids[slot];
+			if (id == MESSAGE) {
+				this.out.println(this.messages[slot]);
+				this.messages[slot] = null;
+			} else {
+				this.out.println(this.format(id, slot * ARGUMENTS));
+			}
+
+			position++;
+			// free the slot
+			this.head.lazySet(position);
+			n++;
+		}
+		if (n > 0) {
+			this.out.flush();
+		}
+		return n;
+	}
+
+	/**
+	 * Formats the record in the given slot.
+	 * @param id the format id
+	 * @param offset the offset of its arguments
+	 * @return String
+	 */
+	private String format(int id, int offset) {
+		String[] formats = this.formats;
+		if (id < 0 || id >= formats.length) {
+			return "Unknown log format " + id;
+		}
+		Object[] arguments = new Object[ARGUMENTS];
+		for (int i = 0; i < ARGUMENTS; i++) {
+			arguments[i] = Long.valueOf(this.arguments[offset + i]);
+		}
+		return String.format(formats[id], arguments);
+	}
+
+	/**
+	 * Stops the writer thread after writing the records logged so far.
+	 * <p>
+	 * Records logged after this are dropped.
+	 */
+	public void stop() {
+		this.stopped = true;
+		LockSupport.unpark(this.writer);
+		try {
+			this.writer.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.drain();
+	}
+
+	/**
+	 * Returns true if the logger has been stopped.
+	 * @return boolean
+	 */
+	public boolean isStopped() {
+		return this.stopped;
+	}
+
+	/**
+	 * Returns the number of records waiting to be written.
+	 * @return int
+	 */
+	public int getPendingRecordCount() {
+		return (int)(this.tail.get() - this.head.get());
+	}
+
+	/**
+	 * Returns the number of records dropped because the buffer was full.
+	 * @return long
+	 */
+	public long getDroppedRecordCount() {
+		return this.dropped.get();
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+/**
+ * A reusable identity set of bodies using open addressing.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+final class BodySet {
+	/** The table; its length is a power of two */
+	private SimulationBody[] table = new SimulationBody[64];
+
+	/** The slots in use, so clearing is proportional to the size */
+	private int[] used = new int[32];
+
+	/** The number of bodies */
+	private int size;
+
+	/**
+	 * Adds the given body.
+	 * @param body the body
+	 * @return boolean true if it wasn't already in the set
+	 */
+	boolean add(SimulationBody body) {
+		if ((this.size + 1) * 2 > this.table.length) {
+			this.grow();
+		}
+
+		int mask = this.table.length - 1;
+		int i = mix(System.identityHashCode(body)) & mask;
+		while (this.table[i] != null) {
+			if (this.table[i] == body) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+
+		this.table[i] = body;
+		this.used[this.size++] = i;
+		return true;
+	}
+
+	/**
+	 * Returns true if the given body is in the set.
+	 * @param body the body
+	 * @return boolean
+	 */
+	boolean contains(SimulationBody body) {
+		int mask = this.table.length - 1;
+		int i = mix(System.identityHashCode(body)) & mask;
+		while (this.table[i] != null) {
+			if (this.table[i] == body) {
+				return true;
+			}
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Empties the set.
+	 */
+	void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.table[this.used[i]] = null;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * Doubles the size of the table and re-adds the bodies.
+	 */
+	private void grow() {
+		SimulationBody[] old = this.table;
+		int[] slots = this.used;
+		int n = this.size;
+
+		this.table = new SimulationBody[old.length * 2];
+		this.used = new int[old.length];
+		this.size = 0;
+
+		for (int i = 0; i < n; i++) {
+			this.add(old[slots[i]]);
+		}
+	}
+
+	/**
+	 * Spreads the bits of the given hash code.
+	 * @param h the hash code
+	 * @return int
+	 */
+	private static int mix(int h) {
+		h ^= (h >>> 16);
+		h *= 0x85EBCA6B;
+		h ^= (h >>> 13);
+		return h;
+	}
+}
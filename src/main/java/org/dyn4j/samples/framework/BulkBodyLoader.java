@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.world.World;
+
+/**
+ * Adds large batches of bodies to a world.
+ * <p>
+ * The broad-phase inserts bodies one at a time and the shape of its tree
+ * depends on the order they arrive in.  Scenes are usually built row by row
+ * or at random, which gives a poor tree that makes the first steps slow.
+ * This class adds the bodies in Z-order (the order of a Morton curve through
+ * their centers) so that neighboring bodies are inserted together, giving a
+ * tighter tree and keeping nearby bodies close in the world's body list.
+ * <p>
+ * The given list is not modified.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class BulkBodyLoader {
+	/** Batches smaller than this are added in the given order */
+	public static final int MINIMUM_SORT_SIZE = 64;
+
+	/** The number of bits per axis in the sort key */
+	private static final int BITS = 15;
+
+	/** Hidden constructor */
+	private BulkBodyLoader() {}
+
+	/**
+	 * Adds all the given bodies to the world.
+	 * @param world the world
+	 * @param bodies the bodies to add
+	 */
+	public static void addBodies(World<SimulationBody> world, List<? extends SimulationBody> bodies) {
+		int n = bodies.size();
+		if (n < MINIMUM_SORT_SIZE) {
+			for (int i = 0; i < n; i++) {
+				world.addBody(bodies.get(i));
+			}
+			return;
+		}
+
+		double[] x = new double[n];
+		double[] y = new double[n];
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			AABB aabb = bodies.get(i).createAABB();
+			x[i] = (aabb.getMinX() + aabb.getMaxX()) * 0.5;
+			y[i] = (aabb.getMinY() + aabb.getMaxY()) * 0.5;
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+
+		// quantize the centers onto a grid covering the batch
+		double extent = Math.max(maxX - minX, maxY - minY);
+		double scale = extent > 0.0 ? ((1 << BITS) - 1) / extent : 0.0;
+
+		// the key goes in the high bits and the index in the low
+		// bits so that a primitive sort does all the work
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			int qx = (int)((x[i] - minX) * scale);
+			int qy = (int)((y[i] - minY) * scale);
+			keys[i] = ((long)interleave(qx, qy) << 32) | i;
+		}
+		Arrays.sort(keys);
+
+		for (int i = 0; i < n; i++) {
+			world.addBody(bodies.get((int)keys[i]));
+		}
+	}
+
+	/**
+	 * Returns the Morton code for the given grid coordinates.
+	 * @param x the x coordinate; 15 bits
+	 * @param y the y coordinate; 15 bits
+	 * @return int
+	 */
+	private static int interleave(int x, int y) {
+		return spread(x) | (spread(y) << 1);
+	}
+
+	/**
+	 * Spreads the low 16 bits of the given value so that there's a
+	 * zero bit between each of them.
+	 * @param v the value
+	 * @return int
+	 */
+	private static int spread(int v) {
+		v &= 0x0000FFFF;
+		v = (v | (v << 8)) & 0x00FF00FF;
+		v = (v | (v << 4)) & 0x0F0F0F0F;
+		v = (v | (v << 2)) & 0x33333333;
+		v = (v | (v << 1)) & 0x55555555;
+		return v;
+	}
+}
@@ -0,0 +1,722 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.dyn4j.collision.CollisionItem;
+import org.dyn4j.collision.narrowphase.DistanceDetector;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Separation;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.contact.Contact;
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.World;
+
+/**
+ * Keeps track of whether a dynamic character body is standing on the ground
+ * and handles jumping and one-way platforms for it.
+ * <p>
+ * Instead of looking through the character's contacts, the ground is found by
+ * sweeping the character's first fixture down a short distance after each
+ * step (a shape cast) against the fixtures the broad-phase finds under it.
+ * Only surfaces no steeper than the slope limit count as ground.  The sweep
+ * starts a little above the body (the skin) so that resting contact is found.
+ * <p>
+ * The broad-phase is queried with a larger area than the sweep needs and the
+ * ground and one-way platform fixtures found are reused until the sweep leaves
+ * that area or a few steps have passed, which picks up ground that has moved
+ * into the area since.
+ * <p>
+ * A character that's already touching walkable ground doesn't need the
+ * sweep: the contacts the narrow-phase found at the start of the step are
+ * passed to it by {@link CharacterControllers} and the flattest one is used
+ * instead, unless the character is moving away from it fast enough to leave
+ * the probe distance during the step (after a jump, for example).  This lags
+ * by at most one step, like looking through the contacts does.
+ * <p>
+ * The ground state is cached and the probe is skipped while neither the
+ * character nor the ground it's standing on has moved, so characters that are
+ * standing still or asleep cost next to nothing.  Call {@link #invalidate()}
+ * if the world under a character changes in some other way.  Short losses of
+ * contact, like bouncing over small bumps, can be ignored with the grace steps.
+ * <p>
+ * One-way platforms are bodies with any of the one-way tags.  The character
+ * passes through them from below and can drop through them with
+ * {@link #dropThrough()}.  Their contacts are handled by the
+ * {@link CharacterControllers} the controller is added to, which also
+ * updates it each step.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class CharacterController {
+	/** The default slope limit in radians */
+	public static final double DEFAULT_MAXIMUM_SLOPE = Math.toRadians(50.0);
+
+	/** The default distance below the body that counts as ground */
+	public static final double DEFAULT_PROBE_DISTANCE = 0.05;
+
+	/** The default distance above the body the sweep starts at */
+	public static final double DEFAULT_SKIN = 0.05;
+
+	/** The up direction */
+	private static final Vector2 UP = new Vector2(0.0, 1.0);
+
+	/** The change in position or rotation (sine/cosine) that counts as moving */
+	private static final double MOVE_TOLERANCE = 1.0e-4;
+
+	/** The distance that counts as touching when sweeping */
+	private static final double SWEEP_TOLERANCE = 1.0e-4;
+
+	/** The maximum number of advances per sweep */
+	private static final int MAXIMUM_SWEEP_ITERATIONS = 10;
+
+	/** How far the broad-phase query area reaches past the sweep */
+	private static final double CANDIDATE_MARGIN = 1.0;
+
+	/** The number of probes the broad-phase results are reused for */
+	private static final int CANDIDATE_PROBES = 30;
+
+	/** The character body */
+	private final SimulationBody body;
+
+	/** The tags of the bodies that are ground; zero for all */
+	private int groundTags;
+
+	/** The tags of one-way platforms */
+	private int oneWayTags;
+
+	/** The cosine of the slope limit */
+	private double minimumNormalY;
+
+	/** The distance below the body that counts as ground */
+	private double probeDistance;
+
+	/** The distance above the body the sweep starts at */
+	private double skin;
+
+	/** The number of steps the character can jump after leaving the ground */
+	private int graceSteps;
+
+	// the cached state
+
+	/** The ground body; null if not on the ground */
+	private SimulationBody ground;
+
+	/** The ground normal */
+	private final Vector2 groundNormal;
+
+	/** The distance to the ground */
+	private double groundDistance;
+
+	/** The number of steps since the character was last on the ground */
+	private int airSteps;
+
+	/** True while the character is dropping through one-way platforms */
+	private boolean dropping;
+
+	/** True if a one-way platform contact was seen this step */
+	private boolean oneWayContact;
+
+	/** The walkable ground the character touched this step; null if none */
+	private SimulationBody contactGround;
+
+	/** The normal of the contact ground */
+	private final Vector2 contactNormal;
+
+	/** The depth of the contact with the contact ground */
+	private double contactDepth;
+
+	/** True if the cached ground state can be reused while nothing moves */
+	private boolean valid;
+
+	/** The transform of the character at the last probe */
+	private final Transform probeTransform;
+
+	/** The transform of the ground at the last probe */
+	private final Transform groundTransform;
+
+	// reused by the probe
+
+	/** The start of the sweep */
+	private final Transform start;
+
+	/** The position along the sweep */
+	private final Transform end;
+
+	/** The bounds of the sweep */
+	private final AABB aabb;
+
+	/** The bounds of a one-way platform or the character */
+	private final AABB bounds;
+
+	/** The area of the last broad-phase query */
+	private final AABB candidateBounds;
+
+	/** The bodies of the ground and one-way platform fixtures found in the area */
+	private final List<SimulationBody> candidateBodies;
+
+	/** The ground and one-way platform fixtures found in the area */
+	private final List<BodyFixture> candidateFixtures;
+
+	/** The number of probes left before querying the broad-phase again */
+	private int candidateProbes;
+
+	/** The separation at the start of or along the sweep */
+	private final Separation separation;
+
+	/** The distance detector for the sweep and the ground normal */
+	private final DistanceDetector distance;
+
+	/**
+	 * Minimal constructor.
+	 * @param body the character body
+	 * @param groundTags the tags of the bodies that are ground; zero for all
+	 * @param oneWayTags the tags of one-way platforms
+	 */
+	public CharacterController(SimulationBody body, int groundTags, int oneWayTags) {
+		this.body = body;
+		this.groundTags = groundTags;
+		this.oneWayTags = oneWayTags;
+		this.minimumNormalY = Math.cos(DEFAULT_MAXIMUM_SLOPE);
+		this.probeDistance = DEFAULT_PROBE_DISTANCE;
+		this.skin = DEFAULT_SKIN;
+		this.groundNormal = new Vector2(UP);
+		this.contactNormal = new Vector2(UP);
+		this.airSteps = Integer.MAX_VALUE;
+		this.probeTransform = new Transform();
+		this.groundTransform = new Transform();
+		this.start = new Transform();
+		this.end = new Transform();
+		this.aabb = new AABB(0.0, 0.0, 0.0, 0.0);
+		this.bounds = new AABB(0.0, 0.0, 0.0, 0.0);
+		this.candidateBounds = new AABB(0.0, 0.0, 0.0, 0.0);
+		this.candidateBodies = new ArrayList<SimulationBody>();
+		this.candidateFixtures = new ArrayList<BodyFixture>();
+		this.separation = new Separation();
+		this.distance = new Gjk();
+	}
+
+	/**
+	 * Finds the ground under the character.
+	 * <p>
+	 * This is called by {@link CharacterControllers} at the end of each step.
+	 * @param world the world
+	 */
+	public void update(World<SimulationBody> world) {
+		// stop dropping once clear of the platforms
+		if (!this.oneWayContact && this.dropping) {
+			this.dropping = false;
+			this.valid = false;
+		}
+		this.oneWayContact = false;
+
+		if (this.contactGround != null) {
+			this.ground = this.contactGround;
+			this.groundNormal.set(this.contactNormal);
+			this.groundDistance = -this.contactDepth;
+			this.contactGround = null;
+
+			this.probeTransform.set(this.body.getTransform());
+			this.groundTransform.set(this.ground.getTransform());
+			this.valid = true;
+		} else if (!this.isCacheValid(world)) {
+			this.ground = null;
+			this.groundNormal.set(UP);
+			this.groundDistance = Double.MAX_VALUE;
+
+			if (this.body.getFixtureCount() > 0 && this.body.isEnabled()) {
+				this.probe(world);
+			}
+
+			this.probeTransform.set(this.body.getTransform());
+			if (this.ground != null) {
+				this.groundTransform.set(this.ground.getTransform());
+			}
+			this.valid = true;
+		}
+
+		if (this.ground != null) {
+			this.airSteps = 0;
+		} else if (this.airSteps != Integer.MAX_VALUE) {
+			this.airSteps++;
+		}
+	}
+
+	/**
+	 * Returns true if the ground state from the last probe still holds because
+	 * neither the character nor its ground has moved since.
+	 * @param world the world
+	 * @return boolean
+	 */
+	private boolean isCacheValid(World<SimulationBody> world) {
+		if (!this.valid) return false;
+
+		// asleep bodies don't move
+		if (!this.body.isAtRest() && isMoved(this.body.getTransform(), this.probeTransform)) return false;
+
+		if (this.ground != null) {
+			if (this.ground.getOwner() != world || !this.ground.isEnabled()) return false;
+			if (isMoved(this.ground.getTransform(), this.groundTransform)) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns true if the given transforms differ by more than the tolerance.
+	 * @param current the current transform
+	 * @param last the last transform
+	 * @return boolean
+	 */
+	private static boolean isMoved(Transform current, Transform last) {
+		return Math.abs(current.getTranslationX() - last.getTranslationX()) > MOVE_TOLERANCE ||
+			   Math.abs(current.getTranslationY() - last.getTranslationY()) > MOVE_TOLERANCE ||
+			   Math.abs(current.getCost() - last.getCost()) > MOVE_TOLERANCE ||
+			   Math.abs(current.getSint() - last.getSint()) > MOVE_TOLERANCE;
+	}
+
+	/**
+	 * Makes the next update query the broad-phase and probe for the ground
+	 * even if nothing has moved.
+	 */
+	public void invalidate() {
+		this.valid = false;
+		this.candidateProbes = 0;
+	}
+
+	/**
+	 * Sweeps the first fixture down and keeps the closest walkable surface.
+	 * @param world the world
+	 */
+	private void probe(World<SimulationBody> world) {
+		Convex shape = this.body.getFixture(0).getShape();
+		double length = this.skin + this.probeDistance;
+
+		this.start.set(this.body.getTransform());
+		this.start.translate(0.0, this.skin);
+
+		shape.computeAABB(this.start, this.aabb);
+		double bottom = this.aabb.getMinY() - this.skin;
+		AABB.setFromPoints(
+				this.aabb.getMinX(), this.aabb.getMinY() - length,
+				this.aabb.getMaxX(), this.aabb.getMaxY(),
+				this.aabb);
+
+		if (this.candidateProbes <= 0 || !this.candidateBounds.contains(this.aabb)) {
+			this.findCandidates(world);
+		}
+		this.candidateProbes--;
+
+		double best = Double.MAX_VALUE;
+		int size = this.candidateBodies.size();
+		for (int i = 0; i < size; i++) {
+			SimulationBody other = this.candidateBodies.get(i);
+			BodyFixture fixture = this.candidateFixtures.get(i);
+
+			if (other.getOwner() != world || !other.isEnabled()) continue;
+
+			boolean oneWay = other.hasAnyTag(this.oneWayTags);
+			if (!oneWay && this.groundTags != 0 && !other.hasAnyTag(this.groundTags)) continue;
+			if (oneWay && (this.dropping || !this.isAbove(bottom, other))) continue;
+
+			// the candidate area is larger than the sweep
+			Convex surface = fixture.getShape();
+			Transform tx = other.getTransform();
+			surface.computeAABB(tx, this.bounds);
+			if (!this.bounds.overlaps(this.aabb)) continue;
+
+			// the normal of the surface; the shapes are touching at the end
+			// of the sweep, so use the start where they're still separated by
+			// the skin.  This also rejects anything the sweep can't reach or
+			// that's too steep before sweeping
+			if (!this.distance.distance(shape, this.start, surface, tx, this.separation)) continue;
+			if (this.separation.getDistance() > length) continue;
+
+			Vector2 n = this.separation.getNormal();
+			if (-n.y < this.minimumNormalY) continue;
+			double nx = n.x;
+			double ny = n.y;
+
+			double travel = this.sweep(shape, surface, tx, length);
+			if (travel < 0.0 || travel >= best) continue;
+
+			best = travel;
+			this.ground = other;
+			this.groundNormal.set(-nx, -ny);
+			this.groundDistance = travel - this.skin;
+		}
+	}
+
+	/**
+	 * Queries the broad-phase around the sweep bounds and keeps the ground and
+	 * one-way platform fixtures.
+	 * @param world the world
+	 */
+	private void findCandidates(World<SimulationBody> world) {
+		this.candidateBodies.clear();
+		this.candidateFixtures.clear();
+
+		AABB.setFromPoints(
+				this.aabb.getMinX() - CANDIDATE_MARGIN, this.aabb.getMinY() - CANDIDATE_MARGIN,
+				this.aabb.getMaxX() + CANDIDATE_MARGIN, this.aabb.getMaxY() + CANDIDATE_MARGIN,
+				this.candidateBounds);
+		this.candidateProbes = CANDIDATE_PROBES;
+
+		Iterator<CollisionItem<SimulationBody, BodyFixture>> it = world.getBroadphaseDetector().detectIterator(this.candidateBounds);
+		while (it.hasNext()) {
+			CollisionItem<SimulationBody, BodyFixture> item = it.next();
+			SimulationBody other = item.getBody();
+			BodyFixture fixture = item.getFixture();
+
+			if (other == this.body || fixture.isSensor()) continue;
+			if (this.groundTags != 0 && !other.hasAnyTag(this.groundTags | this.oneWayTags)) continue;
+
+			this.candidateBodies.add(other);
+			this.candidateFixtures.add(fixture);
+		}
+	}
+
+	/**
+	 * Sweeps the given shape straight down from the start until it touches the
+	 * given surface and returns the distance travelled, or -1 if it doesn't
+	 * touch within the given length.
+	 * <p>
+	 * This is conservative advancement: the shape is moved down by the
+	 * distance between them, which can't pass through the surface, until the
+	 * distance is within the tolerance.  For flat ground that's a single move.
+	 * The separation must hold the distance at the start.
+	 * @param shape the character's shape
+	 * @param surface the surface's shape
+	 * @param tx the surface's transform
+	 * @param length the length of the sweep
+	 * @return double
+	 */
+	private double sweep(Convex shape, Convex surface, Transform tx, double length) {
+		double travel = 0.0;
+		for (int i = 0; i < MAXIMUM_SWEEP_ITERATIONS; i++) {
+			double d = this.separation.getDistance();
+			if (d <= SWEEP_TOLERANCE) return travel;
+
+			travel += d;
+			if (travel > length) return -1.0;
+
+			// nothing is closer than the distance, so moving straight along
+			// the separation normal closes it exactly (flat ground)
+			if (-this.separation.getNormal().y >= 1.0 - SWEEP_TOLERANCE) return travel;
+
+			this.end.set(this.start);
+			this.end.translate(0.0, -travel);
+			// overlapping means it's within the distance detector's tolerance
+			if (!this.distance.distance(shape, this.end, surface, tx, this.separation)) return travel;
+		}
+		return travel;
+	}
+
+	/**
+	 * Returns true if the character is above the given one-way platform.
+	 * @param bottom the bottom of the character
+	 * @param platform the platform
+	 * @return boolean
+	 */
+	boolean isAbove(double bottom, SimulationBody platform) {
+		// NOTE: like the platformer sample, the character can be partly
+		// through the platform and still land on it
+		platform.computeAABB(this.bounds);
+		return bottom >= this.bounds.getMinY();
+	}
+
+	/**
+	 * Handles a contact between the character and the given body.
+	 * <p>
+	 * The contact is disabled if the body is a one-way platform the character
+	 * is passing through.  Otherwise it's kept for the next update if the body
+	 * is walkable ground.
+	 * @param constraint the contact
+	 * @param other the other body
+	 * @param dt the step's elapsed time in seconds
+	 */
+	void contact(ContactConstraint<SimulationBody> constraint, SimulationBody other, double dt) {
+		boolean oneWay = other.hasAnyTag(this.oneWayTags);
+		if (oneWay) {
+			this.oneWayContact = true;
+			if (this.isPassingThrough(other)) {
+				constraint.setEnabled(false);
+				return;
+			}
+		}
+
+		if (!oneWay && this.groundTags != 0 && !other.hasAnyTag(this.groundTags)) return;
+		if (!constraint.isEnabled() || constraint.isSensor()) return;
+
+		// the constraint's normal points from the second body to the first
+		Vector2 n = constraint.getNormal();
+		double nx = constraint.getBody1() == other ? -n.x : n.x;
+		double ny = constraint.getBody1() == other ? -n.y : n.y;
+		if (ny < this.minimumNormalY) return;
+		if (this.contactGround != null && ny <= this.contactNormal.y) return;
+
+		// leaving the probe distance this step; let the probe decide
+		Vector2 v1 = this.body.getLinearVelocity();
+		Vector2 v2 = other.getLinearVelocity();
+		double vn = (v1.x - v2.x) * nx + (v1.y - v2.y) * ny;
+		if (vn * dt > this.probeDistance) return;
+
+		double depth = 0.0;
+		List<? extends Contact> contacts = constraint.getContacts();
+		int size = contacts.size();
+		for (int i = 0; i < size; i++) {
+			depth = Math.max(depth, contacts.get(i).getDepth());
+		}
+
+		this.contactGround = other;
+		this.contactNormal.set(nx, ny);
+		this.contactDepth = depth;
+	}
+
+	/**
+	 * Returns true if the contact between the character and the given one-way
+	 * platform should be ignored.
+	 * @param platform the platform
+	 * @return boolean
+	 */
+	boolean isPassingThrough(SimulationBody platform) {
+		if (this.dropping) return true;
+		this.body.computeAABB(this.bounds);
+		return !this.isAbove(this.bounds.getMinY(), platform);
+	}
+
+	/**
+	 * Applies the given upward impulse if the character is on the ground or
+	 * left it within the grace steps.
+	 * @param impulse the impulse
+	 * @return boolean true if the character jumped
+	 */
+	public boolean jump(double impulse) {
+		if (!this.canJump()) return false;
+
+		this.body.applyImpulse(new Vector2(0.0, impulse));
+		// only once until the character lands again
+		this.airSteps = Integer.MAX_VALUE;
+		this.ground = null;
+		this.contactGround = null;
+		this.valid = false;
+		return true;
+	}
+
+	/**
+	 * Makes the character fall through the one-way platform it's standing on.
+	 */
+	public void dropThrough() {
+		this.dropping = true;
+		this.valid = false;
+		this.body.setAtRest(false);
+	}
+
+	/**
+	 * Returns true if the character was on walkable ground at the end of the last step.
+	 * @return boolean
+	 */
+	public boolean isOnGround() {
+		return this.ground != null;
+	}
+
+	/**
+	 * Returns true if the character is on the ground or left it within the grace steps.
+	 * @return boolean
+	 */
+	public boolean canJump() {
+		return this.airSteps <= this.graceSteps;
+	}
+
+	/**
+	 * Returns true if the character is dropping through one-way platforms.
+	 * @return boolean
+	 */
+	public boolean isDropping() {
+		return this.dropping;
+	}
+
+	/**
+	 * Returns the body the character is standing on or null.
+	 * @return {@link SimulationBody}
+	 */
+	public SimulationBody getGround() {
+		return this.ground;
+	}
+
+	/**
+	 * Returns the normal of the ground; up if not on the ground.
+	 * @return {@link Vector2}
+	 */
+	public Vector2 getGroundNormal() {
+		return this.groundNormal;
+	}
+
+	/**
+	 * Returns the distance from the character to the ground or {@link Double#MAX_VALUE}
+	 * if not on the ground.
+	 * <p>
+	 * Resting contact is slightly negative.
+	 * @return double
+	 */
+	public double getGroundDistance() {
+		return this.groundDistance;
+	}
+
+	/**
+	 * Returns the character body.
+	 * @return {@link SimulationBody}
+	 */
+	public SimulationBody getBody() {
+		return this.body;
+	}
+
+	/**
+	 * Returns the tags of the bodies that are ground.
+	 * @return int
+	 */
+	public int getGroundTags() {
+		return this.groundTags;
+	}
+
+	/**
+	 * Sets the tags of the bodies that are ground; zero for all.
+	 * @param tags the tags
+	 */
+	public void setGroundTags(int tags) {
+		this.groundTags = tags;
+		this.invalidate();
+	}
+
+	/**
+	 * Returns the tags of one-way platforms.
+	 * @return int
+	 */
+	public int getOneWayTags() {
+		return this.oneWayTags;
+	}
+
+	/**
+	 * Sets the tags of one-way platforms.
+	 * @param tags the tags
+	 */
+	public void setOneWayTags(int tags) {
+		this.oneWayTags = tags;
+		this.invalidate();
+	}
+
+	/**
+	 * Returns the steepest slope, in radians, that's ground.
+	 * @return double
+	 */
+	public double getMaximumSlope() {
+		return Math.acos(this.minimumNormalY);
+	}
+
+	/**
+	 * Sets the steepest slope, in radians, that's ground.
+	 * @param slope the slope in the range [0, &pi;/2]
+	 * @throws IllegalArgumentException if slope is outside the range
+	 */
+	public void setMaximumSlope(double slope) {
+		if (slope < 0.0 || slope > Math.PI * 0.5) {
+			throw new IllegalArgumentException("The slope must be in the range [0, pi/2]: " + slope);
+		}
+		this.minimumNormalY = Math.cos(slope);
+		this.valid = false;
+	}
+
+	/**
+	 * Returns the distance below the body that counts as ground.
+	 * @return double
+	 */
+	public double getProbeDistance() {
+		return this.probeDistance;
+	}
+
+	/**
+	 * Sets the distance below the body that counts as ground.
+	 * @param distance the distance
+	 * @throws IllegalArgumentException if distance is negative
+	 */
+	public void setProbeDistance(double distance) {
+		if (distance < 0.0) {
+			throw new IllegalArgumentException("The distance must be zero or greater: " + distance);
+		}
+		this.probeDistance = distance;
+		this.valid = false;
+	}
+
+	/**
+	 * Returns the distance above the body the sweep starts at.
+	 * @return double
+	 */
+	public double getSkin() {
+		return this.skin;
+	}
+
+	/**
+	 * Sets the distance above the body the sweep starts at.
+	 * <p>
+	 * It should be more than the world's allowed penetration.
+	 * @param skin the distance
+	 * @throws IllegalArgumentException if skin isn't positive
+	 */
+	public void setSkin(double skin) {
+		if (skin <= 0.0) {
+			throw new IllegalArgumentException("The skin must be greater than zero: " + skin);
+		}
+		this.skin = skin;
+		this.valid = false;
+	}
+
+	/**
+	 * Returns the number of steps the character can jump after leaving the ground.
+	 * @return int
+	 */
+	public int getGraceSteps() {
+		return this.graceSteps;
+	}
+
+	/**
+	 * Sets the number of steps the character can jump after leaving the ground.
+	 * @param steps the number of steps
+	 * @throws IllegalArgumentException if steps is negative
+	 */
+	public void setGraceSteps(int steps) {
+		if (steps < 0) {
+			throw new IllegalArgumentException("The steps must be zero or greater: " + steps);
+		}
+		this.graceSteps = steps;
+	}
+}
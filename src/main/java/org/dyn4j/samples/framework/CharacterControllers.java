@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.dynamics.TimeStep;
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.world.ContactCollisionData;
+import org.dyn4j.world.PhysicsWorld;
+import org.dyn4j.world.World;
+import org.dyn4j.world.listener.ContactListenerAdapter;
+import org.dyn4j.world.listener.StepListenerAdapter;
+
+/**
+ * Updates a set of {@link CharacterController}s at the end of each step and
+ * passes them the contacts of their bodies, so that they can disable the
+ * contacts with the one-way platforms they're passing through and use the
+ * ground they're touching without probing for it.
+ * <p>
+ * Contacts are only looked at for pairs with a character; any other pair is
+ * skipped with two identity map lookups.
+ * <p>
+ * A controller is removed when its body is found to have left the world at
+ * the end of a step, so a body that's removed and reused (see
+ * {@link SimulationBodyPool}) doesn't keep its old controller.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class CharacterControllers {
+	/** The world */
+	private final World<SimulationBody> world;
+
+	/** The controllers */
+	private final List<CharacterController> controllers;
+
+	/** The controller of each body */
+	private final Map<SimulationBody, CharacterController> bodies;
+
+	/** Updates the controllers each step */
+	private final StepListenerAdapter<SimulationBody> stepListener;
+
+	/** Disables one-way platform contacts */
+	private final ContactListenerAdapter<SimulationBody> contactListener;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world
+	 */
+	public CharacterControllers(World<SimulationBody> world) {
+		this.world = world;
+		this.controllers = new ArrayList<CharacterController>();
+		this.bodies = new IdentityHashMap<SimulationBody, CharacterController>();
+		this.stepListener = new StepListenerAdapter<SimulationBody>() {
+			@Override
+			public void end(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {
+				update();
+			}
+		};
+		this.contactListener = new ContactListenerAdapter<SimulationBody>() {
+			@Override
+			public void collision(ContactCollisionData<SimulationBody> collision) {
+				filter(collision.getContactConstraint());
+			}
+		};
+	}
+
+	/**
+	 * Adds the controllers to the world so that they're updated each step.
+	 * <p>
+	 * This must be called again after the world's listeners are removed.
+	 */
+	public void install() {
+		this.world.addStepListener(this.stepListener);
+		this.world.addContactListener(this.contactListener);
+	}
+
+	/**
+	 * Removes all the controllers.
+	 */
+	public void clear() {
+		this.controllers.clear();
+		this.bodies.clear();
+	}
+
+	/**
+	 * Adds a controller.
+	 * <p>
+	 * The controller's body should already be in the world; otherwise the
+	 * controller is removed at the end of the next step.
+	 * @param controller the controller
+	 */
+	public void add(CharacterController controller) {
+		this.controllers.add(controller);
+		this.bodies.put(controller.getBody(), controller);
+	}
+
+	/**
+	 * Removes a controller.
+	 * @param controller the controller
+	 * @return boolean true if the controller was removed
+	 */
+	public boolean remove(CharacterController controller) {
+		if (!this.controllers.remove(controller)) return false;
+		this.bodies.remove(controller.getBody());
+		return true;
+	}
+
+	/**
+	 * Returns the number of controllers.
+	 * @return int
+	 */
+	public int getCount() {
+		return this.controllers.size();
+	}
+
+	/**
+	 * Returns the controller at the given index.
+	 * @param index the index
+	 * @return {@link CharacterController}
+	 */
+	public CharacterController get(int index) {
+		return this.controllers.get(index);
+	}
+
+	/**
+	 * Updates the controllers and removes the ones whose bodies have left
+	 * the world.
+	 * <p>
+	 * This is called at the end of each step.
+	 */
+	public void update() {
+		int n = this.controllers.size();
+		int kept = 0;
+		for (int i = 0; i < n; i++) {
+			CharacterController controller = this.controllers.get(i);
+			if (controller.getBody().getOwner() != this.world) {
+				this.bodies.remove(controller.getBody());
+				continue;
+			}
+			controller.update(this.world);
+			this.controllers.set(kept++, controller);
+		}
+		for (int i = n - 1; i >= kept; i--) {
+			this.controllers.remove(i);
+		}
+	}
+
+	/**
+	 * Passes the given contact to the controllers of its bodies.
+	 * @param constraint the contact
+	 */
+	private void filter(ContactConstraint<SimulationBody> constraint) {
+		SimulationBody b1 = constraint.getBody1();
+		SimulationBody b2 = constraint.getBody2();
+		CharacterController c1 = this.bodies.get(b1);
+		CharacterController c2 = this.bodies.get(b2);
+		if (c1 == null && c2 == null) return;
+
+		double dt = this.world.getTimeStep().getDeltaTime();
+		if (c1 != null) c1.contact(constraint, b2, dt);
+		if (c2 != null) c2.contact(constraint, b1, dt);
+	}
+}
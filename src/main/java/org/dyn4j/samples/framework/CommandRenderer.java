@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Color;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.dyn4j.geometry.Capsule;
+import org.dyn4j.geometry.Circle;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Polygon;
+import org.dyn4j.geometry.Segment;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Utility class to draw shapes with a {@link RenderBackend}, matching what
+ * {@link Graphics2DRenderer} draws for each shape.
+ * <p>
+ * Circles, polygons, segments and capsules map straight to backend commands.
+ * Other convex shapes (ellipses, half ellipses and slices) are drawn as a
+ * polygon through points on their outline.  The points are found once per
+ * shape and cached, so like {@link Tessellator}, this assumes shapes don't
+ * change once they've been drawn.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class CommandRenderer {
+	/** The number of points used for shapes that aren't drawn exactly */
+	private static final int OUTLINE_POINTS = 24;
+
+	/** The outline points of each shape that isn't drawn exactly; shared by all threads */
+	private static final Map<Convex, Vector2[]> OUTLINES = Collections.synchronizedMap(new WeakHashMap<Convex, Vector2[]>());
+
+	/** Hidden constructor */
+	private CommandRenderer() {}
+
+	/**
+	 * Draws the given shape with the given backend.
+	 * <p>
+	 * When detailed is false, only the shape is filled; outlines and lines showing
+	 * rotation are left out.
+	 * @param backend the backend
+	 * @param convex the shape in local coordinates
+	 * @param transform the local to world transform
+	 * @param color the color
+	 * @param detailed true to draw outlines and rotation lines
+	 * @see LevelOfDetail
+	 */
+	public static final void render(RenderBackend backend, Convex convex, Transform transform, Color color, boolean detailed) {
+		// no-op
+		if (convex == null) return;
+
+		// just default the color
+		if (color == null) color = Color.ORANGE;
+
+		int fill = color.getRGB();
+		int outline = Graphics2DRenderer.getOutlineColor(color).getRGB();
+
+		if (convex instanceof Circle) {
+			Circle circle = (Circle)convex;
+			Vector2 c = circle.getCenter();
+			double r = circle.getRadius();
+			double x = transform.getTransformedX(c);
+			double y = transform.getTransformedY(c);
+			backend.circle(x, y, r, fill, true);
+			if (!detailed) return;
+			backend.circle(x, y, r, outline, false);
+			// draw a line so that rotation is visible
+			backend.line(x, y, getTransformedX(transform, c.x + r, c.y), getTransformedY(transform, c.x + r, c.y), outline);
+		} else if (convex instanceof Polygon) {
+			Polygon polygon = (Polygon)convex;
+			Vector2[] vertices = polygon.getVertices();
+			backend.polygon(vertices, transform, fill, true);
+			if (!detailed) return;
+			backend.polygon(vertices, transform, outline, false);
+			// draw a line from the center to the first point
+			Vector2 c = polygon.getCenter();
+			backend.line(
+					transform.getTransformedX(c), transform.getTransformedY(c),
+					transform.getTransformedX(vertices[0]), transform.getTransformedY(vertices[0]),
+					outline);
+		} else if (convex instanceof Segment) {
+			Vector2[] vertices = ((Segment)convex).getVertices();
+			backend.line(
+					transform.getTransformedX(vertices[0]), transform.getTransformedY(vertices[0]),
+					transform.getTransformedX(vertices[1]), transform.getTransformedY(vertices[1]),
+					outline);
+		} else if (convex instanceof Capsule) {
+			Capsule capsule = (Capsule)convex;
+			Vector2 c = capsule.getCenter();
+			double r = capsule.getCapRadius();
+			double a = capsule.getRotationAngle();
+			double h = capsule.getLength() * 0.5 - r;
+			double dx = Math.cos(a) * h;
+			double dy = Math.sin(a) * h;
+			double x1 = getTransformedX(transform, c.x - dx, c.y - dy);
+			double y1 = getTransformedY(transform, c.x - dx, c.y - dy);
+			double x2 = getTransformedX(transform, c.x + dx, c.y + dy);
+			double y2 = getTransformedY(transform, c.x + dx, c.y + dy);
+			backend.capsule(x1, y1, x2, y2, r, fill, true);
+			if (!detailed) return;
+			backend.capsule(x1, y1, x2, y2, r, outline, false);
+		} else {
+			Vector2[] outlinePoints = getOutline(convex);
+			backend.polygon(outlinePoints, transform, fill, true);
+			if (!detailed) return;
+			backend.polygon(outlinePoints, transform, outline, false);
+		}
+	}
+
+	/**
+	 * Returns points on the outline of the given shape in local coordinates.
+	 * <p>
+	 * The points are shared and must not be modified.
+	 * @param convex the shape
+	 * @return Vector2[]
+	 */
+	private static final Vector2[] getOutline(Convex convex) {
+		Vector2[] outline = OUTLINES.get(convex);
+		if (outline == null) {
+			outline = createOutline(convex);
+			OUTLINES.put(convex, outline);
+		}
+		return outline;
+	}
+
+	/**
+	 * Returns new points on the outline of the given shape in local coordinates.
+	 * @param convex the shape
+	 * @return Vector2[]
+	 */
+	private static final Vector2[] createOutline(Convex convex) {
+		Transform identity = new Transform();
+		Vector2 direction = new Vector2();
+		Vector2[] points = new Vector2[OUTLINE_POINTS];
+		int n = 0;
+		for (int i = 0; i < OUTLINE_POINTS; i++) {
+			double a = i * 2.0 * Math.PI / OUTLINE_POINTS;
+			direction.set(Math.cos(a), Math.sin(a));
+			Vector2 p = convex.getFarthestPoint(direction, identity);
+			// flat sides give the same point for many directions
+			if (n > 0 && p.equals(points[n - 1])) continue;
+			points[n++] = p;
+		}
+		if (n > 1 && points[0].equals(points[n - 1])) {
+			n--;
+		}
+		if (n == OUTLINE_POINTS) {
+			return points;
+		}
+		Vector2[] result = new Vector2[n];
+		System.arraycopy(points, 0, result, 0, n);
+		return result;
+	}
+
+	/**
+	 * Returns the world x coordinate of the given local point.
+	 * @param transform the local to world transform
+	 * @param x the local x coordinate
+	 * @param y the local y coordinate
+	 * @return double
+	 */
+	private static final double getTransformedX(Transform transform, double x, double y) {
+		return transform.getCost() * x - transform.getSint() * y + transform.getTranslationX();
+	}
+
+	/**
+	 * Returns the world y coordinate of the given local point.
+	 * @param transform the local to world transform
+	 * @param x the local x coordinate
+	 * @param y the local y coordinate
+	 * @return double
+	 */
+	private static final double getTransformedY(Transform transform, double x, double y) {
+		return transform.getSint() * x + transform.getCost() * y + transform.getTranslationY();
+	}
+}
@@ -0,0 +1,480 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.Arrays;
+
+import org.dyn4j.dynamics.TimeStep;
+import org.dyn4j.dynamics.contact.Contact;
+import org.dyn4j.dynamics.contact.SolvedContact;
+import org.dyn4j.world.ContactCollisionData;
+import org.dyn4j.world.PhysicsWorld;
+import org.dyn4j.world.listener.ContactListener;
+import org.dyn4j.world.listener.StepListener;
+
+/**
+ * Gives each contact a unique id that stays the same from the step it begins
+ * to the step it ends, and keeps counts and lifetimes of the contacts.
+ * <p>
+ * The contact objects given to listeners are replaced every step, so the
+ * tracker maps each live contact object to its id in an open addressing table
+ * keyed by object identity with the ids and begin steps in primitive arrays.
+ * When a contact persists, its entry is moved to the new object.  Nothing is
+ * boxed and, once the table is large enough, nothing is allocated.
+ * <p>
+ * When logging is enabled, begin and end events are stored and handed out by
+ * {@link #drainEvents(EventHandler)} so that they can be printed or logged
+ * after the step instead of slowing it down.
+ * <p>
+ * Add the tracker to a world as both a contact listener and a step listener
+ * (to count steps).  It should only be used from the thread updating the world.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class ContactTracker implements ContactListener<SimulationBody>, StepListener<SimulationBody> {
+	/** Returned for contacts that aren't being tracked */
+	public static final long NOT_TRACKED = -1;
+
+	/**
+	 * Receives the begin and end events stored since the last drain.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	public static interface EventHandler {
+		/**
+		 * Called for a contact that began.
+		 * @param id the contact id
+		 * @param step the step it began in
+		 */
+		public void begin(long id, long step);
+
+		/**
+		 * Called for a contact that ended.
+		 * @param id the contact id
+		 * @param step the step it ended in
+		 * @param lifetime the number of steps it lasted
+		 */
+		public void end(long id, long step, long lifetime);
+	}
+
+	/** The contact in each slot; null if empty */
+	private Contact[] contacts;
+
+	/** The id in each slot */
+	private long[] ids;
+
+	/** The step each slot's contact began in */
+	private long[] begins;
+
+	/** The number of live contacts */
+	private int size;
+
+	/** The next id */
+	private long nextId;
+
+	/** The number of steps */
+	private long step;
+
+	/** The number of contacts that began */
+	private long begunCount;
+
+	/** The number of contacts that ended */
+	private long endedCount;
+
+	/** The sum of the lifetimes of the contacts that ended, in steps */
+	private long lifetimeSum;
+
+	/** The longest lifetime of the contacts that ended, in steps */
+	private long lifetimeMax;
+
+	/** True if events are stored */
+	private boolean logging;
+
+	/** The id of each stored event */
+	private long[] eventIds;
+
+	/** The step of each stored event */
+	private long[] eventSteps;
+
+	/** The lifetime of each stored end event; -1 for begin events */
+	private long[] eventLifetimes;
+
+	/** The number of stored events */
+	private int eventCount;
+
+	/**
+	 * Default constructor.
+	 */
+	public ContactTracker() {
+		this.contacts = new Contact[64];
+		this.ids = new long[64];
+		this.begins = new long[64];
+		this.eventIds = new long[16];
+		this.eventSteps = new long[16];
+		this.eventLifetimes = new long[16];
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.ContactListener#begin(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact)
+	 */
+	@Override
+	public void begin(ContactCollisionData<SimulationBody> collision, Contact contact) {
+		long id = this.nextId++;
+		this.put(contact, id, this.step);
+		this.begunCount++;
+		if (this.logging) {
+			this.addEvent(id, -1);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.ContactListener#persist(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact, org.dyn4j.dynamics.contact.Contact)
+	 */
+	@Override
+	public void persist(ContactCollisionData<SimulationBody> collision, Contact oldContact, Contact newContact) {
+		int slot = this.find(oldContact);
+		if (slot < 0) {
+			// began before the tracker was added
+			this.begin(collision, newContact);
+			return;
+		}
+		long id = this.ids[slot];
+		long begin = this.begins[slot];
+		this.removeSlot(slot);
+		this.put(newContact, id, begin);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.ContactListener#end(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact)
+	 */
+	@Override
+	public void end(ContactCollisionData<SimulationBody> collision, Contact contact) {
+		int slot = this.find(contact);
+		if (slot < 0) return;
+
+		long id = this.ids[slot];
+		long lifetime = this.step - this.begins[slot];
+		this.removeSlot(slot);
+
+		this.endedCount++;
+		this.lifetimeSum += lifetime;
+		if (lifetime > this.lifetimeMax) {
+			this.lifetimeMax = lifetime;
+		}
+		if (this.logging) {
+			this.addEvent(id, lifetime);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.ContactListener#destroyed(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact)
+	 */
+	@Override
+	public void destroyed(ContactCollisionData<SimulationBody> collision, Contact contact) {
+		// the contact ends when one of its bodies is removed
+		this.end(collision, contact);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.ContactListener#collision(org.dyn4j.world.ContactCollisionData)
+	 */
+	@Override
+	public void collision(ContactCollisionData<SimulationBody> collision) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.ContactListener#preSolve(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact)
+	 */
+	@Override
+	public void preSolve(ContactCollisionData<SimulationBody> collision, Contact contact) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.ContactListener#postSolve(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.SolvedContact)
+	 */
+	@Override
+	public void postSolve(ContactCollisionData<SimulationBody> collision, SolvedContact contact) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.StepListener#begin(org.dyn4j.dynamics.TimeStep, org.dyn4j.world.PhysicsWorld)
+	 */
+	@Override
+	public void begin(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.StepListener#updatePerformed(org.dyn4j.dynamics.TimeStep, org.dyn4j.world.PhysicsWorld)
+	 */
+	@Override
+	public void updatePerformed(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.StepListener#postSolve(org.dyn4j.dynamics.TimeStep, org.dyn4j.world.PhysicsWorld)
+	 */
+	@Override
+	public void postSolve(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.StepListener#end(org.dyn4j.dynamics.TimeStep, org.dyn4j.world.PhysicsWorld)
+	 */
+	@Override
+	public void end(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {
+		this.step++;
+	}
+
+	/**
+	 * Forgets all contacts and events and resets the counts and ids.
+	 */
+	public void clear() {
+		Arrays.fill(this.contacts, null);
+		this.size = 0;
+		this.nextId = 0;
+		this.step = 0;
+		this.begunCount = 0;
+		this.endedCount = 0;
+		this.lifetimeSum = 0;
+		this.lifetimeMax = 0;
+		this.eventCount = 0;
+	}
+
+	/**
+	 * Returns the id of the given contact or {@link #NOT_TRACKED}.
+	 * @param contact the contact
+	 * @return long
+	 */
+	public long getId(Contact contact) {
+		int slot = this.find(contact);
+		return slot < 0 ? NOT_TRACKED : this.ids[slot];
+	}
+
+	/**
+	 * Returns the number of steps the given contact has lasted so far or
+	 * {@link #NOT_TRACKED}.
+	 * @param contact the contact
+	 * @return long
+	 */
+	public long getLifetime(Contact contact) {
+		int slot = this.find(contact);
+		return slot < 0 ? NOT_TRACKED : this.step - this.begins[slot];
+	}
+
+	/**
+	 * Hands the events stored since the last call to the given handler, in
+	 * the order they happened, and forgets them.
+	 * @param handler the handler
+	 * @return int the number of events
+	 */
+	public int drainEvents(EventHandler handler) {
+		int n = this.eventCount;
+		for (int i = 0; i < n; i++) {
+			long lifetime = this.eventLifetimes[i];
+			if (lifetime < 0) {
+				handler.begin(this.eventIds[i], this.eventSteps[i]);
+			} else {
+				handler.end(this.eventIds[i], this.eventSteps[i], lifetime);
+			}
+		}
+		this.eventCount = 0;
+		return n;
+	}
+
+	/**
+	 * Stores an event.
+	 * @param id the contact id
+	 * @param lifetime the lifetime for end events; -1 for begin events
+	 */
+	private void addEvent(long id, long lifetime) {
+		if (this.eventCount == this.eventIds.length) {
+			int capacity = this.eventCount * 2;
+			this.eventIds = Arrays.copyOf(this.eventIds, capacity);
+			this.eventSteps = Arrays.copyOf(this.eventSteps, capacity);
+			this.eventLifetimes = Arrays.copyOf(this.eventLifetimes, capacity);
+		}
+		this.eventIds[this.eventCount] = id;
+		this.eventSteps[this.eventCount] = this.step;
+		this.eventLifetimes[this.eventCount] = lifetime;
+		this.eventCount++;
+	}
+
+	/**
+	 * Returns the preferred slot of the given contact.
+	 * @param contact the contact
+	 * @param mask the slot count minus one
+	 * @return int
+	 */
+	private static int hash(Contact contact, int mask) {
+		int h = System.identityHashCode(contact) * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Returns the slot of the given contact or -1.
+	 * @param contact the contact
+	 * @return int
+	 */
+	private int find(Contact contact) {
+		Contact[] contacts = this.contacts;
+		int mask = contacts.length - 1;
+		int slot = hash(contact, mask);
+		while (contacts[slot] != null) {
+			if (contacts[slot] == contact) return slot;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds a contact that isn't in the table.
+	 * @param contact the contact
+	 * @param id the id
+	 * @param begin the step it began in
+	 */
+	private void put(Contact contact, long id, long begin) {
+		// keep it at most half full
+		if ((this.size + 1) * 2 > this.contacts.length) {
+			this.resize(this.contacts.length * 2);
+		}
+		int mask = this.contacts.length - 1;
+		int slot = hash(contact, mask);
+		while (this.contacts[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		this.contacts[slot] = contact;
+		this.ids[slot] = id;
+		this.begins[slot] = begin;
+		this.size++;
+	}
+
+	/**
+	 * Empties the given slot, moving later entries back so lookups don't
+	 * stop early.
+	 * @param slot the slot
+	 */
+	private void removeSlot(int slot) {
+		Contact[] contacts = this.contacts;
+		int mask = contacts.length - 1;
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		while (contacts[next] != null) {
+			int home = hash(contacts[next], mask);
+			// move the entry into the hole if the hole is between its home and where it is
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				contacts[hole] = contacts[next];
+				this.ids[hole] = this.ids[next];
+				this.begins[hole] = this.begins[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		contacts[hole] = null;
+		this.size--;
+	}
+
+	/**
+	 * Grows the table.
+	 * @param capacity the new slot count; a power of two
+	 */
+	private void resize(int capacity) {
+		Contact[] contacts = this.contacts;
+		long[] ids = this.ids;
+		long[] begins = this.begins;
+		this.contacts = new Contact[capacity];
+		this.ids = new long[capacity];
+		this.begins = new long[capacity];
+		this.size = 0;
+		for (int i = 0; i < contacts.length; i++) {
+			if (contacts[i] != null) {
+				this.put(contacts[i], ids[i], begins[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if begin and end events are stored for {@link #drainEvents(EventHandler)}.
+	 * @return boolean
+	 */
+	public boolean isLoggingEnabled() {
+		return this.logging;
+	}
+
+	/**
+	 * Sets begin and end events to be stored for {@link #drainEvents(EventHandler)}.
+	 * @param flag true to store events
+	 */
+	public void setLoggingEnabled(boolean flag) {
+		this.logging = flag;
+		if (!flag) {
+			this.eventCount = 0;
+		}
+	}
+
+	/**
+	 * Returns the number of contacts alive now.
+	 * @return int
+	 */
+	public int getActiveContactCount() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of contacts that began.
+	 * @return long
+	 */
+	public long getBegunContactCount() {
+		return this.begunCount;
+	}
+
+	/**
+	 * Returns the number of contacts that ended.
+	 * @return long
+	 */
+	public long getEndedContactCount() {
+		return this.endedCount;
+	}
+
+	/**
+	 * Returns the average lifetime, in steps, of the contacts that ended.
+	 * @return double
+	 */
+	public double getAverageLifetime() {
+		if (this.endedCount == 0) return 0.0;
+		return (double)this.lifetimeSum / this.endedCount;
+	}
+
+	/**
+	 * Returns the longest lifetime, in steps, of the contacts that ended.
+	 * @return long
+	 */
+	public long getMaximumLifetime() {
+		return this.lifetimeMax;
+	}
+
+	/**
+	 * Returns the number of steps counted.
+	 * @return long
+	 */
+	public long getStepCount() {
+		return this.step;
+	}
+}
@@ -0,0 +1,664 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.TimeStep;
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.contact.SolvedContact;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Polygon;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.geometry.Wound;
+import org.dyn4j.world.ContactCollisionData;
+import org.dyn4j.world.PhysicsWorld;
+import org.dyn4j.world.World;
+import org.dyn4j.world.listener.ContactListenerAdapter;
+import org.dyn4j.world.listener.StepListener;
+
+/**
+ * Breaks registered bodies into fragments when the impulse they receive in a
+ * single step exceeds their fracture threshold.
+ * <p>
+ * Impulses are accumulated in the post-solve contact callback, but the world
+ * is never modified there.  Instead, the bodies that broke are queued and all
+ * removals and additions are performed in one pass at the end of the step.
+ * <p>
+ * Each {@link Wound} fixture with three or more vertices is split into wedges
+ * from its center; the number of wedges grows with the impulse received.  All
+ * other fixtures become a single fragment.  No more than the fragment budget
+ * is created per step; anything over budget is carried to the next step.
+ * <p>
+ * Fragment bodies are kept in a {@link SimulationBodyPool}.  When a fragment's
+ * lifetime expires it's removed from the world and reused for the next fracture.
+ * <p>
+ * Registered bodies that were in the world and have since been removed by
+ * something else are unregistered a few at a time at the end of each step,
+ * so they aren't kept alive by this object.
+ * <p>
+ * Add this object as both a contact listener and a step listener.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class Fracturer extends ContactListenerAdapter<SimulationBody> implements StepListener<SimulationBody> {
+	/** The default maximum number of fragments created per step */
+	public static final int DEFAULT_FRAGMENT_BUDGET = 64;
+
+	/** The default fragment lifetime in seconds */
+	public static final double DEFAULT_FRAGMENT_LIFETIME = 10.0;
+
+	/** The default maximum number of pooled fragments */
+	public static final int DEFAULT_MAXIMUM_POOL_SIZE = 256;
+
+	/** The minimum number of pieces a wound fixture breaks into */
+	private static final int MINIMUM_PIECES = 3;
+
+	/** The number of registered bodies checked for removal each step */
+	private static final int PRUNE_COUNT = 16;
+
+	/**
+	 * Fracture state for a registered body.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static final class Fracturable {
+		/** The body */
+		private final SimulationBody body;
+
+		/** The impulse required to break the body */
+		private final double threshold;
+
+		/** The impulse accumulated in the current step */
+		private double impulse;
+
+		/** True if the body is waiting to be broken */
+		private boolean pending;
+
+		/** True if the body has been seen in the world */
+		private boolean added;
+
+		/** The index in the list of registered bodies */
+		private int index;
+
+		public Fracturable(SimulationBody body, double threshold) {
+			this.body = body;
+			this.threshold = threshold;
+		}
+	}
+
+	/** The registered bodies */
+	private final Map<SimulationBody, Fracturable> fracturables;
+
+	/** The registered bodies, in no particular order, to check for removal */
+	private final List<Fracturable> registered;
+
+	/** The index of the next registered body to check for removal */
+	private int prune;
+
+	/** The bodies that received an impulse this step */
+	private final List<Fracturable> touched;
+
+	/** The bodies waiting to be broken, in the order they broke */
+	private final List<Fracturable> pending;
+
+	/** The fragments currently in the world */
+	private final List<SimulationBody> active;
+
+	/** The time in seconds each active fragment has been in the world */
+	private double[] ages;
+
+	/** The number of edges in each wedge of the fixture being broken */
+	private int[] wedges;
+
+	/** The fragment bodies */
+	private final SimulationBodyPool<SimulationBody> pool;
+
+	/** The maximum number of fragments created per step */
+	private int fragmentBudget;
+
+	/** The time in seconds until a fragment is removed; zero or less to never remove */
+	private double fragmentLifetime;
+
+	/** The scale applied to the fragment velocity */
+	private double fragmentVelocityScale;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world the fragments are added to
+	 */
+	public Fracturer(World<SimulationBody> world) {
+		this.fracturables = new HashMap<SimulationBody, Fracturable>();
+		this.registered = new ArrayList<Fracturable>();
+		this.touched = new ArrayList<Fracturable>();
+		this.pending = new ArrayList<Fracturable>();
+		this.active = new ArrayList<SimulationBody>();
+		this.ages = new double[DEFAULT_FRAGMENT_BUDGET];
+		this.wedges = new int[MINIMUM_PIECES];
+		this.pool = new SimulationBodyPool<SimulationBody>(world, new SimulationBodyPool.Factory<SimulationBody>() {
+			@Override
+			public SimulationBody create() {
+				return new SimulationBody();
+			}
+		}, DEFAULT_MAXIMUM_POOL_SIZE);
+		this.fragmentBudget = DEFAULT_FRAGMENT_BUDGET;
+		this.fragmentLifetime = DEFAULT_FRAGMENT_LIFETIME;
+		this.fragmentVelocityScale = 1.0;
+	}
+
+	/**
+	 * Registers the given body to break when it receives an impulse of at least
+	 * the given threshold in a single step.
+	 * @param body the body
+	 * @param threshold the fracture threshold impulse; must be greater than zero
+	 * @throws IllegalArgumentException if threshold is zero or less
+	 */
+	public void addFracturable(SimulationBody body, double threshold) {
+		if (threshold <= 0.0) throw new IllegalArgumentException("The fracture threshold must be greater than zero.");
+		this.removeFracturable(body);
+
+		Fracturable f = new Fracturable(body, threshold);
+		f.added = body.getOwner() != null;
+		f.index = this.registered.size();
+		this.fracturables.put(body, f);
+		this.registered.add(f);
+	}
+
+	/**
+	 * Unregisters the given body.
+	 * @param body the body
+	 * @return boolean true if the body was registered
+	 */
+	public boolean removeFracturable(SimulationBody body) {
+		Fracturable f = this.fracturables.get(body);
+		if (f != null) {
+			this.unregister(f);
+			this.pending.remove(f);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the given body from the map and the list of registered bodies.
+	 * @param f the fracture state
+	 */
+	private void unregister(Fracturable f) {
+		this.fracturables.remove(f.body);
+
+		// move the last one into its place
+		int last = this.registered.size() - 1;
+		Fracturable moved = this.registered.get(last);
+		this.registered.set(f.index, moved);
+		moved.index = f.index;
+		this.registered.remove(last);
+	}
+
+	/**
+	 * Checks a few registered bodies and unregisters the ones that have
+	 * been removed from the world.
+	 * @param world the world
+	 */
+	private void prune(PhysicsWorld<SimulationBody, ?> world) {
+		int n = Math.min(PRUNE_COUNT, this.registered.size());
+		for (int i = 0; i < n; i++) {
+			if (this.prune >= this.registered.size()) {
+				this.prune = 0;
+			}
+			Fracturable f = this.registered.get(this.prune);
+			if (f.body.getOwner() == world) {
+				f.added = true;
+				this.prune++;
+			} else if (f.added && !f.pending) {
+				// the last one is moved here, so check this index again
+				this.unregister(f);
+			} else {
+				// not added yet, or handled with the pending bodies
+				this.prune++;
+			}
+		}
+	}
+
+	/**
+	 * Unregisters all bodies and returns all active fragments to the pool.
+	 * <p>
+	 * This does not remove the fragments from the world; call this after
+	 * the world has been cleared (on reset for example).
+	 */
+	public void clear() {
+		this.fracturables.clear();
+		this.registered.clear();
+		this.prune = 0;
+		this.touched.clear();
+		this.pending.clear();
+		this.active.clear();
+		this.pool.releaseAll();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.ContactListenerAdapter#postSolve(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.SolvedContact)
+	 */
+	@Override
+	public void postSolve(ContactCollisionData<SimulationBody> collision, SolvedContact contact) {
+		ContactConstraint<SimulationBody> cc = collision.getContactConstraint();
+		if (cc.isSensor() || !cc.isEnabled()) return;
+
+		double impulse = contact.getNormalImpulse();
+		this.accumulate(collision.getBody1(), impulse);
+		this.accumulate(collision.getBody2(), impulse);
+	}
+
+	/**
+	 * Adds the given impulse to the given body if it's registered.
+	 * @param body the body
+	 * @param impulse the impulse
+	 */
+	private void accumulate(SimulationBody body, double impulse) {
+		Fracturable f = this.fracturables.get(body);
+		if (f == null || f.pending) return;
+
+		if (f.impulse == 0.0) {
+			this.touched.add(f);
+		}
+		f.impulse += impulse;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.StepListener#begin(org.dyn4j.dynamics.TimeStep, org.dyn4j.world.PhysicsWorld)
+	 */
+	@Override
+	public void begin(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.StepListener#updatePerformed(org.dyn4j.dynamics.TimeStep, org.dyn4j.world.PhysicsWorld)
+	 */
+	@Override
+	public void updatePerformed(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.StepListener#postSolve(org.dyn4j.dynamics.TimeStep, org.dyn4j.world.PhysicsWorld)
+	 */
+	@Override
+	public void postSolve(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.world.listener.StepListener#end(org.dyn4j.dynamics.TimeStep, org.dyn4j.world.PhysicsWorld)
+	 */
+	@Override
+	public void end(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {
+		// queue anything that broke this step
+		for (int i = 0; i < this.touched.size(); i++) {
+			Fracturable f = this.touched.get(i);
+			if (f.impulse >= f.threshold) {
+				f.pending = true;
+				this.pending.add(f);
+			} else {
+				f.impulse = 0.0;
+			}
+		}
+		this.touched.clear();
+
+		// age the fragments and remove the expired ones
+		if (this.fragmentLifetime > 0.0) {
+			double dt = step.getDeltaTime();
+			for (int i = this.active.size() - 1; i >= 0; i--) {
+				this.ages[i] += dt;
+				if (this.ages[i] >= this.fragmentLifetime) {
+					this.pool.release(this.removeActive(i));
+				}
+			}
+		}
+
+		// break bodies until the budget is used up
+		int budget = this.fragmentBudget;
+		int n = 0;
+		while (n < this.pending.size()) {
+			Fracturable f = this.pending.get(n);
+
+			// the body could have been removed by something else
+			if (f.body.getOwner() != world) {
+				this.unregister(f);
+				n++;
+				continue;
+			}
+
+			int pieces = this.getFragmentCount(f);
+			// always allow at least one body per step to make progress
+			if (pieces > budget && budget < this.fragmentBudget) {
+				break;
+			}
+
+			budget -= this.fracture(f, Math.min(pieces, this.fragmentBudget), world);
+			this.unregister(f);
+			n++;
+		}
+
+		// remove the handled entries in one go
+		if (n > 0) {
+			this.pending.subList(0, n).clear();
+		}
+
+		this.prune(world);
+	}
+
+	/**
+	 * Returns the number of fragments the given body will break into.
+	 * @param f the fracture state
+	 * @return int
+	 */
+	private int getFragmentCount(Fracturable f) {
+		int count = 0;
+		int pieces = this.getPieces(f);
+		for (BodyFixture fixture : f.body.getFixtures()) {
+			count += this.getPieces(fixture.getShape(), pieces);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of pieces a wound fixture should break into
+	 * based on how far the impulse is beyond the threshold.
+	 * @param f the fracture state
+	 * @return int
+	 */
+	private int getPieces(Fracturable f) {
+		double pieces = Math.ceil(MINIMUM_PIECES * f.impulse / f.threshold);
+		return (int)Math.min(pieces, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the number of pieces the given shape breaks into.
+	 * @param shape the shape
+	 * @param pieces the requested number of pieces
+	 * @return int
+	 */
+	private int getPieces(Convex shape, int pieces) {
+		if (shape instanceof Wound) {
+			int n = ((Wound)shape).getVertices().length;
+			if (n >= 3) {
+				return Math.max(MINIMUM_PIECES, Math.min(pieces, n));
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Replaces the given body with fragment bodies.
+	 * @param f the fracture state
+	 * @param limit the maximum number of fragments to create
+	 * @param world the world
+	 * @return int the number of fragments created
+	 */
+	private int fracture(Fracturable f, int limit, PhysicsWorld<SimulationBody, ?> world) {
+		SimulationBody body = f.body;
+		Transform tx = body.getTransform();
+		Vector2 v = body.getLinearVelocity();
+		double av = body.getAngularVelocity();
+		Vector2 c = body.getWorldCenter();
+
+		int pieces = this.getPieces(f);
+		int created = 0;
+		for (BodyFixture fixture : body.getFixtures()) {
+			if (created >= limit) break;
+
+			Convex shape = fixture.getShape();
+			int count = Math.min(this.getPieces(shape, pieces), limit - created);
+			if (count > 1) {
+				count = this.split((Wound)shape, count, limit - created);
+			}
+			
+			if (count > 1) {
+				Vector2[] vertices = ((Wound)shape).getVertices();
+				Vector2 center = shape.getCenter();
+				int size = vertices.length;
+
+				int start = 0;
+				for (int i = 0; i < count; i++) {
+					int edges = this.wedges[i];
+					Vector2[] wedge = new Vector2[edges + 2];
+					wedge[0] = center.copy();
+					for (int j = 0; j <= edges; j++) {
+						wedge[j + 1] = vertices[(start + j) % size].copy();
+					}
+					
+					this.add(body, fixture, new Polygon(wedge), tx, v, av, c, world);
+					created++;
+					
+					start += edges;
+				}
+			} else {
+				this.add(body, fixture, shape, tx, v, av, c, world);
+				created++;
+			}
+		}
+
+		world.removeBody(body);
+		return created;
+	}
+
+	/**
+	 * Splits the edges of the given shape into the given number of runs of
+	 * roughly equal size and returns the number of runs.
+	 * <p>
+	 * Any run that would reach 180 degrees is shrunk so that each wedge stays
+	 * convex, which makes more runs than asked for.  If that's more than the
+	 * given maximum, one is returned and the shape isn't split.
+	 * @param wound the shape
+	 * @param count the number of runs
+	 * @param max the maximum number of runs
+	 * @return int
+	 */
+	private int split(Wound wound, int count, int max) {
+		Vector2[] vertices = wound.getVertices();
+		Vector2 center = wound.getCenter();
+		int size = vertices.length;
+		
+		if (this.wedges.length < size) {
+			this.wedges = new int[size];
+		}
+		
+		int start = 0;
+		int remaining = size;
+		int runs = 0;
+		while (remaining > 0) {
+			if (runs == max) return 1;
+			
+			int left = Math.max(1, count - runs);
+			int edges = (remaining + left - 1) / left;
+			while (edges > 1 && !this.isConvexWedge(center, vertices[start], vertices[(start + edges) % size])) {
+				edges--;
+			}
+			
+			this.wedges[runs++] = edges;
+			start += edges;
+			remaining -= edges;
+		}
+		return runs;
+	}
+
+	/**
+	 * Returns true if the wedge from the center to the given vertices turns less than 180 degrees.
+	 * @param center the wedge center
+	 * @param v1 the first vertex
+	 * @param v2 the last vertex
+	 * @return boolean
+	 */
+	private boolean isConvexWedge(Vector2 center, Vector2 v1, Vector2 v2) {
+		double cross = (v1.x - center.x) * (v2.y - center.y) - (v1.y - center.y) * (v2.x - center.x);
+		return cross > 1.0e-9;
+	}
+
+	/**
+	 * Creates a fragment body with the given shape and adds it to the world.
+	 * @param source the body being broken
+	 * @param fixture the fixture being broken
+	 * @param shape the fragment shape
+	 * @param tx the source transform
+	 * @param v the source linear velocity
+	 * @param av the source angular velocity
+	 * @param c the source world center
+	 * @param world the world
+	 */
+	private void add(SimulationBody source, BodyFixture fixture, Convex shape, Transform tx, Vector2 v, double av, Vector2 c, PhysicsWorld<SimulationBody, ?> world) {
+		SimulationBody b = this.pool.obtain();
+		
+		// fragments are all different shapes, so drop the last one's fixture
+		b.removeAllFixtures();
+		BodyFixture bf = b.addFixture(shape, fixture.getDensity(), fixture.getFriction(), fixture.getRestitution());
+		bf.setRestitutionVelocity(fixture.getRestitutionVelocity());
+		bf.setFilter(fixture.getFilter());
+		b.setMass(MassType.NORMAL);
+		b.setColor(source.getColor());
+		b.setTransform(tx);
+
+		// carry over the velocity of the source body at the fragment's center
+		Vector2 p = tx.getTransformed(shape.getCenter());
+		double rx = p.x - c.x;
+		double ry = p.y - c.y;
+		double s = this.fragmentVelocityScale;
+		b.setLinearVelocity((v.x - av * ry) * s, (v.y + av * rx) * s);
+		b.setAngularVelocity(av * s);
+
+		world.addBody(b);
+		
+		int n = this.active.size();
+		if (n == this.ages.length) {
+			double[] ages = new double[n * 2];
+			System.arraycopy(this.ages, 0, ages, 0, n);
+			this.ages = ages;
+		}
+		this.ages[n] = 0.0;
+		this.active.add(b);
+	}
+
+	/**
+	 * Removes the active fragment at the given index by swapping with the last.
+	 * @param index the index
+	 * @return {@link SimulationBody} the removed fragment
+	 */
+	private SimulationBody removeActive(int index) {
+		int last = this.active.size() - 1;
+		SimulationBody body = this.active.get(index);
+		this.active.set(index, this.active.get(last));
+		this.ages[index] = this.ages[last];
+		this.active.remove(last);
+		return body;
+	}
+
+	/**
+	 * Returns the maximum number of fragments created per step.
+	 * @return int
+	 */
+	public int getFragmentBudget() {
+		return this.fragmentBudget;
+	}
+
+	/**
+	 * Sets the maximum number of fragments created per step.
+	 * @param fragmentBudget the budget; must be greater than zero
+	 * @throws IllegalArgumentException if fragmentBudget is zero or less
+	 */
+	public void setFragmentBudget(int fragmentBudget) {
+		if (fragmentBudget <= 0) throw new IllegalArgumentException("The fragment budget must be greater than zero.");
+		this.fragmentBudget = fragmentBudget;
+	}
+
+	/**
+	 * Returns the time in seconds a fragment stays in the world.
+	 * @return double
+	 */
+	public double getFragmentLifetime() {
+		return this.fragmentLifetime;
+	}
+
+	/**
+	 * Sets the time in seconds a fragment stays in the world.
+	 * <p>
+	 * Use zero or less to leave fragments in the world.  Note that
+	 * fragments are only pooled once they are removed.
+	 * @param fragmentLifetime the lifetime in seconds
+	 */
+	public void setFragmentLifetime(double fragmentLifetime) {
+		this.fragmentLifetime = fragmentLifetime;
+	}
+
+	/**
+	 * Returns the maximum number of unused fragments retained.
+	 * @return int
+	 */
+	public int getMaximumPoolSize() {
+		return this.pool.getMaximumSize();
+	}
+
+	/**
+	 * Sets the maximum number of unused fragments retained.
+	 * @param maximumPoolSize the maximum pool size
+	 */
+	public void setMaximumPoolSize(int maximumPoolSize) {
+		this.pool.setMaximumSize(maximumPoolSize);
+	}
+
+	/**
+	 * Returns the scale applied to the velocity of the fragments.
+	 * @return double
+	 */
+	public double getFragmentVelocityScale() {
+		return this.fragmentVelocityScale;
+	}
+
+	/**
+	 * Sets the scale applied to the velocity of the fragments.
+	 * <p>
+	 * Use a value less than one to give the effect of energy lost in the break.
+	 * @param fragmentVelocityScale the scale
+	 */
+	public void setFragmentVelocityScale(double fragmentVelocityScale) {
+		this.fragmentVelocityScale = fragmentVelocityScale;
+	}
+
+	/**
+	 * Returns the number of fragments in the world.
+	 * @return int
+	 */
+	public int getActiveFragmentCount() {
+		return this.active.size();
+	}
+
+	/**
+	 * Returns the number of bodies waiting to be broken.
+	 * @return int
+	 */
+	public int getPendingCount() {
+		return this.pending.size();
+	}
+}
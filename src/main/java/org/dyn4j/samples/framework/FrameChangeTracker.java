@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.List;
+
+import org.dyn4j.collision.broadphase.CollisionItemBroadphaseDetector;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.world.World;
+
+/**
+ * Tracks whether anything visible has changed since the last frame so that an
+ * idle scene doesn't have to be drawn again.
+ * <p>
+ * The transform and rest state of each body are recorded every frame and
+ * compared with the last frame.  A body that moved only counts if it's in
+ * view now or was before, so bodies moving off screen don't keep the scene
+ * busy.  The camera, the size of the view and any other render state (passed
+ * in as flags) are compared as well.
+ * <p>
+ * Anything else that changes what's drawn, like a body's color, must be
+ * reported with {@link #invalidate()}.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class FrameChangeTracker {
+	/** The extra space around the view, in pixels, for outlines and center points */
+	private static final double VIEW_MARGIN = 4.0;
+
+	/** The view bounds in world coordinates */
+	private final AABB view;
+
+	/** The bodies in the last frame */
+	private SimulationBody[] bodies;
+
+	/** The transform of each body in the last frame (x, y, cos, sin) */
+	private double[] transforms;
+
+	/** The rest state of each body in the last frame */
+	private boolean[] atRest;
+
+	/** True if the body was in view in the last frame */
+	private boolean[] visible;
+
+	/** The number of bodies in the last frame */
+	private int count;
+
+	/** The camera scale in the last frame */
+	private double scale;
+
+	/** The camera x offset in the last frame */
+	private double offsetX;
+
+	/** The camera y offset in the last frame */
+	private double offsetY;
+
+	/** The view width in the last frame */
+	private int width;
+
+	/** The view height in the last frame */
+	private int height;
+
+	/** The render flags in the last frame */
+	private int flags;
+
+	/** True if the next frame must be drawn regardless */
+	private volatile boolean invalidated;
+
+	/**
+	 * Default constructor.
+	 */
+	public FrameChangeTracker() {
+		this.view = new AABB(0.0, 0.0, 0.0, 0.0);
+		this.bodies = new SimulationBody[0];
+		this.transforms = new double[0];
+		this.atRest = new boolean[0];
+		this.visible = new boolean[0];
+		this.invalidated = true;
+	}
+
+	/**
+	 * Records the state of the current frame and returns true if it looks
+	 * different than the last one.
+	 * @param world the world
+	 * @param camera the camera
+	 * @param width the view width in pixels
+	 * @param height the view height in pixels
+	 * @param flags any other state that changes what's drawn
+	 * @return boolean true if the frame needs to be drawn
+	 */
+	public boolean update(World<SimulationBody> world, Camera camera, int width, int height, int flags) {
+		boolean changed = this.invalidated;
+		this.invalidated = false;
+
+		boolean viewChanged =
+				camera.scale != this.scale ||
+				camera.offsetX != this.offsetX ||
+				camera.offsetY != this.offsetY ||
+				width != this.width ||
+				height != this.height;
+
+		if (viewChanged) {
+			this.scale = camera.scale;
+			this.offsetX = camera.offsetX;
+			this.offsetY = camera.offsetY;
+			this.width = width;
+			this.height = height;
+
+			double m = VIEW_MARGIN;
+			AABB.setFromPoints(
+					(-width * 0.5 - m - camera.offsetX) / camera.scale,
+					(-height * 0.5 - m - camera.offsetY) / camera.scale,
+					(width * 0.5 + m - camera.offsetX) / camera.scale,
+					(height * 0.5 + m - camera.offsetY) / camera.scale,
+					this.view);
+			changed = true;
+		}
+
+		if (flags != this.flags) {
+			this.flags = flags;
+			changed = true;
+		}
+
+		CollisionItemBroadphaseDetector<SimulationBody, BodyFixture> broadphase = world.getBroadphaseDetector();
+		List<SimulationBody> bodies = world.getBodies();
+		int n = bodies.size();
+		if (n != this.count) {
+			this.ensureCapacity(n);
+			changed = true;
+		}
+
+		for (int i = 0; i < n; i++) {
+			SimulationBody body = bodies.get(i);
+			Transform tx = body.getTransform();
+			double x = tx.getTranslationX();
+			double y = tx.getTranslationY();
+			double c = tx.getCost();
+			double s = tx.getSint();
+			boolean atRest = body.isAtRest();
+
+			int j = i * 4;
+			boolean added = i >= this.count || this.bodies[i] != body;
+			boolean moved = added ||
+					this.transforms[j] != x ||
+					this.transforms[j + 1] != y ||
+					this.transforms[j + 2] != c ||
+					this.transforms[j + 3] != s ||
+					this.atRest[i] != atRest;
+
+			if (moved || viewChanged) {
+				boolean visible = this.isVisible(broadphase, body);
+				// a body moving out of view, or the body this slot had before,
+				// needs one more frame to be erased
+				boolean wasVisible = i < this.count && this.visible[i];
+				if (moved && (visible || wasVisible)) {
+					changed = true;
+				}
+				this.visible[i] = visible;
+			}
+
+			if (moved) {
+				this.bodies[i] = body;
+				this.transforms[j] = x;
+				this.transforms[j + 1] = y;
+				this.transforms[j + 2] = c;
+				this.transforms[j + 3] = s;
+				this.atRest[i] = atRest;
+			}
+		}
+
+		// release any bodies that were removed
+		for (int i = n; i < this.count; i++) {
+			this.bodies[i] = null;
+		}
+		this.count = n;
+
+		return changed;
+	}
+
+	/**
+	 * Forces the next frame to be drawn.
+	 * <p>
+	 * This can be called from any thread.
+	 */
+	public void invalidate() {
+		this.invalidated = true;
+	}
+
+	/**
+	 * Returns true if any fixture of the given body overlaps the view.
+	 * @param broadphase the broad-phase
+	 * @param body the body
+	 * @return boolean
+	 */
+	private boolean isVisible(CollisionItemBroadphaseDetector<SimulationBody, BodyFixture> broadphase, SimulationBody body) {
+		int n = body.getFixtureCount();
+		for (int i = 0; i < n; i++) {
+			BodyFixture fixture = body.getFixture(i);
+			// the stored bounds are enlarged, which errs on the side of drawing
+			AABB aabb = broadphase.getAABB(body, fixture);
+			if (aabb == null || aabb.overlaps(this.view)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Grows the per body arrays to hold at least the given number of bodies.
+	 * @param n the number of bodies
+	 */
+	private void ensureCapacity(int n) {
+		int size = this.bodies.length;
+		if (size >= n) return;
+
+		int capacity = Math.max(n, size * 2);
+		SimulationBody[] bodies = new SimulationBody[capacity];
+		double[] transforms = new double[capacity * 4];
+		boolean[] atRest = new boolean[capacity];
+		boolean[] visible = new boolean[capacity];
+		System.arraycopy(this.bodies, 0, bodies, 0, this.count);
+		System.arraycopy(this.transforms, 0, transforms, 0, this.count * 4);
+		System.arraycopy(this.atRest, 0, atRest, 0, this.count);
+		System.arraycopy(this.visible, 0, visible, 0, this.count);
+
+		this.bodies = bodies;
+		this.transforms = transforms;
+		this.atRest = atRest;
+		this.visible = visible;
+	}
+}
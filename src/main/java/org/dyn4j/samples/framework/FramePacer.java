@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a game loop to a target frame rate.
+ * <p>
+ * Each frame has a deadline one period after the last one.  The loop parks
+ * until shortly before the deadline and then spins for the rest, since
+ * parking alone can oversleep by a millisecond or more on some systems.
+ * When a frame is late by more than a period, the missed deadlines are
+ * counted as dropped and the schedule moves forward instead of trying to
+ * catch up with a burst of frames.
+ * <p>
+ * When the simulation falls behind, drawing can be skipped for a few frames
+ * in a row (see {@link #beginFrame(boolean)}) to give the time to the physics;
+ * skipped frames don't wait for their deadline.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class FramePacer {
+	/** The default target frame rate */
+	public static final int DEFAULT_TARGET_FRAMES_PER_SECOND = 60;
+
+	/** The most frames that are skipped in a row */
+	public static final int MAXIMUM_SKIPPED_FRAMES = 5;
+
+	/** The time before the deadline, in nanoseconds, to stop parking and start spinning */
+	private static final long SPIN_NANOS = 1000000L;
+
+	/** The time over which the achieved frame rate is measured, in nanoseconds */
+	private static final long MEASURE_NANOS = 1000000000L;
+
+	/** The conversion factor from seconds to nanoseconds */
+	private static final double SECONDS_TO_NANOS = 1.0e9;
+
+	/** The target frame rate */
+	private volatile int targetFramesPerSecond;
+
+	/** The time between frames, in nanoseconds; zero when not limited */
+	private volatile long period;
+
+	/** The deadline for the current frame */
+	private long deadline;
+
+	/** The number of frames skipped in a row */
+	private int skipped;
+
+	/** True if the current frame is being skipped */
+	private boolean skipping;
+
+	/** The start of the current measurement */
+	private long measureStart;
+
+	/** The number of frames drawn in the current measurement */
+	private int measureFrames;
+
+	/** The achieved frame rate from the last measurement */
+	private volatile double framesPerSecond;
+
+	/** The number of frames skipped or missed */
+	private volatile long droppedFrames;
+
+	/**
+	 * Default constructor.
+	 */
+	public FramePacer() {
+		this(DEFAULT_TARGET_FRAMES_PER_SECOND);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param targetFramesPerSecond the target frame rate; zero or less to not limit it
+	 */
+	public FramePacer(int targetFramesPerSecond) {
+		this.setTargetFramesPerSecond(targetFramesPerSecond);
+		this.reset();
+	}
+
+	/**
+	 * Starts the schedule over from now.
+	 */
+	public void reset() {
+		long now = System.nanoTime();
+		this.deadline = now + this.period;
+		this.measureStart = now;
+		this.measureFrames = 0;
+		this.skipped = 0;
+		this.skipping = false;
+	}
+
+	/**
+	 * Called at the start of each frame and returns true if the frame should be
+	 * drawn.
+	 * <p>
+	 * Returns false when the simulation is behind, unless the last
+	 * {@link #MAXIMUM_SKIPPED_FRAMES} frames were already skipped.
+	 * @param behind true if the simulation is behind
+	 * @return boolean
+	 */
+	public boolean beginFrame(boolean behind) {
+		if (behind && this.skipped < MAXIMUM_SKIPPED_FRAMES) {
+			this.skipped++;
+			this.skipping = true;
+			this.droppedFrames++;
+			return false;
+		}
+
+		this.skipped = 0;
+		this.skipping = false;
+		return true;
+	}
+
+	/**
+	 * Waits for the current frame's deadline, unless it was skipped, and moves
+	 * to the next frame.
+	 */
+	public void sync() {
+		long now = System.nanoTime();
+
+		if (this.skipping) {
+			// skipped frames don't wait but use up their place in the schedule
+			// so that the next frame drawn doesn't count them again as missed
+			this.deadline = Math.min(this.deadline + this.period, now);
+			this.measure(now, false);
+			return;
+		}
+
+		long period = this.period;
+		if (period <= 0) {
+			// give other threads a chance at least
+			Thread.yield();
+			now = System.nanoTime();
+			this.deadline = now;
+			this.measure(now, true);
+			return;
+		}
+
+		// the target may have been raised since the deadline was set
+		if (this.deadline - now > period) {
+			this.deadline = now + period;
+		}
+
+		// park until close to the deadline
+		long remaining = this.deadline - now;
+		while (remaining > SPIN_NANOS) {
+			LockSupport.parkNanos(remaining - SPIN_NANOS);
+			remaining = this.deadline - System.nanoTime();
+		}
+
+		// then spin the rest of the way
+		while (remaining > 0) {
+			Thread.yield();
+			remaining = this.deadline - System.nanoTime();
+		}
+
+		now = System.nanoTime();
+		long late = now - this.deadline;
+		if (late > period) {
+			// don't try to make up missed frames
+			long missed = late / period;
+			this.droppedFrames += missed;
+			this.deadline += missed * period;
+		}
+		this.deadline += period;
+
+		this.measure(now, true);
+	}
+
+	/**
+	 * Updates the achieved frame rate.
+	 * @param now the current time
+	 * @param drawn true if a frame was drawn
+	 */
+	private void measure(long now, boolean drawn) {
+		if (drawn) {
+			this.measureFrames++;
+		}
+
+		long elapsed = now - this.measureStart;
+		if (elapsed >= MEASURE_NANOS) {
+			this.framesPerSecond = this.measureFrames * SECONDS_TO_NANOS / elapsed;
+			this.measureFrames = 0;
+			this.measureStart = now;
+		}
+	}
+
+	/**
+	 * Returns the target frame rate.
+	 * @return int
+	 */
+	public int getTargetFramesPerSecond() {
+		return this.targetFramesPerSecond;
+	}
+
+	/**
+	 * Sets the target frame rate.
+	 * <p>
+	 * This can be called from any thread.
+	 * @param targetFramesPerSecond the target frame rate; zero or less to not limit it
+	 */
+	public void setTargetFramesPerSecond(int targetFramesPerSecond) {
+		this.targetFramesPerSecond = targetFramesPerSecond;
+		this.period = targetFramesPerSecond > 0 ? (long)(SECONDS_TO_NANOS / targetFramesPerSecond) : 0;
+	}
+
+	/**
+	 * Returns the frame rate achieved over the last second.
+	 * @return double
+	 */
+	public double getFramesPerSecond() {
+		return this.framesPerSecond;
+	}
+
+	/**
+	 * Returns the number of frames that were skipped or missed their deadline.
+	 * @return long
+	 */
+	public long getDroppedFrameCount() {
+		return this.droppedFrames;
+	}
+}
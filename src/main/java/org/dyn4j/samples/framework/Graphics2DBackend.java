@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.RoundRectangle2D;
+
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * A {@link RenderBackend} drawing to a Graphics2D, the same way
+ * {@link Graphics2DRenderer} does.
+ * <p>
+ * The graphics object is expected to be set up the way SimulationFrame sets it
+ * up for {@link SimulationFrame#render(Graphics2D, double)}: the positive y
+ * axis pointing up and the origin at the world origin.  The shapes and the
+ * current color are reused between commands, so nothing is allocated for
+ * runs of commands with the same color (see
+ * {@link RenderCommandBuffer#sortByColor()}).
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class Graphics2DBackend implements RenderBackend {
+	/** The graphics object */
+	private Graphics2D graphics;
+
+	/** The scale in pixels per world unit */
+	private double scale;
+
+	/** The current color */
+	private Color color;
+
+	/** The reusable circle */
+	private final Ellipse2D.Double ellipse;
+
+	/** The reusable polygon */
+	private final Path2D.Double path;
+
+	/** The reusable capsule */
+	private final RoundRectangle2D.Double capsule;
+
+	/** The reusable line */
+	private final Line2D.Double line;
+
+	/**
+	 * Default constructor.
+	 */
+	public Graphics2DBackend() {
+		this(null, 1.0);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param graphics the graphics object
+	 * @param scale the scale in pixels per world unit
+	 */
+	public Graphics2DBackend(Graphics2D graphics, double scale) {
+		this.graphics = graphics;
+		this.scale = scale;
+		this.ellipse = new Ellipse2D.Double();
+		this.path = new Path2D.Double();
+		this.capsule = new RoundRectangle2D.Double();
+		this.line = new Line2D.Double();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#circle(double, double, double, int, boolean)
+	 */
+	@Override
+	public void circle(double x, double y, double radius, int color, boolean fill) {
+		double s = this.scale;
+		this.ellipse.setFrame((x - radius) * s, (y - radius) * s, 2.0 * radius * s, 2.0 * radius * s);
+		this.paint(this.ellipse, color, fill);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#polygon(org.dyn4j.geometry.Vector2[], org.dyn4j.geometry.Transform, int, boolean)
+	 */
+	@Override
+	public void polygon(Vector2[] vertices, Transform transform, int color, boolean fill) {
+		double s = this.scale;
+		Path2D.Double p = this.path;
+		p.reset();
+		p.moveTo(transform.getTransformedX(vertices[0]) * s, transform.getTransformedY(vertices[0]) * s);
+		for (int i = 1; i < vertices.length; i++) {
+			p.lineTo(transform.getTransformedX(vertices[i]) * s, transform.getTransformedY(vertices[i]) * s);
+		}
+		p.closePath();
+		this.paint(p, color, fill);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#capsule(double, double, double, double, double, int, boolean)
+	 */
+	@Override
+	public void capsule(double x1, double y1, double x2, double y2, double radius, int color, boolean fill) {
+		double s = this.scale;
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		double length = Math.sqrt(dx * dx + dy * dy);
+		double r = radius * s;
+
+		// a rounded rectangle along the x axis, rotated into place
+		AffineTransform tx = this.graphics.getTransform();
+		this.graphics.translate((x1 + x2) * 0.5 * s, (y1 + y2) * 0.5 * s);
+		this.graphics.rotate(Math.atan2(dy, dx));
+		this.capsule.setRoundRect(-length * 0.5 * s - r, -r, length * s + 2.0 * r, 2.0 * r, 2.0 * r, 2.0 * r);
+		this.paint(this.capsule, color, fill);
+		this.graphics.setTransform(tx);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#line(double, double, double, double, int)
+	 */
+	@Override
+	public void line(double x1, double y1, double x2, double y2, int color) {
+		double s = this.scale;
+		this.line.setLine(x1 * s, y1 * s, x2 * s, y2 * s);
+		this.paint(this.line, color, false);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#image(java.awt.Image, double, double, double, double, org.dyn4j.geometry.Transform)
+	 */
+	@Override
+	public void image(Image image, double x, double y, double width, double height, Transform transform) {
+		double s = this.scale;
+
+		// drawn in local coordinates, the same as the image bodies in the samples
+		AffineTransform tx = this.graphics.getTransform();
+		this.graphics.translate(transform.getTranslationX() * s, transform.getTranslationY() * s);
+		this.graphics.rotate(transform.getRotationAngle());
+		this.graphics.drawImage(image,
+				(int)Math.ceil(x * s),
+				(int)Math.ceil(y * s),
+				(int)Math.ceil(width * s),
+				(int)Math.ceil(height * s),
+				null);
+		this.graphics.setTransform(tx);
+	}
+
+	/**
+	 * Fills or draws the given shape with the given color.
+	 * @param shape the shape
+	 * @param color the color
+	 * @param fill true to fill the shape
+	 */
+	private void paint(Shape shape, int color, boolean fill) {
+		if (this.color == null || this.color.getRGB() != color) {
+			this.color = new Color(color, true);
+		}
+		this.graphics.setColor(this.color);
+		if (fill) {
+			this.graphics.fill(shape);
+		} else {
+			this.graphics.draw(shape);
+		}
+	}
+
+	/**
+	 * Returns the graphics object.
+	 * @return Graphics2D
+	 */
+	public Graphics2D getGraphics() {
+		return this.graphics;
+	}
+
+	/**
+	 * Sets the graphics object.
+	 * @param graphics the graphics object
+	 */
+	public void setGraphics(Graphics2D graphics) {
+		this.graphics = graphics;
+	}
+
+	/**
+	 * Returns the scale in pixels per world unit.
+	 * @return double
+	 */
+	public double getScale() {
+		return this.scale;
+	}
+
+	/**
+	 * Sets the scale in pixels per world unit.
+	 * @param scale the scale
+	 */
+	public void setScale(double scale) {
+		this.scale = scale;
+	}
+}
@@ -45,7 +45,7 @@ import org.dyn4j.geometry.Vector2;
 /**
  * Graphics2D renderer for dyn4j shape types.
  * @author William Bittle
- * @version 3.1.7
+ * @version 5.0.2
  * @since 3.1.5
  */
 public final class Graphics2DRenderer {
@@ -57,6 +57,22 @@ public final class Graphics2DRenderer {
 	 * @param color the color
 	 */
 	public static final void render(Graphics2D g, Shape shape, double scale, Color color) {
+		Graphics2DRenderer.render(g, shape, scale, color, true);
+	}
+	
+	/**
+	 * Renders the given shape to the given graphics context using the given scale and color.
+	 * <p>
+	 * When detailed is false, only the shape is filled; outlines and lines showing
+	 * rotation are left out.
+	 * @param g the graphics context
+	 * @param shape the shape to render
+	 * @param scale the scale to render the shape (pixels per dyn4j unit (typically meter))
+	 * @param color the color
+	 * @param detailed true to draw outlines and rotation lines
+	 * @see LevelOfDetail
+	 */
+	public static final void render(Graphics2D g, Shape shape, double scale, Color color, boolean detailed) {
 		// no-op
 		if (shape == null) return;
 		
@@ -64,19 +80,19 @@ public final class Graphics2DRenderer {
 		if (color == null) color = Color.ORANGE;
 		
 		if (shape instanceof Circle) {
-			Graphics2DRenderer.render(g, (Circle)shape, scale, color);
+			Graphics2DRenderer.render(g, (Circle)shape, scale, color, detailed);
 		} else if (shape instanceof Polygon) {
-			Graphics2DRenderer.render(g, (Polygon)shape, scale, color);
+			Graphics2DRenderer.render(g, (Polygon)shape, scale, color, detailed);
 		} else if (shape instanceof Segment) {
-			Graphics2DRenderer.render(g, (Segment)shape, scale, color);
+			Graphics2DRenderer.render(g, (Segment)shape, scale, color, detailed);
 		} else if (shape instanceof Capsule) {
-			Graphics2DRenderer.render(g, (Capsule)shape, scale, color);
+			Graphics2DRenderer.render(g, (Capsule)shape, scale, color, detailed);
 		} else if (shape instanceof Ellipse) {
-			Graphics2DRenderer.render(g, (Ellipse)shape, scale, color);
+			Graphics2DRenderer.render(g, (Ellipse)shape, scale, color, detailed);
 		} else if (shape instanceof Slice) {
-			Graphics2DRenderer.render(g, (Slice)shape, scale, color);
+			Graphics2DRenderer.render(g, (Slice)shape, scale, color, detailed);
 		} else if (shape instanceof HalfEllipse) {
-			Graphics2DRenderer.render(g, (HalfEllipse)shape, scale, color);
+			Graphics2DRenderer.render(g, (HalfEllipse)shape, scale, color, detailed);
 		} else {
 			// unknown shape
 		}
@@ -90,6 +106,18 @@ public final class Graphics2DRenderer {
 	 * @param color the color
 	 */
 	public static final void render(Graphics2D g, Circle circle, double scale, Color color) {
+		Graphics2DRenderer.render(g, circle, scale, color, true);
+	}
+	
+	/**
+	 * Renders the given {@link Circle} to the given graphics context using the given scale and color.
+	 * @param g the graphics context
+	 * @param circle the circle to render
+	 * @param scale the scale to render the shape (pixels per dyn4j unit (typically meter))
+	 * @param color the color
+	 * @param detailed true to draw the outline and rotation line
+	 */
+	public static final void render(Graphics2D g, Circle circle, double scale, Color color, boolean detailed) {
 		double radius = circle.getRadius();
 		Vector2 center = circle.getCenter();
 		
@@ -103,6 +131,9 @@ public final class Graphics2DRenderer {
 		// fill the shape
 		g.setColor(color);
 		g.fill(c);
+		
+		if (!detailed) return;
+		
 		// draw the outline
 		g.setColor(getOutlineColor(color));
 		g.draw(c);
@@ -124,6 +155,18 @@ public final class Graphics2DRenderer {
 	 * @param color the color
 	 */
 	public static final void render(Graphics2D g, Polygon polygon, double scale, Color color) {
+		Graphics2DRenderer.render(g, polygon, scale, color, true);
+	}
+	
+	/**
+	 * Renders the given {@link Polygon} to the given graphics context using the given scale and color.
+	 * @param g the graphics context
+	 * @param polygon the polygon to render
+	 * @param scale the scale to render the shape (pixels per dyn4j unit (typically meter))
+	 * @param color the color
+	 * @param detailed true to draw the outline and rotation line
+	 */
+	public static final void render(Graphics2D g, Polygon polygon, double scale, Color color, boolean detailed) {
 		Vector2[] vertices = polygon.getVertices();
 		int l = vertices.length;
 		
@@ -138,6 +181,9 @@ public final class Graphics2DRenderer {
 		// fill the shape
 		g.setColor(color);
 		g.fill(p);
+		
+		if (!detailed) return;
+		
 		// draw the outline
 		g.setColor(getOutlineColor(color));
 		g.draw(p);
@@ -157,6 +203,18 @@ public final class Graphics2DRenderer {
 	 * @param color the color
 	 */
 	public static final void render(Graphics2D g, Segment segment, double scale, Color color) {
+		Graphics2DRenderer.render(g, segment, scale, color, true);
+	}
+	
+	/**
+	 * Renders the given {@link Segment} to the given graphics context using the given scale and color.
+	 * @param g the graphics context
+	 * @param segment the segment to render
+	 * @param scale the scale to render the shape (pixels per dyn4j unit (typically meter))
+	 * @param color the color
+	 * @param detailed unused; segments are always drawn as a line
+	 */
+	public static final void render(Graphics2D g, Segment segment, double scale, Color color, boolean detailed) {
 		Vector2[] vertices = segment.getVertices();
 		
 		Line2D.Double l = new Line2D.Double(
@@ -178,6 +236,18 @@ public final class Graphics2DRenderer {
 	 * @param color the color
 	 */
 	public static final void render(Graphics2D g, Capsule capsule, double scale, Color color) {
+		Graphics2DRenderer.render(g, capsule, scale, color, true);
+	}
+	
+	/**
+	 * Renders the given {@link Capsule} to the given graphics context using the given scale and color.
+	 * @param g the graphics context
+	 * @param capsule the capsule to render
+	 * @param scale the scale to render the shape (pixels per dyn4j unit (typically meter))
+	 * @param color the color
+	 * @param detailed true to draw the outline
+	 */
+	public static final void render(Graphics2D g, Capsule capsule, double scale, Color color, boolean detailed) {
 		// get the local rotation and translation
 		double rotation = capsule.getRotationAngle();
 		Vector2 center = capsule.getCenter();
@@ -220,10 +290,12 @@ public final class Graphics2DRenderer {
 		g.setColor(color);
 		// fill the shape
 		g.fill(path);
-		// set the color
-		g.setColor(getOutlineColor(color));
-		// draw the shape
-		g.draw(path);
+		if (detailed) {
+			// set the color
+			g.setColor(getOutlineColor(color));
+			// draw the shape
+			g.draw(path);
+		}
 		
 		// re-instate the old transform
 		g.setTransform(oTransform);
@@ -237,6 +309,18 @@ public final class Graphics2DRenderer {
 	 * @param color the color
 	 */
 	public static final void render(Graphics2D g, Ellipse ellipse, double scale, Color color) {
+		Graphics2DRenderer.render(g, ellipse, scale, color, true);
+	}
+	
+	/**
+	 * Renders the given {@link Ellipse} to the given graphics context using the given scale and color.
+	 * @param g the graphics context
+	 * @param ellipse the ellipse to render
+	 * @param scale the scale to render the shape (pixels per dyn4j unit (typically meter))
+	 * @param color the color
+	 * @param detailed true to draw the outline
+	 */
+	public static final void render(Graphics2D g, Ellipse ellipse, double scale, Color color, boolean detailed) {
 		// get the local rotation and translation
 		double rotation = ellipse.getRotationAngle();
 		Vector2 center = ellipse.getCenter();
@@ -257,9 +341,11 @@ public final class Graphics2DRenderer {
 		// fill the shape
 		g.setColor(color);
 		g.fill(c);
-		// draw the outline
-		g.setColor(getOutlineColor(color));
-		g.draw(c);
+		if (detailed) {
+			// draw the outline
+			g.setColor(getOutlineColor(color));
+			g.draw(c);
+		}
 		
 		// re-instate the old transform
 		g.setTransform(oTransform);
@@ -273,6 +359,18 @@ public final class Graphics2DRenderer {
 	 * @param color the color
 	 */
 	public static final void render(Graphics2D g, Slice slice, double scale, Color color) {
+		Graphics2DRenderer.render(g, slice, scale, color, true);
+	}
+	
+	/**
+	 * Renders the given {@link Slice} to the given graphics context using the given scale and color.
+	 * @param g the graphics context
+	 * @param slice the slice to render
+	 * @param scale the scale to render the shape (pixels per dyn4j unit (typically meter))
+	 * @param color the color
+	 * @param detailed true to draw the outline
+	 */
+	public static final void render(Graphics2D g, Slice slice, double scale, Color color, boolean detailed) {
 		double radius = slice.getSliceRadius();
 		double theta2 = slice.getTheta() * 0.5;
 		
@@ -299,9 +397,11 @@ public final class Graphics2DRenderer {
 		// fill the shape
 		g.setColor(color);
 		g.fill(a);
-		// draw the outline
-		g.setColor(getOutlineColor(color));
-		g.draw(a);
+		if (detailed) {
+			// draw the outline
+			g.setColor(getOutlineColor(color));
+			g.draw(a);
+		}
 		
 		// re-instate the old transform
 		g.setTransform(oTransform);
@@ -315,6 +415,18 @@ public final class Graphics2DRenderer {
 	 * @param color the color
 	 */
 	public static final void render(Graphics2D g, HalfEllipse halfEllipse, double scale, Color color) {
+		Graphics2DRenderer.render(g, halfEllipse, scale, color, true);
+	}
+	
+	/**
+	 * Renders the given {@link HalfEllipse} to the given graphics context using the given scale and color.
+	 * @param g the graphics context
+	 * @param halfEllipse the halfEllipse to render
+	 * @param scale the scale to render the shape (pixels per dyn4j unit (typically meter))
+	 * @param color the color
+	 * @param detailed true to draw the outline
+	 */
+	public static final void render(Graphics2D g, HalfEllipse halfEllipse, double scale, Color color, boolean detailed) {
 		double width = halfEllipse.getWidth();
 		double height = halfEllipse.getHeight();
 		
@@ -342,9 +454,11 @@ public final class Graphics2DRenderer {
 		// fill the shape
 		g.setColor(color);
 		g.fill(a);
-		// draw the outline
-		g.setColor(getOutlineColor(color));
-		g.draw(a);
+		if (detailed) {
+			// draw the outline
+			g.setColor(getOutlineColor(color));
+			g.draw(a);
+		}
 		
 		// re-instate the old transform
 		g.setTransform(oTransform);
@@ -355,7 +469,7 @@ public final class Graphics2DRenderer {
 	 * @param color the fill color
 	 * @return Color
 	 */
-	private static final Color getOutlineColor(Color color) {
+	static final Color getOutlineColor(Color color) {
 		Color oc = color.darker();
 		return new Color(oc.getRed(), oc.getGreen(), oc.getBlue(), color.getAlpha());
 	}
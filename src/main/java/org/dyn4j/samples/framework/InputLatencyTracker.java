@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.Arrays;
+
+import org.dyn4j.samples.framework.input.InputQueue;
+
+/**
+ * Follows the time stamps of key and mouse presses through the game loop and
+ * records the time from each press to the first frame shown that reflects it.
+ * <p>
+ * A press goes through three stages, each marked by the game loop:
+ * <ol>
+ * <li>{@link #handled(InputQueue)}: the press was delivered to the input handlers</li>
+ * <li>{@link #applied()}: the world was stepped (or is paused) since it was handled</li>
+ * <li>{@link #rendering()}: a frame began drawing after it was applied</li>
+ * </ol>
+ * and its latency is recorded when that frame is shown with {@link #shown(long)}.
+ * Presses move through the stages in order, so they are kept in a single
+ * queue of time stamps with a boundary per stage.
+ * <p>
+ * All methods other than {@link #getHistogram()} must be called from the game loop.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class InputLatencyTracker {
+	/** The latencies */
+	private final LatencyHistogram histogram;
+
+	/** The time stamps of the presses not shown yet, oldest first */
+	private long[] times;
+
+	/** The number of time stamps */
+	private int count;
+
+	/** The number of time stamps (from the start) that have been applied */
+	private int applied;
+
+	/** The number of time stamps (from the start) in the frame being drawn */
+	private int rendered;
+
+	/**
+	 * Default constructor.
+	 */
+	public InputLatencyTracker() {
+		this.histogram = new LatencyHistogram();
+		this.times = new long[16];
+	}
+
+	/**
+	 * Adds the presses delivered by the last call to {@link InputQueue#drain()}.
+	 * @param queue the queue
+	 */
+	public void handled(InputQueue queue) {
+		int n = queue.getDrainedPressCount();
+		if (this.count + n > this.times.length) {
+			this.times = Arrays.copyOf(this.times, Math.max(this.times.length * 2, this.count + n));
+		}
+		for (int i = 0; i < n; i++) {
+			this.times[this.count++] = queue.getDrainedPressTime(i);
+		}
+	}
+
+	/**
+	 * Marks the presses handled so far as applied to the world.
+	 */
+	public void applied() {
+		this.applied = this.count;
+	}
+
+	/**
+	 * Marks the presses applied so far as part of the frame being drawn.
+	 */
+	public void rendering() {
+		this.rendered = this.applied;
+	}
+
+	/**
+	 * Records the latency of the presses in the frame that was just shown.
+	 * @param time the time the frame was shown, from {@link System#nanoTime()}
+	 */
+	public void shown(long time) {
+		int n = this.rendered;
+		if (n == 0) return;
+
+		for (int i = 0; i < n; i++) {
+			this.histogram.record(time - this.times[i]);
+		}
+
+		System.arraycopy(this.times, n, this.times, 0, this.count - n);
+		this.count -= n;
+		this.applied -= n;
+		this.rendered = 0;
+	}
+
+	/**
+	 * Forgets the presses not shown yet.
+	 */
+	public void clear() {
+		this.count = 0;
+		this.applied = 0;
+		this.rendered = 0;
+	}
+
+	/**
+	 * Returns the latencies recorded so far.
+	 * @return {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getHistogram() {
+		return this.histogram;
+	}
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+
+import org.dyn4j.dynamics.joint.DistanceJoint;
+import org.dyn4j.dynamics.joint.FrictionJoint;
+import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.dynamics.joint.PairedBodyJoint;
+import org.dyn4j.dynamics.joint.PinJoint;
+import org.dyn4j.dynamics.joint.PrismaticJoint;
+import org.dyn4j.dynamics.joint.PulleyJoint;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+import org.dyn4j.dynamics.joint.WeldJoint;
+import org.dyn4j.dynamics.joint.WheelJoint;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.World;
+
+/**
+ * Draws the joints of a world as lines colored from black to red by how hard
+ * each joint is working.
+ * <p>
+ * The lines and colors of all joints are worked out at most once per step:
+ * {@link #invalidate()} is called when the world steps, and they are rebuilt
+ * on the next draw, including the reaction forces.  The lines are then added
+ * to one path per color and each path is drawn with a single call using a
+ * ramp of 256 precomputed colors, so drawing doesn't allocate.
+ * <p>
+ * How hard a joint is working is measured by:
+ * <ul>
+ * <li>{@link DistanceJoint}: how far it is from its rest distance</li>
+ * <li>{@link PinJoint}: its reaction force relative to its maximum force</li>
+ * <li>{@link PulleyJoint}: how far it is from its length</li>
+ * <li>all others: its reaction force relative to the weight of its bodies</li>
+ * </ul>
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class JointRenderer {
+	/** The number of colors */
+	private static final int COLOR_COUNT = 256;
+
+	/** The colors from black (no stress) to red */
+	private static final Color[] RAMP = new Color[COLOR_COUNT];
+
+	static {
+		for (int i = 0; i < COLOR_COUNT; i++) {
+			RAMP[i] = new Color(i, 0, 0);
+		}
+	}
+
+	/** The multiple of the bodies' weight that shows as full red */
+	private static final double MAXIMUM_WEIGHT_RATIO = 4.0;
+
+	/** The gravity used to weigh bodies when the world has none */
+	private static final double DEFAULT_GRAVITY = 9.8;
+
+	/** The joints the lines were built for */
+	private Joint<?>[] joints;
+
+	/** The number of joints */
+	private int jointCount;
+
+	/** The line end points in world coordinates, four values per line */
+	private double[] lines;
+
+	/** The color of each line */
+	private int[] colors;
+
+	/** The number of lines */
+	private int lineCount;
+
+	/** True if the lines need to be rebuilt */
+	private boolean invalid;
+
+	/** The path of each color */
+	private final Path2D.Double[] paths;
+
+	/** The colors with lines in the draw in progress */
+	private final int[] used;
+
+	/** True for each color in used */
+	private final boolean[] marked;
+
+	/**
+	 * Default constructor.
+	 */
+	public JointRenderer() {
+		this.joints = new Joint<?>[16];
+		this.lines = new double[64];
+		this.colors = new int[16];
+		this.paths = new Path2D.Double[COLOR_COUNT];
+		this.used = new int[COLOR_COUNT];
+		this.marked = new boolean[COLOR_COUNT];
+		this.invalid = true;
+	}
+
+	/**
+	 * Rebuilds the lines and colors on the next draw.
+	 * <p>
+	 * This should be called after the world steps or anything moves bodies
+	 * or joints.  Adding or removing joints is noticed without it.
+	 */
+	public void invalidate() {
+		this.invalid = true;
+	}
+
+	/**
+	 * Draws the joints of the given world.
+	 * @param g the graphics object to render to
+	 * @param world the world
+	 * @param scale the pixels per world unit
+	 */
+	public void render(Graphics2D g, World<SimulationBody> world, double scale) {
+		if (this.invalid || this.isJointListChanged(world)) {
+			this.rebuild(world);
+		}
+
+		// sort the lines into a path per color
+		int usedCount = 0;
+		for (int i = 0; i < this.lineCount; i++) {
+			int color = this.colors[i];
+			Path2D.Double path = this.paths[color];
+			if (path == null) {
+				path = new Path2D.Double();
+				this.paths[color] = path;
+			}
+			if (!this.marked[color]) {
+				this.marked[color] = true;
+				this.used[usedCount++] = color;
+			}
+			int j = i * 4;
+			path.moveTo(this.lines[j] * scale, this.lines[j + 1] * scale);
+			path.lineTo(this.lines[j + 2] * scale, this.lines[j + 3] * scale);
+		}
+
+		for (int i = 0; i < usedCount; i++) {
+			int color = this.used[i];
+			g.setColor(RAMP[color]);
+			g.draw(this.paths[color]);
+			this.paths[color].reset();
+			this.marked[color] = false;
+		}
+	}
+
+	/**
+	 * Returns true if the world's joints aren't the ones the lines were built for.
+	 * @param world the world
+	 * @return boolean
+	 */
+	private boolean isJointListChanged(World<SimulationBody> world) {
+		int n = world.getJointCount();
+		if (n != this.jointCount) return true;
+		for (int i = 0; i < n; i++) {
+			if (world.getJoint(i) != this.joints[i]) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Rebuilds the lines and colors of all joints.
+	 * @param world the world
+	 */
+	private void rebuild(World<SimulationBody> world) {
+		int n = world.getJointCount();
+		if (this.joints.length < n) {
+			this.joints = new Joint<?>[Math.max(n, this.joints.length * 2)];
+		}
+		// don't hold on to removed joints
+		Arrays.fill(this.joints, n, Math.max(n, this.jointCount), null);
+
+		double invDt = world.getTimeStep().getInverseDeltaTime();
+		double gravity = world.getGravity().getMagnitude();
+		if (gravity == 0.0) {
+			gravity = DEFAULT_GRAVITY;
+		}
+
+		this.lineCount = 0;
+		for (int i = 0; i < n; i++) {
+			Joint<SimulationBody> joint = world.getJoint(i);
+			this.joints[i] = joint;
+
+			if (joint instanceof DistanceJoint) {
+				DistanceJoint<SimulationBody> dj = (DistanceJoint<SimulationBody>)joint;
+				Vector2 a1 = dj.getAnchor1();
+				Vector2 a2 = dj.getAnchor2();
+				double error = Math.abs(dj.getRestDistance() - a1.distance(a2));
+				this.addLine(a1, a2, getColor(error * 100));
+			} else if (joint instanceof PinJoint) {
+				PinJoint<SimulationBody> pj = (PinJoint<SimulationBody>)joint;
+				double max = pj.getMaximumSpringForce();
+				if (!pj.isSpringEnabled()) {
+					max = pj.getMaximumCorrectionForce();
+				}
+				double force = pj.getReactionForce(invDt).getMagnitude();
+				this.addLine(pj.getTarget(), pj.getAnchor(), getColor(force / max * 255));
+			} else if (joint instanceof PulleyJoint) {
+				PulleyJoint<SimulationBody> pj = (PulleyJoint<SimulationBody>)joint;
+				double error = Math.abs(pj.getLength() - pj.getCurrentLength());
+				int color = getColor(error * 100);
+				Vector2 p1 = pj.getPulleyAnchor1();
+				Vector2 p2 = pj.getPulleyAnchor2();
+				this.addLine(p1, pj.getAnchor1(), color);
+				this.addLine(p1, p2, color);
+				this.addLine(p2, pj.getAnchor2(), color);
+			} else if (joint instanceof PairedBodyJoint) {
+				PairedBodyJoint<SimulationBody> pj = (PairedBodyJoint<SimulationBody>)joint;
+				SimulationBody b1 = pj.getBody1();
+				SimulationBody b2 = pj.getBody2();
+				double weight = (getMass(b1) + getMass(b2)) * gravity;
+				double force = joint.getReactionForce(invDt).getMagnitude();
+				int color = weight > 0.0 ? getColor(force / weight / MAXIMUM_WEIGHT_RATIO * 255) : 0;
+
+				Vector2 a1 = null;
+				Vector2 a2 = null;
+				if (joint instanceof RevoluteJoint) {
+					a1 = ((RevoluteJoint<SimulationBody>)joint).getAnchor1();
+					a2 = ((RevoluteJoint<SimulationBody>)joint).getAnchor2();
+				} else if (joint instanceof WeldJoint) {
+					a1 = ((WeldJoint<SimulationBody>)joint).getAnchor1();
+					a2 = ((WeldJoint<SimulationBody>)joint).getAnchor2();
+				} else if (joint instanceof PrismaticJoint) {
+					a1 = ((PrismaticJoint<SimulationBody>)joint).getAnchor1();
+					a2 = ((PrismaticJoint<SimulationBody>)joint).getAnchor2();
+				} else if (joint instanceof WheelJoint) {
+					a1 = ((WheelJoint<SimulationBody>)joint).getAnchor1();
+					a2 = ((WheelJoint<SimulationBody>)joint).getAnchor2();
+				} else if (joint instanceof FrictionJoint) {
+					a1 = ((FrictionJoint<SimulationBody>)joint).getAnchor1();
+					a2 = ((FrictionJoint<SimulationBody>)joint).getAnchor2();
+				}
+
+				Vector2 c1 = b1.getWorldCenter();
+				Vector2 c2 = b2.getWorldCenter();
+				if (a1 != null) {
+					// from each body to its anchor
+					this.addLine(c1, a1, color);
+					this.addLine(a2, c2, color);
+				} else {
+					// motor, angle and other joints without anchors
+					this.addLine(c1, c2, color);
+				}
+			}
+		}
+
+		this.jointCount = n;
+		this.invalid = false;
+	}
+
+	/**
+	 * Adds a line.
+	 * @param p1 the start
+	 * @param p2 the end
+	 * @param color the color index
+	 */
+	private void addLine(Vector2 p1, Vector2 p2, int color) {
+		if (this.lineCount == this.colors.length) {
+			this.colors = Arrays.copyOf(this.colors, this.lineCount * 2);
+			this.lines = Arrays.copyOf(this.lines, this.lineCount * 8);
+		}
+		int j = this.lineCount * 4;
+		this.lines[j] = p1.x;
+		this.lines[j + 1] = p1.y;
+		this.lines[j + 2] = p2.x;
+		this.lines[j + 3] = p2.y;
+		this.colors[this.lineCount] = color;
+		this.lineCount++;
+	}
+
+	/**
+	 * Returns the color index for the given stress, clamped to the ramp.
+	 * @param value the stress from 0 (black) to 255 (red)
+	 * @return int
+	 */
+	private static int getColor(double value) {
+		if (!(value > 0.0)) return 0;
+		if (value >= COLOR_COUNT - 1) return COLOR_COUNT - 1;
+		return (int)value;
+	}
+
+	/**
+	 * Returns the mass of the given body or zero if it's infinite.
+	 * @param body the body
+	 * @return double
+	 */
+	private static double getMass(SimulationBody body) {
+		if (body.getMass().isInfinite()) return 0.0;
+		return body.getMass().getMass();
+	}
+
+	/**
+	 * Returns the number of lines built for the joints.
+	 * @return int
+	 */
+	public int getLineCount() {
+		return this.lineCount;
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+/**
+ * Counts latencies in buckets so that percentiles can be read back without
+ * storing every sample.
+ * <p>
+ * Latencies are recorded in nanoseconds and kept to the microsecond.  Below
+ * 32 microseconds every microsecond has its own bucket; above that each power
+ * of two is split into 16 buckets, so a percentile is off by at most 1/16th of
+ * its value.  Recording doesn't allocate.
+ * <p>
+ * All methods are synchronized so the histogram can be read from any thread
+ * while the game loop records into it.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class LatencyHistogram {
+	/** The number of sub buckets per power of two, as a power of two */
+	private static final int SUB_BUCKET_BITS = 4;
+
+	/** The number of sub buckets per power of two */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** The largest latency kept apart, in microseconds (about a minute); longer ones go in the last bucket */
+	private static final long MAXIMUM_MICROS = (1L << 26) - 1;
+
+	/** The conversion factor from nanoseconds to microseconds */
+	private static final long NANOS_PER_MICRO = 1000L;
+
+	/** The conversion factor from microseconds to milliseconds */
+	private static final double MICROS_TO_MILLIS = 1.0e-3;
+
+	/** The number of latencies in each bucket */
+	private final long[] counts;
+
+	/** The number of latencies recorded */
+	private long count;
+
+	/** The sum of the latencies recorded, in microseconds */
+	private long sum;
+
+	/** The longest latency recorded, in microseconds */
+	private long max;
+
+	/**
+	 * Default constructor.
+	 */
+	public LatencyHistogram() {
+		this.counts = new long[getBucket(MAXIMUM_MICROS) + 1];
+	}
+
+	/**
+	 * Records a latency.
+	 * @param nanos the latency in nanoseconds; negative values are recorded as zero
+	 */
+	public synchronized void record(long nanos) {
+		long micros = Math.min(Math.max(nanos / NANOS_PER_MICRO, 0), MAXIMUM_MICROS);
+		this.counts[getBucket(micros)]++;
+		this.count++;
+		this.sum += micros;
+		if (micros > this.max) {
+			this.max = micros;
+		}
+	}
+
+	/**
+	 * Removes all recorded latencies.
+	 */
+	public synchronized void reset() {
+		for (int i = 0; i < this.counts.length; i++) {
+			this.counts[i] = 0;
+		}
+		this.count = 0;
+		this.sum = 0;
+		this.max = 0;
+	}
+
+	/**
+	 * Returns the number of latencies recorded.
+	 * @return long
+	 */
+	public synchronized long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the mean latency in milliseconds or zero if none were recorded.
+	 * @return double
+	 */
+	public synchronized double getMean() {
+		if (this.count == 0) return 0.0;
+		return (double)this.sum / this.count * MICROS_TO_MILLIS;
+	}
+
+	/**
+	 * Returns the longest latency in milliseconds or zero if none were recorded.
+	 * @return double
+	 */
+	public synchronized double getMaximum() {
+		return this.max * MICROS_TO_MILLIS;
+	}
+
+	/**
+	 * Returns the latency in milliseconds that the given percent of the
+	 * recorded latencies are less than or equal to, or zero if none were
+	 * recorded.
+	 * <p>
+	 * The value returned is the upper end of the bucket the percentile falls
+	 * in, but never more than the longest latency recorded.
+	 * @param percent the percent in the range [0, 100]
+	 * @return double
+	 */
+	public synchronized double getPercentile(double percent) {
+		if (this.count == 0) return 0.0;
+
+		// the number of latencies at or below the percentile
+		long rank = (long)Math.ceil(percent / 100.0 * this.count);
+		rank = Math.min(Math.max(rank, 1), this.count);
+
+		long seen = 0;
+		for (int i = 0; i < this.counts.length; i++) {
+			seen += this.counts[i];
+			if (seen >= rank) {
+				long upper = getLowerBound(i + 1) - 1;
+				return Math.min(upper, this.max) * MICROS_TO_MILLIS;
+			}
+		}
+		return this.max * MICROS_TO_MILLIS;
+	}
+
+	/**
+	 * Returns the bucket for the given latency.
+	 * @param micros the latency in microseconds
+	 * @return int
+	 */
+	private static int getBucket(long micros) {
+		int msb = 63 - Long.numberOfLeadingZeros(micros);
+		int shift = Math.max(0, msb - SUB_BUCKET_BITS);
+		return shift * SUB_BUCKETS + (int)(micros >> shift);
+	}
+
+	/**
+	 * Returns the smallest latency that goes in the given bucket.
+	 * @param bucket the bucket
+	 * @return long
+	 */
+	private static long getLowerBound(int bucket) {
+		int shift = Math.max(0, bucket / SUB_BUCKETS - 1);
+		return (long)(bucket - shift * SUB_BUCKETS) << shift;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		return String.format("n=%d mean=%.1fms p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+				this.count,
+				this.getMean(),
+				this.getPercentile(50),
+				this.getPercentile(95),
+				this.getPercentile(99),
+				this.getMaximum());
+	}
+}
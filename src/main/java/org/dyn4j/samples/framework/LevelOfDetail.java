@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+/**
+ * The amount of detail to draw a body or fixture with, chosen by how big it
+ * is on screen.
+ * <p>
+ * When zoomed out on a large world most bodies cover only a few pixels, if
+ * that, and outlines, rotation lines and center points add cost without
+ * adding anything that can be seen.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public enum LevelOfDetail {
+	/** Drawn as a single pixel */
+	POINT,
+
+	/** Filled without outlines or decoration */
+	SIMPLE,
+
+	/** Drawn with outlines and decoration */
+	FULL;
+
+	/** The size in pixels below which a single pixel is drawn */
+	public static final double POINT_SIZE = 2.0;
+
+	/** The size in pixels below which outlines and decoration are left out */
+	public static final double SIMPLE_SIZE = 12.0;
+
+	/**
+	 * Returns the level of detail for something of the given size.
+	 * @param size the size (diameter) in pixels
+	 * @return {@link LevelOfDetail}
+	 */
+	public static LevelOfDetail get(double size) {
+		if (size < POINT_SIZE) {
+			return POINT;
+		} else if (size < SIMPLE_SIZE) {
+			return SIMPLE;
+		}
+		return FULL;
+	}
+
+	/**
+	 * Returns the level of detail for a circle with the given radius drawn at
+	 * the given scale.
+	 * @param radius the radius in world units
+	 * @param scale the camera scale in pixels per world unit
+	 * @return {@link LevelOfDetail}
+	 */
+	public static LevelOfDetail get(double radius, double scale) {
+		return get(radius * 2.0 * scale);
+	}
+}
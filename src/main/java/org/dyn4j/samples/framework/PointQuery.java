@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.collision.CollisionItem;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.DetectFilter;
+import org.dyn4j.world.World;
+
+/**
+ * Finds the body under a point, for picking or hovering with the mouse.
+ * <p>
+ * The query bounds and point are reused and the broad-phase is searched
+ * directly rather than through the world, which creates a result object for
+ * every fixture it finds.  The last body found is kept and checked first by
+ * the next query; while the point stays inside it nothing else is searched,
+ * which makes continuous queries (on hover for example) cheap and keeps the
+ * result stable when bodies overlap.  Because of that, the body returned
+ * isn't necessarily the topmost one while it still contains the point, even
+ * if another body has moved over it since.
+ * <p>
+ * Otherwise, when more than one body contains the point, the topmost one, the
+ * one drawn last, is returned.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class PointQuery {
+	/** The half size of the bounds used to search the broad-phase */
+	private static final double QUERY_EXTENT = 0.0001;
+
+	/** The world */
+	private final World<SimulationBody> world;
+
+	/** The query bounds */
+	private final AABB aabb;
+
+	/** The query point */
+	private final Vector2 point;
+
+	/** The bodies containing the point */
+	private SimulationBody[] hits;
+
+	/** The filter for the fixtures to test */
+	private DetectFilter<SimulationBody, BodyFixture> filter;
+
+	/** The body found by the last query */
+	private SimulationBody last;
+
+	/** The index of each body in the world's list, as of when it was last built */
+	private final Map<SimulationBody, Integer> indices;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world
+	 */
+	public PointQuery(World<SimulationBody> world) {
+		this.world = world;
+		this.aabb = new AABB(0.0, 0.0, 0.0, 0.0);
+		this.point = new Vector2();
+		this.hits = new SimulationBody[4];
+		this.indices = new IdentityHashMap<SimulationBody, Integer>();
+	}
+
+	/**
+	 * Returns a body containing the given point; or null if there isn't one.
+	 * <p>
+	 * This is the body from the last query if it still contains the point and
+	 * the topmost body containing the point otherwise.
+	 * @param point the point in world coordinates
+	 * @return {@link SimulationBody}
+	 */
+	public SimulationBody query(Vector2 point) {
+		return this.query(point.x, point.y);
+	}
+
+	/**
+	 * Returns a body containing the given point; or null if there isn't one.
+	 * <p>
+	 * This is the body from the last query if it still contains the point and
+	 * the topmost body containing the point otherwise.
+	 * @param x the x coordinate in world coordinates
+	 * @param y the y coordinate in world coordinates
+	 * @return {@link SimulationBody}
+	 */
+	public SimulationBody query(double x, double y) {
+		this.point.set(x, y);
+
+		// try the last hit first
+		SimulationBody last = this.last;
+		if (last != null && last.getOwner() == this.world && this.contains(last)) {
+			return last;
+		}
+
+		AABB.setFromPoints(x - QUERY_EXTENT, y - QUERY_EXTENT, x + QUERY_EXTENT, y + QUERY_EXTENT, this.aabb);
+
+		int n = 0;
+		Iterator<CollisionItem<SimulationBody, BodyFixture>> it = this.world.getBroadphaseDetector().detectIterator(this.aabb);
+		while (it.hasNext()) {
+			CollisionItem<SimulationBody, BodyFixture> item = it.next();
+			SimulationBody body = item.getBody();
+			BodyFixture fixture = item.getFixture();
+
+			if (this.filter != null && !this.filter.isAllowed(body, fixture)) {
+				continue;
+			}
+
+			// a body with many fixtures can be found more than once
+			if (indexOf(this.hits, n, body) >= 0) {
+				continue;
+			}
+
+			if (fixture.getShape().contains(this.point, body.getTransform())) {
+				if (n == this.hits.length) {
+					SimulationBody[] hits = new SimulationBody[n * 2];
+					System.arraycopy(this.hits, 0, hits, 0, n);
+					this.hits = hits;
+				}
+				this.hits[n++] = body;
+			}
+		}
+
+		SimulationBody body = null;
+		if (n == 1) {
+			body = this.hits[0];
+		} else if (n > 1) {
+			body = this.getTopmost(n);
+		}
+
+		for (int i = 0; i < n; i++) {
+			this.hits[i] = null;
+		}
+
+		this.last = body;
+		return body;
+	}
+
+	/**
+	 * Returns the hit that's drawn last, which is the one latest in the
+	 * world's list of bodies.
+	 * @param n the number of hits
+	 * @return {@link SimulationBody}
+	 */
+	private SimulationBody getTopmost(int n) {
+		SimulationBody topmost = this.hits[0];
+		int index = this.getIndex(topmost);
+		for (int i = 1; i < n; i++) {
+			SimulationBody body = this.hits[i];
+			int j = this.getIndex(body);
+			if (j > index) {
+				topmost = body;
+				index = j;
+			}
+		}
+		return topmost;
+	}
+
+	/**
+	 * Returns the index of the given body in the world's list of bodies.
+	 * <p>
+	 * The indices are kept between queries.  An index is checked against the
+	 * world before it's used, and all of them are found again only when one
+	 * is out of date because bodies were added or removed since.
+	 * @param body the body
+	 * @return int the index or -1 if the body isn't in the world
+	 */
+	private int getIndex(SimulationBody body) {
+		Integer index = this.indices.get(body);
+		if (index != null) {
+			int i = index.intValue();
+			if (i < this.world.getBodyCount() && this.world.getBody(i) == body) {
+				return i;
+			}
+		}
+
+		this.indices.clear();
+		List<SimulationBody> bodies = this.world.getBodies();
+		int n = bodies.size();
+		for (int i = 0; i < n; i++) {
+			this.indices.put(bodies.get(i), i);
+		}
+
+		index = this.indices.get(body);
+		return index != null ? index.intValue() : -1;
+	}
+
+	/**
+	 * Returns true if the given body passes the filter and contains the query point.
+	 * @param body the body
+	 * @return boolean
+	 */
+	private boolean contains(SimulationBody body) {
+		int n = body.getFixtureCount();
+		for (int i = 0; i < n; i++) {
+			BodyFixture fixture = body.getFixture(i);
+			if (this.filter != null && !this.filter.isAllowed(body, fixture)) {
+				continue;
+			}
+			if (fixture.getShape().contains(this.point, body.getTransform())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the index of the given body in the first n elements of the given array.
+	 * @param bodies the array
+	 * @param n the number of elements
+	 * @param body the body
+	 * @return int the index or -1 if not found
+	 */
+	private static int indexOf(SimulationBody[] bodies, int n, SimulationBody body) {
+		for (int i = 0; i < n; i++) {
+			if (bodies[i] == body) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Forgets the body found by the last query.
+	 */
+	public void clear() {
+		this.last = null;
+		this.indices.clear();
+	}
+
+	/**
+	 * Returns the body found by the last query; or null if it didn't find one.
+	 * @return {@link SimulationBody}
+	 */
+	public SimulationBody getLastHit() {
+		return this.last;
+	}
+
+	/**
+	 * Returns the filter for the fixtures to test.
+	 * @return DetectFilter
+	 */
+	public DetectFilter<SimulationBody, BodyFixture> getFilter() {
+		return this.filter;
+	}
+
+	/**
+	 * Sets the filter for the fixtures to test.
+	 * @param filter the filter; null to test every fixture
+	 */
+	public void setFilter(DetectFilter<SimulationBody, BodyFixture> filter) {
+		this.filter = filter;
+		this.last = null;
+	}
+}
@@ -0,0 +1,741 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.Capsule;
+import org.dyn4j.geometry.Circle;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Polygon;
+import org.dyn4j.geometry.Segment;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.World;
+
+/**
+ * Draws the bodies of a world straight into the pixels of an image, as an
+ * alternative to {@link Graphics2DRenderer} for very large numbers of bodies.
+ * <p>
+ * Shapes are filled one scanline at a time by writing spans of pixels into
+ * the image's int array, skipping the general purpose path filling, blending
+ * and antialiasing of Java2D.  Circles, polygons and capsules are filled
+ * exactly; other convex shapes are filled using a polygon through points on
+ * their outline and segments are drawn as one pixel lines.  Like
+ * {@link LevelOfDetail#SIMPLE}, there are no outlines or center points, and
+ * bodies smaller than {@link LevelOfDetail#POINT_SIZE} are a single pixel.
+ * <p>
+ * The view is split into tiles with a {@link TileGrid}, each tile is cleared
+ * and drawn on its own, and when an {@link Executor} is set the tiles are
+ * shared out across threads.  The result is one image to draw to the screen.
+ * <p>
+ * The world must not be changed while rendering.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class RasterRenderer {
+	/** The default background color */
+	public static final int DEFAULT_BACKGROUND = 0xFFFFFF;
+
+	/** The minimum number of bodies before the tiles are split across threads */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 2000;
+
+	/** The number of points used to fill shapes that aren't filled exactly */
+	private static final int OUTLINE_POINTS = 24;
+
+	/** The tiles */
+	private final TileGrid grid;
+
+	/** The image */
+	private BufferedImage image;
+
+	/** The pixels of the image */
+	private int[] pixels;
+
+	/** The image width */
+	private int width;
+
+	/** The image height */
+	private int height;
+
+	/** The background color */
+	private int background;
+
+	/** The screen x of the world origin */
+	private double originX;
+
+	/** The screen y of the world origin */
+	private double originY;
+
+	/** The scale in pixels per world unit */
+	private double scale;
+
+	/** The executor used to draw tiles on other threads */
+	private Executor executor;
+
+	/** The number of threads tiles are split across */
+	private int parallelism;
+
+	/** The minimum number of bodies before the tiles are split across threads */
+	private int parallelThreshold;
+
+	/** The scratch space for each thread */
+	private Rasterizer[] rasterizers;
+
+	/** The next tile to draw */
+	private final AtomicInteger nextTile;
+
+	/**
+	 * Default constructor.
+	 */
+	public RasterRenderer() {
+		this.grid = new TileGrid();
+		this.background = DEFAULT_BACKGROUND;
+		this.parallelism = Runtime.getRuntime().availableProcessors();
+		this.parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+		this.rasterizers = new Rasterizer[0];
+		this.nextTile = new AtomicInteger();
+	}
+
+	/**
+	 * Draws the given world as seen by the given camera and returns the image.
+	 * <p>
+	 * The image is reused between calls while the size stays the same.
+	 * @param world the world
+	 * @param camera the camera
+	 * @param width the view width in pixels
+	 * @param height the view height in pixels
+	 * @return BufferedImage
+	 */
+	public BufferedImage render(World<SimulationBody> world, Camera camera, int width, int height) {
+		this.ensureImage(Math.max(1, width), Math.max(1, height));
+
+		// same as the transform SimulationFrame uses for Graphics2D
+		this.originX = this.width * 0.5 + camera.offsetX;
+		this.originY = this.height * 0.5 - camera.offsetY;
+		this.scale = camera.scale;
+
+		this.grid.bin(world, camera, this.width, this.height);
+
+		int tiles = this.grid.getTileCount();
+		int parts = Math.min(this.parallelism, tiles);
+		if (this.executor == null || parts < 2 || world.getBodyCount() < this.parallelThreshold) {
+			Rasterizer rasterizer = this.getRasterizer(0);
+			for (int i = 0; i < tiles; i++) {
+				rasterizer.renderTile(i);
+			}
+		} else {
+			this.renderParallel(parts);
+		}
+
+		return this.image;
+	}
+
+	/**
+	 * Draws the tiles on the executor's threads and the calling thread, each
+	 * taking the next tile until there are none left.
+	 * @param parts the number of threads
+	 */
+	private void renderParallel(int parts) {
+		this.nextTile.set(0);
+
+		CountDownLatch latch = new CountDownLatch(parts - 1);
+		int submitted = 1;
+		try {
+			for (; submitted < parts; submitted++) {
+				Rasterizer rasterizer = this.getRasterizer(submitted);
+				rasterizer.latch = latch;
+				rasterizer.error = null;
+				this.executor.execute(rasterizer);
+			}
+
+			this.getRasterizer(0).renderTiles();
+		} finally {
+			// the rasterizers that weren't submitted won't count down
+			for (int i = submitted; i < parts; i++) {
+				latch.countDown();
+			}
+
+			// the other threads are still writing to the tiles and the image
+			boolean interrupted = false;
+			while (true) {
+				try {
+					latch.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		for (int i = 1; i < parts; i++) {
+			Rasterizer rasterizer = this.rasterizers[i];
+			rasterizer.latch = null;
+			if (rasterizer.error != null) {
+				throw rasterizer.error;
+			}
+		}
+	}
+
+	/**
+	 * Creates the image if it doesn't exist or is a different size.
+	 * @param width the width
+	 * @param height the height
+	 */
+	private void ensureImage(int width, int height) {
+		if (this.image != null && this.width == width && this.height == height) {
+			return;
+		}
+		this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		this.pixels = ((DataBufferInt)this.image.getRaster().getDataBuffer()).getData();
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Returns the scratch space for the given thread.
+	 * @param index the thread index
+	 * @return {@link Rasterizer}
+	 */
+	private Rasterizer getRasterizer(int index) {
+		if (this.rasterizers.length <= index) {
+			Rasterizer[] rasterizers = new Rasterizer[index + 1];
+			System.arraycopy(this.rasterizers, 0, rasterizers, 0, this.rasterizers.length);
+			this.rasterizers = rasterizers;
+		}
+		if (this.rasterizers[index] == null) {
+			this.rasterizers[index] = new Rasterizer();
+		}
+		return this.rasterizers[index];
+	}
+
+	/**
+	 * Returns the fill color of the given body as an RGB int.
+	 * <p>
+	 * Bodies at rest are brighter, the same as with {@link SimulationBody#render(java.awt.Graphics2D, double)}.
+	 * @param body the body
+	 * @return int
+	 */
+	private static int getColor(SimulationBody body) {
+		Color color = body.getColor();
+		int rgb = color != null ? color.getRGB() & 0xFFFFFF : 0xFFC800;
+		return body.isAtRest() ? brighter(rgb) : rgb;
+	}
+
+	/**
+	 * Returns a brighter version of the given color, the same as {@link Color#brighter()}.
+	 * @param rgb the color
+	 * @return int
+	 */
+	static int brighter(int rgb) {
+		int r = (rgb >> 16) & 0xFF;
+		int g = (rgb >> 8) & 0xFF;
+		int b = rgb & 0xFF;
+
+		// Color.brighter uses a factor of 0.7
+		int i = (int)(1.0 / (1.0 - 0.7));
+		if (r == 0 && g == 0 && b == 0) {
+			return (i << 16) | (i << 8) | i;
+		}
+		if (r > 0 && r < i) r = i;
+		if (g > 0 && g < i) g = i;
+		if (b > 0 && b < i) b = i;
+
+		r = Math.min((int)(r / 0.7), 255);
+		g = Math.min((int)(g / 0.7), 255);
+		b = Math.min((int)(b / 0.7), 255);
+		return (r << 16) | (g << 8) | b;
+	}
+
+	/**
+	 * Returns the image last drawn; or null if nothing has been drawn.
+	 * @return BufferedImage
+	 */
+	public BufferedImage getImage() {
+		return this.image;
+	}
+
+	/**
+	 * Returns the background color as an RGB int.
+	 * @return int
+	 */
+	public int getBackground() {
+		return this.background;
+	}
+
+	/**
+	 * Sets the background color.
+	 * @param rgb the color as an RGB int
+	 */
+	public void setBackground(int rgb) {
+		this.background = rgb & 0xFFFFFF;
+	}
+
+	/**
+	 * Returns the tile grid.
+	 * @return {@link TileGrid}
+	 */
+	public TileGrid getTileGrid() {
+		return this.grid;
+	}
+
+	/**
+	 * Returns the executor used to draw tiles on other threads.
+	 * @return Executor
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	/**
+	 * Sets the executor used to draw tiles on other threads.
+	 * @param executor the executor; null to draw on the calling thread
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the number of threads the tiles are split across.
+	 * @return int
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Sets the number of threads the tiles are split across, including the
+	 * calling thread.
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the minimum number of bodies before the tiles are split across threads.
+	 * @return int
+	 */
+	public int getParallelThreshold() {
+		return this.parallelThreshold;
+	}
+
+	/**
+	 * Sets the minimum number of bodies before the tiles are split across threads.
+	 * @param threshold the number of bodies
+	 */
+	public void setParallelThreshold(int threshold) {
+		this.parallelThreshold = threshold;
+	}
+
+	/**
+	 * Fills shapes within one tile at a time and holds the scratch space for
+	 * one thread.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private final class Rasterizer implements Runnable {
+		/** The screen x coordinates of the current polygon */
+		private double[] xs = new double[8];
+
+		/** The screen y coordinates of the current polygon */
+		private double[] ys = new double[8];
+
+		/** The direction used to find points on an outline */
+		private final Vector2 direction = new Vector2();
+
+		// the current tile, as [min, max)
+
+		/** The left edge of the tile */
+		private int clipMinX;
+
+		/** The top edge of the tile */
+		private int clipMinY;
+
+		/** The right edge of the tile */
+		private int clipMaxX;
+
+		/** The bottom edge of the tile */
+		private int clipMaxY;
+
+		/** Any error thrown while drawing */
+		private RuntimeException error;
+
+		/** Signaled when done */
+		private CountDownLatch latch;
+
+		/* (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				this.renderTiles();
+			} catch (RuntimeException e) {
+				this.error = e;
+			} finally {
+				this.latch.countDown();
+			}
+		}
+
+		/**
+		 * Draws tiles until there are none left.
+		 */
+		private void renderTiles() {
+			int tiles = grid.getTileCount();
+			int tile;
+			while ((tile = nextTile.getAndIncrement()) < tiles) {
+				this.renderTile(tile);
+			}
+		}
+
+		/**
+		 * Clears and draws the given tile.
+		 * @param tile the tile index
+		 */
+		private void renderTile(int tile) {
+			this.clipMinX = grid.getTileX(tile);
+			this.clipMinY = grid.getTileY(tile);
+			this.clipMaxX = this.clipMinX + grid.getTileWidth(tile);
+			this.clipMaxY = this.clipMinY + grid.getTileHeight(tile);
+
+			for (int y = this.clipMinY; y < this.clipMaxY; y++) {
+				int row = y * width;
+				Arrays.fill(pixels, row + this.clipMinX, row + this.clipMaxX, background);
+			}
+
+			int n = grid.getBodyCount(tile);
+			for (int i = 0; i < n; i++) {
+				this.renderBody(grid.getBody(tile, i));
+			}
+		}
+
+		/**
+		 * Draws the given body.
+		 * @param body the body
+		 */
+		private void renderBody(SimulationBody body) {
+			int rgb = getColor(body);
+			Transform tx = body.getTransform();
+
+			if (LevelOfDetail.get(body.getRotationDiscRadius(), scale) == LevelOfDetail.POINT) {
+				Vector2 lc = body.getLocalCenter();
+				this.plot(
+						(int)Math.floor(originX + tx.getTransformedX(lc) * scale),
+						(int)Math.floor(originY - tx.getTransformedY(lc) * scale),
+						rgb);
+				return;
+			}
+
+			int n = body.getFixtureCount();
+			for (int i = 0; i < n; i++) {
+				BodyFixture fixture = body.getFixture(i);
+				Convex convex = fixture.getShape();
+				if (convex instanceof Circle) {
+					this.fillCircle((Circle)convex, tx, rgb);
+				} else if (convex instanceof Polygon) {
+					this.fillPolygon((Polygon)convex, tx, rgb);
+				} else if (convex instanceof Capsule) {
+					this.fillCapsule((Capsule)convex, tx, rgb);
+				} else if (convex instanceof Segment) {
+					this.drawSegment((Segment)convex, tx, rgb);
+				} else {
+					this.fillConvex(convex, tx, rgb);
+				}
+			}
+		}
+
+		/**
+		 * Fills the given circle.
+		 * @param circle the circle
+		 * @param tx the body transform
+		 * @param rgb the color
+		 */
+		private void fillCircle(Circle circle, Transform tx, int rgb) {
+			Vector2 c = circle.getCenter();
+			double cx = originX + tx.getTransformedX(c) * scale;
+			double cy = originY - tx.getTransformedY(c) * scale;
+			double r = circle.getRadius() * scale;
+
+			int y0 = Math.max(this.clipMinY, (int)Math.ceil(cy - r - 0.5));
+			int y1 = Math.min(this.clipMaxY - 1, (int)Math.floor(cy + r - 0.5));
+			double rr = r * r;
+			for (int y = y0; y <= y1; y++) {
+				double dy = y + 0.5 - cy;
+				double d = rr - dy * dy;
+				if (d < 0) continue;
+				double h = Math.sqrt(d);
+				this.fillSpan(y, cx - h, cx + h, rgb);
+			}
+		}
+
+		/**
+		 * Fills the given polygon.
+		 * @param polygon the polygon
+		 * @param tx the body transform
+		 * @param rgb the color
+		 */
+		private void fillPolygon(Polygon polygon, Transform tx, int rgb) {
+			Vector2[] vertices = polygon.getVertices();
+			int n = vertices.length;
+			this.ensurePoints(n);
+			for (int i = 0; i < n; i++) {
+				Vector2 v = vertices[i];
+				this.xs[i] = originX + tx.getTransformedX(v) * scale;
+				this.ys[i] = originY - tx.getTransformedY(v) * scale;
+			}
+			this.fillPoints(n, rgb);
+		}
+
+		/**
+		 * Fills the given capsule.
+		 * <p>
+		 * Each scanline is the union of the spans of the two end circles and
+		 * the rectangle between them, which is one span since a capsule is convex.
+		 * @param capsule the capsule
+		 * @param tx the body transform
+		 * @param rgb the color
+		 */
+		private void fillCapsule(Capsule capsule, Transform tx, int rgb) {
+			Vector2 c = capsule.getCenter();
+			double r = capsule.getCapRadius();
+			double h = capsule.getLength() * 0.5 - r;
+
+			// the axis in world space
+			double angle = capsule.getRotationAngle();
+			double lx = Math.cos(angle);
+			double ly = Math.sin(angle);
+			double ax = tx.getCost() * lx - tx.getSint() * ly;
+			double ay = tx.getSint() * lx + tx.getCost() * ly;
+
+			// the ends of the axis and the radius in pixels
+			double wx = tx.getTransformedX(c);
+			double wy = tx.getTransformedY(c);
+			double x1 = originX + (wx - ax * h) * scale;
+			double y1 = originY - (wy - ay * h) * scale;
+			double x2 = originX + (wx + ax * h) * scale;
+			double y2 = originY - (wy + ay * h) * scale;
+			double rs = r * scale;
+
+			// the rectangle between the end circles
+			double nx = -(y2 - y1);
+			double ny = x2 - x1;
+			double nl = Math.sqrt(nx * nx + ny * ny);
+			boolean rectangle = nl > 0;
+			if (rectangle) {
+				nx = nx / nl * rs;
+				ny = ny / nl * rs;
+				this.ensurePoints(4);
+				this.xs[0] = x1 + nx; this.ys[0] = y1 + ny;
+				this.xs[1] = x2 + nx; this.ys[1] = y2 + ny;
+				this.xs[2] = x2 - nx; this.ys[2] = y2 - ny;
+				this.xs[3] = x1 - nx; this.ys[3] = y1 - ny;
+			}
+
+			int y0 = Math.max(this.clipMinY, (int)Math.ceil(Math.min(y1, y2) - rs - 0.5));
+			int yn = Math.min(this.clipMaxY - 1, (int)Math.floor(Math.max(y1, y2) + rs - 0.5));
+			double rr = rs * rs;
+			for (int y = y0; y <= yn; y++) {
+				double yc = y + 0.5;
+				double min = Double.MAX_VALUE;
+				double max = -Double.MAX_VALUE;
+
+				double dy = yc - y1;
+				double d = rr - dy * dy;
+				if (d >= 0) {
+					d = Math.sqrt(d);
+					min = Math.min(min, x1 - d);
+					max = Math.max(max, x1 + d);
+				}
+
+				dy = yc - y2;
+				d = rr - dy * dy;
+				if (d >= 0) {
+					d = Math.sqrt(d);
+					min = Math.min(min, x2 - d);
+					max = Math.max(max, x2 + d);
+				}
+
+				if (rectangle) {
+					for (int i = 0, j = 3; i < 4; j = i++) {
+						double yi = this.ys[i];
+						double yj = this.ys[j];
+						if ((yi <= yc) != (yj <= yc)) {
+							double x = this.xs[i] + (yc - yi) * (this.xs[j] - this.xs[i]) / (yj - yi);
+							min = Math.min(min, x);
+							max = Math.max(max, x);
+						}
+					}
+				}
+
+				if (min <= max) {
+					this.fillSpan(y, min, max, rgb);
+				}
+			}
+		}
+
+		/**
+		 * Fills any other convex shape using a polygon through points on its
+		 * outline.
+		 * @param convex the shape
+		 * @param tx the body transform
+		 * @param rgb the color
+		 */
+		private void fillConvex(Convex convex, Transform tx, int rgb) {
+			this.ensurePoints(OUTLINE_POINTS);
+			int n = 0;
+			double px = Double.NaN;
+			double py = Double.NaN;
+			for (int i = 0; i < OUTLINE_POINTS; i++) {
+				double a = i * 2.0 * Math.PI / OUTLINE_POINTS;
+				this.direction.set(Math.cos(a), Math.sin(a));
+				Vector2 p = convex.getFarthestPoint(this.direction, tx);
+				double x = originX + p.x * scale;
+				double y = originY - p.y * scale;
+				// flat sides give the same point for many directions
+				if (x == px && y == py) continue;
+				this.xs[n] = x;
+				this.ys[n] = y;
+				px = x;
+				py = y;
+				n++;
+			}
+			if (n >= 3) {
+				this.fillPoints(n, rgb);
+			}
+		}
+
+		/**
+		 * Draws the given segment as a one pixel line.
+		 * @param segment the segment
+		 * @param tx the body transform
+		 * @param rgb the color
+		 */
+		private void drawSegment(Segment segment, Transform tx, int rgb) {
+			Vector2[] vertices = segment.getVertices();
+			double x1 = originX + tx.getTransformedX(vertices[0]) * scale;
+			double y1 = originY - tx.getTransformedY(vertices[0]) * scale;
+			double x2 = originX + tx.getTransformedX(vertices[1]) * scale;
+			double y2 = originY - tx.getTransformedY(vertices[1]) * scale;
+
+			double dx = x2 - x1;
+			double dy = y2 - y1;
+			int steps = (int)Math.ceil(Math.max(Math.abs(dx), Math.abs(dy)));
+			if (steps == 0) {
+				this.plot((int)Math.floor(x1), (int)Math.floor(y1), rgb);
+				return;
+			}
+			double sx = dx / steps;
+			double sy = dy / steps;
+			for (int i = 0; i <= steps; i++) {
+				this.plot((int)Math.floor(x1 + sx * i), (int)Math.floor(y1 + sy * i), rgb);
+			}
+		}
+
+		/**
+		 * Fills the convex polygon in the first n points.
+		 * @param n the number of points
+		 * @param rgb the color
+		 */
+		private void fillPoints(int n, int rgb) {
+			double minY = Double.MAX_VALUE;
+			double maxY = -Double.MAX_VALUE;
+			for (int i = 0; i < n; i++) {
+				minY = Math.min(minY, this.ys[i]);
+				maxY = Math.max(maxY, this.ys[i]);
+			}
+
+			int y0 = Math.max(this.clipMinY, (int)Math.ceil(minY - 0.5));
+			int y1 = Math.min(this.clipMaxY - 1, (int)Math.floor(maxY - 0.5));
+			for (int y = y0; y <= y1; y++) {
+				double yc = y + 0.5;
+				double min = Double.MAX_VALUE;
+				double max = -Double.MAX_VALUE;
+				for (int i = 0, j = n - 1; i < n; j = i++) {
+					double yi = this.ys[i];
+					double yj = this.ys[j];
+					if ((yi <= yc) != (yj <= yc)) {
+						double x = this.xs[i] + (yc - yi) * (this.xs[j] - this.xs[i]) / (yj - yi);
+						min = Math.min(min, x);
+						max = Math.max(max, x);
+					}
+				}
+				if (min <= max) {
+					this.fillSpan(y, min, max, rgb);
+				}
+			}
+		}
+
+		/**
+		 * Fills the pixels of the given row whose centers are between the given x values.
+		 * @param y the row
+		 * @param minX the left edge
+		 * @param maxX the right edge
+		 * @param rgb the color
+		 */
+		private void fillSpan(int y, double minX, double maxX, int rgb) {
+			int x0 = Math.max(this.clipMinX, (int)Math.ceil(minX - 0.5));
+			int x1 = Math.min(this.clipMaxX - 1, (int)Math.floor(maxX - 0.5));
+			if (x0 > x1) return;
+			int row = y * width;
+			Arrays.fill(pixels, row + x0, row + x1 + 1, rgb);
+		}
+
+		/**
+		 * Sets the given pixel if it's in the tile.
+		 * @param x the column
+		 * @param y the row
+		 * @param rgb the color
+		 */
+		private void plot(int x, int y, int rgb) {
+			if (x < this.clipMinX || x >= this.clipMaxX || y < this.clipMinY || y >= this.clipMaxY) {
+				return;
+			}
+			pixels[y * width + x] = rgb;
+		}
+
+		/**
+		 * Grows the point arrays to hold at least the given number of points.
+		 * @param n the number of points
+		 */
+		private void ensurePoints(int n) {
+			if (this.xs.length >= n) return;
+			this.xs = new double[n];
+			this.ys = new double[n];
+		}
+	}
+}
@@ -0,0 +1,946 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import org.dyn4j.collision.CollisionItem;
+import org.dyn4j.collision.broadphase.CollisionItemBroadphaseDetector;
+import org.dyn4j.collision.narrowphase.Raycast;
+import org.dyn4j.collision.narrowphase.RaycastDetector;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.DetectFilter;
+import org.dyn4j.world.World;
+
+/**
+ * Casts many rays against a world at once and finds the closest hit of each.
+ * <p>
+ * Instead of searching the broad-phase once per ray, the broad-phase is
+ * searched once for everything within the bounds of all the rays.  Those
+ * fixtures are put into a grid that each ray walks through from its start,
+ * stopping at the first cell that contains a hit.  This works best when the
+ * rays are close together, like the sensors of one agent; groups of rays that
+ * are far apart should be cast as separate batches.  Batches too small to pay
+ * for the grid are cast through the broad-phase one ray at a time.
+ * <p>
+ * The hits are written to buffers owned by this class which are reused by the
+ * next cast, so casting doesn't allocate once the buffers have grown.  Large
+ * batches can be split across threads by setting an {@link Executor}.
+ * <p>
+ * This class isn't thread safe and the world must not be changed during a cast.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class RaycastBatch {
+	/** The default minimum number of rays before a cast is split across threads */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+	/** The default minimum number of rays before a cast uses a grid */
+	public static final int DEFAULT_PACKET_THRESHOLD = 24;
+
+	/** The maximum number of grid cells along each axis */
+	private static final int MAXIMUM_GRID_SIZE = 128;
+
+	/** The minimum size of the grid along each axis */
+	private static final double MINIMUM_GRID_EXTENT = 1.0e-6;
+
+	/** The world */
+	private final World<SimulationBody> world;
+
+	/** The filter for the fixtures to test */
+	private DetectFilter<SimulationBody, BodyFixture> filter;
+
+	/** The executor used for large batches; null to always cast on the calling thread */
+	private Executor executor;
+
+	/** The number of threads to split large batches across */
+	private int parallelism;
+
+	/** The minimum number of rays before a cast is split across threads */
+	private int parallelThreshold;
+
+	/** The minimum number of rays before a cast uses a grid */
+	private int packetThreshold;
+
+	// the current cast
+
+	/** The rays */
+	private Ray[] rays;
+
+	/** The maximum length of each ray; or null to use {@link #length} */
+	private double[] lengths;
+
+	/** The maximum length of every ray */
+	private double length;
+
+	// candidates
+
+	/** The number of candidate fixtures */
+	private int candidateCount;
+
+	/** The body of each candidate */
+	private SimulationBody[] candidateBodies;
+
+	/** Each candidate */
+	private BodyFixture[] candidateFixtures;
+
+	/** The bounds of each candidate as min x, min y, max x, max y */
+	private double[] candidateBounds;
+
+	// grid
+
+	/** The minimum x of the grid */
+	private double gridX;
+
+	/** The minimum y of the grid */
+	private double gridY;
+
+	/** The width of a cell */
+	private double cellWidth;
+
+	/** The height of a cell */
+	private double cellHeight;
+
+	/** The number of cells along the x axis */
+	private int columns;
+
+	/** The number of cells along the y axis */
+	private int rows;
+
+	/** Where each cell's candidates start in {@link #cellItems}, plus the total at the end */
+	private int[] cellStarts;
+
+	/** The candidates in each cell */
+	private int[] cellItems;
+
+	// results
+
+	/** The number of rays in the last cast */
+	private int count;
+
+	/** The body hit by each ray; null if the ray didn't hit anything */
+	private SimulationBody[] bodies;
+
+	/** The fixture hit by each ray */
+	private BodyFixture[] fixtures;
+
+	/** The hit point and normal of each ray as point x, point y, normal x, normal y */
+	private double[] hits;
+
+	/** The distance to the hit of each ray */
+	private double[] distances;
+
+	/** The work for each thread */
+	private Task[] tasks;
+
+	/**
+	 * Minimal constructor.
+	 * <p>
+	 * Sensors and disabled bodies are ignored by default.
+	 * @param world the world
+	 */
+	public RaycastBatch(World<SimulationBody> world) {
+		this.world = world;
+		this.filter = new DetectFilter<SimulationBody, BodyFixture>(true, true, null);
+		this.parallelism = Runtime.getRuntime().availableProcessors();
+		this.parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+		this.packetThreshold = DEFAULT_PACKET_THRESHOLD;
+
+		this.candidateBodies = new SimulationBody[0];
+		this.candidateFixtures = new BodyFixture[0];
+		this.candidateBounds = new double[0];
+		this.cellStarts = new int[0];
+		this.cellItems = new int[0];
+		this.bodies = new SimulationBody[0];
+		this.fixtures = new BodyFixture[0];
+		this.hits = new double[0];
+		this.distances = new double[0];
+		this.tasks = new Task[0];
+	}
+
+	/**
+	 * Casts the given rays, which all have the same maximum length.
+	 * @param rays the rays
+	 * @param count the number of rays to cast from the start of the array
+	 * @param maxLength the maximum length of the rays; must be greater than zero
+	 * @return int the number of rays that hit something
+	 */
+	public int cast(Ray[] rays, int count, double maxLength) {
+		return this.cast(rays, null, maxLength, count);
+	}
+
+	/**
+	 * Casts the given rays.
+	 * @param rays the rays
+	 * @param maxLengths the maximum length of each ray; each must be greater than zero
+	 * @param count the number of rays to cast from the start of the arrays
+	 * @return int the number of rays that hit something
+	 */
+	public int cast(Ray[] rays, double[] maxLengths, int count) {
+		return this.cast(rays, maxLengths, 0.0, count);
+	}
+
+	/**
+	 * Casts the given rays.
+	 * @param rays the rays
+	 * @param maxLengths the maximum length of each ray; or null
+	 * @param maxLength the maximum length of every ray when maxLengths is null
+	 * @param count the number of rays to cast
+	 * @return int the number of rays that hit something
+	 */
+	private int cast(Ray[] rays, double[] maxLengths, double maxLength, int count) {
+		this.rays = rays;
+		this.lengths = maxLengths;
+		this.length = maxLength;
+		this.count = count;
+		this.ensureResultCapacity(count);
+
+		if (count == 0) {
+			this.rays = null;
+			return 0;
+		}
+
+		int hits = 0;
+		try {
+			if (count < this.packetThreshold) {
+				hits = this.castEach(this.getTask(0).raycast);
+				return hits;
+			}
+
+			this.findCandidates();
+			if (this.executor == null || this.parallelism < 2 || count < this.parallelThreshold) {
+				hits = this.cast(0, count, this.getTask(0));
+			} else {
+				hits = this.castParallel();
+			}
+		} finally {
+			// don't hold onto the caller's rays or the world's objects
+			this.rays = null;
+			this.lengths = null;
+			for (int i = 0; i < this.candidateCount; i++) {
+				this.candidateBodies[i] = null;
+				this.candidateFixtures[i] = null;
+			}
+			this.candidateCount = 0;
+		}
+
+		return hits;
+	}
+
+	/**
+	 * Collects the fixtures within the bounds of all the rays and puts
+	 * them in the grid.
+	 */
+	private void findCandidates() {
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < this.count; i++) {
+			Vector2 s = this.rays[i].getStart();
+			Vector2 d = this.rays[i].getDirectionVector();
+			double l = this.getLength(i);
+			double ex = s.x + d.x * l;
+			double ey = s.y + d.y * l;
+			minX = Math.min(minX, Math.min(s.x, ex));
+			minY = Math.min(minY, Math.min(s.y, ey));
+			maxX = Math.max(maxX, Math.max(s.x, ex));
+			maxY = Math.max(maxY, Math.max(s.y, ey));
+		}
+
+		CollisionItemBroadphaseDetector<SimulationBody, BodyFixture> broadphase = this.world.getBroadphaseDetector();
+		Iterator<CollisionItem<SimulationBody, BodyFixture>> it = broadphase.detectIterator(new AABB(minX, minY, maxX, maxY));
+
+		int n = 0;
+		while (it.hasNext()) {
+			CollisionItem<SimulationBody, BodyFixture> item = it.next();
+			SimulationBody body = item.getBody();
+			BodyFixture fixture = item.getFixture();
+
+			// filter once per batch rather than once per ray
+			if (this.filter != null && !this.filter.isAllowed(body, fixture)) {
+				continue;
+			}
+
+			if (n == this.candidateBodies.length) {
+				this.growCandidates(n);
+			}
+
+			AABB aabb = broadphase.getAABB(body, fixture);
+			this.candidateBodies[n] = body;
+			this.candidateFixtures[n] = fixture;
+			this.candidateBounds[n * 4] = aabb.getMinX();
+			this.candidateBounds[n * 4 + 1] = aabb.getMinY();
+			this.candidateBounds[n * 4 + 2] = aabb.getMaxX();
+			this.candidateBounds[n * 4 + 3] = aabb.getMaxY();
+			n++;
+		}
+		this.candidateCount = n;
+
+		this.buildGrid(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Puts the candidates into a grid covering the given bounds.
+	 * @param minX the minimum x
+	 * @param minY the minimum y
+	 * @param maxX the maximum x
+	 * @param maxY the maximum y
+	 */
+	private void buildGrid(double minX, double minY, double maxX, double maxY) {
+		int n = this.candidateCount;
+		double w = Math.max(maxX - minX, MINIMUM_GRID_EXTENT);
+		double h = Math.max(maxY - minY, MINIMUM_GRID_EXTENT);
+
+		// aim for about one candidate per cell with square-ish cells
+		int columns = (int)Math.ceil(Math.sqrt(n * w / h));
+		columns = Math.max(1, Math.min(columns, MAXIMUM_GRID_SIZE));
+		int rows = (int)Math.ceil((double)n / columns);
+		rows = Math.max(1, Math.min(rows, MAXIMUM_GRID_SIZE));
+
+		this.gridX = minX;
+		this.gridY = minY;
+		this.cellWidth = w / columns;
+		this.cellHeight = h / rows;
+		this.columns = columns;
+		this.rows = rows;
+
+		int cells = columns * rows;
+		if (this.cellStarts.length < cells + 1) {
+			this.cellStarts = new int[cells + 1];
+		}
+		int[] starts = this.cellStarts;
+		Arrays.fill(starts, 0, cells + 1, 0);
+
+		// count the candidates in each cell
+		for (int j = 0; j < n; j++) {
+			int k = j * 4;
+			int x0 = this.column(this.candidateBounds[k]);
+			int y0 = this.row(this.candidateBounds[k + 1]);
+			int x1 = this.column(this.candidateBounds[k + 2]);
+			int y1 = this.row(this.candidateBounds[k + 3]);
+			for (int y = y0; y <= y1; y++) {
+				for (int x = x0; x <= x1; x++) {
+					starts[y * columns + x + 1]++;
+				}
+			}
+		}
+
+		for (int c = 0; c < cells; c++) {
+			starts[c + 1] += starts[c];
+		}
+
+		int total = starts[cells];
+		if (this.cellItems.length < total) {
+			this.cellItems = new int[Math.max(total, this.cellItems.length * 2)];
+		}
+
+		// fill the cells using each start as a cursor...
+		for (int j = 0; j < n; j++) {
+			int k = j * 4;
+			int x0 = this.column(this.candidateBounds[k]);
+			int y0 = this.row(this.candidateBounds[k + 1]);
+			int x1 = this.column(this.candidateBounds[k + 2]);
+			int y1 = this.row(this.candidateBounds[k + 3]);
+			for (int y = y0; y <= y1; y++) {
+				for (int x = x0; x <= x1; x++) {
+					this.cellItems[starts[y * columns + x]++] = j;
+				}
+			}
+		}
+
+		// ...which leaves each one at the start of the next cell
+		for (int c = cells - 1; c > 0; c--) {
+			starts[c] = starts[c - 1];
+		}
+		starts[0] = 0;
+	}
+
+	/**
+	 * Returns the grid column containing the given x.
+	 * @param x the x coordinate
+	 * @return int
+	 */
+	private int column(double x) {
+		int c = (int)Math.floor((x - this.gridX) / this.cellWidth);
+		return Math.max(0, Math.min(c, this.columns - 1));
+	}
+
+	/**
+	 * Returns the grid row containing the given y.
+	 * @param y the y coordinate
+	 * @return int
+	 */
+	private int row(double y) {
+		int r = (int)Math.floor((y - this.gridY) / this.cellHeight);
+		return Math.max(0, Math.min(r, this.rows - 1));
+	}
+
+	/**
+	 * Casts each ray through the broad-phase.
+	 * @param raycast the raycast to use for the exact tests
+	 * @return int the number of rays that hit something
+	 */
+	private int castEach(Raycast raycast) {
+		CollisionItemBroadphaseDetector<SimulationBody, BodyFixture> broadphase = this.world.getBroadphaseDetector();
+		RaycastDetector detector = this.world.getRaycastDetector();
+		int hits = 0;
+
+		for (int i = 0; i < this.count; i++) {
+			Ray ray = this.rays[i];
+			double closest = this.getLength(i);
+
+			this.bodies[i] = null;
+			this.fixtures[i] = null;
+
+			Iterator<CollisionItem<SimulationBody, BodyFixture>> it = broadphase.raycastIterator(ray, closest);
+			while (it.hasNext()) {
+				CollisionItem<SimulationBody, BodyFixture> item = it.next();
+				SimulationBody body = item.getBody();
+				BodyFixture fixture = item.getFixture();
+
+				if (this.filter != null && !this.filter.isAllowed(body, fixture)) {
+					continue;
+				}
+
+				if (detector.raycast(ray, closest, fixture.getShape(), body.getTransform(), raycast)) {
+					double distance = raycast.getDistance();
+					if (distance < closest) {
+						closest = distance;
+						this.setHit(i, body, fixture, raycast);
+					}
+				}
+			}
+
+			if (this.bodies[i] != null) {
+				hits++;
+			}
+		}
+
+		return hits;
+	}
+
+	/**
+	 * Casts the given range of rays against the candidates.
+	 * @param from the first ray
+	 * @param to one past the last ray
+	 * @param task the scratch space to use
+	 * @return int the number of rays that hit something
+	 */
+	private int cast(int from, int to, Task task) {
+		RaycastDetector detector = this.world.getRaycastDetector();
+		Raycast raycast = task.raycast;
+		int[] starts = this.cellStarts;
+		int[] items = this.cellItems;
+		int hits = 0;
+
+		if (task.marks.length < this.candidateCount) {
+			task.marks = new int[this.candidateCount];
+			task.mark = 0;
+		}
+		int[] marks = task.marks;
+
+		for (int i = from; i < to; i++) {
+			Ray ray = this.rays[i];
+			Vector2 s = ray.getStart();
+			Vector2 d = ray.getDirectionVector();
+			double closest = this.getLength(i);
+
+			this.bodies[i] = null;
+			this.fixtures[i] = null;
+
+			// candidates can be in many cells, so mark the ones tested by this ray
+			if (++task.mark == 0) {
+				Arrays.fill(marks, 0);
+				task.mark = 1;
+			}
+			int mark = task.mark;
+
+			// walk the cells along the ray
+			int x = this.column(s.x);
+			int y = this.row(s.y);
+			int stepX = d.x > 0.0 ? 1 : -1;
+			int stepY = d.y > 0.0 ? 1 : -1;
+			double nextX = Double.POSITIVE_INFINITY;
+			double nextY = Double.POSITIVE_INFINITY;
+			double deltaX = Double.POSITIVE_INFINITY;
+			double deltaY = Double.POSITIVE_INFINITY;
+			if (d.x != 0.0) {
+				double edge = this.gridX + (d.x > 0.0 ? x + 1 : x) * this.cellWidth;
+				nextX = (edge - s.x) / d.x;
+				deltaX = this.cellWidth / Math.abs(d.x);
+			}
+			if (d.y != 0.0) {
+				double edge = this.gridY + (d.y > 0.0 ? y + 1 : y) * this.cellHeight;
+				nextY = (edge - s.y) / d.y;
+				deltaY = this.cellHeight / Math.abs(d.y);
+			}
+
+			while (true) {
+				int c = y * this.columns + x;
+				for (int m = starts[c]; m < starts[c + 1]; m++) {
+					int j = items[m];
+					if (marks[j] == mark) continue;
+					marks[j] = mark;
+
+					int k = j * 4;
+					if (!intersects(s.x, s.y, d.x, d.y, closest,
+							this.candidateBounds[k],
+							this.candidateBounds[k + 1],
+							this.candidateBounds[k + 2],
+							this.candidateBounds[k + 3])) {
+						continue;
+					}
+
+					SimulationBody body = this.candidateBodies[j];
+					BodyFixture fixture = this.candidateFixtures[j];
+
+					// passing the closest hit so far lets the detector stop early
+					if (detector.raycast(ray, closest, fixture.getShape(), body.getTransform(), raycast)) {
+						double distance = raycast.getDistance();
+						if (distance < closest) {
+							closest = distance;
+							this.setHit(i, body, fixture, raycast);
+						}
+					}
+				}
+
+				// nothing in a later cell can be closer than a hit
+				// before the ray leaves this one
+				double exit = Math.min(nextX, nextY);
+				if (closest <= exit) break;
+
+				if (nextX < nextY) {
+					x += stepX;
+					if (x < 0 || x >= this.columns) break;
+					nextX += deltaX;
+				} else {
+					y += stepY;
+					if (y < 0 || y >= this.rows) break;
+					nextY += deltaY;
+				}
+			}
+
+			if (this.bodies[i] != null) {
+				hits++;
+			}
+		}
+
+		return hits;
+	}
+
+	/**
+	 * Records the given hit for the given ray.
+	 * @param i the ray index
+	 * @param body the body hit
+	 * @param fixture the fixture hit
+	 * @param raycast the hit
+	 */
+	private void setHit(int i, SimulationBody body, BodyFixture fixture, Raycast raycast) {
+		Vector2 p = raycast.getPoint();
+		Vector2 n = raycast.getNormal();
+		this.bodies[i] = body;
+		this.fixtures[i] = fixture;
+		this.hits[i * 4] = p.x;
+		this.hits[i * 4 + 1] = p.y;
+		this.hits[i * 4 + 2] = n.x;
+		this.hits[i * 4 + 3] = n.y;
+		this.distances[i] = raycast.getDistance();
+	}
+
+	/**
+	 * Splits the cast across the executor's threads, running the first
+	 * part on the calling thread.
+	 * @return int the number of rays that hit something
+	 */
+	private int castParallel() {
+		int parts = Math.min(this.parallelism, this.count);
+		int size = (this.count + parts - 1) / parts;
+
+		CountDownLatch latch = new CountDownLatch(parts - 1);
+		int submitted = 1;
+		int hits;
+		try {
+			for (; submitted < parts; submitted++) {
+				Task task = this.getTask(submitted);
+				task.from = Math.min(submitted * size, this.count);
+				task.to = Math.min(task.from + size, this.count);
+				task.latch = latch;
+				task.error = null;
+				this.executor.execute(task);
+			}
+
+			hits = this.cast(0, size, this.getTask(0));
+		} finally {
+			// the tasks that weren't submitted won't count down
+			for (int i = submitted; i < parts; i++) {
+				latch.countDown();
+			}
+
+			// the other threads are still writing the results
+			boolean interrupted = false;
+			while (true) {
+				try {
+					latch.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		for (int i = 1; i < parts; i++) {
+			Task task = this.tasks[i];
+			task.latch = null;
+			if (task.error != null) {
+				throw task.error;
+			}
+			hits += task.hits;
+		}
+
+		return hits;
+	}
+
+	/**
+	 * Returns true if the given ray segment intersects the given bounds.
+	 * @param sx the ray start x
+	 * @param sy the ray start y
+	 * @param dx the ray direction x
+	 * @param dy the ray direction y
+	 * @param length the length of the ray
+	 * @param minX the bounds min x
+	 * @param minY the bounds min y
+	 * @param maxX the bounds max x
+	 * @param maxY the bounds max y
+	 * @return boolean
+	 */
+	private static boolean intersects(double sx, double sy, double dx, double dy, double length, double minX, double minY, double maxX, double maxY) {
+		double tmin = 0.0;
+		double tmax = length;
+
+		if (dx == 0.0) {
+			if (sx < minX || sx > maxX) return false;
+		} else {
+			double inv = 1.0 / dx;
+			double t1 = (minX - sx) * inv;
+			double t2 = (maxX - sx) * inv;
+			tmin = Math.max(tmin, Math.min(t1, t2));
+			tmax = Math.min(tmax, Math.max(t1, t2));
+			if (tmin > tmax) return false;
+		}
+
+		if (dy == 0.0) {
+			if (sy < minY || sy > maxY) return false;
+		} else {
+			double inv = 1.0 / dy;
+			double t1 = (minY - sy) * inv;
+			double t2 = (maxY - sy) * inv;
+			tmin = Math.max(tmin, Math.min(t1, t2));
+			tmax = Math.min(tmax, Math.max(t1, t2));
+			if (tmin > tmax) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the maximum length of the given ray.
+	 * @param i the ray index
+	 * @return double
+	 */
+	private double getLength(int i) {
+		return this.lengths != null ? this.lengths[i] : this.length;
+	}
+
+	/**
+	 * Returns the task for the given thread, creating it if needed.
+	 * @param i the thread index
+	 * @return {@link Task}
+	 */
+	private Task getTask(int i) {
+		if (i >= this.tasks.length) {
+			Task[] tasks = new Task[i + 1];
+			System.arraycopy(this.tasks, 0, tasks, 0, this.tasks.length);
+			for (int j = this.tasks.length; j <= i; j++) {
+				tasks[j] = new Task();
+			}
+			this.tasks = tasks;
+		}
+		return this.tasks[i];
+	}
+
+	/**
+	 * Grows the result buffers to hold the given number of rays.
+	 * @param n the number of rays
+	 */
+	private void ensureResultCapacity(int n) {
+		if (this.bodies.length >= n) return;
+		this.bodies = new SimulationBody[n];
+		this.fixtures = new BodyFixture[n];
+		this.hits = new double[n * 4];
+		this.distances = new double[n];
+	}
+
+	/**
+	 * Doubles the size of the candidate buffers.
+	 * @param n the number of candidates to keep
+	 */
+	private void growCandidates(int n) {
+		int size = Math.max(16, this.candidateBodies.length * 2);
+		SimulationBody[] bodies = new SimulationBody[size];
+		BodyFixture[] fixtures = new BodyFixture[size];
+		double[] bounds = new double[size * 4];
+		System.arraycopy(this.candidateBodies, 0, bodies, 0, n);
+		System.arraycopy(this.candidateFixtures, 0, fixtures, 0, n);
+		System.arraycopy(this.candidateBounds, 0, bounds, 0, n * 4);
+		this.candidateBodies = bodies;
+		this.candidateFixtures = fixtures;
+		this.candidateBounds = bounds;
+	}
+
+	/**
+	 * Returns the number of rays in the last cast.
+	 * @return int
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns true if the given ray hit something in the last cast.
+	 * @param i the ray index
+	 * @return boolean
+	 */
+	public boolean isHit(int i) {
+		return this.bodies[i] != null;
+	}
+
+	/**
+	 * Returns the body the given ray hit; or null if it didn't hit anything.
+	 * @param i the ray index
+	 * @return {@link SimulationBody}
+	 */
+	public SimulationBody getBody(int i) {
+		return this.bodies[i];
+	}
+
+	/**
+	 * Returns the fixture the given ray hit; or null if it didn't hit anything.
+	 * @param i the ray index
+	 * @return {@link BodyFixture}
+	 */
+	public BodyFixture getFixture(int i) {
+		return this.fixtures[i];
+	}
+
+	/**
+	 * Returns the x coordinate of the given ray's hit point.
+	 * @param i the ray index
+	 * @return double
+	 */
+	public double getPointX(int i) {
+		return this.hits[i * 4];
+	}
+
+	/**
+	 * Returns the y coordinate of the given ray's hit point.
+	 * @param i the ray index
+	 * @return double
+	 */
+	public double getPointY(int i) {
+		return this.hits[i * 4 + 1];
+	}
+
+	/**
+	 * Returns the x component of the surface normal at the given ray's hit point.
+	 * @param i the ray index
+	 * @return double
+	 */
+	public double getNormalX(int i) {
+		return this.hits[i * 4 + 2];
+	}
+
+	/**
+	 * Returns the y component of the surface normal at the given ray's hit point.
+	 * @param i the ray index
+	 * @return double
+	 */
+	public double getNormalY(int i) {
+		return this.hits[i * 4 + 3];
+	}
+
+	/**
+	 * Returns the distance from the given ray's start to its hit point.
+	 * @param i the ray index
+	 * @return double
+	 */
+	public double getDistance(int i) {
+		return this.distances[i];
+	}
+
+	/**
+	 * Returns the filter for the fixtures to test.
+	 * @return DetectFilter
+	 */
+	public DetectFilter<SimulationBody, BodyFixture> getFilter() {
+		return this.filter;
+	}
+
+	/**
+	 * Sets the filter for the fixtures to test.
+	 * <p>
+	 * The filter is called once per fixture per cast, not once per ray.
+	 * @param filter the filter; null to test every fixture
+	 */
+	public void setFilter(DetectFilter<SimulationBody, BodyFixture> filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Returns the executor used for large batches.
+	 * @return Executor
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	/**
+	 * Sets the executor used for large batches.
+	 * <p>
+	 * The ray detector must be safe to use from many threads, which the
+	 * default one is.
+	 * @param executor the executor; null to always cast on the calling thread
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the number of threads large batches are split across.
+	 * @return int
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Sets the number of threads large batches are split across, including
+	 * the calling thread.
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the minimum number of rays before a cast is split across threads.
+	 * @return int
+	 */
+	public int getParallelThreshold() {
+		return this.parallelThreshold;
+	}
+
+	/**
+	 * Sets the minimum number of rays before a cast is split across threads.
+	 * @param threshold the number of rays
+	 */
+	public void setParallelThreshold(int threshold) {
+		this.parallelThreshold = threshold;
+	}
+
+	/**
+	 * Returns the minimum number of rays before a cast uses a grid.
+	 * @return int
+	 */
+	public int getPacketThreshold() {
+		return this.packetThreshold;
+	}
+
+	/**
+	 * Sets the minimum number of rays before a cast uses a grid.
+	 * <p>
+	 * Smaller batches are cast through the broad-phase one ray at a time.
+	 * @param threshold the number of rays
+	 */
+	public void setPacketThreshold(int threshold) {
+		this.packetThreshold = threshold;
+	}
+
+	/**
+	 * A range of rays cast on another thread and its scratch space.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private final class Task implements Runnable {
+		/** The raycast for the exact tests */
+		private final Raycast raycast = new Raycast();
+
+		/** The last ray that tested each candidate */
+		private int[] marks = new int[0];
+
+		/** The current ray's mark */
+		private int mark;
+
+		/** The first ray */
+		private int from;
+
+		/** One past the last ray */
+		private int to;
+
+		/** The number of rays that hit something */
+		private int hits;
+
+		/** Any error thrown by the cast */
+		private RuntimeException error;
+
+		/** Signaled when done */
+		private CountDownLatch latch;
+
+		/* (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				this.hits = cast(this.from, this.to, this);
+			} catch (RuntimeException e) {
+				this.error = e;
+			} finally {
+				this.latch.countDown();
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Image;
+
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents something simple shapes can be drawn with, like a Graphics2D, an
+ * OpenGL context or a {@link RenderCommandBuffer}.
+ * <p>
+ * Scene code that draws through this interface (see
+ * {@link SimulationBody#render(RenderBackend, double)}) works with any of them.
+ * All coordinates are in world units with the positive y axis pointing up;
+ * scaling to pixels is up to the backend.  Colors are ARGB ints, the same as
+ * {@link java.awt.Color#getRGB()}.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public interface RenderBackend {
+	/**
+	 * Draws a circle.
+	 * @param x the x coordinate of the center
+	 * @param y the y coordinate of the center
+	 * @param radius the radius
+	 * @param color the color
+	 * @param fill true to fill the circle; false to draw its outline
+	 */
+	public void circle(double x, double y, double radius, int color, boolean fill);
+
+	/**
+	 * Draws a polygon.
+	 * <p>
+	 * The vertices are given in local coordinates and are transformed by the
+	 * given transform, so that a body's shapes can be drawn without copying them.
+	 * @param vertices the vertices in local coordinates
+	 * @param transform the local to world transform
+	 * @param color the color
+	 * @param fill true to fill the polygon; false to draw its outline
+	 */
+	public void polygon(Vector2[] vertices, Transform transform, int color, boolean fill);
+
+	/**
+	 * Draws a capsule; the set of points within the given radius of a segment.
+	 * @param x1 the x coordinate of the first end of the segment
+	 * @param y1 the y coordinate of the first end of the segment
+	 * @param x2 the x coordinate of the second end of the segment
+	 * @param y2 the y coordinate of the second end of the segment
+	 * @param radius the radius
+	 * @param color the color
+	 * @param fill true to fill the capsule; false to draw its outline
+	 */
+	public void capsule(double x1, double y1, double x2, double y2, double radius, int color, boolean fill);
+
+	/**
+	 * Draws a line.
+	 * @param x1 the x coordinate of the start
+	 * @param y1 the y coordinate of the start
+	 * @param x2 the x coordinate of the end
+	 * @param y2 the y coordinate of the end
+	 * @param color the color
+	 */
+	public void line(double x1, double y1, double x2, double y2, int color);
+
+	/**
+	 * Draws an image stretched over a rectangle.
+	 * <p>
+	 * The rectangle is given in local coordinates and is transformed by the
+	 * given transform, like the vertices of a polygon.  Backends that can't
+	 * draw images can fill the rectangle instead.
+	 * @param image the image
+	 * @param x the smallest local x coordinate of the rectangle
+	 * @param y the smallest local y coordinate of the rectangle
+	 * @param width the width of the rectangle
+	 * @param height the height of the rectangle
+	 * @param transform the local to world transform
+	 */
+	public void image(Image image, double x, double y, double width, double height, Transform transform);
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Image;
+import java.util.Arrays;
+
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * A {@link RenderBackend} that records the commands given to it so that they
+ * can be inspected, sorted and replayed to another backend later.
+ * <p>
+ * Commands are stored in a handful of primitive arrays, with polygons stored
+ * in world coordinates, and the arrays are kept when the buffer is cleared,
+ * so a buffer reused every frame stops allocating once it's large enough.
+ * <p>
+ * Since it doesn't need anything to draw to, this also works as a backend for
+ * checking what a scene draws without a window.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class RenderCommandBuffer implements RenderBackend {
+	/** The command type for {@link #circle(double, double, double, int, boolean)} */
+	public static final int CIRCLE = 0;
+
+	/** The command type for {@link #polygon(Vector2[], Transform, int, boolean)} */
+	public static final int POLYGON = 1;
+
+	/** The command type for {@link #capsule(double, double, double, double, double, int, boolean)} */
+	public static final int CAPSULE = 2;
+
+	/** The command type for {@link #line(double, double, double, double, int)} */
+	public static final int LINE = 3;
+
+	/** The command type for {@link #image(Image, double, double, double, double, Transform)} */
+	public static final int IMAGE = 4;
+
+	/** The flag marking filled commands */
+	private static final int FILL = 8;
+
+	/** The mask for the command type */
+	private static final int TYPE_MASK = 7;
+
+	/** The type and fill flag of each command */
+	private int[] types;
+
+	/** The color of each command */
+	private int[] colors;
+
+	/** The position of each command in its group */
+	private int[] layers;
+
+	/** The index in data of each command's values */
+	private int[] offsets;
+
+	/** The values (coordinates, radii) of all commands back to back */
+	private double[] data;
+
+	/** The number of commands */
+	private int count;
+
+	/** The number of values in data */
+	private int size;
+
+	/** The images of the image commands */
+	private Image[] images;
+
+	/** The number of images */
+	private int imageCount;
+
+	/** The position in its group of the next command */
+	private int layer;
+
+	/** The largest number of commands in a group */
+	private int layerCount;
+
+	/** The number of commands in each layer, used when sorting */
+	private int[] layerStarts;
+
+	/** The order to replay the commands in; valid when sorted is true */
+	private int[] order;
+
+	/** The sort keys */
+	private long[] keys;
+
+	/** True if the commands have been sorted since the last was added */
+	private boolean sorted;
+
+	/** The identity transform used when replaying polygons */
+	private final Transform identity;
+
+	/** The transform used when replaying images */
+	private final Transform imageTransform;
+
+	/** The vertices used when replaying polygons, by vertex count */
+	private Vector2[][] vertices;
+
+	/**
+	 * Default constructor.
+	 */
+	public RenderCommandBuffer() {
+		this(256);
+	}
+
+	/**
+	 * Optional constructor.
+	 * @param capacity the initial number of commands
+	 */
+	public RenderCommandBuffer(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.types = new int[capacity];
+		this.colors = new int[capacity];
+		this.layers = new int[capacity];
+		this.offsets = new int[capacity];
+		this.data = new double[capacity * 4];
+		this.order = new int[0];
+		this.keys = new long[0];
+		this.layerStarts = new int[1];
+		this.images = new Image[0];
+		this.identity = new Transform();
+		this.imageTransform = new Transform();
+		this.vertices = new Vector2[0][];
+	}
+
+	/**
+	 * Removes all commands, keeping the space they used.
+	 */
+	public void clear() {
+		this.count = 0;
+		this.size = 0;
+		// don't keep the images alive
+		Arrays.fill(this.images, 0, this.imageCount, null);
+		this.imageCount = 0;
+		this.layer = 0;
+		this.layerCount = 0;
+		this.sorted = false;
+	}
+
+	/**
+	 * Starts a new group of commands, such as the ones drawing one body.
+	 * <p>
+	 * {@link #sortByColor()} keeps the commands of a group in the order they
+	 * were added, so a body's outline still goes over its fill.  Commands
+	 * added before this is first called are all in one group.
+	 */
+	public void beginGroup() {
+		this.layer = 0;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#circle(double, double, double, int, boolean)
+	 */
+	@Override
+	public void circle(double x, double y, double radius, int color, boolean fill) {
+		int i = this.add(CIRCLE, color, fill, 3);
+		this.data[i] = x;
+		this.data[i + 1] = y;
+		this.data[i + 2] = radius;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#polygon(org.dyn4j.geometry.Vector2[], org.dyn4j.geometry.Transform, int, boolean)
+	 */
+	@Override
+	public void polygon(Vector2[] vertices, Transform transform, int color, boolean fill) {
+		int n = vertices.length;
+		// the vertex count goes first
+		int i = this.add(POLYGON, color, fill, 1 + n * 2);
+		double[] data = this.data;
+		data[i++] = n;
+		for (int j = 0; j < n; j++) {
+			Vector2 v = vertices[j];
+			data[i++] = transform.getTransformedX(v);
+			data[i++] = transform.getTransformedY(v);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#capsule(double, double, double, double, double, int, boolean)
+	 */
+	@Override
+	public void capsule(double x1, double y1, double x2, double y2, double radius, int color, boolean fill) {
+		int i = this.add(CAPSULE, color, fill, 5);
+		this.data[i] = x1;
+		this.data[i + 1] = y1;
+		this.data[i + 2] = x2;
+		this.data[i + 3] = y2;
+		this.data[i + 4] = radius;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#line(double, double, double, double, int)
+	 */
+	@Override
+	public void line(double x1, double y1, double x2, double y2, int color) {
+		int i = this.add(LINE, color, false, 4);
+		this.data[i] = x1;
+		this.data[i + 1] = y1;
+		this.data[i + 2] = x2;
+		this.data[i + 3] = y2;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.samples.framework.RenderBackend#image(java.awt.Image, double, double, double, double, org.dyn4j.geometry.Transform)
+	 */
+	@Override
+	public void image(Image image, double x, double y, double width, double height, Transform transform) {
+		if (this.imageCount == this.images.length) {
+			this.images = Arrays.copyOf(this.images, Math.max(4, this.imageCount * 2));
+		}
+		this.images[this.imageCount] = image;
+
+		// the image index goes first
+		int i = this.add(IMAGE, 0, false, 8);
+		double[] data = this.data;
+		data[i] = this.imageCount++;
+		data[i + 1] = x;
+		data[i + 2] = y;
+		data[i + 3] = width;
+		data[i + 4] = height;
+		data[i + 5] = transform.getRotationAngle();
+		data[i + 6] = transform.getTranslationX();
+		data[i + 7] = transform.getTranslationY();
+	}
+
+	/**
+	 * Adds a command and returns the index in data to write its values to.
+	 * @param type the command type
+	 * @param color the color
+	 * @param fill true if the command is filled
+	 * @param values the number of values the command needs
+	 * @return int
+	 */
+	private int add(int type, int color, boolean fill, int values) {
+		if (this.count == this.types.length) {
+			int capacity = this.count * 2;
+			this.types = Arrays.copyOf(this.types, capacity);
+			this.colors = Arrays.copyOf(this.colors, capacity);
+			this.layers = Arrays.copyOf(this.layers, capacity);
+			this.offsets = Arrays.copyOf(this.offsets, capacity);
+		}
+		if (this.size + values > this.data.length) {
+			this.data = Arrays.copyOf(this.data, Math.max(this.data.length * 2, this.size + values));
+		}
+
+		int index = this.size;
+		this.types[this.count] = fill ? type | FILL : type;
+		this.colors[this.count] = color;
+		this.layers[this.count] = this.layer++;
+		this.offsets[this.count] = index;
+		this.count++;
+		this.size += values;
+		this.layerCount = Math.max(this.layerCount, this.layer);
+		this.sorted = false;
+		return index;
+	}
+
+	/**
+	 * Sorts the commands by color so that they are replayed in runs of the
+	 * same color.
+	 * <p>
+	 * The commands are replayed by their position in their group (see
+	 * {@link #beginGroup()}), then by color, then in the order they were added.
+	 * The commands of a group keep their order, but those of different groups
+	 * no longer do, so where groups overlap, the outline of a body can end up
+	 * over the fill of a body added after it.  This is fine when the
+	 * groups don't overlap or for backends where the order doesn't matter,
+	 * like one that counts or checks commands.
+	 * <p>
+	 * Adding a command undoes the sort.
+	 */
+	public void sortByColor() {
+		int n = this.count;
+		if (this.keys.length < n) {
+			this.keys = new long[this.types.length];
+			this.order = new int[this.types.length];
+		}
+
+		// sort by color; the index in the low bits keeps the sort stable
+		long[] keys = this.keys;
+		for (int i = 0; i < n; i++) {
+			keys[i] = ((long)this.colors[i] << 32) | i;
+		}
+		Arrays.sort(keys, 0, n);
+
+		// then by layer with a counting sort, which keeps the color order
+		int layers = this.layerCount;
+		if (this.layerStarts.length < layers + 1) {
+			this.layerStarts = new int[layers + 1];
+		}
+		int[] starts = this.layerStarts;
+		Arrays.fill(starts, 0, layers + 1, 0);
+		for (int i = 0; i < n; i++) {
+			starts[this.layers[i] + 1]++;
+		}
+		for (int i = 1; i < layers; i++) {
+			starts[i] += starts[i - 1];
+		}
+		for (int i = 0; i < n; i++) {
+			int index = (int)keys[i];
+			this.order[starts[this.layers[index]]++] = index;
+		}
+		this.sorted = true;
+	}
+
+	/**
+	 * Replays the commands to the given backend, in the order they were added
+	 * or sorted if {@link #sortByColor()} was called since.
+	 * @param backend the backend
+	 */
+	public void replay(RenderBackend backend) {
+		double[] data = this.data;
+		for (int c = 0; c < this.count; c++) {
+			int index = this.sorted ? this.order[c] : c;
+			int i = this.offsets[index];
+			int color = this.colors[index];
+			boolean fill = (this.types[index] & FILL) != 0;
+			switch (this.types[index] & TYPE_MASK) {
+				case CIRCLE:
+					backend.circle(data[i], data[i + 1], data[i + 2], color, fill);
+					break;
+				case POLYGON:
+					Vector2[] vs = this.getVertices((int)data[i++]);
+					for (int j = 0; j < vs.length; j++) {
+						vs[j].set(data[i], data[i + 1]);
+						i += 2;
+					}
+					backend.polygon(vs, this.identity, color, fill);
+					break;
+				case CAPSULE:
+					backend.capsule(data[i], data[i + 1], data[i + 2], data[i + 3], data[i + 4], color, fill);
+					break;
+				case IMAGE:
+					Transform tx = this.imageTransform;
+					tx.identity();
+					tx.rotate(data[i + 5]);
+					tx.translate(data[i + 6], data[i + 7]);
+					backend.image(this.images[(int)data[i]], data[i + 1], data[i + 2], data[i + 3], data[i + 4], tx);
+					break;
+				default:
+					backend.line(data[i], data[i + 1], data[i + 2], data[i + 3], color);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Returns reusable vertices for a polygon with the given vertex count.
+	 * @param n the vertex count
+	 * @return Vector2[]
+	 */
+	private Vector2[] getVertices(int n) {
+		if (this.vertices.length <= n) {
+			this.vertices = Arrays.copyOf(this.vertices, n + 1);
+		}
+		Vector2[] vs = this.vertices[n];
+		if (vs == null) {
+			vs = new Vector2[n];
+			for (int i = 0; i < n; i++) {
+				vs[i] = new Vector2();
+			}
+			this.vertices[n] = vs;
+		}
+		return vs;
+	}
+
+	/**
+	 * Returns the number of commands.
+	 * @return int
+	 */
+	public int getCommandCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the type of the given command; one of {@link #CIRCLE}, {@link #POLYGON},
+	 * {@link #CAPSULE}, {@link #LINE} or {@link #IMAGE}.
+	 * @param index the command index, in the order the commands were added
+	 * @return int
+	 */
+	public int getType(int index) {
+		return this.types[index] & TYPE_MASK;
+	}
+
+	/**
+	 * Returns the color of the given command.
+	 * @param index the command index, in the order the commands were added
+	 * @return int
+	 */
+	public int getColor(int index) {
+		return this.colors[index];
+	}
+
+	/**
+	 * Returns true if the given command is filled.
+	 * @param index the command index, in the order the commands were added
+	 * @return boolean
+	 */
+	public boolean isFilled(int index) {
+		return (this.types[index] & FILL) != 0;
+	}
+
+	/**
+	 * Returns true if the commands will be replayed sorted by color.
+	 * @return boolean
+	 */
+	public boolean isSorted() {
+		return this.sorted;
+	}
+
+	/**
+	 * Returns the number of times the color changes when the commands are
+	 * replayed, counting the first command.
+	 * <p>
+	 * This is the number of batches a backend drawing runs of the same color
+	 * at once would need.
+	 * @return int
+	 */
+	public int getColorChangeCount() {
+		int changes = 0;
+		int last = 0;
+		for (int c = 0; c < this.count; c++) {
+			int color = this.colors[this.sorted ? this.order[c] : c];
+			if (c == 0 || color != last) {
+				changes++;
+				last = color;
+			}
+		}
+		return changes;
+	}
+}
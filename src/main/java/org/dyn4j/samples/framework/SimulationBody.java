@@ -32,17 +32,24 @@ import java.awt.geom.Ellipse2D;
 import org.dyn4j.dynamics.Body;
 import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Vector2;
 
 /**
  * Custom Body class to add drawing functionality.
  * @author William Bittle
- * @version 3.2.1
+ * @version 5.0.2
  * @since 3.0.0
  */
 public class SimulationBody extends Body {
 	/** The color of the object */
 	protected Color color;
 	
+	/** The tags of the object; a bitset */
+	protected int tags;
+	
+	/** The index that last listed this body, if any; told when this body's tags or world change */
+	TagIndex tagIndex;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -73,6 +80,11 @@ public class SimulationBody extends Body {
 	 * Draws the body.
 	 * <p>
 	 * Only coded for polygons and circles.
+	 * <p>
+	 * The detail drawn depends on the size of the body on screen (see
+	 * {@link LevelOfDetail}).  Bodies smaller than a couple pixels are drawn
+	 * as a single pixel at their center and small bodies are drawn without
+	 * outlines or a center point.
 	 * @param g the graphics object to render to
 	 * @param scale the scaling factor
 	 * @param color the color to render the body
@@ -81,6 +93,22 @@ public class SimulationBody extends Body {
 		// point radius
 		final int pr = 4;
 		
+		LevelOfDetail detail = LevelOfDetail.get(this.getRotationDiscRadius(), scale);
+		if (detail == LevelOfDetail.POINT) {
+			// not worth transforming or building any shapes
+			Vector2 lc = this.getLocalCenter();
+			if (this.isAtRest()) {
+				color = color.brighter();
+			}
+			g.setColor(color);
+			g.fillRect(
+					(int)Math.floor(this.transform.getTransformedX(lc) * scale), 
+					(int)Math.floor(this.transform.getTransformedY(lc) * scale), 
+					1, 
+					1);
+			return;
+		}
+		
 		// save the original transform
 		AffineTransform ot = g.getTransform();
 		
@@ -97,6 +125,12 @@ public class SimulationBody extends Body {
 			this.renderFixture(g, scale, fixture, color);
 		}
 		
+		// the center point would cover most of a small body
+		if (detail != LevelOfDetail.FULL) {
+			g.setTransform(ot);
+			return;
+		}
+		
 		// draw a center point
 		Ellipse2D.Double ce = new Ellipse2D.Double(
 				this.getLocalCenter().x * scale - pr * 0.5,
@@ -128,8 +162,106 @@ public class SimulationBody extends Body {
 			color = color.brighter();
 		}
 		
+		// leave out the outline and rotation line if it's small on screen
+		boolean detailed = LevelOfDetail.get(convex.getRadius(), scale) == LevelOfDetail.FULL;
+		
 		// render the fixture
-		Graphics2DRenderer.render(g, convex, scale, color);
+		Graphics2DRenderer.render(g, convex, scale, color, detailed);
+	}
+	
+	/**
+	 * Draws the body with the given backend.
+	 * @param backend the backend to draw with
+	 * @param scale the scaling factor, used to pick the {@link LevelOfDetail}
+	 */
+	public void render(RenderBackend backend, double scale) {
+		this.render(backend, scale, this.color);
+	}
+	
+	/**
+	 * Draws the body with the given backend.
+	 * <p>
+	 * This draws the same as {@link #render(Graphics2D, double, Color)}, but
+	 * through a {@link RenderBackend} so that it can be recorded or drawn with
+	 * something other than Java2D.
+	 * @param backend the backend to draw with
+	 * @param scale the scaling factor, used to pick the {@link LevelOfDetail}
+	 * @param color the color to render the body
+	 */
+	public void render(RenderBackend backend, double scale, Color color) {
+		// point radius in pixels
+		final double pr = 2.0;
+		
+		Vector2 lc = this.getLocalCenter();
+		double cx = this.transform.getTransformedX(lc);
+		double cy = this.transform.getTransformedY(lc);
+		
+		LevelOfDetail detail = LevelOfDetail.get(this.getRotationDiscRadius(), scale);
+		if (detail == LevelOfDetail.POINT) {
+			// a single pixel
+			if (this.isAtRest()) {
+				color = color.brighter();
+			}
+			backend.circle(cx, cy, 0.5 / scale, color.getRGB(), true);
+			return;
+		}
+		
+		// loop over all the body fixtures for this body
+		for (BodyFixture fixture : this.fixtures) {
+			this.renderFixture(backend, scale, fixture, color);
+		}
+		
+		// the center point would cover most of a small body
+		if (detail != LevelOfDetail.FULL) {
+			return;
+		}
+		
+		// draw a center point
+		backend.circle(cx, cy, pr / scale, Color.WHITE.getRGB(), true);
+		backend.circle(cx, cy, pr / scale, Color.DARK_GRAY.getRGB(), false);
+	}
+	
+	/**
+	 * Renders the given fixture with the given backend.
+	 * @param backend the backend to draw with
+	 * @param scale the scaling factor
+	 * @param fixture the fixture to render
+	 * @param color the color to render the fixture
+	 */
+	protected void renderFixture(RenderBackend backend, double scale, BodyFixture fixture, Color color) {
+		// get the shape on the fixture
+		Convex convex = fixture.getShape();
+		
+		// brighten the color if asleep
+		if (this.isAtRest()) {
+			color = color.brighter();
+		}
+		
+		// leave out the outline and rotation line if it's small on screen
+		boolean detailed = LevelOfDetail.get(convex.getRadius(), scale) == LevelOfDetail.FULL;
+		
+		// render the fixture
+		CommandRenderer.render(backend, convex, this.transform, color, detailed);
+	}
+	
+	/**
+	 * Resets the state of this body so that it can be reused.
+	 * <p>
+	 * The transform, velocity, forces and user data are cleared and the body
+	 * is woken up and enabled.  The fixtures, mass, color and tags are retained.
+	 */
+	public void reset() {
+		this.transform.identity();
+		this.transform0.identity();
+		this.linearVelocity.zero();
+		this.angularVelocity = 0.0;
+		this.clearForce();
+		this.clearTorque();
+		this.clearAccumulatedForce();
+		this.clearAccumulatedTorque();
+		this.setAtRest(false);
+		this.setEnabled(true);
+		this.userData = null;
 	}
 	
 	/**
@@ -147,4 +279,75 @@ public class SimulationBody extends Body {
 	public void setColor(Color color) {
 		this.color = color;
 	}
+	
+	/**
+	 * Returns this body's tags.
+	 * <p>
+	 * Tags are bits that say what kind of object a body is, so listeners can
+	 * check it without looking at the user data.  See {@link TagIndex}.
+	 * @return int
+	 */
+	public int getTags() {
+		return this.tags;
+	}
+	
+	/**
+	 * Sets this body's tags.
+	 * @param tags the tags
+	 */
+	public void setTags(int tags) {
+		if (tags != this.tags) {
+			this.tags = tags;
+			if (this.tagIndex != null) {
+				this.tagIndex.modified();
+			}
+		}
+	}
+	
+	/**
+	 * Adds the given tags to this body's tags.
+	 * @param tags the tags
+	 */
+	public void addTags(int tags) {
+		this.setTags(this.tags | tags);
+	}
+	
+	/**
+	 * Removes the given tags from this body's tags.
+	 * @param tags the tags
+	 */
+	public void removeTags(int tags) {
+		this.setTags(this.tags & ~tags);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.AbstractCollisionBody#setOwner(java.lang.Object)
+	 */
+	@Override
+	public void setOwner(Object owner) {
+		// the world sets the owner when the body is added or removed
+		if (owner != this.owner && this.tagIndex != null) {
+			this.tagIndex.modified();
+			this.tagIndex = null;
+		}
+		super.setOwner(owner);
+	}
+	
+	/**
+	 * Returns true if this body has any of the given tags.
+	 * @param tags the tags
+	 * @return boolean
+	 */
+	public boolean hasAnyTag(int tags) {
+		return (this.tags & tags) != 0;
+	}
+	
+	/**
+	 * Returns true if this body has all of the given tags.
+	 * @param tags the tags
+	 * @return boolean
+	 */
+	public boolean hasAllTags(int tags) {
+		return (this.tags & tags) == tags;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.world.World;
+
+/**
+ * A pool of bodies for scenes that frequently add and remove bodies of the same kind.
+ * <p>
+ * Bodies are created by the given {@link Factory} only when the pool is empty. The
+ * factory should give each body its fixtures using shapes shared by all bodies it
+ * creates; the fixtures, mass and color are kept when a body is released so that
+ * reuse doesn't allocate anything.
+ * <p>
+ * Use {@link #obtain()} to get a body, position it and add it to the world.  Use
+ * {@link #release(SimulationBody)} to remove it from the world and return it to
+ * the pool.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ * @param <T> the body type
+ */
+public class SimulationBodyPool<T extends SimulationBody> {
+	/** The default maximum number of unused bodies retained */
+	public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+	/**
+	 * Creates new bodies for a pool.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 * @param <T> the body type
+	 */
+	public static interface Factory<T extends SimulationBody> {
+		/**
+		 * Returns a new body with its fixtures and mass set.
+		 * @return T
+		 */
+		public T create();
+	}
+
+	/** The world the bodies are added to */
+	private final World<SimulationBody> world;
+
+	/** The body factory */
+	private final Factory<T> factory;
+
+	/** The unused bodies */
+	private final List<T> free;
+
+	/** The bodies that have been obtained and not released */
+	private final List<T> active;
+
+	/** The index in the active list of each body obtained; -1 once it's back in the pool */
+	private final Map<T, int[]> indices;
+
+	/** The maximum number of unused bodies retained */
+	private int maximumSize;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world the bodies are added to
+	 * @param factory the body factory
+	 */
+	public SimulationBodyPool(World<SimulationBody> world, Factory<T> factory) {
+		this(world, factory, DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param world the world the bodies are added to
+	 * @param factory the body factory
+	 * @param maximumSize the maximum number of unused bodies retained
+	 */
+	public SimulationBodyPool(World<SimulationBody> world, Factory<T> factory, int maximumSize) {
+		this.world = world;
+		this.factory = factory;
+		this.free = new ArrayList<T>();
+		this.active = new ArrayList<T>();
+		this.indices = new IdentityHashMap<T, int[]>();
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Creates bodies until the given number of unused bodies are available.
+	 * @param count the number of unused bodies
+	 */
+	public void prefill(int count) {
+		int n = Math.min(count, this.maximumSize);
+		while (this.free.size() < n) {
+			this.free.add(this.factory.create());
+		}
+	}
+
+	/**
+	 * Returns an unused body, creating one if needed.
+	 * <p>
+	 * The body is not in the world and has an identity transform and zero velocity.
+	 * @return T
+	 */
+	public T obtain() {
+		int size = this.free.size();
+		T body = size > 0 ? this.free.remove(size - 1) : this.factory.create();
+
+		// the index is kept with the body, so only new bodies allocate one
+		int[] index = this.indices.get(body);
+		if (index == null) {
+			index = new int[1];
+			this.indices.put(body, index);
+		}
+		index[0] = this.active.size();
+		this.active.add(body);
+		return body;
+	}
+
+	/**
+	 * Removes the given body from the world, if it's still there, and returns it to the pool.
+	 * @param body the body
+	 * @return boolean true if the body came from this pool
+	 */
+	public boolean release(T body) {
+		if (!this.removeActive(body)) {
+			return false;
+		}
+		this.recycle(body);
+		return true;
+	}
+
+	/**
+	 * Removes all bodies obtained from this pool from the world, if they are
+	 * still there, and returns them to the pool.
+	 * <p>
+	 * Call this when the world is reset.
+	 */
+	public void releaseAll() {
+		for (int i = 0; i < this.active.size(); i++) {
+			this.recycle(this.active.get(i));
+		}
+		this.active.clear();
+	}
+
+	/**
+	 * Removes the given body from the world and resets it.
+	 * @param body the body
+	 */
+	private void recycle(T body) {
+		// the owner is cheaper to check than World.containsBody
+		if (body.getOwner() == this.world) {
+			this.world.removeBody(body);
+		}
+
+		if (this.free.size() < this.maximumSize) {
+			body.reset();
+			this.free.add(body);
+			this.indices.get(body)[0] = -1;
+		} else {
+			this.indices.remove(body);
+		}
+	}
+
+	/**
+	 * Removes the given body from the active list.
+	 * @param body the body
+	 * @return boolean true if it was found
+	 */
+	private boolean removeActive(T body) {
+		int[] index = this.indices.get(body);
+		if (index == null || index[0] < 0) {
+			return false;
+		}
+
+		// move the last body into its place
+		int i = index[0];
+		int last = this.active.size() - 1;
+		T moved = this.active.get(last);
+		this.active.set(i, moved);
+		this.indices.get(moved)[0] = i;
+		this.active.remove(last);
+		index[0] = -1;
+		return true;
+	}
+
+	/**
+	 * Returns the number of unused bodies.
+	 * @return int
+	 */
+	public int getFreeCount() {
+		return this.free.size();
+	}
+
+	/**
+	 * Returns the number of bodies obtained and not released.
+	 * @return int
+	 */
+	public int getActiveCount() {
+		return this.active.size();
+	}
+
+	/**
+	 * Returns the maximum number of unused bodies retained.
+	 * @return int
+	 */
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Sets the maximum number of unused bodies retained.
+	 * @param maximumSize the maximum size
+	 */
+	public void setMaximumSize(int maximumSize) {
+		this.maximumSize = maximumSize;
+		while (this.free.size() > maximumSize) {
+			this.indices.remove(this.free.remove(this.free.size() - 1));
+		}
+	}
+}
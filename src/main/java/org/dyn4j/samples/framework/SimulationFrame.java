@@ -24,12 +24,16 @@
  */
 package org.dyn4j.samples.framework;
 
+import java.awt.BufferCapabilities;
+import java.awt.BufferCapabilities.FlipContents;
 import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.RenderingHints;
+import java.awt.Shape;
 import java.awt.Toolkit;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
@@ -39,8 +43,12 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.awt.image.BufferStrategy;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.JFrame;
 import javax.swing.UIManager;
@@ -51,16 +59,15 @@ import org.dyn4j.collision.Bounds;
 import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.contact.ContactConstraint;
 import org.dyn4j.dynamics.contact.SolvedContact;
-import org.dyn4j.dynamics.joint.DistanceJoint;
-import org.dyn4j.dynamics.joint.Joint;
-import org.dyn4j.dynamics.joint.PinJoint;
 import org.dyn4j.geometry.AABB;
 import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 import org.dyn4j.samples.framework.input.BooleanStateKeyboardInputHandler;
+import org.dyn4j.samples.framework.input.InputQueue;
 import org.dyn4j.samples.framework.input.CodeExporter;
 import org.dyn4j.samples.framework.input.MousePanningInputHandler;
 import org.dyn4j.samples.framework.input.MousePickingInputHandler;
+import org.dyn4j.samples.framework.input.MouseSelectionInputHandler;
 import org.dyn4j.samples.framework.input.MouseZoomInputHandler;
 import org.dyn4j.samples.framework.input.ToggleStateKeyboardInputHandler;
 import org.dyn4j.world.World;
@@ -79,6 +86,12 @@ public abstract class SimulationFrame extends JFrame {
 
 	/** The conversion factor from nano to base */
 	public static final double NANO_TO_BASE = 1.0e9;
+	
+	/** The number of buffers used for rendering */
+	private static final int BUFFER_COUNT = 2;
+	
+	/** The font the input latency is drawn with */
+	private static final Font LATENCY_FONT = new Font("SansSerif", Font.PLAIN, 12);
 
 	/** The canvas to draw to */
 	protected final Canvas canvas;
@@ -86,6 +99,83 @@ public abstract class SimulationFrame extends JFrame {
 	/** The dynamics engine */
 	protected final World<SimulationBody> world;
 	
+	/** Changes to the world requested by listeners, input handlers or other threads */
+	private final WorldMutationQueue mutationQueue;
+	
+	/** The bodies by tag and the listeners for tagged pairs */
+	private final TagIndex tagIndex;
+	
+	/** The trigger zones */
+	private final TriggerZones triggers;
+	
+	/** The state of the world after it was initialized */
+	private final WorldSnapshot snapshot;
+	
+	/** True if resetting restores the snapshot instead of rebuilding the world */
+	private boolean snapshotResetEnabled;
+	
+	// render skipping
+	
+	/** Tracks changes to the scene between frames */
+	private final FrameChangeTracker frameChanges;
+	
+	/** True if frames are only drawn when the scene changes */
+	private boolean idleRenderSkippingEnabled;
+	
+	/** The number of input latencies recorded when the latency was last checked */
+	private long latencyCount;
+	
+	/** True if the back buffer keeps its contents after being shown */
+	private boolean bufferRetained;
+	
+	/** The number of frames drawn since the scene last changed */
+	private int unchangedFrames;
+	
+	/** Paces the game loop to the target frame rate */
+	private final FramePacer pacer;
+	
+	// raster rendering
+	
+	/** Draws the bodies straight into an image */
+	private final RasterRenderer raster;
+	
+	/** True if bodies are drawn with the raster renderer */
+	private boolean rasterRenderingEnabled;
+	
+	// tiled rendering
+	
+	/** Draws the bodies in tiles across threads */
+	private final TiledRenderer tiled;
+	
+	/** Clears and draws the tiles the same way as a single frame */
+	private final TiledRenderer.Painter tilePainter;
+	
+	/** True if bodies are drawn with the tiled renderer */
+	private boolean tiledRenderingEnabled;
+	
+	/** The elapsed time for the tiles being drawn */
+	private double tileElapsedTime;
+	
+	/** The threads the tiles are drawn on; created when first needed */
+	private ExecutorService renderExecutor;
+	
+	/** Draws the joints */
+	private final JointRenderer joints;
+	
+	// command rendering
+	
+	/** The commands bodies are drawn into each frame */
+	private final RenderCommandBuffer commands;
+	
+	/** Replays the commands to the frame's graphics object */
+	private final Graphics2DBackend commandBackend;
+	
+	/** True if bodies are drawn through the command buffer */
+	private boolean commandRenderingEnabled;
+	
+	/** True if the commands are sorted by color before they are replayed */
+	private boolean commandSortingEnabled;
+	
 	// stop/pause
 	
 	/** True if the simulation is exited */
@@ -103,6 +193,18 @@ public abstract class SimulationFrame extends JFrame {
 	
 	// interaction (mouse/keyboard)
 	
+	/** The input events waiting for the game loop */
+	private final InputQueue input;
+	
+	/** Measures the time from input to the frame showing it */
+	private final InputLatencyTracker latency;
+	
+	/** Writes printed output off the game loop thread */
+	private final AsyncLogger logger;
+	
+	/** The step number log format */
+	private final int stepNumberFormat;
+	
 	private final ToggleStateKeyboardInputHandler paused;
 	private final ToggleStateKeyboardInputHandler step;
 	private final BooleanStateKeyboardInputHandler reset;
@@ -111,6 +213,7 @@ public abstract class SimulationFrame extends JFrame {
 	private final MousePickingInputHandler picking;
 	private final MousePanningInputHandler panning;
 	private final MouseZoomInputHandler zoom;
+	private final MouseSelectionInputHandler selection;
 	
 	private final ToggleStateKeyboardInputHandler renderContacts;
 	private final ToggleStateKeyboardInputHandler renderBodyAABBs;
@@ -118,6 +221,8 @@ public abstract class SimulationFrame extends JFrame {
 	private final ToggleStateKeyboardInputHandler renderFixtureAABBs;
 	private final ToggleStateKeyboardInputHandler renderFixtureRotationRadius;
 	private final ToggleStateKeyboardInputHandler renderBounds;
+	private final ToggleStateKeyboardInputHandler renderLatency;
+	private final BooleanStateKeyboardInputHandler renderTiled;
 	
 	private final ToggleStateKeyboardInputHandler printStepNumber;
 	private final ToggleStateKeyboardInputHandler printSimulation;
@@ -136,6 +241,28 @@ public abstract class SimulationFrame extends JFrame {
 		
 		// create the world
 		this.world = new World<SimulationBody>();
+		this.mutationQueue = new WorldMutationQueue(this.world);
+		this.tagIndex = new TagIndex(this.world);
+		this.triggers = new TriggerZones(this.world);
+		this.snapshot = new WorldSnapshot(this.world);
+		this.frameChanges = new FrameChangeTracker();
+		this.pacer = new FramePacer();
+		this.raster = new RasterRenderer();
+		this.tiled = new TiledRenderer();
+		this.joints = new JointRenderer();
+		this.commands = new RenderCommandBuffer();
+		this.commandBackend = new Graphics2DBackend();
+		this.tilePainter = new TiledRenderer.Painter() {
+			@Override
+			public void clear(Graphics2D g) {
+				SimulationFrame.this.clear(g);
+			}
+			
+			@Override
+			public void render(Graphics2D g, SimulationBody body) {
+				SimulationFrame.this.render(g, tileElapsedTime, body);
+			}
+		};
 		
 		// setup the JFrame
 		this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -175,6 +302,10 @@ public abstract class SimulationFrame extends JFrame {
 		this.canvas.requestFocus();
 		
 		// install input handlers
+		this.input = InputQueue.get(this.canvas);
+		this.latency = new InputLatencyTracker();
+		this.logger = AsyncLogger.getDefault();
+		this.stepNumberFormat = this.logger.register("Step #%d");
 		this.picking = new MousePickingInputHandler(this.canvas, this.camera, this.world) {
 			@Override
 			public void onPickingStart(SimulationBody body) {
@@ -197,6 +328,26 @@ public abstract class SimulationFrame extends JFrame {
 		this.zoom = new MouseZoomInputHandler(this.canvas, MouseEvent.BUTTON1);
 		this.zoom.install();
 		
+		// selection is off by default since some examples use the right button
+		this.selection = new MouseSelectionInputHandler(this.canvas, this.camera, this.world, MouseEvent.BUTTON3) {
+			@Override
+			public void onSelectionStart() {
+				super.onSelectionStart();
+				SimulationFrame.this.onBodySelectionStart();
+			}
+			@Override
+			public boolean onBodySelected(SimulationBody body) {
+				return SimulationFrame.this.onBodySelected(body);
+			}
+			@Override
+			public void onSelectionEnd(int count) {
+				super.onSelectionEnd(count);
+				SimulationFrame.this.onBodySelectionEnd(count);
+			}
+		};
+		this.selection.install();
+		this.selection.setEnabled(false);
+		
 		this.paused = new ToggleStateKeyboardInputHandler(this.canvas, KeyEvent.VK_SPACE);
 		this.step = new ToggleStateKeyboardInputHandler(this.canvas, KeyEvent.VK_ENTER);
 		this.reset = new BooleanStateKeyboardInputHandler(this.canvas, KeyEvent.VK_R);
@@ -207,6 +358,8 @@ public abstract class SimulationFrame extends JFrame {
 		this.renderFixtureAABBs = new ToggleStateKeyboardInputHandler(this.canvas, KeyEvent.VK_F);
 		this.renderFixtureRotationRadius = new ToggleStateKeyboardInputHandler(this.canvas, KeyEvent.VK_F);
 		this.renderBounds = new ToggleStateKeyboardInputHandler(this.canvas, KeyEvent.VK_Z);
+		this.renderLatency = new ToggleStateKeyboardInputHandler(this.canvas, KeyEvent.VK_L);
+		this.renderTiled = new BooleanStateKeyboardInputHandler(this.canvas, KeyEvent.VK_T);
 		
 		this.paused.install();
 		this.step.install();
@@ -220,6 +373,8 @@ public abstract class SimulationFrame extends JFrame {
 		this.renderFixtureAABBs.install();
 		this.renderFixtureRotationRadius.install();
 		this.renderBounds.install();
+		this.renderLatency.install();
+		this.renderTiled.install();
 
 		this.printSimulation = new ToggleStateKeyboardInputHandler(this.canvas, KeyEvent.VK_NUMPAD0, KeyEvent.VK_0);
 		this.printStepNumber = new ToggleStateKeyboardInputHandler(this.canvas, KeyEvent.VK_NUMPAD1, KeyEvent.VK_1);
@@ -250,6 +405,8 @@ public abstract class SimulationFrame extends JFrame {
 		printControl("Body Bounds", "b", "Use the b key to toggle drawing of body bounds");
 		printControl("Fixture Bounds", "f", "Use the f key to toggle drawing of fixture bounds");
 		printControl("World Bounds", "z", "Use the z key to toggle drawing of world bounds");
+		printControl("Latency", "l", "Use the l key to toggle drawing of input latency");
+		printControl("Tiled", "t", "Use the t key to toggle drawing bodies on all processors");
 		printControl("Print Code", "0", "Use the 0 key to print the scene to code");
 		printControl("Print Step", "1", "Use the 1 key to print the scene step number");
 	}
@@ -280,8 +437,14 @@ public abstract class SimulationFrame extends JFrame {
 	 */
 	private void initializeSimulation() {
 		this.initializeCamera(this.camera);
+		this.tagIndex.install();
+		this.triggers.install();
 		this.initializeSettings();
 		this.initializeWorld();
+		
+		if (this.snapshotResetEnabled) {
+			this.snapshot.capture();
+		}
 	}
 	
 	/**
@@ -299,21 +462,25 @@ public abstract class SimulationFrame extends JFrame {
 		this.canvas.setIgnoreRepaint(true);
 		// enable double buffering (the JFrame has to be
 		// visible before this can be done)
-		this.canvas.createBufferStrategy(2);
+		this.canvas.createBufferStrategy(BUFFER_COUNT);
+		// frames can only be skipped if showing the back buffer
+		// again shows the last frame drawn
+		BufferCapabilities capabilities = this.canvas.getBufferStrategy().getCapabilities();
+		FlipContents contents = capabilities.getFlipContents();
+		this.bufferRetained = !capabilities.isPageFlipping() || 
+				FlipContents.COPIED.equals(contents) || 
+				FlipContents.PRIOR.equals(contents);
 		// run a separate thread to do active rendering
 		// because we don't want to do it on the EDT
 		Thread thread = new Thread() {
 			public void run() {
+				pacer.reset();
 				// perform an infinite loop stopped
-				// render as fast as possible
+				// at the target frame rate
 				while (!isStopped()) {
 					gameLoop();
-					// you could add a Thread.yield(); or
-					// Thread.sleep(long) here to give the
-					// CPU some breathing room
-					try {
-						Thread.sleep(5);
-					} catch (InterruptedException e) {}
+					// wait for the next frame
+					pacer.sync();
 				}
 			}
 		};
@@ -329,15 +496,7 @@ public abstract class SimulationFrame extends JFrame {
 	 * the game, graphics, and poll for input.
 	 */
 	private void gameLoop() {
-		// get the graphics object to render to
-		Graphics2D g = (Graphics2D)this.canvas.getBufferStrategy().getDrawGraphics();
-		
-		// by default, set (0, 0) to be the center of the screen with the positive x axis
-		// pointing right and the positive y axis pointing up
-		this.transform(g);
-		
-		// reset the view
-		this.clear(g);
+		BufferStrategy strategy = this.canvas.getBufferStrategy();
 		
 		// get the current time
         long time = System.nanoTime();
@@ -348,11 +507,51 @@ public abstract class SimulationFrame extends JFrame {
     	// convert from nanoseconds to seconds
     	double elapsedTime = (double)diff / NANO_TO_BASE;
 		
-		// render anything about the simulation (will render the World objects)
-    	AffineTransform tx = g.getTransform();
-		g.translate(this.camera.offsetX, this.camera.offsetY);
-		this.render(g, elapsedTime);
-		g.setTransform(tx);
+		// skip drawing frames while the simulation catches up, but
+		// if it's still behind after that, let it run slower instead
+		boolean behind = this.isSimulationBehind();
+		boolean draw = this.pacer.beginFrame(behind);
+		if (behind && draw) {
+			this.world.setAccumulatedTime(this.world.getSettings().getStepFrequency());
+		}
+		
+		// the frame shown at the end reflects all input applied so far
+		if (draw) {
+			this.latency.rendering();
+		}
+		
+		// skip drawing the frame if it would look like the last one
+		Graphics2D g = null;
+		if (draw && this.isRenderRequired(strategy)) {
+			// get the graphics object to render to
+			g = (Graphics2D)strategy.getDrawGraphics();
+			
+			// by default, set (0, 0) to be the center of the screen with the positive x axis
+			// pointing right and the positive y axis pointing up
+			AffineTransform device = g.getTransform();
+			this.transform(g);
+			
+			// reset the view (the raster or tiled image covers the whole view)
+			if (this.rasterRenderingEnabled) {
+				this.renderRaster(g, device);
+			} else if (this.tiledRenderingEnabled) {
+				this.renderTiled(g, device, elapsedTime);
+			} else {
+				this.clear(g);
+			}
+			
+			// render anything about the simulation (will render the World objects)
+	    	AffineTransform tx = g.getTransform();
+			g.translate(this.camera.offsetX, this.camera.offsetY);
+			this.render(g, elapsedTime);
+			g.setTransform(tx);
+			
+			// draw the input latency over everything, in pixels
+			if (this.renderLatency.isActive()) {
+				g.setTransform(device);
+				this.renderLatency(g);
+			}
+		}
 
         // update the World
 		if (!this.paused.isActive()) {
@@ -361,29 +560,111 @@ public abstract class SimulationFrame extends JFrame {
 //	        long e = System.nanoTime();
 	        if (stepped) {
 	        	this.stepNumber++;
+	        	this.latency.applied();
+	        	this.joints.invalidate();
 //	        	System.out.println(((e - s) / 1000000.0) + " ms");
 	        }
 		} else if (this.step.isActive()) {
 			this.world.step(1);
 			this.stepNumber++;
 			this.step.setActive(false);
+			this.latency.applied();
+			this.joints.invalidate();
+		} else {
+			// while paused, input takes effect without a step
+			this.latency.applied();
 		}
 		
 		this.handleEvents();
 		
+		// apply the changes requested by listeners during the steps or
+		// during input handling
+		this.mutationQueue.apply();
+		
 		// dispose of the graphics object
-		g.dispose();
+		if (g != null) {
+			g.dispose();
+		}
 		
-		// blit/flip the buffer
-		BufferStrategy strategy = this.canvas.getBufferStrategy();
+		// frames skipped to catch up aren't shown at all
+		if (!draw) {
+			return;
+		}
+		
+		// blit/flip the buffer (when the scene was idle
+		// this shows the last frame again)
 		if (!strategy.contentsLost()) {
 			strategy.show();
+			this.latency.shown(System.nanoTime());
 		}
 		
 		// Sync the display on some systems.
         // (on Linux, this fixes event queue problems)
         Toolkit.getDefaultToolkit().sync();
 	}
+	
+	/**
+	 * Returns true if the simulation has fallen more than a couple steps behind.
+	 * @return boolean
+	 */
+	private boolean isSimulationBehind() {
+		if (this.paused.isActive()) {
+			return false;
+		}
+		return this.world.getAccumulatedTime() >= 2.0 * this.world.getSettings().getStepFrequency();
+	}
+	
+	/**
+	 * Returns true if the next frame needs to be drawn.
+	 * <p>
+	 * When idle render skipping is enabled, frames are drawn only when the scene
+	 * changes, plus enough frames after that to fill every buffer.
+	 * @param strategy the buffer strategy
+	 * @return boolean
+	 */
+	private boolean isRenderRequired(BufferStrategy strategy) {
+		if (!this.idleRenderSkippingEnabled || !this.bufferRetained) {
+			return true;
+		}
+		
+		if (strategy.contentsRestored() || this.picking.isActive() || this.selection.isActive()) {
+			this.frameChanges.invalidate();
+		}
+		
+		// the input latency changes without the scene changing
+		if (this.renderLatency.isActive()) {
+			long count = this.latency.getHistogram().getCount();
+			if (count != this.latencyCount) {
+				this.latencyCount = count;
+				this.frameChanges.invalidate();
+			}
+		}
+		
+		int flags = 0;
+		if (this.renderContacts.isActive()) flags |= 1;
+		if (this.renderBodyAABBs.isActive()) flags |= 2;
+		if (this.renderBodyRotationRadius.isActive()) flags |= 4;
+		if (this.renderFixtureAABBs.isActive()) flags |= 8;
+		if (this.renderFixtureRotationRadius.isActive()) flags |= 16;
+		if (this.renderBounds.isActive()) flags |= 32;
+		if (this.rasterRenderingEnabled) flags |= 64;
+		if (this.tiledRenderingEnabled) flags |= 128;
+		if (this.commandRenderingEnabled) flags |= 256;
+		if (this.commandSortingEnabled) flags |= 512;
+		if (this.renderLatency.isActive()) flags |= 1024;
+		
+		if (this.frameChanges.update(this.world, this.camera, this.canvas.getWidth(), this.canvas.getHeight(), flags)) {
+			this.unchangedFrames = 0;
+			return true;
+		}
+		
+		if (this.unchangedFrames < BUFFER_COUNT) {
+			this.unchangedFrames++;
+			return true;
+		}
+		
+		return false;
+	}
 
 	/**
 	 * Performs any transformations to the graphics.
@@ -442,11 +723,19 @@ public abstract class SimulationFrame extends JFrame {
 			}
 		}
 		
+		// record the bodies and draw them in one go
+		boolean commanded = this.commandRenderingEnabled && !this.rasterRenderingEnabled && !this.tiledRenderingEnabled;
+		if (commanded) {
+			this.renderCommands(g, elapsedTime);
+		}
+		
 		// draw all the objects in the world
 		for (int i = 0; i < this.world.getBodyCount(); i++) {
 			// get the object
 			SimulationBody body = (SimulationBody) this.world.getBody(i);
-			this.render(g, elapsedTime, body);
+			if (!this.rasterRenderingEnabled && !this.tiledRenderingEnabled && !commanded) {
+				this.render(g, elapsedTime, body);
+			}
 			
 			// body aabb
 			if (this.renderBodyAABBs.isActive()) {
@@ -503,41 +792,21 @@ public abstract class SimulationFrame extends JFrame {
 			}
 		}
 		
-		for (int i = 0; i < this.world.getJointCount(); i++) {
-			Joint<SimulationBody> j = this.world.getJoint(i);
-			if (j instanceof DistanceJoint) {
-				DistanceJoint<SimulationBody> dj = (DistanceJoint<SimulationBody>)j;
-				Line2D.Double vn = new Line2D.Double(
-						dj.getAnchor1().x * this.camera.scale, 
-						dj.getAnchor1().y * this.camera.scale, 
-						dj.getAnchor2().x * this.camera.scale, 
-						dj.getAnchor2().y * this.camera.scale);
-				double target = dj.getRestDistance();
-				double val = Math.abs(target - dj.getAnchor1().distance(dj.getAnchor2())) * 100;
-				int red = (int)Math.floor(Math.min(val, 255));
-				g.setColor(new Color(red, 0, 0));
-				g.draw(vn);
-			} else if (j instanceof PinJoint) {
-				PinJoint<SimulationBody> pj = (PinJoint<SimulationBody>)j;
-				Line2D.Double vn = new Line2D.Double(
-						pj.getTarget().x * this.camera.scale, 
-						pj.getTarget().y * this.camera.scale, 
-						pj.getAnchor().x * this.camera.scale, 
-						pj.getAnchor().y * this.camera.scale);
-				double max = pj.getMaximumSpringForce();
-				if (!pj.isSpringEnabled() ) {
-					max = pj.getMaximumCorrectionForce();
-				}
-				double val = pj.getReactionForce(this.world.getTimeStep().getInverseDeltaTime()).getMagnitude();
-				int red = (int)Math.floor((val / max) * 255);
-				g.setColor(new Color(red, 0, 0));
-				g.draw(vn);
-			}
-		}
+		// draw the joints, colored by how hard they are working
+		this.joints.render(g, this.world, this.camera.scale);
 		
 		if (this.renderContacts.isActive()) {
 			this.drawContacts(g);
 		}
+		
+		// draw the selection region
+		Shape region = this.selection.getSelectionShape(this.camera.scale);
+		if (region != null) {
+			g.setColor(new Color(0, 120, 215, 40));
+			g.fill(region);
+			g.setColor(new Color(0, 120, 215));
+			g.draw(region);
+		}
 	}
 	
 	private void drawContacts(Graphics2D g) {
@@ -587,6 +856,75 @@ public abstract class SimulationFrame extends JFrame {
 		}
 	}
 	
+	/**
+	 * Records all the bodies into the command buffer and replays it to the given graphics object.
+	 * @param g the graphics object to render to
+	 * @param elapsedTime the elapsed time from the last update
+	 */
+	private void renderCommands(Graphics2D g, double elapsedTime) {
+		this.commands.clear();
+		for (int i = 0; i < this.world.getBodyCount(); i++) {
+			SimulationBody body = this.world.getBody(i);
+			this.commands.beginGroup();
+			this.render(this.commands, elapsedTime, body);
+		}
+		
+		if (this.commandSortingEnabled) {
+			this.commands.sortByColor();
+		}
+		
+		this.commandBackend.setGraphics(g);
+		this.commandBackend.setScale(this.camera.scale);
+		this.commands.replay(this.commandBackend);
+		this.commandBackend.setGraphics(null);
+	}
+	
+	/**
+	 * Draws the bodies with the raster renderer and copies the result to the view.
+	 * @param g the graphics object to render to
+	 * @param device the transform of the graphics object before any others were applied
+	 */
+	private void renderRaster(Graphics2D g, AffineTransform device) {
+		BufferedImage image = this.raster.render(this.world, this.camera, this.canvas.getWidth(), this.canvas.getHeight());
+		AffineTransform tx = g.getTransform();
+		g.setTransform(device);
+		g.drawImage(image, 0, 0, null);
+		g.setTransform(tx);
+	}
+	
+	/**
+	 * Draws the bodies with the tiled renderer and copies the result to the view.
+	 * @param g the graphics object to render to
+	 * @param device the transform of the graphics object before any others were applied
+	 * @param elapsedTime the elapsed time from the last update
+	 */
+	private void renderTiled(Graphics2D g, AffineTransform device, double elapsedTime) {
+		this.tileElapsedTime = elapsedTime;
+		BufferedImage image = this.tiled.render(this.world, this.camera, this.canvas.getWidth(), this.canvas.getHeight(), this.tilePainter);
+		AffineTransform tx = g.getTransform();
+		g.setTransform(device);
+		g.drawImage(image, 0, 0, null);
+		g.setTransform(tx);
+	}
+	
+	/**
+	 * Renders the body with the given backend when command rendering is enabled.
+	 * @param backend the backend to draw with
+	 * @param elapsedTime the elapsed time from the last update
+	 * @param body the body to render
+	 * @see #setCommandRenderingEnabled(boolean)
+	 */
+	protected void render(RenderBackend backend, double elapsedTime, SimulationBody body) {
+		// if the object is selected, draw it magenta
+		Color color = body.getColor();
+		if (this.picking.isEnabled() && this.picking.isActive() && this.picking.getBody() == body) {
+			color = Color.MAGENTA;
+		}
+		
+		// draw the object
+		body.render(backend, this.camera.scale, color);
+	}
+	
 	/**
 	 * Renders the body.
 	 * @param g the graphics object to render to
@@ -604,6 +942,24 @@ public abstract class SimulationFrame extends JFrame {
 		body.render(g, this.camera.scale, color);
 	}
 	
+	/**
+	 * Draws the input latency in the top left corner.
+	 * <p>
+	 * The graphics object is in pixels with the origin in the top left.
+	 * @param g the graphics object to render to
+	 */
+	private void renderLatency(Graphics2D g) {
+		LatencyHistogram histogram = this.latency.getHistogram();
+		g.setColor(Color.BLACK);
+		g.setFont(LATENCY_FONT);
+		g.drawString(String.format("Input latency (ms): p50 %1$.1f  p95 %2$.1f  p99 %3$.1f  max %4$.1f  (%5$d presses)", 
+				histogram.getPercentile(50),
+				histogram.getPercentile(95),
+				histogram.getPercentile(99),
+				histogram.getMaximum(),
+				histogram.getCount()), 10, 20);
+	}
+	
 	protected Vector2 toWorldCoordinates(Point p) {
 		return this.camera.toWorldCoordinates(this.canvas.getWidth(), this.canvas.getHeight(), p);
 	}
@@ -612,14 +968,18 @@ public abstract class SimulationFrame extends JFrame {
 	 * Used to handle any input events or custom code.
 	 */
 	protected void handleEvents() {
+		// deliver the input events since the last frame to the handlers
+		this.input.drain();
+		this.latency.handled(this.input);
+		
 		if (this.printSimulation.isActive()) {
 			this.printSimulation.setActive(false);
-			System.out.println(this.toCode());
+			this.logger.log(this.toCode());
 		}
 		
 		if (this.printStepNumber.isActive()) {
 			this.printStepNumber.setActive(false);
-			System.out.println("Step #" + this.stepNumber);
+			this.logger.log(this.stepNumberFormat, this.stepNumber);
 		}
 		
 		if (this.reset.isActiveButNotHandled()) {
@@ -632,6 +992,11 @@ public abstract class SimulationFrame extends JFrame {
 			this.resetCamera();
 		}
 		
+		if (this.renderTiled.isActiveButNotHandled()) {
+			this.renderTiled.setHasBeenHandled(true);
+			this.setTiledRenderingEnabled(!this.tiledRenderingEnabled);
+		}
+		
 		// update the camera position
 		Vector2 cameraMove = this.panning.getOffsetAndReset();
 		this.camera.offsetX += cameraMove.x;
@@ -645,6 +1010,13 @@ public abstract class SimulationFrame extends JFrame {
 		
 		// update mouse picking location
 		this.picking.updateMousePickingState();
+		if (this.picking.isActive()) {
+			// the pin's target moves with the mouse, even when paused
+			this.joints.invalidate();
+		}
+		
+		// report any finished selection
+		this.selection.updateMouseSelectionState();
 	}
 	
 	/**
@@ -663,11 +1035,43 @@ public abstract class SimulationFrame extends JFrame {
 		
 	}
 	
+	/**
+	 * Called when the bodies in a mouse selection are about to be reported.
+	 */
+	protected void onBodySelectionStart() {
+		
+	}
+	
+	/**
+	 * Called for each body in a mouse selection.
+	 * <p>
+	 * Bodies should be removed or added through the {@link #getMutationQueue()}
+	 * since the world is being queried.
+	 * @param body the body
+	 * @return boolean true to continue the selection; false to stop it
+	 */
+	protected boolean onBodySelected(SimulationBody body) {
+		return true;
+	}
+	
+	/**
+	 * Called when all the bodies in a mouse selection have been reported.
+	 * @param count the number of bodies selected
+	 */
+	protected void onBodySelectionEnd(int count) {
+		
+	}
+	
 	/**
 	 * Stops the simulation.
 	 */
 	public void stop() {
 		this.stopped = true;
+		synchronized (this.tiled) {
+			if (this.renderExecutor != null) {
+				this.renderExecutor.shutdown();
+			}
+		}
 	}
 	
 	/**
@@ -703,14 +1107,92 @@ public abstract class SimulationFrame extends JFrame {
 	
 	/**
 	 * Called when the simulation needs to be reset.
+	 * <p>
+	 * When snapshot reset is enabled, the world is restored from the state
+	 * captured after it was first initialized instead of being built again.
+	 * @see #setSnapshotResetEnabled(boolean)
 	 */
 	public void reset() {
 		this.last = System.nanoTime();
 		this.stepNumber = 0;
+		this.mutationQueue.clear();
+		this.joints.invalidate();
+		
+		if (this.snapshotResetEnabled && this.snapshot.isCaptured()) {
+			this.snapshot.restore();
+			return;
+		}
+		
 		this.world.removeAllBodiesAndJoints();
 		this.world.removeAllListeners();
+		this.tagIndex.clear();
+		this.tagIndex.install();
+		this.triggers.clear();
+		this.triggers.install();
 		this.initializeSettings();
 		this.initializeWorld();
+		
+		if (this.snapshotResetEnabled) {
+			this.snapshot.capture();
+		}
+	}
+	
+	/**
+	 * Returns true if resetting restores a snapshot of the world.
+	 * @return boolean
+	 */
+	public boolean isSnapshotResetEnabled() {
+		return this.snapshotResetEnabled;
+	}
+	
+	/**
+	 * Sets resetting to restore a snapshot of the world.
+	 * <p>
+	 * The snapshot is captured after {@link #initializeWorld()} and only puts
+	 * back the bodies, joints and their positions and velocities.  Only enable
+	 * this for scenes that don't keep any other state that a reset should clear.
+	 * @param flag true if resetting should restore a snapshot
+	 * @see WorldSnapshot
+	 */
+	public void setSnapshotResetEnabled(boolean flag) {
+		this.snapshotResetEnabled = flag;
+		if (!flag) {
+			this.snapshot.clear();
+		}
+	}
+	
+	/**
+	 * Returns the queue used to change the world from listeners, input handlers
+	 * or other threads.
+	 * <p>
+	 * The queue is applied once per frame, after the world is updated and
+	 * the input is handled.
+	 * @return {@link WorldMutationQueue}
+	 */
+	public WorldMutationQueue getMutationQueue() {
+		return this.mutationQueue;
+	}
+	
+	/**
+	 * Returns the index of the world's bodies by tag.
+	 * <p>
+	 * Listeners added to it are removed when the simulation is reset, so add
+	 * them in {@link #initializeWorld()}.
+	 * @return {@link TagIndex}
+	 */
+	public TagIndex getTagIndex() {
+		return this.tagIndex;
+	}
+	
+	/**
+	 * Returns the trigger zones, which are updated at the end of each step.
+	 * <p>
+	 * Zones and listeners added to it are removed when the simulation is
+	 * reset, so add them in {@link #initializeWorld()}.
+	 * @return {@link TriggerZones}
+	 */
+	public TriggerZones getTriggerZones() {
+		return this.triggers;
 	}
 	
 	/**
@@ -736,6 +1218,263 @@ public abstract class SimulationFrame extends JFrame {
 		this.picking.setEnabled(flag);
 	}
 
+	/**
+	 * Returns the target frame rate.
+	 * @return int
+	 */
+	public int getTargetFramesPerSecond() {
+		return this.pacer.getTargetFramesPerSecond();
+	}
+
+	/**
+	 * Sets the target frame rate.
+	 * <p>
+	 * The default is {@link FramePacer#DEFAULT_TARGET_FRAMES_PER_SECOND}.
+	 * @param targetFramesPerSecond the target frame rate; zero or less to not limit it
+	 */
+	public void setTargetFramesPerSecond(int targetFramesPerSecond) {
+		this.pacer.setTargetFramesPerSecond(targetFramesPerSecond);
+	}
+
+	/**
+	 * Returns the frame rate achieved over the last second.
+	 * @return double
+	 */
+	public double getFramesPerSecond() {
+		return this.pacer.getFramesPerSecond();
+	}
+
+	/**
+	 * Returns the number of frames that were skipped or missed their deadline.
+	 * @return long
+	 */
+	public long getDroppedFrameCount() {
+		return this.pacer.getDroppedFrameCount();
+	}
+
+	/**
+	 * Returns the times from each key or mouse press to the first frame shown
+	 * after the press was handled and applied to the world.
+	 * <p>
+	 * The histogram can be read and reset from any thread.
+	 * @return {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getInputLatency() {
+		return this.latency.getHistogram();
+	}
+
+	/**
+	 * Returns true if the input latency is drawn.
+	 * @return boolean
+	 */
+	public boolean isInputLatencyDrawingEnabled() {
+		return this.renderLatency.isActive();
+	}
+
+	/**
+	 * Sets if the input latency is drawn.
+	 * @param flag true if the input latency should be drawn
+	 */
+	public void setInputLatencyDrawingEnabled(boolean flag) {
+		this.renderLatency.setActive(flag);
+	}
+
+	/**
+	 * Returns true if bodies are drawn through the command buffer.
+	 * @return boolean
+	 */
+	public boolean isCommandRenderingEnabled() {
+		return this.commandRenderingEnabled;
+	}
+
+	/**
+	 * Sets bodies to be drawn through the command buffer.
+	 * <p>
+	 * Each frame, the bodies are recorded with {@link #render(RenderBackend, double, SimulationBody)}
+	 * into a {@link RenderCommandBuffer}, which is then replayed to the frame's
+	 * graphics object.  The commands of the last frame can be inspected with
+	 * {@link #getRenderCommands()}.  The raster and tiled render modes take
+	 * precedence over this one.
+	 * @param flag true to draw bodies through the command buffer
+	 */
+	public void setCommandRenderingEnabled(boolean flag) {
+		this.commandRenderingEnabled = flag;
+	}
+
+	/**
+	 * Returns true if the commands are sorted by color before they are replayed.
+	 * @return boolean
+	 */
+	public boolean isCommandSortingEnabled() {
+		return this.commandSortingEnabled;
+	}
+
+	/**
+	 * Sets the commands to be sorted by color before they are replayed.
+	 * <p>
+	 * Overlapping bodies can end up stacked differently.
+	 * @param flag true to sort the commands by color
+	 * @see RenderCommandBuffer#sortByColor()
+	 */
+	public void setCommandSortingEnabled(boolean flag) {
+		this.commandSortingEnabled = flag;
+	}
+
+	/**
+	 * Returns the commands of the last frame drawn through the command buffer.
+	 * <p>
+	 * This should only be read from the game loop thread.
+	 * @return {@link RenderCommandBuffer}
+	 */
+	public RenderCommandBuffer getRenderCommands() {
+		return this.commands;
+	}
+
+	/**
+	 * Returns true if bodies are drawn with the raster renderer.
+	 * @return boolean
+	 */
+	public boolean isRasterRenderingEnabled() {
+		return this.rasterRenderingEnabled;
+	}
+
+	/**
+	 * Sets bodies to be drawn with the raster renderer instead of Graphics2D.
+	 * <p>
+	 * This is much faster for scenes with many bodies, but bodies are drawn
+	 * without outlines or antialiasing and {@link #render(Graphics2D, double, SimulationBody)}
+	 * and {@link #clear(Graphics2D)} aren't called.  Everything else, like
+	 * joints, contacts and bounds, is still drawn with Graphics2D on top.
+	 * @param flag true to draw bodies with the raster renderer
+	 * @see RasterRenderer
+	 */
+	public void setRasterRenderingEnabled(boolean flag) {
+		this.rasterRenderingEnabled = flag;
+	}
+
+	/**
+	 * Returns the raster renderer, to set an executor for example.
+	 * @return {@link RasterRenderer}
+	 */
+	public RasterRenderer getRasterRenderer() {
+		return this.raster;
+	}
+
+	/**
+	 * Returns true if bodies are drawn with the tiled renderer.
+	 * @return boolean
+	 */
+	public boolean isTiledRenderingEnabled() {
+		return this.tiledRenderingEnabled;
+	}
+
+	/**
+	 * Sets bodies to be drawn with the tiled renderer.
+	 * <p>
+	 * The view is split into tiles which are cleared with {@link #clear(Graphics2D)}
+	 * and drawn with {@link #render(Graphics2D, double, SimulationBody)} on all
+	 * processors at once, then copied to the view in one go.  Those methods must
+	 * not change any shared state when this is enabled.  Everything else, like
+	 * joints, contacts and bounds, is still drawn on top by the game loop thread.
+	 * <p>
+	 * Unless {@link TiledRenderer#setExecutor(java.util.concurrent.Executor)} was
+	 * called, a thread per processor (besides the game loop thread) is created
+	 * the first time this is enabled.
+	 * @param flag true to draw bodies with the tiled renderer
+	 * @see TiledRenderer
+	 */
+	public void setTiledRenderingEnabled(boolean flag) {
+		if (flag) {
+			synchronized (this.tiled) {
+				int threads = Runtime.getRuntime().availableProcessors() - 1;
+				if (this.tiled.getExecutor() == null && threads > 0 && !this.stopped) {
+					this.renderExecutor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+						private int count = 0;
+						
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "Render Thread " + (++this.count));
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+					this.tiled.setExecutor(this.renderExecutor);
+				}
+			}
+		}
+		this.tiledRenderingEnabled = flag;
+	}
+
+	/**
+	 * Returns the tiled renderer, to set the tile size or executor for example.
+	 * @return {@link TiledRenderer}
+	 */
+	public TiledRenderer getTiledRenderer() {
+		return this.tiled;
+	}
+
+	/**
+	 * Returns true if frames are only drawn when the scene changes.
+	 * @return boolean
+	 */
+	public boolean isIdleRenderSkippingEnabled() {
+		return this.idleRenderSkippingEnabled;
+	}
+
+	/**
+	 * Sets frames to only be drawn when the scene changes.
+	 * <p>
+	 * When enabled and only sleeping bodies are in view (and the camera isn't
+	 * moving), the last frame is shown again instead of drawing a new one.
+	 * Examples that draw anything other than the world should call
+	 * {@link #requestRender()} when it changes.
+	 * @param flag true if idle frames should be skipped
+	 * @see FrameChangeTracker
+	 */
+	public void setIdleRenderSkippingEnabled(boolean flag) {
+		this.idleRenderSkippingEnabled = flag;
+		this.frameChanges.invalidate();
+	}
+
+	/**
+	 * Forces the next frame to be drawn when idle render skipping is enabled.
+	 */
+	public void requestRender() {
+		this.frameChanges.invalidate();
+	}
+
+	/**
+	 * Returns true if mouse selection is enabled.
+	 * @return boolean
+	 */
+	public boolean isMouseSelectionEnabled() {
+		return this.selection.isEnabled();
+	}
+
+	/**
+	 * Sets mouse selection (with the right mouse button) enabled.
+	 * @param flag true if mouse selection should be enabled
+	 */
+	public void setMouseSelectionEnabled(boolean flag) {
+		this.selection.setEnabled(flag);
+	}
+
+	/**
+	 * Returns true if mouse selection uses a lasso instead of a box.
+	 * @return boolean
+	 */
+	public boolean isMouseSelectionLassoEnabled() {
+		return this.selection.isLassoEnabled();
+	}
+
+	/**
+	 * Sets mouse selection to use a lasso instead of a box.
+	 * @param flag true to select with a lasso
+	 */
+	public void setMouseSelectionLassoEnabled(boolean flag) {
+		this.selection.setLassoEnabled(flag);
+	}
+
 	/**
 	 * Returns true if mouse panning is enabled.
 	 * @return boolean
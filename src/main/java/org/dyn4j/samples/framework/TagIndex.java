@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.contact.Contact;
+import org.dyn4j.dynamics.contact.SolvedContact;
+import org.dyn4j.world.BroadphaseCollisionData;
+import org.dyn4j.world.ContactCollisionData;
+import org.dyn4j.world.ManifoldCollisionData;
+import org.dyn4j.world.NarrowphaseCollisionData;
+import org.dyn4j.world.World;
+import org.dyn4j.world.listener.CollisionListener;
+import org.dyn4j.world.listener.ContactListener;
+
+/**
+ * Indexes the bodies in a world by their tags (see {@link SimulationBody#getTags()})
+ * and sends collision and contact events only to the listeners interested in
+ * the tags of the pair.
+ * <p>
+ * Listeners are added with two masks.  A listener is called for a pair when
+ * one body has any of the tags in the first mask and the other has any of the
+ * tags in the second.  Pairs with none of the tags any listener asked for are
+ * rejected with a single bit test, so listeners interested in a few bodies
+ * don't slow down the rest of the pairs.
+ * <p>
+ * The lists of bodies per tag are only rebuilt when they're asked for and a
+ * body was added or removed or any body's tags changed since the last time,
+ * so worlds that don't use them don't pay for them.  The bodies listed tell
+ * the index when their tags change or they leave the world, and a body added
+ * changes the number of bodies in the world, so nothing is shared between
+ * worlds and each world should have at most one index.  Likewise, the index
+ * only adds its dispatching listeners to the world once a listener with tags is
+ * added to it.
+ * <p>
+ * The {@link SimulationFrame} adds its index to its world and clears the
+ * listeners when the simulation is reset.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class TagIndex {
+	/** The number of tags */
+	public static final int TAG_COUNT = 32;
+
+	/**
+	 * A listener and the tags of the pairs it's interested in.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 * @param <L> the listener type
+	 */
+	private static final class Registration<L> {
+		private final int tags1;
+		private final int tags2;
+		private final L listener;
+
+		private Registration(int tags1, int tags2, L listener) {
+			this.tags1 = tags1;
+			this.tags2 = tags2;
+			this.listener = listener;
+		}
+
+		boolean isMatch(int tags1, int tags2) {
+			return ((tags1 & this.tags1) != 0 && (tags2 & this.tags2) != 0) ||
+				   ((tags2 & this.tags1) != 0 && (tags1 & this.tags2) != 0);
+		}
+	}
+
+	/** The world */
+	private final World<SimulationBody> world;
+
+	/** The bodies with each tag */
+	private final List<List<SimulationBody>> bodies;
+
+	/** Read only views of the bodies with each tag */
+	private final List<List<SimulationBody>> views;
+
+	/** The collision listeners */
+	private final List<Registration<CollisionListener<SimulationBody, BodyFixture>>> collisionListeners;
+
+	/** The contact listeners */
+	private final List<Registration<ContactListener<SimulationBody>>> contactListeners;
+
+	/** The tags any collision listener is interested in */
+	private int collisionTags;
+
+	/** The tags any contact listener is interested in */
+	private int contactTags;
+
+	/** The number of bodies in the world when the lists were built */
+	private int bodyCount;
+
+	/** True if no body listed has changed its tags or left the world since the lists were built */
+	private boolean valid;
+
+	/** True if the index has been installed in the world */
+	private boolean installed;
+
+	/** True if the collision dispatcher has been added to the world */
+	private boolean collisionListenerAdded;
+
+	/** True if the contact dispatcher has been added to the world */
+	private boolean contactListenerAdded;
+
+	/** Sends collision events to the collision listeners */
+	private final CollisionListener<SimulationBody, BodyFixture> collisionListener;
+
+	/** Sends contact events to the contact listeners */
+	private final ContactListener<SimulationBody> contactListener;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world to index
+	 */
+	public TagIndex(World<SimulationBody> world) {
+		this.world = world;
+		this.bodies = new ArrayList<List<SimulationBody>>(TAG_COUNT);
+		this.views = new ArrayList<List<SimulationBody>>(TAG_COUNT);
+		for (int i = 0; i < TAG_COUNT; i++) {
+			List<SimulationBody> list = new ArrayList<SimulationBody>();
+			this.bodies.add(list);
+			this.views.add(Collections.unmodifiableList(list));
+		}
+		this.collisionListeners = new ArrayList<Registration<CollisionListener<SimulationBody, BodyFixture>>>();
+		this.contactListeners = new ArrayList<Registration<ContactListener<SimulationBody>>>();
+		this.collisionListener = new DispatchCollisionListener();
+		this.contactListener = new DispatchContactListener();
+	}
+
+	/**
+	 * Installs the index in the world.
+	 * <p>
+	 * The dispatching listeners are added now if any listeners have been
+	 * added to the index, or later when the first one is.  This must be
+	 * called again after the world's listeners are removed.
+	 */
+	public void install() {
+		this.installed = true;
+		this.collisionListenerAdded = false;
+		this.contactListenerAdded = false;
+		this.addDispatchers();
+	}
+
+	/**
+	 * Adds the dispatching listeners that have listeners to send events to.
+	 */
+	private void addDispatchers() {
+		if (!this.installed) return;
+		if (!this.collisionListenerAdded && !this.collisionListeners.isEmpty()) {
+			this.world.addCollisionListener(this.collisionListener);
+			this.collisionListenerAdded = true;
+		}
+		if (!this.contactListenerAdded && !this.contactListeners.isEmpty()) {
+			this.world.addContactListener(this.contactListener);
+			this.contactListenerAdded = true;
+		}
+	}
+
+	/**
+	 * Removes all the listeners added to this index and empties it.
+	 */
+	public void clear() {
+		if (this.collisionListenerAdded) {
+			this.world.removeCollisionListener(this.collisionListener);
+			this.collisionListenerAdded = false;
+		}
+		if (this.contactListenerAdded) {
+			this.world.removeContactListener(this.contactListener);
+			this.contactListenerAdded = false;
+		}
+		this.collisionListeners.clear();
+		this.contactListeners.clear();
+		this.collisionTags = 0;
+		this.contactTags = 0;
+		for (int i = 0; i < TAG_COUNT; i++) {
+			this.bodies.get(i).clear();
+		}
+		this.valid = false;
+	}
+
+	/**
+	 * Rebuilds the lists of bodies per tag if a body was added or removed or
+	 * any body's tags changed since they were last built.
+	 */
+	public void refresh() {
+		// while no body listed has left, the world only has other bodies if it has more of them
+		int n = this.world.getBodyCount();
+		if (this.valid && this.bodyCount == n) return;
+
+		for (int i = 0; i < TAG_COUNT; i++) {
+			this.bodies.get(i).clear();
+		}
+		for (int i = 0; i < n; i++) {
+			SimulationBody body = this.world.getBody(i);
+			body.tagIndex = this;
+			int tags = body.getTags();
+			while (tags != 0) {
+				int tag = Integer.numberOfTrailingZeros(tags);
+				this.bodies.get(tag).add(body);
+				tags &= tags - 1;
+			}
+		}
+
+		this.bodyCount = n;
+		this.valid = true;
+	}
+
+	/**
+	 * Called by the bodies listed when their tags change or they're removed
+	 * from the world.
+	 */
+	void modified() {
+		this.valid = false;
+	}
+
+	/**
+	 * Returns the bodies with the given tag.
+	 * <p>
+	 * The returned list is only updated by the next call to this method or
+	 * {@link #refresh()}.
+	 * @param tag the tag; a single bit
+	 * @return List&lt;{@link SimulationBody}&gt;
+	 * @throws IllegalArgumentException if tag isn't a single bit
+	 */
+	public List<SimulationBody> getBodies(int tag) {
+		if (Integer.bitCount(tag) != 1) {
+			throw new IllegalArgumentException("The tag must be a single bit: " + tag);
+		}
+		this.refresh();
+		return this.views.get(Integer.numberOfTrailingZeros(tag));
+	}
+
+	/**
+	 * Adds a collision listener called only for pairs where one body has any
+	 * of tags1 and the other has any of tags2.
+	 * @param tags1 the tags of one body
+	 * @param tags2 the tags of the other body
+	 * @param listener the listener
+	 */
+	public void addCollisionListener(int tags1, int tags2, CollisionListener<SimulationBody, BodyFixture> listener) {
+		this.collisionListeners.add(new Registration<CollisionListener<SimulationBody, BodyFixture>>(tags1, tags2, listener));
+		this.collisionTags |= tags1 | tags2;
+		this.addDispatchers();
+	}
+
+	/**
+	 * Adds a contact listener called only for pairs where one body has any
+	 * of tags1 and the other has any of tags2.
+	 * @param tags1 the tags of one body
+	 * @param tags2 the tags of the other body
+	 * @param listener the listener
+	 */
+	public void addContactListener(int tags1, int tags2, ContactListener<SimulationBody> listener) {
+		this.contactListeners.add(new Registration<ContactListener<SimulationBody>>(tags1, tags2, listener));
+		this.contactTags |= tags1 | tags2;
+		this.addDispatchers();
+	}
+
+	/**
+	 * Returns the index of the next registration at or after start that's
+	 * interested in a pair with the given tags, or -1.
+	 * @param registrations the registrations
+	 * @param mask the tags any of the registrations is interested in
+	 * @param tags1 the tags of one body
+	 * @param tags2 the tags of the other body
+	 * @param start the index to start at
+	 * @return int
+	 */
+	private static int next(List<? extends Registration<?>> registrations, int mask, int tags1, int tags2, int start) {
+		if (((tags1 | tags2) & mask) == 0) return -1;
+
+		int n = registrations.size();
+		for (int i = start; i < n; i++) {
+			if (registrations.get(i).isMatch(tags1, tags2)) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Sends collision events to the collision listeners with matching tags.
+	 * <p>
+	 * Like the world, a pair is only kept if all the listeners called allow it.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private final class DispatchCollisionListener implements CollisionListener<SimulationBody, BodyFixture> {
+		/**
+		 * Returns the index of the next listener interested in a pair with the
+		 * given tags at or after start, or -1.
+		 * @param t1 the tags of one body
+		 * @param t2 the tags of the other body
+		 * @param start the index to start at
+		 * @return int
+		 */
+		private int next(int t1, int t2, int start) {
+			return TagIndex.next(collisionListeners, collisionTags, t1, t2, start);
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.CollisionListener#collision(org.dyn4j.world.BroadphaseCollisionData)
+		 */
+		@Override
+		public boolean collision(BroadphaseCollisionData<SimulationBody, BodyFixture> collision) {
+			int t1 = collision.getBody1().getTags();
+			int t2 = collision.getBody2().getTags();
+
+			boolean allowed = true;
+			for (int i = this.next(t1, t2, 0); i >= 0; i = this.next(t1, t2, i + 1)) {
+				allowed &= collisionListeners.get(i).listener.collision(collision);
+			}
+			return allowed;
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.CollisionListener#collision(org.dyn4j.world.NarrowphaseCollisionData)
+		 */
+		@Override
+		public boolean collision(NarrowphaseCollisionData<SimulationBody, BodyFixture> collision) {
+			int t1 = collision.getBody1().getTags();
+			int t2 = collision.getBody2().getTags();
+
+			boolean allowed = true;
+			for (int i = this.next(t1, t2, 0); i >= 0; i = this.next(t1, t2, i + 1)) {
+				allowed &= collisionListeners.get(i).listener.collision(collision);
+			}
+			return allowed;
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.CollisionListener#collision(org.dyn4j.world.ManifoldCollisionData)
+		 */
+		@Override
+		public boolean collision(ManifoldCollisionData<SimulationBody, BodyFixture> collision) {
+			int t1 = collision.getBody1().getTags();
+			int t2 = collision.getBody2().getTags();
+
+			boolean allowed = true;
+			for (int i = this.next(t1, t2, 0); i >= 0; i = this.next(t1, t2, i + 1)) {
+				allowed &= collisionListeners.get(i).listener.collision(collision);
+			}
+			return allowed;
+		}
+	}
+
+	/**
+	 * Sends contact events to the contact listeners with matching tags.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private final class DispatchContactListener implements ContactListener<SimulationBody> {
+		/**
+		 * Returns the index of the next listener interested in the given pair
+		 * at or after start, or -1.
+		 * @param collision the pair
+		 * @param start the index to start at
+		 * @return int
+		 */
+		private int next(ContactCollisionData<SimulationBody> collision, int start) {
+			return TagIndex.next(contactListeners, contactTags, collision.getBody1().getTags(), collision.getBody2().getTags(), start);
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.ContactListener#begin(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact)
+		 */
+		@Override
+		public void begin(ContactCollisionData<SimulationBody> collision, Contact contact) {
+			for (int i = this.next(collision, 0); i >= 0; i = this.next(collision, i + 1)) {
+				contactListeners.get(i).listener.begin(collision, contact);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.ContactListener#persist(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact, org.dyn4j.dynamics.contact.Contact)
+		 */
+		@Override
+		public void persist(ContactCollisionData<SimulationBody> collision, Contact oldContact, Contact newContact) {
+			for (int i = this.next(collision, 0); i >= 0; i = this.next(collision, i + 1)) {
+				contactListeners.get(i).listener.persist(collision, oldContact, newContact);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.ContactListener#end(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact)
+		 */
+		@Override
+		public void end(ContactCollisionData<SimulationBody> collision, Contact contact) {
+			for (int i = this.next(collision, 0); i >= 0; i = this.next(collision, i + 1)) {
+				contactListeners.get(i).listener.end(collision, contact);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.ContactListener#destroyed(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact)
+		 */
+		@Override
+		public void destroyed(ContactCollisionData<SimulationBody> collision, Contact contact) {
+			for (int i = this.next(collision, 0); i >= 0; i = this.next(collision, i + 1)) {
+				contactListeners.get(i).listener.destroyed(collision, contact);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.ContactListener#collision(org.dyn4j.world.ContactCollisionData)
+		 */
+		@Override
+		public void collision(ContactCollisionData<SimulationBody> collision) {
+			for (int i = this.next(collision, 0); i >= 0; i = this.next(collision, i + 1)) {
+				contactListeners.get(i).listener.collision(collision);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.ContactListener#preSolve(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.Contact)
+		 */
+		@Override
+		public void preSolve(ContactCollisionData<SimulationBody> collision, Contact contact) {
+			for (int i = this.next(collision, 0); i >= 0; i = this.next(collision, i + 1)) {
+				contactListeners.get(i).listener.preSolve(collision, contact);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.dyn4j.world.listener.ContactListener#postSolve(org.dyn4j.world.ContactCollisionData, org.dyn4j.dynamics.contact.SolvedContact)
+		 */
+		@Override
+		public void postSolve(ContactCollisionData<SimulationBody> collision, SolvedContact contact) {
+			for (int i = this.next(collision, 0); i >= 0; i = this.next(collision, i + 1)) {
+				contactListeners.get(i).listener.postSolve(collision, contact);
+			}
+		}
+	}
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.nio.FloatBuffer;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.dyn4j.geometry.Capsule;
+import org.dyn4j.geometry.Circle;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Ellipse;
+import org.dyn4j.geometry.HalfEllipse;
+import org.dyn4j.geometry.Polygon;
+import org.dyn4j.geometry.Segment;
+import org.dyn4j.geometry.Slice;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Turns shapes into triangles and caches the result.
+ * <p>
+ * Each shape is turned into a list of triangles in local coordinates, stored
+ * as x, y pairs, three vertices per triangle.  Polygons are exact; curved
+ * shapes use more segments for higher levels of detail.  Segments have no
+ * area and give no triangles.
+ * <p>
+ * The triangles are cached by shape instance and level of detail.  Since
+ * shapes rarely change once they're on a body, the cache isn't updated when
+ * they do; call {@link #invalidate(Convex)} after changing a shape.  Entries
+ * for shapes that are no longer used anywhere are dropped automatically.
+ * <p>
+ * This class isn't thread safe.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class Tessellator {
+	/** The number of segments for a full circle at {@link LevelOfDetail#FULL} */
+	public static final int FULL_SEGMENTS = 32;
+
+	/** The number of segments for a full circle at {@link LevelOfDetail#SIMPLE} */
+	public static final int SIMPLE_SEGMENTS = 12;
+
+	/** The number of segments for a full circle at {@link LevelOfDetail#POINT} */
+	public static final int POINT_SEGMENTS = 4;
+
+	/** The triangles of each shape, by level of detail */
+	private final Map<Convex, FloatBuffer[]> cache;
+
+	/** The outline x coordinates of the shape being tessellated */
+	private float[] xs;
+
+	/** The outline y coordinates of the shape being tessellated */
+	private float[] ys;
+
+	/**
+	 * Default constructor.
+	 */
+	public Tessellator() {
+		this.cache = new WeakHashMap<Convex, FloatBuffer[]>();
+		this.xs = new float[FULL_SEGMENTS + 2];
+		this.ys = new float[FULL_SEGMENTS + 2];
+	}
+
+	/**
+	 * Returns the triangles of the given shape at the given level of detail.
+	 * <p>
+	 * The buffer is read-only and shared; read it with absolute gets, from
+	 * index 0 to its limit.
+	 * @param convex the shape
+	 * @param detail the level of detail
+	 * @return FloatBuffer
+	 */
+	public FloatBuffer getTriangles(Convex convex, LevelOfDetail detail) {
+		FloatBuffer[] buffers = this.cache.get(convex);
+		if (buffers == null) {
+			buffers = new FloatBuffer[LevelOfDetail.values().length];
+			this.cache.put(convex, buffers);
+		}
+
+		int index = detail.ordinal();
+		FloatBuffer buffer = buffers[index];
+		if (buffer == null) {
+			if (convex instanceof Polygon || convex instanceof Segment) {
+				// the same at every level of detail
+				buffer = this.tessellate(convex, 0);
+				for (int i = 0; i < buffers.length; i++) {
+					buffers[i] = buffer;
+				}
+			} else {
+				buffer = this.tessellate(convex, getSegments(detail));
+				buffers[index] = buffer;
+			}
+		}
+		return buffer;
+	}
+
+	/**
+	 * Removes the cached triangles of the given shape.
+	 * @param convex the shape
+	 */
+	public void invalidate(Convex convex) {
+		this.cache.remove(convex);
+	}
+
+	/**
+	 * Removes all cached triangles.
+	 */
+	public void clear() {
+		this.cache.clear();
+	}
+
+	/**
+	 * Returns the number of shapes with cached triangles.
+	 * @return int
+	 */
+	public int getCachedShapeCount() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Returns the number of segments for a full circle at the given level of detail.
+	 * @param detail the level of detail
+	 * @return int
+	 */
+	public static int getSegments(LevelOfDetail detail) {
+		switch (detail) {
+			case POINT:
+				return POINT_SEGMENTS;
+			case SIMPLE:
+				return SIMPLE_SEGMENTS;
+			default:
+				return FULL_SEGMENTS;
+		}
+	}
+
+	/**
+	 * Returns new triangles for the given shape.
+	 * @param convex the shape
+	 * @param segments the number of segments for a full circle
+	 * @return FloatBuffer
+	 */
+	private FloatBuffer tessellate(Convex convex, int segments) {
+		if (convex instanceof Polygon) {
+			Vector2[] vertices = ((Polygon)convex).getVertices();
+			int n = vertices.length;
+			this.ensureCapacity(n);
+			for (int i = 0; i < n; i++) {
+				this.xs[i] = (float)vertices[i].x;
+				this.ys[i] = (float)vertices[i].y;
+			}
+			// a fan from the first vertex, since polygons are convex
+			float[] triangles = new float[(n - 2) * 6];
+			int j = 0;
+			for (int i = 1; i < n - 1; i++) {
+				j = this.triangle(triangles, j, this.xs[0], this.ys[0], i, i + 1);
+			}
+			return FloatBuffer.wrap(triangles).asReadOnlyBuffer();
+		}
+
+		if (convex instanceof Segment) {
+			return FloatBuffer.wrap(new float[0]).asReadOnlyBuffer();
+		}
+
+		// curved shapes are a fan around a point inside them
+		Vector2 c;
+		boolean closed = true;
+		int n;
+		if (convex instanceof Circle) {
+			Circle circle = (Circle)convex;
+			c = circle.getCenter();
+			n = this.arc(c, circle.getRadius(), circle.getRadius(), 0.0, 0.0, 2.0 * Math.PI, segments, false);
+		} else if (convex instanceof Ellipse) {
+			Ellipse ellipse = (Ellipse)convex;
+			c = ellipse.getCenter();
+			n = this.arc(c, ellipse.getHalfWidth(), ellipse.getHalfHeight(), ellipse.getRotationAngle(), 0.0, 2.0 * Math.PI, segments, false);
+		} else if (convex instanceof Capsule) {
+			Capsule capsule = (Capsule)convex;
+			c = capsule.getCenter();
+			double r = capsule.getCapRadius();
+			double a = capsule.getRotationAngle();
+			double h = capsule.getLength() * 0.5 - r;
+			double dx = Math.cos(a) * h;
+			double dy = Math.sin(a) * h;
+			// a half circle around each end
+			int half = Math.max(2, segments / 2);
+			n = this.arc(new Vector2(c.x + dx, c.y + dy), r, r, a, -Math.PI * 0.5, Math.PI, half, true);
+			n += this.arc(new Vector2(c.x - dx, c.y - dy), r, r, a, Math.PI * 0.5, Math.PI, half, true, n);
+		} else if (convex instanceof Slice) {
+			Slice slice = (Slice)convex;
+			double theta = slice.getTheta();
+			c = slice.getCircleCenter();
+			n = this.arc(c, slice.getSliceRadius(), slice.getSliceRadius(), slice.getRotationAngle(), -theta * 0.5, theta, Math.max(2, (int)Math.ceil(segments * theta / (2.0 * Math.PI))), true);
+			closed = false;
+		} else if (convex instanceof HalfEllipse) {
+			HalfEllipse halfEllipse = (HalfEllipse)convex;
+			c = halfEllipse.getEllipseCenter();
+			n = this.arc(c, halfEllipse.getHalfWidth(), halfEllipse.getHeight(), halfEllipse.getRotationAngle(), 0.0, Math.PI, Math.max(2, segments / 2), true);
+			closed = false;
+		} else {
+			c = convex.getCenter();
+			n = this.outline(convex, segments);
+		}
+
+		float cx = (float)c.x;
+		float cy = (float)c.y;
+		int count = closed ? n : n - 1;
+		float[] triangles = new float[count * 6];
+		int j = 0;
+		for (int i = 0; i < count; i++) {
+			j = this.triangle(triangles, j, cx, cy, i, (i + 1) % n);
+		}
+		return FloatBuffer.wrap(triangles).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Writes points on an elliptical arc to the outline and returns the number written.
+	 * @param c the center
+	 * @param a the x radius
+	 * @param b the y radius
+	 * @param rotation the rotation of the ellipse
+	 * @param start the start angle
+	 * @param extent the angle covered
+	 * @param segments the number of segments
+	 * @param ends true to include the point at the end of the arc
+	 * @return int
+	 */
+	private int arc(Vector2 c, double a, double b, double rotation, double start, double extent, int segments, boolean ends) {
+		return this.arc(c, a, b, rotation, start, extent, segments, ends, 0);
+	}
+
+	/**
+	 * Writes points on an elliptical arc to the outline, from the given index,
+	 * and returns the number written.
+	 * @param c the center
+	 * @param a the x radius
+	 * @param b the y radius
+	 * @param rotation the rotation of the ellipse
+	 * @param start the start angle
+	 * @param extent the angle covered
+	 * @param segments the number of segments
+	 * @param ends true to include the point at the end of the arc
+	 * @param offset the index of the first point
+	 * @return int
+	 */
+	private int arc(Vector2 c, double a, double b, double rotation, double start, double extent, int segments, boolean ends, int offset) {
+		int n = ends ? segments + 1 : segments;
+		this.ensureCapacity(offset + n);
+		double cos = Math.cos(rotation);
+		double sin = Math.sin(rotation);
+		for (int i = 0; i < n; i++) {
+			double t = start + extent * i / segments;
+			double x = Math.cos(t) * a;
+			double y = Math.sin(t) * b;
+			this.xs[offset + i] = (float)(c.x + cos * x - sin * y);
+			this.ys[offset + i] = (float)(c.y + sin * x + cos * y);
+		}
+		return n;
+	}
+
+	/**
+	 * Writes points on the outline of any convex shape and returns the number written.
+	 * @param convex the shape
+	 * @param segments the number of directions to sample
+	 * @return int
+	 */
+	private int outline(Convex convex, int segments) {
+		this.ensureCapacity(segments);
+		Transform identity = new Transform();
+		Vector2 direction = new Vector2();
+		int n = 0;
+		for (int i = 0; i < segments; i++) {
+			double t = i * 2.0 * Math.PI / segments;
+			direction.set(Math.cos(t), Math.sin(t));
+			Vector2 p = convex.getFarthestPoint(direction, identity);
+			float x = (float)p.x;
+			float y = (float)p.y;
+			// flat sides give the same point for many directions
+			if (n > 0 && this.xs[n - 1] == x && this.ys[n - 1] == y) continue;
+			this.xs[n] = x;
+			this.ys[n] = y;
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Writes a triangle from the given point to two outline points and returns the next index.
+	 * @param triangles the triangles
+	 * @param j the index to write to
+	 * @param x the x coordinate of the first point
+	 * @param y the y coordinate of the first point
+	 * @param i1 the index of the second point in the outline
+	 * @param i2 the index of the third point in the outline
+	 * @return int
+	 */
+	private int triangle(float[] triangles, int j, float x, float y, int i1, int i2) {
+		triangles[j++] = x;
+		triangles[j++] = y;
+		triangles[j++] = this.xs[i1];
+		triangles[j++] = this.ys[i1];
+		triangles[j++] = this.xs[i2];
+		triangles[j++] = this.ys[i2];
+		return j;
+	}
+
+	/**
+	 * Makes sure the outline can hold the given number of points.
+	 * @param n the number of points
+	 */
+	private void ensureCapacity(int n) {
+		if (this.xs.length < n) {
+			int capacity = Math.max(n, this.xs.length * 2);
+			float[] xs = new float[capacity];
+			float[] ys = new float[capacity];
+			System.arraycopy(this.xs, 0, xs, 0, this.xs.length);
+			System.arraycopy(this.ys, 0, ys, 0, this.ys.length);
+			this.xs = xs;
+			this.ys = ys;
+		}
+	}
+}
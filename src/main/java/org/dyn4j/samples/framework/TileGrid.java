@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.List;
+
+import org.dyn4j.collision.broadphase.CollisionItemBroadphaseDetector;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.world.World;
+
+/**
+ * Splits the view into square tiles and sorts the bodies in view into the
+ * tiles they cover so that the tiles can be drawn independently.
+ * <p>
+ * Bodies are placed by their bounds in the broad-phase, which are slightly
+ * larger than the bodies, and are kept in world order within each tile so
+ * that they overlap the same way no matter how the tiles are drawn.  A body
+ * covering more than one tile is placed in each.  Bodies outside the view
+ * aren't placed at all.
+ * <p>
+ * The bodies of each tile are stored back to back in one array, so nothing
+ * is allocated once the arrays have grown large enough.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class TileGrid {
+	/** The default tile size in pixels */
+	public static final int DEFAULT_TILE_SIZE = 128;
+
+	/** The tile size in pixels */
+	private int tileSize;
+
+	/** The view width in pixels */
+	private int width;
+
+	/** The view height in pixels */
+	private int height;
+
+	/** The number of columns */
+	private int columns;
+
+	/** The number of rows */
+	private int rows;
+
+	/** The bodies of the last call to bin */
+	private SimulationBody[] bodies;
+
+	/** The number of bodies in the last call to bin */
+	private int bodyCount;
+
+	/** The tiles each body covers (first column, last column, first row, last row) */
+	private int[] ranges;
+
+	/** The index in items of the first body of each tile, plus the end */
+	private int[] tileStarts;
+
+	/** The indexes of the bodies in each tile */
+	private int[] items;
+
+	// the bounds of the body being placed
+
+	/** The minimum x of the body bounds */
+	private double minX;
+
+	/** The minimum y of the body bounds */
+	private double minY;
+
+	/** The maximum x of the body bounds */
+	private double maxX;
+
+	/** The maximum y of the body bounds */
+	private double maxY;
+
+	/**
+	 * Default constructor.
+	 */
+	public TileGrid() {
+		this(DEFAULT_TILE_SIZE);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param tileSize the tile size in pixels
+	 * @throws IllegalArgumentException if tileSize is less than 1
+	 */
+	public TileGrid(int tileSize) {
+		this.setTileSize(tileSize);
+		this.bodies = new SimulationBody[0];
+		this.ranges = new int[0];
+		this.tileStarts = new int[1];
+		this.items = new int[0];
+	}
+
+	/**
+	 * Sorts the bodies of the given world into the tiles of a view of the given size.
+	 * @param world the world
+	 * @param camera the camera
+	 * @param width the view width in pixels
+	 * @param height the view height in pixels
+	 */
+	public void bin(World<SimulationBody> world, Camera camera, int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.columns = Math.max(1, (width + this.tileSize - 1) / this.tileSize);
+		this.rows = Math.max(1, (height + this.tileSize - 1) / this.tileSize);
+
+		int tiles = this.columns * this.rows;
+		if (this.tileStarts.length < tiles + 1) {
+			this.tileStarts = new int[tiles + 1];
+		}
+
+		List<SimulationBody> bodies = world.getBodies();
+		int n = bodies.size();
+		this.ensureBodyCapacity(n);
+
+		// release any bodies from an earlier, larger world
+		for (int i = n; i < this.bodyCount; i++) {
+			this.bodies[i] = null;
+		}
+		this.bodyCount = n;
+
+		// the screen position of the world origin
+		double cx = width * 0.5 + camera.offsetX;
+		double cy = height * 0.5 - camera.offsetY;
+		double scale = camera.scale;
+
+		// count the bodies in each tile
+		int[] counts = this.tileStarts;
+		for (int i = 0; i <= tiles; i++) {
+			counts[i] = 0;
+		}
+
+		CollisionItemBroadphaseDetector<SimulationBody, BodyFixture> broadphase = world.getBroadphaseDetector();
+		int total = 0;
+		for (int i = 0; i < n; i++) {
+			SimulationBody body = bodies.get(i);
+			this.bodies[i] = body;
+
+			int j = i * 4;
+			if (!this.setBounds(broadphase, body)) {
+				this.ranges[j] = 1;
+				this.ranges[j + 1] = 0;
+				continue;
+			}
+
+			// world bounds to pixels; y is flipped
+			double minX = cx + this.minX * scale;
+			double maxX = cx + this.maxX * scale;
+			double minY = cy - this.maxY * scale;
+			double maxY = cy - this.minY * scale;
+
+			if (maxX < 0 || minX >= width || maxY < 0 || minY >= height) {
+				// out of view
+				this.ranges[j] = 1;
+				this.ranges[j + 1] = 0;
+				continue;
+			}
+
+			int c0 = clamp((int)Math.floor(minX) / this.tileSize, this.columns);
+			int c1 = clamp((int)Math.floor(maxX) / this.tileSize, this.columns);
+			int r0 = clamp((int)Math.floor(minY) / this.tileSize, this.rows);
+			int r1 = clamp((int)Math.floor(maxY) / this.tileSize, this.rows);
+			this.ranges[j] = c0;
+			this.ranges[j + 1] = c1;
+			this.ranges[j + 2] = r0;
+			this.ranges[j + 3] = r1;
+
+			for (int r = r0; r <= r1; r++) {
+				for (int c = c0; c <= c1; c++) {
+					counts[r * this.columns + c + 1]++;
+				}
+			}
+			total += (c1 - c0 + 1) * (r1 - r0 + 1);
+		}
+
+		// turn the counts into starts
+		for (int i = 1; i <= tiles; i++) {
+			counts[i] += counts[i - 1];
+		}
+
+		if (this.items.length < total) {
+			this.items = new int[Math.max(total, this.items.length * 2)];
+		}
+
+		// place the bodies in world order, using the starts as cursors
+		// and then shifting them back
+		for (int i = 0; i < n; i++) {
+			int j = i * 4;
+			int c0 = this.ranges[j];
+			int c1 = this.ranges[j + 1];
+			if (c0 > c1) continue;
+			int r0 = this.ranges[j + 2];
+			int r1 = this.ranges[j + 3];
+			for (int r = r0; r <= r1; r++) {
+				for (int c = c0; c <= c1; c++) {
+					this.items[counts[r * this.columns + c]++] = i;
+				}
+			}
+		}
+		for (int i = tiles; i > 0; i--) {
+			counts[i] = counts[i - 1];
+		}
+		counts[0] = 0;
+	}
+
+	/**
+	 * Sets the bounds fields to the union of the given body's fixture bounds.
+	 * @param broadphase the broad-phase
+	 * @param body the body
+	 * @return boolean false if the body has no fixtures
+	 */
+	private boolean setBounds(CollisionItemBroadphaseDetector<SimulationBody, BodyFixture> broadphase, SimulationBody body) {
+		int n = body.getFixtureCount();
+		if (n == 0) {
+			return false;
+		}
+
+		this.minX = Double.MAX_VALUE;
+		this.minY = Double.MAX_VALUE;
+		this.maxX = -Double.MAX_VALUE;
+		this.maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			BodyFixture fixture = body.getFixture(i);
+			AABB aabb = broadphase.getAABB(body, fixture);
+			if (aabb == null) {
+				// not in the broad-phase yet, use the rotation disc
+				double r = body.getRotationDiscRadius();
+				double x = body.getTransform().getTransformedX(body.getLocalCenter());
+				double y = body.getTransform().getTransformedY(body.getLocalCenter());
+				this.minX = Math.min(this.minX, x - r);
+				this.minY = Math.min(this.minY, y - r);
+				this.maxX = Math.max(this.maxX, x + r);
+				this.maxY = Math.max(this.maxY, y + r);
+				continue;
+			}
+			this.minX = Math.min(this.minX, aabb.getMinX());
+			this.minY = Math.min(this.minY, aabb.getMinY());
+			this.maxX = Math.max(this.maxX, aabb.getMaxX());
+			this.maxY = Math.max(this.maxY, aabb.getMaxY());
+		}
+		return true;
+	}
+
+	/**
+	 * Clamps the given cell to [0, size).
+	 * @param cell the cell
+	 * @param size the number of cells
+	 * @return int
+	 */
+	private static int clamp(int cell, int size) {
+		return cell < 0 ? 0 : (cell >= size ? size - 1 : cell);
+	}
+
+	/**
+	 * Grows the per body arrays to hold at least the given number of bodies.
+	 * @param n the number of bodies
+	 */
+	private void ensureBodyCapacity(int n) {
+		if (this.bodies.length >= n) return;
+		int capacity = Math.max(n, this.bodies.length * 2);
+		SimulationBody[] bodies = new SimulationBody[capacity];
+		System.arraycopy(this.bodies, 0, bodies, 0, this.bodyCount);
+		this.bodies = bodies;
+		this.ranges = new int[capacity * 4];
+	}
+
+	/**
+	 * Returns the number of tiles.
+	 * @return int
+	 */
+	public int getTileCount() {
+		return this.columns * this.rows;
+	}
+
+	/**
+	 * Returns the number of columns of tiles.
+	 * @return int
+	 */
+	public int getColumnCount() {
+		return this.columns;
+	}
+
+	/**
+	 * Returns the number of rows of tiles.
+	 * @return int
+	 */
+	public int getRowCount() {
+		return this.rows;
+	}
+
+	/**
+	 * Returns the left edge of the given tile in pixels.
+	 * @param tile the tile index
+	 * @return int
+	 */
+	public int getTileX(int tile) {
+		return (tile % this.columns) * this.tileSize;
+	}
+
+	/**
+	 * Returns the top edge of the given tile in pixels.
+	 * @param tile the tile index
+	 * @return int
+	 */
+	public int getTileY(int tile) {
+		return (tile / this.columns) * this.tileSize;
+	}
+
+	/**
+	 * Returns the width of the given tile in pixels; tiles on the right edge
+	 * can be narrower.
+	 * @param tile the tile index
+	 * @return int
+	 */
+	public int getTileWidth(int tile) {
+		return Math.min(this.tileSize, this.width - this.getTileX(tile));
+	}
+
+	/**
+	 * Returns the height of the given tile in pixels; tiles on the bottom
+	 * edge can be shorter.
+	 * @param tile the tile index
+	 * @return int
+	 */
+	public int getTileHeight(int tile) {
+		return Math.min(this.tileSize, this.height - this.getTileY(tile));
+	}
+
+	/**
+	 * Returns the number of bodies in the given tile.
+	 * @param tile the tile index
+	 * @return int
+	 */
+	public int getBodyCount(int tile) {
+		return this.tileStarts[tile + 1] - this.tileStarts[tile];
+	}
+
+	/**
+	 * Returns the given body of the given tile.
+	 * @param tile the tile index
+	 * @param index the index of the body within the tile
+	 * @return {@link SimulationBody}
+	 */
+	public SimulationBody getBody(int tile, int index) {
+		return this.bodies[this.items[this.tileStarts[tile] + index]];
+	}
+
+	/**
+	 * Returns the tile size in pixels.
+	 * @return int
+	 */
+	public int getTileSize() {
+		return this.tileSize;
+	}
+
+	/**
+	 * Sets the tile size in pixels.
+	 * <p>
+	 * Smaller tiles share work out more evenly but place large bodies in more
+	 * tiles.
+	 * @param tileSize the tile size
+	 * @throws IllegalArgumentException if tileSize is less than 1
+	 */
+	public void setTileSize(int tileSize) {
+		if (tileSize < 1) {
+			throw new IllegalArgumentException("The tile size must be greater than zero.");
+		}
+		this.tileSize = tileSize;
+	}
+}
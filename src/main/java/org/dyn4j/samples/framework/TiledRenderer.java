@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dyn4j.world.World;
+
+/**
+ * Draws the bodies of a world with Java2D into an offscreen image, one tile
+ * at a time, so that the tiles can be drawn on several threads at once.
+ * <p>
+ * The view is split into tiles with a {@link TileGrid}.  Each tile gets its
+ * own {@link Graphics2D}, clipped to the tile and set up with the same
+ * transform SimulationFrame uses, and is cleared and drawn by a
+ * {@link Painter}, so bodies look the same as when drawn directly.  Since
+ * the tiles don't overlap, no locking is needed and the result is one image
+ * to draw to the screen.
+ * <p>
+ * The painter is called from more than one thread at a time when an
+ * {@link Executor} is set, so it must not change any shared state.  The
+ * world must not be changed while rendering.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class TiledRenderer {
+	/** The default tile size in pixels */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	/** The minimum number of bodies before the tiles are split across threads */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 500;
+
+	/**
+	 * Clears and draws the contents of a tile.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	public static interface Painter {
+		/**
+		 * Clears the tile.
+		 * <p>
+		 * The origin is the center of the view with the positive y axis pointing up.
+		 * @param g the graphics object for the tile
+		 */
+		public void clear(Graphics2D g);
+
+		/**
+		 * Draws the given body.
+		 * <p>
+		 * The origin is the world origin with the positive y axis pointing up.
+		 * @param g the graphics object for the tile
+		 * @param body the body
+		 */
+		public void render(Graphics2D g, SimulationBody body);
+	}
+
+	/** The tiles */
+	private final TileGrid grid;
+
+	/** The image */
+	private BufferedImage image;
+
+	/** The painter for the current frame */
+	private Painter painter;
+
+	/** The x offset of the camera for the current frame */
+	private double offsetX;
+
+	/** The y offset of the camera for the current frame */
+	private double offsetY;
+
+	/** The executor used to draw tiles on other threads */
+	private Executor executor;
+
+	/** The number of threads tiles are split across */
+	private int parallelism;
+
+	/** The minimum number of bodies before the tiles are split across threads */
+	private int parallelThreshold;
+
+	/** The reusable tasks */
+	private Task[] tasks;
+
+	/** The next tile to draw */
+	private final AtomicInteger nextTile;
+
+	/**
+	 * Default constructor.
+	 */
+	public TiledRenderer() {
+		this.grid = new TileGrid(DEFAULT_TILE_SIZE);
+		this.parallelism = Runtime.getRuntime().availableProcessors();
+		this.parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+		this.tasks = new Task[0];
+		this.nextTile = new AtomicInteger();
+	}
+
+	/**
+	 * Draws the given world as seen by the given camera and returns the image.
+	 * <p>
+	 * The image is reused between calls while the size stays the same.
+	 * @param world the world
+	 * @param camera the camera
+	 * @param width the view width in pixels
+	 * @param height the view height in pixels
+	 * @param painter the painter used to clear the tiles and draw the bodies
+	 * @return BufferedImage
+	 */
+	public BufferedImage render(World<SimulationBody> world, Camera camera, int width, int height, Painter painter) {
+		width = Math.max(1, width);
+		height = Math.max(1, height);
+		if (this.image == null || this.image.getWidth() != width || this.image.getHeight() != height) {
+			this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		}
+
+		this.painter = painter;
+		this.offsetX = camera.offsetX;
+		this.offsetY = camera.offsetY;
+
+		this.grid.bin(world, camera, width, height);
+
+		try {
+			int tiles = this.grid.getTileCount();
+			int parts = Math.min(this.parallelism, tiles);
+			if (this.executor == null || parts < 2 || world.getBodyCount() < this.parallelThreshold) {
+				Task task = this.getTask(0);
+				for (int i = 0; i < tiles; i++) {
+					task.renderTile(i);
+				}
+			} else {
+				this.renderParallel(parts);
+			}
+		} finally {
+			this.painter = null;
+		}
+
+		return this.image;
+	}
+
+	/**
+	 * Draws the tiles on the executor's threads and the calling thread, each
+	 * taking the next tile until there are none left.
+	 * @param parts the number of threads
+	 */
+	private void renderParallel(int parts) {
+		this.nextTile.set(0);
+
+		CountDownLatch latch = new CountDownLatch(parts - 1);
+		int submitted = 1;
+		try {
+			for (; submitted < parts; submitted++) {
+				Task task = this.getTask(submitted);
+				task.latch = latch;
+				task.error = null;
+				this.executor.execute(task);
+			}
+
+			this.getTask(0).renderTiles();
+		} finally {
+			// the tasks that weren't submitted won't count down
+			for (int i = submitted; i < parts; i++) {
+				latch.countDown();
+			}
+
+			// the other threads are still using the image and the painter
+			boolean interrupted = false;
+			while (true) {
+				try {
+					latch.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		for (int i = 1; i < parts; i++) {
+			Task task = this.tasks[i];
+			task.latch = null;
+			if (task.error != null) {
+				throw task.error;
+			}
+		}
+	}
+
+	/**
+	 * Returns the task for the given thread.
+	 * @param index the thread index
+	 * @return {@link Task}
+	 */
+	private Task getTask(int index) {
+		if (this.tasks.length <= index) {
+			Task[] tasks = new Task[index + 1];
+			System.arraycopy(this.tasks, 0, tasks, 0, this.tasks.length);
+			this.tasks = tasks;
+		}
+		if (this.tasks[index] == null) {
+			this.tasks[index] = new Task();
+		}
+		return this.tasks[index];
+	}
+
+	/**
+	 * Returns the image last drawn; or null if nothing has been drawn.
+	 * @return BufferedImage
+	 */
+	public BufferedImage getImage() {
+		return this.image;
+	}
+
+	/**
+	 * Returns the tile grid.
+	 * @return {@link TileGrid}
+	 */
+	public TileGrid getTileGrid() {
+		return this.grid;
+	}
+
+	/**
+	 * Returns the executor used to draw tiles on other threads.
+	 * @return Executor
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	/**
+	 * Sets the executor used to draw tiles on other threads.
+	 * @param executor the executor; null to draw on the calling thread
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the number of threads the tiles are split across.
+	 * @return int
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Sets the number of threads the tiles are split across, including the
+	 * calling thread.
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the minimum number of bodies before the tiles are split across threads.
+	 * @return int
+	 */
+	public int getParallelThreshold() {
+		return this.parallelThreshold;
+	}
+
+	/**
+	 * Sets the minimum number of bodies before the tiles are split across threads.
+	 * @param threshold the number of bodies
+	 */
+	public void setParallelThreshold(int threshold) {
+		this.parallelThreshold = threshold;
+	}
+
+	/**
+	 * Draws tiles on one thread.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private final class Task implements Runnable {
+		/** Any error thrown while drawing */
+		private RuntimeException error;
+
+		/** Signaled when done */
+		private CountDownLatch latch;
+
+		/* (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				this.renderTiles();
+			} catch (RuntimeException e) {
+				this.error = e;
+			} finally {
+				this.latch.countDown();
+			}
+		}
+
+		/**
+		 * Draws tiles until there are none left.
+		 */
+		private void renderTiles() {
+			int tiles = grid.getTileCount();
+			int tile;
+			while ((tile = nextTile.getAndIncrement()) < tiles) {
+				this.renderTile(tile);
+			}
+		}
+
+		/**
+		 * Clears and draws the given tile.
+		 * @param tile the tile index
+		 */
+		private void renderTile(int tile) {
+			Graphics2D g = image.createGraphics();
+			try {
+				// the clip is set in device space so it's exactly the tile
+				g.clipRect(grid.getTileX(tile), grid.getTileY(tile), grid.getTileWidth(tile), grid.getTileHeight(tile));
+
+				// same as SimulationFrame.transform
+				g.translate(image.getWidth() / 2, image.getHeight() / 2);
+				g.scale(1.0, -1.0);
+				painter.clear(g);
+
+				g.translate(offsetX, offsetY);
+				g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+				g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+				int n = grid.getBodyCount(tile);
+				for (int i = 0; i < n; i++) {
+					painter.render(g, grid.getBody(tile, i));
+				}
+			} finally {
+				g.dispose();
+			}
+		}
+	}
+}
@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Path2D;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.Mass;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.World;
+
+/**
+ * Predicts where the bodies of a world will go if one of them is given a
+ * velocity, for example to preview a shot while aiming.
+ * <p>
+ * A request copies the bodies into a scratch world which is then stepped on a
+ * background thread.  The paths of the moving bodies are recorded as they're
+ * computed and can be rendered at any time, so a prediction shows up a piece at
+ * a time instead of stalling a frame.  The number of steps done per frame is
+ * limited by the step budget, which is granted by calling {@link #update()}
+ * once per frame.
+ * <p>
+ * The prediction is kept until a request is made for another body or world or
+ * the velocity changes by more than the tolerance.  Call {@link #clear()} when
+ * the world itself has changed, like after the shot is taken.
+ * <p>
+ * Only bodies are copied; joints and listeners are not.  The fixture shapes
+ * are shared with the copies, so they must not be changed while a prediction
+ * is running.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class TrajectoryPredictor {
+	/** The default number of steps to predict */
+	public static final int DEFAULT_STEPS = 300;
+
+	/** The default number of steps per frame */
+	public static final int DEFAULT_STEP_BUDGET = 50;
+
+	/** The default velocity tolerance */
+	public static final double DEFAULT_TOLERANCE = 0.01;
+
+	/** The distance a body must move for its path to be drawn */
+	private static final double MOVED_DISTANCE_SQUARED = 1.0e-8;
+
+	/** The color of the path of the body given the velocity */
+	private static final Color SUBJECT_COLOR = new Color(255, 255, 255, 160);
+
+	/** The number of steps to predict */
+	private final int steps;
+
+	/** The number of steps the worker may do per frame */
+	private volatile int stepBudget;
+
+	/** The relative change in velocity that makes a new prediction */
+	private double tolerance;
+
+	/** The steps left for this frame */
+	private final AtomicInteger budget;
+
+	/** The current prediction; null if none */
+	private volatile Prediction prediction;
+
+	/** The thread stepping the predictions */
+	private final Thread worker;
+
+	/** True if the predictor has been stopped */
+	private volatile boolean stopped;
+
+	/** The path being drawn */
+	private final Path2D.Double path;
+
+	/**
+	 * Default constructor.
+	 */
+	public TrajectoryPredictor() {
+		this(DEFAULT_STEPS, DEFAULT_STEP_BUDGET);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param steps the number of steps to predict
+	 * @param stepBudget the maximum number of steps per frame
+	 * @throws IllegalArgumentException if steps or stepBudget is less than 1
+	 */
+	public TrajectoryPredictor(int steps, int stepBudget) {
+		if (steps < 1) {
+			throw new IllegalArgumentException("The number of steps must be greater than zero: " + steps);
+		}
+
+		this.steps = steps;
+		this.setStepBudget(stepBudget);
+		this.tolerance = DEFAULT_TOLERANCE;
+		this.budget = new AtomicInteger();
+		this.path = new Path2D.Double();
+
+		this.worker = new Thread("Predictor") {
+			public void run() {
+				predictLoop();
+			}
+		};
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	/**
+	 * Requests a prediction of the given world where the given body has the
+	 * given velocity.
+	 * <p>
+	 * Nothing is done if the current prediction is for the same body and world
+	 * and a velocity within the tolerance.  Otherwise the bodies are copied
+	 * and the new prediction replaces the current one.
+	 * <p>
+	 * This must be called from the thread that steps the world.
+	 * @param world the world
+	 * @param body the body given the velocity
+	 * @param velocity the velocity
+	 */
+	public void request(World<SimulationBody> world, SimulationBody body, Vector2 velocity) {
+		Prediction current = this.prediction;
+		if (current != null &&
+			current.world == world &&
+			current.source == body &&
+			this.isWithinTolerance(current.velocity, velocity)) {
+			return;
+		}
+
+		this.prediction = new Prediction(world, body, velocity, this.steps);
+		LockSupport.unpark(this.worker);
+	}
+
+	/**
+	 * Returns true if the velocities are within the tolerance of each other.
+	 * @param v1 the velocity of the prediction
+	 * @param v2 the requested velocity
+	 * @return boolean
+	 */
+	private boolean isWithinTolerance(Vector2 v1, Vector2 v2) {
+		double t = this.tolerance * v1.getMagnitude();
+		return v1.distanceSquared(v2) <= t * t;
+	}
+
+	/**
+	 * Drops the current prediction.
+	 */
+	public void clear() {
+		this.prediction = null;
+	}
+
+	/**
+	 * Grants the step budget for this frame.
+	 * <p>
+	 * Unused steps from the last frame are not carried over.
+	 */
+	public void update() {
+		this.budget.set(this.stepBudget);
+		LockSupport.unpark(this.worker);
+	}
+
+	/**
+	 * Stops the background thread.
+	 */
+	public void stop() {
+		this.stopped = true;
+		LockSupport.unpark(this.worker);
+		try {
+			this.worker.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Steps the current prediction while there's budget left.
+	 */
+	private void predictLoop() {
+		while (!this.stopped) {
+			Prediction current = this.prediction;
+			if (current != null && !current.done && this.acquire()) {
+				current.step();
+			} else {
+				// woken by a request or the next frame
+				LockSupport.park(this);
+			}
+		}
+	}
+
+	/**
+	 * Takes one step from the budget.
+	 * @return boolean false if there's no budget left
+	 */
+	private boolean acquire() {
+		while (true) {
+			int n = this.budget.get();
+			if (n <= 0) return false;
+			if (this.budget.compareAndSet(n, n - 1)) return true;
+		}
+	}
+
+	/**
+	 * Renders the paths of the bodies that move in the current prediction.
+	 * <p>
+	 * The body given the velocity is drawn in white and the others in their
+	 * own color.
+	 * @param g the graphics object to render to
+	 * @param scale the scale to render the paths (pixels per dyn4j unit (typically meter))
+	 */
+	public void render(Graphics2D g, double scale) {
+		Prediction current = this.prediction;
+		if (current == null) return;
+
+		// read the count once; the points before it are complete
+		int count = current.count;
+		for (int i = 0; i < current.paths.length; i++) {
+			double[] points = current.paths[i];
+			int last = count * 2;
+			double dx = points[last] - points[0];
+			double dy = points[last + 1] - points[1];
+			if (i != current.subject && dx * dx + dy * dy < MOVED_DISTANCE_SQUARED) continue;
+
+			this.path.moveTo(points[0] * scale, points[1] * scale);
+			for (int j = 2; j <= last; j += 2) {
+				this.path.lineTo(points[j] * scale, points[j + 1] * scale);
+			}
+
+			Color color = i == current.subject ? SUBJECT_COLOR : current.colors[i];
+			g.setColor(color);
+			g.draw(this.path);
+			this.path.reset();
+		}
+	}
+
+	/**
+	 * Returns true if the current prediction has finished.
+	 * @return boolean
+	 */
+	public boolean isComplete() {
+		Prediction current = this.prediction;
+		return current != null && current.done;
+	}
+
+	/**
+	 * Returns the number of steps done in the current prediction.
+	 * @return int
+	 */
+	public int getStepCount() {
+		Prediction current = this.prediction;
+		return current != null ? current.count : 0;
+	}
+
+	/**
+	 * Returns the number of steps to predict.
+	 * @return int
+	 */
+	public int getSteps() {
+		return this.steps;
+	}
+
+	/**
+	 * Returns the maximum number of steps per frame.
+	 * @return int
+	 */
+	public int getStepBudget() {
+		return this.stepBudget;
+	}
+
+	/**
+	 * Sets the maximum number of steps per frame.
+	 * @param stepBudget the step budget
+	 * @throws IllegalArgumentException if stepBudget is less than 1
+	 */
+	public void setStepBudget(int stepBudget) {
+		if (stepBudget < 1) {
+			throw new IllegalArgumentException("The step budget must be greater than zero: " + stepBudget);
+		}
+		this.stepBudget = stepBudget;
+	}
+
+	/**
+	 * Returns the velocity tolerance.
+	 * @return double
+	 */
+	public double getTolerance() {
+		return this.tolerance;
+	}
+
+	/**
+	 * Sets the velocity tolerance.
+	 * <p>
+	 * A new prediction is made when the requested velocity differs from the
+	 * predicted one by more than this fraction of its length.  For a change in
+	 * direction only, this is about the angle in radians.
+	 * @param tolerance the tolerance
+	 * @throws IllegalArgumentException if tolerance is negative
+	 */
+	public void setTolerance(double tolerance) {
+		if (tolerance < 0.0) {
+			throw new IllegalArgumentException("The tolerance must be zero or greater: " + tolerance);
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * A copy of a world and the paths of its moving bodies.
+	 * <p>
+	 * It's created on the thread that steps the world and then only stepped
+	 * by the predictor's thread.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static final class Prediction {
+		/** The world that was copied */
+		private final World<SimulationBody> world;
+
+		/** The body given the velocity */
+		private final SimulationBody source;
+
+		/** The velocity */
+		private final Vector2 velocity;
+
+		/** The scratch world */
+		private final World<SimulationBody> scratch;
+
+		/** The copies of the bodies that can move */
+		private final SimulationBody[] bodies;
+
+		/** The color of each body that can move */
+		private final Color[] colors;
+
+		/** The center of each body that can move at each step; x then y */
+		private final double[][] paths;
+
+		/** The index of the body given the velocity */
+		private final int subject;
+
+		/** The number of steps to do */
+		private final int steps;
+
+		/** The number of steps done */
+		private volatile int count;
+
+		/** True when all the steps are done or everything is at rest */
+		private volatile boolean done;
+
+		/**
+		 * Full constructor.
+		 * @param world the world to copy
+		 * @param source the body given the velocity
+		 * @param velocity the velocity
+		 * @param steps the number of steps to do
+		 */
+		public Prediction(World<SimulationBody> world, SimulationBody source, Vector2 velocity, int steps) {
+			this.world = world;
+			this.source = source;
+			this.velocity = velocity.copy();
+			this.steps = steps;
+
+			this.scratch = new World<SimulationBody>();
+			this.scratch.setSettings(world.getSettings());
+			this.scratch.setGravity(world.getGravity());
+
+			int n = world.getBodyCount();
+			int moving = 0;
+			for (int i = 0; i < n; i++) {
+				SimulationBody body = world.getBody(i);
+				if (body.isEnabled() && !body.getMass().isInfinite()) {
+					moving++;
+				}
+			}
+
+			this.bodies = new SimulationBody[moving];
+			this.colors = new Color[moving];
+			this.paths = new double[moving][];
+
+			int subject = -1;
+			int j = 0;
+			for (int i = 0; i < n; i++) {
+				SimulationBody body = world.getBody(i);
+				if (!body.isEnabled()) continue;
+
+				SimulationBody copy = copy(body);
+				this.scratch.addBody(copy);
+				if (body.getMass().isInfinite()) continue;
+
+				if (body == source) {
+					subject = j;
+					copy.setLinearVelocity(velocity);
+					copy.setAtRest(false);
+				}
+
+				this.bodies[j] = copy;
+				this.colors[j] = body.getColor();
+				this.paths[j] = new double[(steps + 1) * 2];
+				this.record(j, 0);
+				j++;
+			}
+
+			this.subject = subject;
+		}
+
+		/**
+		 * Returns a copy of the given body without its user data.
+		 * @param body the body
+		 * @return {@link SimulationBody}
+		 */
+		private static SimulationBody copy(SimulationBody body) {
+			SimulationBody copy = new SimulationBody(body.getColor());
+			int fc = body.getFixtureCount();
+			for (int i = 0; i < fc; i++) {
+				BodyFixture source = body.getFixture(i);
+				BodyFixture fixture = copy.addFixture(source.getShape());
+				fixture.setDensity(source.getDensity());
+				fixture.setFriction(source.getFriction());
+				fixture.setRestitution(source.getRestitution());
+				fixture.setRestitutionVelocity(source.getRestitutionVelocity());
+				fixture.setSensor(source.isSensor());
+				fixture.setFilter(source.getFilter());
+			}
+			copy.setMass(new Mass(body.getMass()));
+			copy.setTransform(body.getTransform());
+			copy.setLinearVelocity(body.getLinearVelocity());
+			copy.setAngularVelocity(body.getAngularVelocity());
+			copy.setLinearDamping(body.getLinearDamping());
+			copy.setAngularDamping(body.getAngularDamping());
+			copy.setGravityScale(body.getGravityScale());
+			copy.setBullet(body.isBullet());
+			copy.setAtRestDetectionEnabled(body.isAtRestDetectionEnabled());
+			copy.setAtRest(body.isAtRest());
+			copy.setTags(body.getTags());
+			return copy;
+		}
+
+		/**
+		 * Records the center of the given body for the given step.
+		 * @param index the body index
+		 * @param step the step
+		 */
+		private void record(int index, int step) {
+			Vector2 c = this.bodies[index].getWorldCenter();
+			double[] points = this.paths[index];
+			points[step * 2] = c.x;
+			points[step * 2 + 1] = c.y;
+		}
+
+		/**
+		 * Does one step of the prediction.
+		 */
+		public void step() {
+			this.scratch.step(1);
+
+			int step = this.count + 1;
+			boolean resting = true;
+			for (int i = 0; i < this.bodies.length; i++) {
+				this.record(i, step);
+				resting &= this.bodies[i].isAtRest();
+			}
+
+			// publish the points
+			this.count = step;
+			if (step == this.steps || resting) {
+				this.done = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.dyn4j.collision.CollisionItem;
+import org.dyn4j.collision.broadphase.BroadphaseDetector;
+import org.dyn4j.collision.narrowphase.NarrowphaseDetector;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.TimeStep;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.world.PhysicsWorld;
+import org.dyn4j.world.World;
+import org.dyn4j.world.listener.StepListenerAdapter;
+
+/**
+ * Tracks the bodies inside trigger zones and reports when they enter, stay in
+ * and exit them.
+ * <p>
+ * A zone is a shape that isn't part of the world, so it takes no part in the
+ * world's collision detection and no contacts are made for it.  Instead, at
+ * the end of each step, the broad-phase is searched once with the bounds of
+ * all the zones and each fixture found is tested against the shape of each
+ * zone whose bounds it overlaps.  Zones far apart make the search find more
+ * fixtures, but it's still a single search per step.  The
+ * bodies found are compared with the zone's bodies from the last step and the
+ * events are sent to the {@link Listener}s together, in zone order, once all
+ * the zones have been updated.
+ * <p>
+ * Only enabled bodies with any of a zone's tags (see {@link SimulationBody#getTags()})
+ * are tracked by it; a zone with no tags tracks all bodies.  Sensor fixtures
+ * are ignored.
+ * <p>
+ * Like other listeners, listeners should use the {@link WorldMutationQueue} to
+ * change the world.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class TriggerZones {
+	/**
+	 * Receives the trigger zone events.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	public static interface Listener {
+		/**
+		 * Called when a body enters a zone.
+		 * @param zone the zone
+		 * @param body the body
+		 */
+		public void enter(Zone zone, SimulationBody body);
+
+		/**
+		 * Called each step a body stays in a zone after entering it.
+		 * @param zone the zone
+		 * @param body the body
+		 */
+		public void stay(Zone zone, SimulationBody body);
+
+		/**
+		 * Called when a body leaves a zone or is removed from the world.
+		 * @param zone the zone
+		 * @param body the body
+		 */
+		public void exit(Zone zone, SimulationBody body);
+	}
+
+	/**
+	 * A trigger zone.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	public static final class Zone {
+		/** The shape */
+		private final Convex shape;
+
+		/** The tags of the bodies tracked; zero for all */
+		private final int tags;
+
+		/** The position of the shape */
+		private final Transform transform;
+
+		/** The bounds of the shape at its position */
+		private final AABB aabb;
+
+		/** The bodies inside as of the last step */
+		private List<SimulationBody> bodies;
+
+		/** The bodies found by the current update */
+		private List<SimulationBody> found;
+
+		/** Custom data */
+		private Object userData;
+
+		/**
+		 * Full constructor.
+		 * @param shape the shape
+		 * @param tags the tags of the bodies to track; zero for all
+		 * @param x the x coordinate of the shape's position
+		 * @param y the y coordinate of the shape's position
+		 */
+		public Zone(Convex shape, int tags, double x, double y) {
+			this.shape = shape;
+			this.tags = tags;
+			this.transform = new Transform();
+			this.aabb = new AABB(0.0, 0.0, 0.0, 0.0);
+			this.bodies = new ArrayList<SimulationBody>();
+			this.found = new ArrayList<SimulationBody>();
+			this.setPosition(x, y);
+		}
+
+		/**
+		 * Moves the zone to the given position.
+		 * @param x the x coordinate
+		 * @param y the y coordinate
+		 */
+		public void setPosition(double x, double y) {
+			this.transform.setTranslation(x, y);
+			this.shape.computeAABB(this.transform, this.aabb);
+		}
+
+		/**
+		 * Returns the shape.
+		 * @return {@link Convex}
+		 */
+		public Convex getShape() {
+			return this.shape;
+		}
+
+		/**
+		 * Returns the position of the shape.
+		 * @return {@link Transform}
+		 */
+		public Transform getTransform() {
+			return this.transform;
+		}
+
+		/**
+		 * Returns the tags of the bodies tracked.
+		 * @return int
+		 */
+		public int getTags() {
+			return this.tags;
+		}
+
+		/**
+		 * Returns the bodies inside the zone as of the last step.
+		 * <p>
+		 * The list must not be changed.
+		 * @return List&lt;{@link SimulationBody}&gt;
+		 */
+		public List<SimulationBody> getBodies() {
+			return this.bodies;
+		}
+
+		/**
+		 * Returns true if the given body was inside the zone as of the last step.
+		 * @param body the body
+		 * @return boolean
+		 */
+		public boolean contains(SimulationBody body) {
+			return this.bodies.contains(body);
+		}
+
+		/**
+		 * Returns the custom data.
+		 * @return Object
+		 */
+		public Object getUserData() {
+			return this.userData;
+		}
+
+		/**
+		 * Sets the custom data.
+		 * @param userData the data
+		 */
+		public void setUserData(Object userData) {
+			this.userData = userData;
+		}
+	}
+
+	/** The event type for enter events */
+	private static final int ENTER = 0;
+
+	/** The event type for stay events */
+	private static final int STAY = 1;
+
+	/** The event type for exit events */
+	private static final int EXIT = 2;
+
+	/** The world */
+	private final World<SimulationBody> world;
+
+	/** The zones */
+	private final List<Zone> zones;
+
+	/** The listeners */
+	private final List<Listener> listeners;
+
+	/** Updates the zones each step */
+	private final StepListenerAdapter<SimulationBody> stepListener;
+
+	/** The bodies found in the zone being updated */
+	private final BodySet current;
+
+	/** The bodies in the zone being updated as of the last step */
+	private final BodySet previous;
+
+	/** The bounds of all the zones */
+	private final AABB bounds;
+
+	// the events of the last update
+
+	/** The type of each event */
+	private int[] eventTypes;
+
+	/** The zone of each event */
+	private Zone[] eventZones;
+
+	/** The body of each event */
+	private SimulationBody[] eventBodies;
+
+	/** The number of events */
+	private int eventCount;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world
+	 */
+	public TriggerZones(World<SimulationBody> world) {
+		this.world = world;
+		this.zones = new ArrayList<Zone>();
+		this.listeners = new ArrayList<Listener>();
+		this.stepListener = new StepListenerAdapter<SimulationBody>() {
+			@Override
+			public void end(TimeStep step, PhysicsWorld<SimulationBody, ?> world) {
+				update();
+			}
+		};
+		this.current = new BodySet();
+		this.previous = new BodySet();
+		this.bounds = new AABB(0.0, 0.0, 0.0, 0.0);
+		this.eventTypes = new int[32];
+		this.eventZones = new Zone[32];
+		this.eventBodies = new SimulationBody[32];
+	}
+
+	/**
+	 * Adds the zones to the world so that they're updated at the end of each step.
+	 * <p>
+	 * This must be called again after the world's listeners are removed.
+	 */
+	public void install() {
+		this.world.addStepListener(this.stepListener);
+	}
+
+	/**
+	 * Removes all the zones and listeners.
+	 */
+	public void clear() {
+		this.zones.clear();
+		this.listeners.clear();
+		this.clearEvents();
+	}
+
+	/**
+	 * Adds a zone.
+	 * @param zone the zone
+	 */
+	public void addZone(Zone zone) {
+		this.zones.add(zone);
+	}
+
+	/**
+	 * Removes a zone without sending exit events for the bodies in it.
+	 * @param zone the zone
+	 * @return boolean true if the zone was removed
+	 */
+	public boolean removeZone(Zone zone) {
+		zone.bodies.clear();
+		return this.zones.remove(zone);
+	}
+
+	/**
+	 * Returns the number of zones.
+	 * @return int
+	 */
+	public int getZoneCount() {
+		return this.zones.size();
+	}
+
+	/**
+	 * Returns the zone at the given index.
+	 * @param index the index
+	 * @return {@link Zone}
+	 */
+	public Zone getZone(int index) {
+		return this.zones.get(index);
+	}
+
+	/**
+	 * Adds a listener.
+	 * @param listener the listener
+	 */
+	public void addListener(Listener listener) {
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener.
+	 * @param listener the listener
+	 * @return boolean true if the listener was removed
+	 */
+	public boolean removeListener(Listener listener) {
+		return this.listeners.remove(listener);
+	}
+
+	/**
+	 * Updates the bodies in each zone and sends the events.
+	 * <p>
+	 * This is called at the end of each step.
+	 */
+	public void update() {
+		int n = this.zones.size();
+		this.find();
+		for (int i = 0; i < n; i++) {
+			this.compare(this.zones.get(i));
+		}
+
+		int m = this.listeners.size();
+		try {
+			for (int i = 0; i < this.eventCount; i++) {
+				Zone zone = this.eventZones[i];
+				SimulationBody body = this.eventBodies[i];
+				int type = this.eventTypes[i];
+				for (int j = 0; j < m; j++) {
+					Listener listener = this.listeners.get(j);
+					if (type == ENTER) {
+						listener.enter(zone, body);
+					} else if (type == STAY) {
+						listener.stay(zone, body);
+					} else {
+						listener.exit(zone, body);
+					}
+				}
+			}
+		} finally {
+			this.clearEvents();
+		}
+	}
+
+	/**
+	 * Puts the bodies inside each zone in its found list.
+	 * <p>
+	 * The broad-phase is searched once with the bounds of all the zones.
+	 */
+	private void find() {
+		int n = this.zones.size();
+		if (n == 0) return;
+
+		this.bounds.set(this.zones.get(0).aabb);
+		for (int i = 0; i < n; i++) {
+			Zone zone = this.zones.get(i);
+			zone.found.clear();
+			this.bounds.union(zone.aabb);
+		}
+
+		BroadphaseDetector<CollisionItem<SimulationBody, BodyFixture>> broadphase = this.world.getBroadphaseDetector();
+		NarrowphaseDetector narrowphase = this.world.getNarrowphaseDetector();
+		Iterator<CollisionItem<SimulationBody, BodyFixture>> it = broadphase.detectIterator(this.bounds);
+		while (it.hasNext()) {
+			CollisionItem<SimulationBody, BodyFixture> item = it.next();
+			SimulationBody body = item.getBody();
+			BodyFixture fixture = item.getFixture();
+			if (!body.isEnabled() || fixture.isSensor()) continue;
+
+			AABB aabb = broadphase.getAABB(item);
+			for (int i = 0; i < n; i++) {
+				Zone zone = this.zones.get(i);
+				if (zone.tags != 0 && !body.hasAnyTag(zone.tags)) continue;
+				if (!zone.aabb.overlaps(aabb)) continue;
+
+				if (narrowphase.detect(zone.shape, zone.transform, fixture.getShape(), body.getTransform())) {
+					zone.found.add(body);
+				}
+			}
+		}
+
+		// a body with many fixtures may have been found more than once
+		for (int i = 0; i < n; i++) {
+			this.removeDuplicates(this.zones.get(i).found);
+		}
+	}
+
+	/**
+	 * Removes the bodies with many fixtures found more than once from the
+	 * given list, keeping the first.
+	 * @param found the bodies found
+	 */
+	private void removeDuplicates(List<SimulationBody> found) {
+		int n = found.size();
+		int m = 0;
+		try {
+			for (int i = 0; i < n; i++) {
+				SimulationBody body = found.get(i);
+				if (body.getFixtureCount() > 1) {
+					if (this.current.contains(body)) continue;
+					this.current.add(body);
+				}
+				found.set(m++, body);
+			}
+		} finally {
+			this.current.clear();
+		}
+
+		for (int i = n - 1; i >= m; i--) {
+			found.remove(i);
+		}
+	}
+
+	/**
+	 * Compares the bodies found in the given zone with the bodies from the
+	 * last step, adds the events and swaps the lists.
+	 * @param zone the zone
+	 */
+	private void compare(Zone zone) {
+		List<SimulationBody> bodies = zone.bodies;
+		List<SimulationBody> found = zone.found;
+		if (bodies.isEmpty() && found.isEmpty()) return;
+
+		try {
+			int n = found.size();
+			for (int i = 0; i < n; i++) {
+				this.current.add(found.get(i));
+			}
+
+			int m = bodies.size();
+			for (int i = 0; i < m; i++) {
+				SimulationBody body = bodies.get(i);
+				this.previous.add(body);
+				this.addEvent(this.current.contains(body) ? STAY : EXIT, zone, body);
+			}
+
+			for (int i = 0; i < n; i++) {
+				SimulationBody body = found.get(i);
+				if (!this.previous.contains(body)) {
+					this.addEvent(ENTER, zone, body);
+				}
+			}
+		} finally {
+			this.current.clear();
+			this.previous.clear();
+		}
+
+		zone.found = bodies;
+		zone.bodies = found;
+	}
+
+	/**
+	 * Adds an event.
+	 * @param type the type
+	 * @param zone the zone
+	 * @param body the body
+	 */
+	private void addEvent(int type, Zone zone, SimulationBody body) {
+		if (this.eventCount == this.eventTypes.length) {
+			int capacity = this.eventCount * 2;
+			int[] types = new int[capacity];
+			Zone[] zones = new Zone[capacity];
+			SimulationBody[] bodies = new SimulationBody[capacity];
+			System.arraycopy(this.eventTypes, 0, types, 0, this.eventCount);
+			System.arraycopy(this.eventZones, 0, zones, 0, this.eventCount);
+			System.arraycopy(this.eventBodies, 0, bodies, 0, this.eventCount);
+			this.eventTypes = types;
+			this.eventZones = zones;
+			this.eventBodies = bodies;
+		}
+		this.eventTypes[this.eventCount] = type;
+		this.eventZones[this.eventCount] = zone;
+		this.eventBodies[this.eventCount] = body;
+		this.eventCount++;
+	}
+
+	/**
+	 * Forgets the events.
+	 */
+	private void clearEvents() {
+		for (int i = 0; i < this.eventCount; i++) {
+			this.eventZones[i] = null;
+			this.eventBodies[i] = null;
+		}
+		this.eventCount = 0;
+	}
+}
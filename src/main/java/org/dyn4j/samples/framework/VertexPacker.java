@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import org.dyn4j.collision.broadphase.CollisionItemBroadphaseDetector;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.world.World;
+
+/**
+ * Writes the triangles of all the bodies in view into one direct buffer so
+ * that they can be drawn with a single call, for example with OpenGL's
+ * glDrawArrays(GL_TRIANGLES, ...).
+ * <p>
+ * Each vertex is {@link #VERTEX_SIZE} bytes: the world x and y as floats,
+ * then the red, green, blue and alpha of the body color as unsigned bytes.
+ * The triangles of each fixture come from a {@link Tessellator}, at the level
+ * of detail for the fixture's size on screen, and are transformed to world
+ * coordinates here.  Fixtures whose bounds in the broad-phase are outside the
+ * view are left out.
+ * <p>
+ * The buffer is kept between calls and only grows, so nothing is allocated
+ * once it's large enough.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class VertexPacker {
+	/** The size of a vertex in bytes */
+	public static final int VERTEX_SIZE = 12;
+
+	/** The offset of the color in a vertex, in bytes */
+	public static final int COLOR_OFFSET = 8;
+
+	/** The tessellator */
+	private final Tessellator tessellator;
+
+	/** The buffer */
+	private ByteBuffer buffer;
+
+	/** The number of vertices written by the last call to pack */
+	private int vertexCount;
+
+	/** The number of bodies written by the last call to pack */
+	private int bodyCount;
+
+	/**
+	 * Default constructor.
+	 */
+	public VertexPacker() {
+		this(new Tessellator());
+	}
+
+	/**
+	 * Optional constructor.
+	 * @param tessellator the tessellator
+	 */
+	public VertexPacker(Tessellator tessellator) {
+		this.tessellator = tessellator;
+		this.buffer = ByteBuffer.allocateDirect(VERTEX_SIZE * 1024).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Writes the triangles of the bodies in view and returns the buffer, from
+	 * position zero to the end of the last vertex.
+	 * <p>
+	 * The view is the same as in SimulationFrame: the world origin is
+	 * offset from the center of the view by the camera offset, in pixels.
+	 * @param world the world
+	 * @param camera the camera
+	 * @param width the view width in pixels
+	 * @param height the view height in pixels
+	 * @return ByteBuffer
+	 */
+	public ByteBuffer pack(World<SimulationBody> world, Camera camera, int width, int height) {
+		double scale = camera.scale;
+
+		// absolute puts are checked against the limit
+		this.buffer.clear();
+
+		// the view in world coordinates
+		double minX = (-width * 0.5 - camera.offsetX) / scale;
+		double maxX = (width * 0.5 - camera.offsetX) / scale;
+		double minY = (-height * 0.5 - camera.offsetY) / scale;
+		double maxY = (height * 0.5 - camera.offsetY) / scale;
+
+		CollisionItemBroadphaseDetector<SimulationBody, BodyFixture> broadphase = world.getBroadphaseDetector();
+		List<SimulationBody> bodies = world.getBodies();
+		int n = bodies.size();
+
+		int vertices = 0;
+		int packed = 0;
+		for (int i = 0; i < n; i++) {
+			SimulationBody body = bodies.get(i);
+			Transform tx = body.getTransform();
+			double cos = tx.getCost();
+			double sin = tx.getSint();
+			double x0 = tx.getTranslationX();
+			double y0 = tx.getTranslationY();
+
+			// the color is only looked up once the body is known to be visible
+			byte r = 0, g = 0, b = 0, a = 0;
+			boolean visible = false;
+			int fixtures = body.getFixtureCount();
+			for (int j = 0; j < fixtures; j++) {
+				BodyFixture fixture = body.getFixture(j);
+				AABB aabb = broadphase.getAABB(body, fixture);
+				if (aabb != null && (aabb.getMaxX() < minX || aabb.getMinX() > maxX || aabb.getMaxY() < minY || aabb.getMinY() > maxY)) {
+					continue;
+				}
+
+				Convex convex = fixture.getShape();
+				FloatBuffer triangles = this.tessellator.getTriangles(convex, LevelOfDetail.get(convex.getRadius(), scale));
+				int count = triangles.limit() / 2;
+				if (count == 0) {
+					continue;
+				}
+
+				if (!visible) {
+					int rgba = getColor(body);
+					r = (byte)(rgba >> 24);
+					g = (byte)(rgba >> 16);
+					b = (byte)(rgba >> 8);
+					a = (byte)rgba;
+				}
+
+				this.ensureCapacity(vertices + count);
+				ByteBuffer buffer = this.buffer;
+				int p = vertices * VERTEX_SIZE;
+				for (int k = 0; k < count; k++) {
+					float lx = triangles.get(k * 2);
+					float ly = triangles.get(k * 2 + 1);
+					buffer.putFloat(p, (float)(cos * lx - sin * ly + x0));
+					buffer.putFloat(p + 4, (float)(sin * lx + cos * ly + y0));
+					buffer.put(p + 8, r);
+					buffer.put(p + 9, g);
+					buffer.put(p + 10, b);
+					buffer.put(p + 11, a);
+					p += VERTEX_SIZE;
+				}
+				vertices += count;
+				visible = true;
+			}
+
+			if (visible) {
+				packed++;
+			}
+		}
+
+		this.vertexCount = vertices;
+		this.bodyCount = packed;
+
+		this.buffer.clear();
+		this.buffer.limit(vertices * VERTEX_SIZE);
+		return this.buffer;
+	}
+
+	/**
+	 * Makes sure the buffer can hold the given number of vertices, keeping
+	 * the vertices already written.
+	 * @param vertices the number of vertices
+	 */
+	private void ensureCapacity(int vertices) {
+		int bytes = vertices * VERTEX_SIZE;
+		if (this.buffer.capacity() >= bytes) {
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(bytes, this.buffer.capacity() * 2)).order(ByteOrder.nativeOrder());
+		this.buffer.clear();
+		buffer.put(this.buffer);
+		buffer.clear();
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Returns the color of the given body as an RGBA int.
+	 * <p>
+	 * Bodies at rest are brighter, the same as with {@link SimulationBody#render(java.awt.Graphics2D, double)}.
+	 * @param body the body
+	 * @return int
+	 */
+	private static int getColor(SimulationBody body) {
+		Color color = body.getColor();
+		int argb = color != null ? color.getRGB() : 0xFFFFC800;
+		if (body.isAtRest()) {
+			argb = (argb & 0xFF000000) | RasterRenderer.brighter(argb);
+		}
+		return (argb << 8) | (argb >>> 24);
+	}
+
+	/**
+	 * Returns the buffer written by the last call to {@link #pack(World, Camera, int, int)}.
+	 * @return ByteBuffer
+	 */
+	public ByteBuffer getBuffer() {
+		return this.buffer;
+	}
+
+	/**
+	 * Returns the number of vertices written by the last call to {@link #pack(World, Camera, int, int)}.
+	 * @return int
+	 */
+	public int getVertexCount() {
+		return this.vertexCount;
+	}
+
+	/**
+	 * Returns the number of bodies written by the last call to {@link #pack(World, Camera, int, int)}.
+	 * @return int
+	 */
+	public int getBodyCount() {
+		return this.bodyCount;
+	}
+
+	/**
+	 * Returns the tessellator.
+	 * @return {@link Tessellator}
+	 */
+	public Tessellator getTessellator() {
+		return this.tessellator;
+	}
+}
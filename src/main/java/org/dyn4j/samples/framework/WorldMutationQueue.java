@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.world.World;
+
+/**
+ * Queues changes to the world so that they can be requested from listeners,
+ * input handlers or any other thread and applied together when it's safe.
+ * <p>
+ * Requests can be made from any thread.  They are collected in one set of
+ * buffers while the other set is applied, so submitting never waits on the
+ * world and applying never allocates.
+ * <p>
+ * The queue is applied once per frame by the {@link SimulationFrame}, after
+ * the world is updated and the input is handled.  It's not applied from a
+ * step listener since the world is still calling its listeners then and a
+ * command could add or remove one.  Changes are applied in this order: joint
+ * removals, body removals, body additions, joint additions, then any other
+ * commands.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class WorldMutationQueue {
+	/**
+	 * One set of queued changes.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static final class Batch {
+		private final List<Joint<SimulationBody>> removeJoints = new ArrayList<Joint<SimulationBody>>();
+		private final List<SimulationBody> removeBodies = new ArrayList<SimulationBody>();
+		private final List<SimulationBody> addBodies = new ArrayList<SimulationBody>();
+		private final List<Joint<SimulationBody>> addJoints = new ArrayList<Joint<SimulationBody>>();
+		private final List<Runnable> commands = new ArrayList<Runnable>();
+
+		private boolean isEmpty() {
+			return this.removeJoints.isEmpty() &&
+				   this.removeBodies.isEmpty() &&
+				   this.addBodies.isEmpty() &&
+				   this.addJoints.isEmpty() &&
+				   this.commands.isEmpty();
+		}
+
+		private void clear() {
+			this.removeJoints.clear();
+			this.removeBodies.clear();
+			this.addBodies.clear();
+			this.addJoints.clear();
+			this.commands.clear();
+		}
+	}
+
+	/** The world to modify */
+	private final World<SimulationBody> world;
+
+	/** Guards the queued batch */
+	private final Object lock;
+
+	/** The batch collecting requests */
+	private Batch queued;
+
+	/** The batch being applied */
+	private Batch applying;
+
+	/** True while the queue is being applied */
+	private boolean draining;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world to modify
+	 */
+	public WorldMutationQueue(World<SimulationBody> world) {
+		this.world = world;
+		this.lock = new Object();
+		this.queued = new Batch();
+		this.applying = new Batch();
+	}
+
+	/**
+	 * Queues the given body to be added to the world.
+	 * @param body the body
+	 */
+	public void addBody(SimulationBody body) {
+		synchronized (this.lock) {
+			this.queued.addBodies.add(body);
+		}
+	}
+
+	/**
+	 * Queues the given bodies to be added to the world.
+	 * @param bodies the bodies
+	 */
+	public void addBodies(List<? extends SimulationBody> bodies) {
+		synchronized (this.lock) {
+			this.queued.addBodies.addAll(bodies);
+		}
+	}
+
+	/**
+	 * Queues the given body to be removed from the world.
+	 * <p>
+	 * Any joints attached to the body are removed with it.
+	 * @param body the body
+	 */
+	public void removeBody(SimulationBody body) {
+		synchronized (this.lock) {
+			this.queued.removeBodies.add(body);
+		}
+	}
+
+	/**
+	 * Queues the given joint to be added to the world.
+	 * @param joint the joint
+	 */
+	public void addJoint(Joint<SimulationBody> joint) {
+		synchronized (this.lock) {
+			this.queued.addJoints.add(joint);
+		}
+	}
+
+	/**
+	 * Queues the given joint to be removed from the world.
+	 * @param joint the joint
+	 */
+	public void removeJoint(Joint<SimulationBody> joint) {
+		synchronized (this.lock) {
+			this.queued.removeJoints.add(joint);
+		}
+	}
+
+	/**
+	 * Queues any other change to the world.
+	 * @param command the command to run when the queue is applied
+	 */
+	public void execute(Runnable command) {
+		synchronized (this.lock) {
+			this.queued.commands.add(command);
+		}
+	}
+
+	/**
+	 * Discards everything that's been queued.
+	 */
+	public void clear() {
+		synchronized (this.lock) {
+			this.queued.clear();
+		}
+	}
+
+	/**
+	 * Applies everything that's been queued to the world.
+	 * <p>
+	 * This must be called from the thread that updates the world and never
+	 * in the middle of a step.  Changes requested while applying (by a
+	 * command for example) are applied the next time.
+	 */
+	public void apply() {
+		// don't re-enter from a command
+		if (this.draining) return;
+
+		Batch batch;
+		synchronized (this.lock) {
+			if (this.queued.isEmpty()) return;
+			batch = this.queued;
+			this.queued = this.applying;
+			this.applying = batch;
+		}
+
+		this.draining = true;
+		try {
+			int size = batch.removeJoints.size();
+			for (int i = 0; i < size; i++) {
+				Joint<SimulationBody> joint = batch.removeJoints.get(i);
+				if (joint.getOwner() == this.world) {
+					this.world.removeJoint(joint);
+				}
+			}
+
+			// the owner check also filters out duplicate requests
+			size = batch.removeBodies.size();
+			for (int i = 0; i < size; i++) {
+				SimulationBody body = batch.removeBodies.get(i);
+				if (body.getOwner() == this.world) {
+					this.world.removeBody(body);
+				}
+			}
+
+			size = batch.addBodies.size();
+			for (int i = 0; i < size; i++) {
+				SimulationBody body = batch.addBodies.get(i);
+				if (body.getOwner() == null) {
+					this.world.addBody(body);
+				}
+			}
+
+			size = batch.addJoints.size();
+			for (int i = 0; i < size; i++) {
+				Joint<SimulationBody> joint = batch.addJoints.get(i);
+				if (joint.getOwner() == null) {
+					this.world.addJoint(joint);
+				}
+			}
+
+			size = batch.commands.size();
+			for (int i = 0; i < size; i++) {
+				batch.commands.get(i).run();
+			}
+		} finally {
+			batch.clear();
+			this.draining = false;
+		}
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework;
+
+import java.util.List;
+
+import org.dyn4j.collision.broadphase.CollisionItemBroadphaseDetector;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.Settings;
+import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.World;
+
+/**
+ * Captures the state of a world so that it can be put back later without
+ * building the scene again.
+ * <p>
+ * The snapshot keeps the body and joint objects themselves along with each
+ * body's transform, velocity and rest state, the world's settings and its
+ * gravity.  Restoring copies these values back onto the same objects so that
+ * nothing is allocated per body.
+ * <p>
+ * Any other state, like the fixtures and mass of each body, the state of the
+ * joints or the listeners on the world, is left as is.  This makes snapshots a
+ * good fit for scenes whose bodies only move around.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public class WorldSnapshot {
+	/** The world */
+	private final World<SimulationBody> world;
+
+	/** The world's settings */
+	private final Settings settings;
+
+	/** The world's gravity */
+	private final Vector2 gravity;
+
+	/** The bodies in the world */
+	private SimulationBody[] bodies;
+
+	/** The transform of each body */
+	private Transform[] transforms;
+
+	/** The linear velocity of each body */
+	private double[] velocities;
+
+	/** The angular velocity of each body */
+	private double[] angularVelocities;
+
+	/** The rest state of each body */
+	private boolean[] atRest;
+
+	/** The enabled state of each body */
+	private boolean[] enabled;
+
+	/** The number of bodies captured */
+	private int bodyCount;
+
+	/** The joints in the world */
+	private Joint<?>[] joints;
+
+	/** The number of joints captured */
+	private int jointCount;
+
+	/** True if a snapshot has been captured */
+	private boolean captured;
+
+	/**
+	 * Minimal constructor.
+	 * @param world the world
+	 */
+	public WorldSnapshot(World<SimulationBody> world) {
+		this.world = world;
+		this.settings = new Settings();
+		this.gravity = new Vector2();
+		this.bodies = new SimulationBody[0];
+		this.transforms = new Transform[0];
+		this.velocities = new double[0];
+		this.angularVelocities = new double[0];
+		this.atRest = new boolean[0];
+		this.enabled = new boolean[0];
+		this.joints = new Joint<?>[0];
+	}
+
+	/**
+	 * Captures the current state of the world, replacing any previous snapshot.
+	 */
+	public void capture() {
+		List<SimulationBody> bodies = this.world.getBodies();
+		int n = bodies.size();
+		this.ensureBodyCapacity(n);
+
+		for (int i = 0; i < n; i++) {
+			SimulationBody body = bodies.get(i);
+			Vector2 v = body.getLinearVelocity();
+			this.bodies[i] = body;
+			this.transforms[i].set(body.getTransform());
+			this.velocities[i * 2] = v.x;
+			this.velocities[i * 2 + 1] = v.y;
+			this.angularVelocities[i] = body.getAngularVelocity();
+			this.atRest[i] = body.isAtRest();
+			this.enabled[i] = body.isEnabled();
+		}
+
+		// release any bodies from an earlier, larger snapshot
+		for (int i = n; i < this.bodyCount; i++) {
+			this.bodies[i] = null;
+		}
+		this.bodyCount = n;
+
+		List<Joint<SimulationBody>> joints = this.world.getJoints();
+		int m = joints.size();
+		if (this.joints.length < m) {
+			this.joints = new Joint<?>[m];
+		}
+		for (int i = 0; i < m; i++) {
+			this.joints[i] = joints.get(i);
+		}
+		for (int i = m; i < this.jointCount; i++) {
+			this.joints[i] = null;
+		}
+		this.jointCount = m;
+
+		this.settings.copy(this.world.getSettings());
+		this.gravity.set(this.world.getGravity());
+		this.captured = true;
+	}
+
+	/**
+	 * Puts the world back into the captured state.
+	 * <p>
+	 * If bodies or joints have been added or removed since the snapshot was
+	 * captured, the world is emptied and the captured bodies and joints are
+	 * added back.  Otherwise, only their state is copied back.
+	 * <p>
+	 * The world keeps the contacts it found before the restore and uses them
+	 * to warm start the next step, so the simulation can play out slightly
+	 * differently each time.  Use {@link #restore(boolean)} when it must
+	 * repeat exactly.
+	 * @throws IllegalStateException if a snapshot hasn't been captured
+	 */
+	public void restore() {
+		this.restore(false);
+	}
+
+	/**
+	 * Puts the world back into the captured state.
+	 * <p>
+	 * When exact is true, the world is always emptied and the captured bodies
+	 * and joints are added back in their original order.  This clears the
+	 * world's contacts and rebuilds the broad-phase the way it was first built
+	 * so that the simulation repeats exactly (except for the impulses joints
+	 * cache, which aren't reset).  It's slower than an in-place restore but
+	 * still doesn't create any bodies or fixtures.
+	 * @param exact true to rebuild the world's collision state
+	 * @throws IllegalStateException if a snapshot hasn't been captured
+	 */
+	@SuppressWarnings("unchecked")
+	public void restore(boolean exact) {
+		if (!this.captured) {
+			throw new IllegalStateException("A snapshot must be captured before it can be restored.");
+		}
+
+		boolean rebuild = exact || !this.isMembershipUnchanged();
+		if (rebuild) {
+			this.world.removeAllBodiesAndJoints();
+		}
+
+		for (int i = 0; i < this.bodyCount; i++) {
+			SimulationBody body = this.bodies[i];
+
+			// set the rest state first since it clears the velocity
+			body.setAtRest(this.atRest[i]);
+			body.setEnabled(this.enabled[i]);
+			body.getTransform().set(this.transforms[i]);
+			body.getPreviousTransform().set(this.transforms[i]);
+			body.getLinearVelocity().set(this.velocities[i * 2], this.velocities[i * 2 + 1]);
+			body.setAngularVelocity(this.angularVelocities[i]);
+			body.clearForce();
+			body.clearTorque();
+			body.clearAccumulatedForce();
+			body.clearAccumulatedTorque();
+		}
+
+		if (rebuild) {
+			for (int i = 0; i < this.bodyCount; i++) {
+				this.world.addBody(this.bodies[i]);
+			}
+			for (int i = 0; i < this.jointCount; i++) {
+				this.world.addJoint((Joint<SimulationBody>)this.joints[i]);
+			}
+		} else {
+			CollisionItemBroadphaseDetector<SimulationBody, BodyFixture> broadphase = this.world.getBroadphaseDetector();
+			for (int i = 0; i < this.bodyCount; i++) {
+				broadphase.update(this.bodies[i]);
+			}
+		}
+
+		this.world.getSettings().copy(this.settings);
+		this.world.setGravity(this.gravity);
+		this.world.setAccumulatedTime(0.0);
+	}
+
+	/**
+	 * Discards the snapshot.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.bodyCount; i++) {
+			this.bodies[i] = null;
+		}
+		for (int i = 0; i < this.jointCount; i++) {
+			this.joints[i] = null;
+		}
+		this.bodyCount = 0;
+		this.jointCount = 0;
+		this.captured = false;
+	}
+
+	/**
+	 * Returns true if a snapshot has been captured.
+	 * @return boolean
+	 */
+	public boolean isCaptured() {
+		return this.captured;
+	}
+
+	/**
+	 * Returns true if the world still has exactly the captured bodies and joints.
+	 * @return boolean
+	 */
+	private boolean isMembershipUnchanged() {
+		if (this.world.getBodyCount() != this.bodyCount ||
+			this.world.getJointCount() != this.jointCount) {
+			return false;
+		}
+
+		// with equal counts, every captured object still being
+		// owned by the world means nothing else was added
+		for (int i = 0; i < this.bodyCount; i++) {
+			if (this.bodies[i].getOwner() != this.world) {
+				return false;
+			}
+		}
+		for (int i = 0; i < this.jointCount; i++) {
+			if (this.joints[i].getOwner() != this.world) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Grows the per body arrays to hold at least the given number of bodies.
+	 * @param n the number of bodies
+	 */
+	private void ensureBodyCapacity(int n) {
+		int size = this.bodies.length;
+		if (size >= n) return;
+
+		SimulationBody[] bodies = new SimulationBody[n];
+		Transform[] transforms = new Transform[n];
+		System.arraycopy(this.transforms, 0, transforms, 0, size);
+		for (int i = size; i < n; i++) {
+			transforms[i] = new Transform();
+		}
+
+		this.bodies = bodies;
+		this.transforms = transforms;
+		this.velocities = new double[n * 2];
+		this.angularVelocities = new double[n];
+		this.atRest = new boolean[n];
+		this.enabled = new boolean[n];
+	}
+}
@@ -26,101 +26,90 @@ package org.dyn4j.samples.framework.input;
 
 import java.awt.Component;
 import java.awt.Point;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
-import java.awt.event.MouseWheelEvent;
 
 public abstract class AbstractMouseInputHandler extends AbstractInputHandler implements InputHandler {
 	
 	protected final Component component;
 	protected final int button;
 	
-	private final MouseAdapter mouseAdapter;
-	
-	private Point dragCurrent;
-	private Point dragStart;
+	// the locations are copied since the queue reuses its point
+	private final Point dragCurrent;
+	private final Point dragStart;
+	private boolean dragging;
 	
 	public AbstractMouseInputHandler(Component component, int button) {
 		this.component = component;
 		this.button = button;
-		this.mouseAdapter = new CustomMouseAdapter();
+		this.dragCurrent = new Point();
+		this.dragStart = new Point();
 	}
 
 	/**
-	 * A custom mouse adapter to track mouse drag events.
-	 * @author William Bittle
-	 * @version 3.2.1
-	 * @since 3.2.0
+	 * Called by the {@link InputQueue} when a mouse button is pressed.
+	 * @param button the button
+	 * @param point the location; reused by the queue
 	 */
-	private final class CustomMouseAdapter extends MouseAdapter {
-		@Override
-		public void mousePressed(MouseEvent e) {
-			if (e.isConsumed()) return;
-			
-			if (e.getButton() == button) {
-				// store the mouse click postion for use later
-				dragCurrent = new Point(e.getX(), e.getY());
-				dragStart = dragCurrent;
-				if (isEnabled() && !isDependentBehaviorActive()) {
-					onMousePressed(dragStart);
-				}
-			}
-		}
-		
-		@Override
-		public void mouseDragged(MouseEvent e) {
-			if (e.isConsumed()) return;
-			
-			dragCurrent = new Point(e.getX(), e.getY());
-			if (isEnabled() && !isDependentBehaviorActive() && dragStart != null) {
-				onMouseDrag(dragStart, dragCurrent);
+	void mousePressed(int button, Point point) {
+		if (button == this.button) {
+			// store the mouse click postion for use later
+			this.dragCurrent.setLocation(point);
+			this.dragStart.setLocation(point);
+			this.dragging = true;
+			if (isEnabled() && !isDependentBehaviorActive()) {
+				onMousePressed(this.dragStart);
 			}
 		}
-		
-		@Override
-		public void mouseReleased(MouseEvent e) {
-			if (e.isConsumed()) return;
-			
-			if (e.getButton() == button) {
-				dragCurrent = null;
-				dragStart = null;
-				if (isEnabled() && !isDependentBehaviorActive()) {
-					onMouseRelease();
-				}
-			}
+	}
+	
+	/**
+	 * Called by the {@link InputQueue} when the mouse is dragged.
+	 * @param point the location; reused by the queue
+	 */
+	void mouseDragged(Point point) {
+		this.dragCurrent.setLocation(point);
+		if (isEnabled() && !isDependentBehaviorActive() && this.dragging) {
+			onMouseDrag(this.dragStart, this.dragCurrent);
 		}
-		
-		@Override
-		public void mouseWheelMoved(MouseWheelEvent e) {
-			if (e.isConsumed()) return;
-			
-			double wheelRotation = e.getWheelRotation();
+	}
+	
+	/**
+	 * Called by the {@link InputQueue} when a mouse button is released.
+	 * @param button the button
+	 */
+	void mouseReleased(int button) {
+		if (button == this.button) {
+			this.dragging = false;
 			if (isEnabled() && !isDependentBehaviorActive()) {
-				onMouseWheel(wheelRotation);
+				onMouseRelease();
 			}
 		}
 	}
+	
+	/**
+	 * Called by the {@link InputQueue} when the mouse wheel is moved.
+	 * @param rotation the wheel rotation
+	 */
+	void mouseWheelMoved(double rotation) {
+		if (isEnabled() && !isDependentBehaviorActive()) {
+			onMouseWheel(rotation);
+		}
+	}
 
 	@Override
 	public void install() {
-		this.component.addMouseListener(this.mouseAdapter);
-		this.component.addMouseMotionListener(this.mouseAdapter);
-		this.component.addMouseWheelListener(this.mouseAdapter);
+		InputQueue.get(this.component).register(this);
 	}
 	
 	@Override
 	public void uninstall() {
-		this.component.removeMouseListener(this.mouseAdapter);
-		this.component.removeMouseMotionListener(this.mouseAdapter);
-		this.component.removeMouseWheelListener(this.mouseAdapter);
+		InputQueue.get(this.component).unregister(this);
 	}
 	
 	@Override
 	public void setEnabled(boolean flag) {
 		super.setEnabled(flag);
 		if (!flag) {
-			this.dragCurrent = null;
-			this.dragStart = null;
+			this.dragging = false;
 		}
 	}
 	
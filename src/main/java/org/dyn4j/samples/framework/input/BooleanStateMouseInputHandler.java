@@ -28,31 +28,26 @@ import java.awt.Component;
 import java.awt.Point;
 
 public final class BooleanStateMouseInputHandler extends AbstractMouseInputHandler {
-	private final Object lock;
-	
 	private boolean active;
 	private Point location;
 	private boolean hasBeenHandled;
 	
 	public BooleanStateMouseInputHandler(Component component, int button) {
 		super(component, button);
-		this.lock = new Object();
 	}
 
 	@Override
 	protected void onMousePressed(Point point) {
 		super.onMousePressed(point);
-		synchronized (this.lock) {
-			boolean active = this.active;
-			
-			this.active = true;
-			this.location = point;
+		boolean active = this.active;
+		
+		this.active = true;
+		this.location = new Point(point);
 
-			// if the state transitioned from inactive to active
-			// flag that it needs to be handled
-			if (!active) {
-				this.hasBeenHandled = false;
-			}
+		// if the state transitioned from inactive to active
+		// flag that it needs to be handled
+		if (!active) {
+			this.hasBeenHandled = false;
 		}
 	}
 
@@ -83,9 +78,7 @@ public final class BooleanStateMouseInputHandler extends AbstractMouseInputHandl
 	}
 	
 	public Point getMouseLocation() {
-		synchronized (this.lock) {
-			return this.location;
-		}
+		return this.location;
 	}
 
 	@Override
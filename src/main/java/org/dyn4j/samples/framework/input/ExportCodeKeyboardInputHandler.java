@@ -26,6 +26,7 @@ package org.dyn4j.samples.framework.input;
 
 import java.awt.Component;
 
+import org.dyn4j.samples.framework.AsyncLogger;
 import org.dyn4j.samples.framework.SimulationBody;
 import org.dyn4j.world.World;
 
@@ -40,7 +41,7 @@ public class ExportCodeKeyboardInputHandler extends AbstractKeyboardInputHandler
 	@Override
 	protected void onKeyPressed() {
 		super.onKeyPressed();
-		System.out.println(CodeExporter.export("SampleExport", this.world));
+		AsyncLogger.getDefault().log(CodeExporter.export("SampleExport", this.world));
 	}
 
 	@Override
@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework.input;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures the key and mouse events of a component on the AWT event thread
+ * and hands them to the input handlers installed on it when {@link #drain()}
+ * is called, which SimulationFrame does once per frame from its game loop.
+ * <p>
+ * Events are stored in a fixed size ring buffer of primitive arrays with one
+ * producer, the event thread, and one consumer, the thread calling drain, so
+ * neither ever waits on the other.  Since every handler callback runs on the
+ * draining thread, handlers can update their state and the world without
+ * locking, and they see events in exactly the order they happened.
+ * <p>
+ * Consecutive drags are collapsed into the last one when drained.  If the
+ * buffer fills up, because drain isn't being called, new events are dropped
+ * and counted.
+ * <p>
+ * Each event is stamped with {@link System#nanoTime()} when it's captured.
+ * The stamps of the key and mouse presses delivered by the last drain are
+ * kept so that the time until they show up on screen can be measured.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class InputQueue {
+	/** The default number of events the queue can hold */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/** A key was pressed; a is the key code and b the extended modifiers */
+	private static final int KEY_PRESSED = 0;
+
+	/** A key was released; a is the key code and b the extended modifiers */
+	private static final int KEY_RELEASED = 1;
+
+	/** A mouse button was pressed; a is the button and x, y the location */
+	private static final int MOUSE_PRESSED = 2;
+
+	/** The mouse was dragged; x, y is the location */
+	private static final int MOUSE_DRAGGED = 3;
+
+	/** A mouse button was released; a is the button */
+	private static final int MOUSE_RELEASED = 4;
+
+	/** The mouse wheel was moved; a is the rotation */
+	private static final int MOUSE_WHEEL = 5;
+
+	/** The queue of each component */
+	private static final Map<Component, InputQueue> QUEUES = new WeakHashMap<Component, InputQueue>();
+
+	/** The type of each event */
+	private final int[] types;
+
+	/** The key code, button or wheel rotation of each event */
+	private final int[] as;
+
+	/** The modifiers of each key event */
+	private final int[] bs;
+
+	/** The x coordinate of each mouse event */
+	private final int[] xs;
+
+	/** The y coordinate of each mouse event */
+	private final int[] ys;
+
+	/** The time each event was captured */
+	private final long[] times;
+
+	/** The capacity minus one */
+	private final int mask;
+
+	/** The number of events taken; only written by the consumer */
+	private final AtomicLong head;
+
+	/** The number of events added; only written by the producer */
+	private final AtomicLong tail;
+
+	/** The number of events dropped because the queue was full */
+	private final AtomicLong dropped;
+
+	/** The keyboard handlers */
+	private final KeyboardDispatcher keyboard;
+
+	/** The mouse handlers, replaced as a whole when changed */
+	private volatile AbstractMouseInputHandler[] mouse;
+
+	/** The capture times of the presses delivered by the last drain */
+	private long[] pressTimes;
+
+	/** The number of presses delivered by the last drain */
+	private int pressCount;
+
+	/**
+	 * Returns the queue for the given component, installing it the first time.
+	 * @param component the component
+	 * @return {@link InputQueue}
+	 */
+	public static InputQueue get(Component component) {
+		synchronized (QUEUES) {
+			InputQueue queue = QUEUES.get(component);
+			if (queue == null) {
+				queue = new InputQueue(DEFAULT_CAPACITY);
+				Listener listener = queue.new Listener();
+				component.addKeyListener(listener);
+				component.addMouseListener(listener);
+				component.addMouseMotionListener(listener);
+				component.addMouseWheelListener(listener);
+				QUEUES.put(component, queue);
+			}
+			return queue;
+		}
+	}
+
+	/**
+	 * Hidden constructor.
+	 * @param capacity the capacity; must be a power of two
+	 */
+	private InputQueue(int capacity) {
+		this.types = new int[capacity];
+		this.as = new int[capacity];
+		this.bs = new int[capacity];
+		this.xs = new int[capacity];
+		this.ys = new int[capacity];
+		this.times = new long[capacity];
+		this.mask = capacity - 1;
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+		this.dropped = new AtomicLong();
+		this.keyboard = new KeyboardDispatcher();
+		this.mouse = new AbstractMouseInputHandler[0];
+		this.pressTimes = new long[16];
+	}
+
+	/**
+	 * Starts delivering mouse events to the given handler.
+	 * <p>
+	 * Does nothing if the handler is already registered.
+	 * @param handler the handler
+	 */
+	public synchronized void register(AbstractMouseInputHandler handler) {
+		AbstractMouseInputHandler[] handlers = this.mouse;
+		for (int i = 0; i < handlers.length; i++) {
+			if (handlers[i] == handler) return;
+		}
+		AbstractMouseInputHandler[] copy = new AbstractMouseInputHandler[handlers.length + 1];
+		System.arraycopy(handlers, 0, copy, 0, handlers.length);
+		copy[handlers.length] = handler;
+		this.mouse = copy;
+	}
+
+	/**
+	 * Stops delivering mouse events to the given handler.
+	 * @param handler the handler
+	 */
+	public synchronized void unregister(AbstractMouseInputHandler handler) {
+		AbstractMouseInputHandler[] handlers = this.mouse;
+		for (int i = 0; i < handlers.length; i++) {
+			if (handlers[i] == handler) {
+				AbstractMouseInputHandler[] copy = new AbstractMouseInputHandler[handlers.length - 1];
+				System.arraycopy(handlers, 0, copy, 0, i);
+				System.arraycopy(handlers, i + 1, copy, i, handlers.length - i - 1);
+				this.mouse = copy;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Adds an event; only called by the producer.
+	 * @param type the event type
+	 * @param a the key code, button or wheel rotation
+	 * @param b the modifiers
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 */
+	private void offer(int type, int a, int b, int x, int y) {
+		long tail = this.tail.get();
+		if (tail - this.head.get() > this.mask) {
+			this.dropped.incrementAndGet();
+			return;
+		}
+
+		int i = (int)tail & this.mask;
+		this.types[i] = type;
+		this.as[i] = a;
+		this.bs[i] = b;
+		this.xs[i] = x;
+		this.ys[i] = y;
+		this.times[i] = System.nanoTime();
+
+		// publishes the slot to the consumer
+		this.tail.lazySet(tail + 1);
+	}
+
+	/**
+	 * Delivers the events added since the last call to the installed handlers,
+	 * in the order they happened, and returns the number delivered.
+	 * <p>
+	 * This must always be called from the same thread.
+	 * <p>
+	 * The location passed to the mouse handlers is one point reused for every
+	 * event of the drain, so handlers must copy it rather than keep it.
+	 * @return int
+	 */
+	public int drain() {
+		long head = this.head.get();
+		long tail = this.tail.get();
+		AbstractMouseInputHandler[] mouse = this.mouse;
+		Point point = new Point();
+
+		int delivered = 0;
+		this.pressCount = 0;
+		for (long n = head; n < tail; n++) {
+			int i = (int)n & this.mask;
+			int type = this.types[i];
+
+			// skip drags followed by another drag; only where the mouse ended up matters
+			if (type == MOUSE_DRAGGED && n + 1 < tail && this.types[(int)(n + 1) & this.mask] == MOUSE_DRAGGED) {
+				continue;
+			}
+
+			if (type == KEY_PRESSED || type == MOUSE_PRESSED) {
+				this.addPressTime(this.times[i]);
+			}
+
+			int a = this.as[i];
+			switch (type) {
+				case KEY_PRESSED:
+					this.keyboard.dispatch(a, this.bs[i], true);
+					break;
+				case KEY_RELEASED:
+					this.keyboard.dispatch(a, this.bs[i], false);
+					break;
+				case MOUSE_PRESSED:
+					for (int j = 0; j < mouse.length; j++) {
+						point.setLocation(this.xs[i], this.ys[i]);
+						mouse[j].mousePressed(a, point);
+					}
+					break;
+				case MOUSE_DRAGGED:
+					for (int j = 0; j < mouse.length; j++) {
+						point.setLocation(this.xs[i], this.ys[i]);
+						mouse[j].mouseDragged(point);
+					}
+					break;
+				case MOUSE_RELEASED:
+					for (int j = 0; j < mouse.length; j++) {
+						mouse[j].mouseReleased(a);
+					}
+					break;
+				default:
+					for (int j = 0; j < mouse.length; j++) {
+						mouse[j].mouseWheelMoved(a);
+					}
+					break;
+			}
+			delivered++;
+		}
+
+		// frees the slots for the producer
+		this.head.lazySet(tail);
+		return delivered;
+	}
+
+	/**
+	 * Keeps the capture time of a press delivered by drain.
+	 * @param time the capture time
+	 */
+	private void addPressTime(long time) {
+		if (this.pressCount == this.pressTimes.length) {
+			long[] times = new long[this.pressCount * 2];
+			System.arraycopy(this.pressTimes, 0, times, 0, this.pressCount);
+			this.pressTimes = times;
+		}
+		this.pressTimes[this.pressCount++] = time;
+	}
+
+	/**
+	 * Returns the number of key and mouse presses delivered by the last call to {@link #drain()}.
+	 * @return int
+	 */
+	public int getDrainedPressCount() {
+		return this.pressCount;
+	}
+
+	/**
+	 * Returns the time, from {@link System#nanoTime()}, the given press
+	 * delivered by the last call to {@link #drain()} was captured.
+	 * @param index the index of the press in [0, {@link #getDrainedPressCount()})
+	 * @return long
+	 */
+	public long getDrainedPressTime(int index) {
+		return this.pressTimes[index];
+	}
+
+	/**
+	 * Returns the number of events waiting to be drained.
+	 * @return int
+	 */
+	public int getPendingEventCount() {
+		return (int)(this.tail.get() - this.head.get());
+	}
+
+	/**
+	 * Returns the number of events dropped because the queue was full.
+	 * @return long
+	 */
+	public long getDroppedEventCount() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Returns the dispatcher for the keyboard handlers.
+	 * @return {@link KeyboardDispatcher}
+	 */
+	public KeyboardDispatcher getKeyboardDispatcher() {
+		return this.keyboard;
+	}
+
+	/**
+	 * The single listener installed on the component; adds events to the queue.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private final class Listener extends MouseAdapter implements KeyListener {
+		@Override
+		public void keyPressed(KeyEvent e) {
+			if (e.isConsumed()) return;
+			offer(KEY_PRESSED, e.getKeyCode(), e.getModifiersEx(), 0, 0);
+		}
+
+		@Override
+		public void keyReleased(KeyEvent e) {
+			if (e.isConsumed()) return;
+			offer(KEY_RELEASED, e.getKeyCode(), e.getModifiersEx(), 0, 0);
+		}
+
+		@Override
+		public void keyTyped(KeyEvent e) {}
+
+		@Override
+		public void mousePressed(MouseEvent e) {
+			if (e.isConsumed()) return;
+			offer(MOUSE_PRESSED, e.getButton(), 0, e.getX(), e.getY());
+		}
+
+		@Override
+		public void mouseDragged(MouseEvent e) {
+			if (e.isConsumed()) return;
+			offer(MOUSE_DRAGGED, 0, 0, e.getX(), e.getY());
+		}
+
+		@Override
+		public void mouseReleased(MouseEvent e) {
+			if (e.isConsumed()) return;
+			offer(MOUSE_RELEASED, e.getButton(), 0, 0, 0);
+		}
+
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+			if (e.isConsumed()) return;
+			offer(MOUSE_WHEEL, e.getWheelRotation(), 0, 0, 0);
+		}
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework.input;
+
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers the key events of a component to the keyboard input handlers
+ * installed on it.
+ * <p>
+ * There's one dispatcher per component, owned by its {@link InputQueue}, which
+ * passes it the key events as they are drained.  Handlers are indexed by key
+ * code and modifiers in a hash table of primitive keys, so each event is
+ * looked up once and goes only to the handlers bound to that key, no matter
+ * how many handlers there are.
+ * <p>
+ * Handlers can be registered and unregistered from any thread.  The table is
+ * rebuilt on each change and swapped in whole, so dispatching never locks.
+ * @author William Bittle
+ * @version 5.0.2
+ * @since 5.0.2
+ */
+public final class KeyboardDispatcher {
+	/** The empty table */
+	private static final Table EMPTY = new Table(new LinkedHashMap<Long, List<AbstractKeyboardInputHandler>>());
+
+	/** The registered handlers, in order */
+	private final List<AbstractKeyboardInputHandler> handlers;
+
+	/** The current table */
+	private volatile Table table;
+
+	/**
+	 * Returns the dispatcher for the given component, installing its
+	 * {@link InputQueue} the first time.
+	 * @param component the component
+	 * @return {@link KeyboardDispatcher}
+	 */
+	public static KeyboardDispatcher get(Component component) {
+		return InputQueue.get(component).getKeyboardDispatcher();
+	}
+
+	/**
+	 * Minimal constructor.
+	 */
+	KeyboardDispatcher() {
+		this.handlers = new ArrayList<AbstractKeyboardInputHandler>();
+		this.table = EMPTY;
+	}
+
+	/**
+	 * Starts delivering events for the given handler's keys to it.
+	 * <p>
+	 * Does nothing if the handler is already registered.
+	 * @param handler the handler
+	 */
+	public void register(AbstractKeyboardInputHandler handler) {
+		synchronized (this.handlers) {
+			if (this.handlers.contains(handler)) return;
+			this.handlers.add(handler);
+			this.rebuild();
+		}
+	}
+
+	/**
+	 * Stops delivering events to the given handler.
+	 * @param handler the handler
+	 */
+	public void unregister(AbstractKeyboardInputHandler handler) {
+		synchronized (this.handlers) {
+			if (this.handlers.remove(handler)) {
+				this.rebuild();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of registered handlers.
+	 * @return int
+	 */
+	public int getHandlerCount() {
+		synchronized (this.handlers) {
+			return this.handlers.size();
+		}
+	}
+
+	/**
+	 * Rebuilds the table from the registered handlers.
+	 */
+	private void rebuild() {
+		// group the handlers by key, keeping the order they were registered in
+		Map<Long, List<AbstractKeyboardInputHandler>> groups = new LinkedHashMap<Long, List<AbstractKeyboardInputHandler>>();
+		for (AbstractKeyboardInputHandler handler : this.handlers) {
+			for (Key key : handler.keys) {
+				Long k = pack(key.key, key.modifiers);
+				List<AbstractKeyboardInputHandler> group = groups.get(k);
+				if (group == null) {
+					group = new ArrayList<AbstractKeyboardInputHandler>();
+					groups.put(k, group);
+				}
+				// a handler can list the same key twice
+				if (!group.contains(handler)) {
+					group.add(handler);
+				}
+			}
+		}
+		this.table = new Table(groups);
+	}
+
+	/**
+	 * Delivers a key event to the handlers bound to its key.
+	 * @param key the key code
+	 * @param modifiers the extended modifiers
+	 * @param pressed true if the key was pressed; false if released
+	 */
+	void dispatch(int key, int modifiers, boolean pressed) {
+		Table table = this.table;
+		int slot = table.find(pack(key, modifiers));
+		if (slot < 0) return;
+
+		int start = table.starts[slot];
+		int end = start + table.counts[slot];
+		for (int i = start; i < end; i++) {
+			if (pressed) {
+				table.handlers[i].keyPressed();
+			} else {
+				table.handlers[i].keyReleased();
+			}
+		}
+	}
+
+	/**
+	 * Returns the table key for the given key code and modifiers.
+	 * @param key the key code
+	 * @param modifiers the extended modifiers
+	 * @return long
+	 */
+	private static long pack(int key, int modifiers) {
+		return ((long)key << 32) | (modifiers & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the preferred slot for the given table key.
+	 * @param key the table key
+	 * @return int
+	 */
+	private static int hash(long key) {
+		int h = (int)(key ^ (key >>> 32)) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * An immutable open addressing table from key to a run of handlers.
+	 * @author William Bittle
+	 * @version 5.0.2
+	 * @since 5.0.2
+	 */
+	private static final class Table {
+		/** The key in each slot */
+		private final long[] keys;
+
+		/** The index in handlers of the first handler of each slot; -1 if the slot is empty */
+		private final int[] starts;
+
+		/** The number of handlers of each slot */
+		private final int[] counts;
+
+		/** The handlers of all slots back to back */
+		private final AbstractKeyboardInputHandler[] handlers;
+
+		/** The slot count minus one */
+		private final int mask;
+
+		/**
+		 * Full constructor.
+		 * @param groups the handlers of each key
+		 */
+		public Table(Map<Long, List<AbstractKeyboardInputHandler>> groups) {
+			// keep it at most half full
+			int size = 2;
+			while (size < groups.size() * 2) {
+				size <<= 1;
+			}
+
+			this.keys = new long[size];
+			this.starts = new int[size];
+			this.counts = new int[size];
+			this.mask = size - 1;
+			for (int i = 0; i < size; i++) {
+				this.starts[i] = -1;
+			}
+
+			int total = 0;
+			for (List<AbstractKeyboardInputHandler> group : groups.values()) {
+				total += group.size();
+			}
+			this.handlers = new AbstractKeyboardInputHandler[total];
+
+			int n = 0;
+			for (Map.Entry<Long, List<AbstractKeyboardInputHandler>> entry : groups.entrySet()) {
+				long key = entry.getKey();
+				int slot = hash(key) & this.mask;
+				while (this.starts[slot] >= 0) {
+					slot = (slot + 1) & this.mask;
+				}
+				List<AbstractKeyboardInputHandler> group = entry.getValue();
+				this.keys[slot] = key;
+				this.starts[slot] = n;
+				this.counts[slot] = group.size();
+				for (AbstractKeyboardInputHandler handler : group) {
+					this.handlers[n++] = handler;
+				}
+			}
+		}
+
+		/**
+		 * Returns the slot of the given key or -1 if it's not in the table.
+		 * @param key the table key
+		 * @return int
+		 */
+		public int find(long key) {
+			int slot = hash(key) & this.mask;
+			while (this.starts[slot] >= 0) {
+				if (this.keys[slot] == key) return slot;
+				slot = (slot + 1) & this.mask;
+			}
+			return -1;
+		}
+	}
+}
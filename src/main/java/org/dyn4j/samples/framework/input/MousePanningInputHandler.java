@@ -31,10 +31,8 @@ import java.awt.event.MouseEvent;
 import org.dyn4j.geometry.Vector2;
 
 public final class MousePanningInputHandler extends AbstractMouseInputHandler implements InputHandler {
-	private final Object lock;
-	
 	private boolean panning;
-	private Point start;
+	private final Point start;
 	
 	private double x;
 	private double y;
@@ -42,7 +40,7 @@ public final class MousePanningInputHandler extends AbstractMouseInputHandler im
 	public MousePanningInputHandler(Component component) {
 		super(component, MouseEvent.BUTTON1);
 		this.panning = false;
-		this.lock = new Object();
+		this.start = new Point();
 	}
 
 	@Override
@@ -84,7 +82,7 @@ public final class MousePanningInputHandler extends AbstractMouseInputHandler im
 	
 	private boolean handleMouseStart(Point start) {
     	this.panning = true;
-    	this.start = start;
+    	this.start.setLocation(start);
 		return true;
 	}
 	
@@ -94,33 +92,24 @@ public final class MousePanningInputHandler extends AbstractMouseInputHandler im
     	double x = current.getX() - this.start.getX();
     	double y = current.getY() - this.start.getY();
     	
-    	// input from the mouse should be queued for processing
-    	// to avoid mid-render changes to the camera
-    	// input from AWT is coming in from the main thread of
-    	// AWT, but rendering is performed on a different thread
-    	// as such we should lock on the changes just to be sure
-    	// we don't lose information
-    	synchronized (this.lock) {
-        	this.x += x;
-        	this.y -= y;	
-		}
+    	// the offset is accumulated until the game loop applies
+    	// it to the camera to avoid mid-render changes to it
+    	this.x += x;
+    	this.y -= y;
     	
-    	this.start = current;
+    	this.start.setLocation(current);
 		
 		return true;
 	}
 	
 	private void clearPanningState() {
 		this.panning = false;
-		this.start = null;
 	}
 	
 	public Vector2 getOffsetAndReset() {
-		synchronized (this.lock) {
-			Vector2 offset = new Vector2(this.x, this.y);
-			this.x = 0;
-			this.y = 0;
-			return offset;
-		}
+		Vector2 offset = new Vector2(this.x, this.y);
+		this.x = 0;
+		this.y = 0;
+		return offset;
 	}
 }
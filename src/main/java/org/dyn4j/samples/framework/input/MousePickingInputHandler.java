@@ -27,36 +27,43 @@ package org.dyn4j.samples.framework.input;
 import java.awt.Component;
 import java.awt.Point;
 import java.awt.event.MouseEvent;
-import java.util.Iterator;
 
 import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.joint.Joint;
 import org.dyn4j.dynamics.joint.PinJoint;
-import org.dyn4j.geometry.AABB;
 import org.dyn4j.geometry.Vector2;
 import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.PointQuery;
 import org.dyn4j.samples.framework.SimulationBody;
+import org.dyn4j.world.DetectFilter;
 import org.dyn4j.world.World;
-import org.dyn4j.world.result.DetectResult;
 
 public class MousePickingInputHandler extends AbstractMouseInputHandler implements InputHandler {
-	private final Object lock;
 	private final Camera camera;
 	private final World<SimulationBody> world;
+	private final PointQuery query;
 	
-	// state maintained by the main thread
+	// state maintained from input events
 	private boolean dragging;
 	private Vector2 point;
 	private SimulationBody body;
 	
-	// state maintained by the render thread
+	// state maintained from the world's state
 	private Joint<SimulationBody> mouseHandle;
 	
 	public MousePickingInputHandler(Component component, Camera camera, World<SimulationBody> world) {
 		super(component, MouseEvent.BUTTON1);
-		this.lock = new Object();
 		this.camera = camera;
 		this.world = world;
+		
+		this.query = new PointQuery(world);
+		this.query.setFilter(new DetectFilter<SimulationBody, BodyFixture>(false, false, null) {
+			@Override
+			public boolean isAllowed(SimulationBody body, BodyFixture fixture) {
+				// ignore infinite bodies
+				return !body.getMass().isInfinite();
+			}
+		});
 	}
 
 	@Override
@@ -99,30 +106,26 @@ public class MousePickingInputHandler extends AbstractMouseInputHandler implemen
 	private boolean handleMouseStartOrDrag(Point point) {
 		Vector2 p = this.camera.toWorldCoordinates(this.component.getWidth(), this.component.getHeight(), point);
 		
-		synchronized (this.lock) {
-			this.point = p;
-			
-			if (!this.dragging) {
-				SimulationBody body = this.getBodyAt(p);
-				if (body != null) {
-					this.dragging = true;
-					this.body = body;
-					return true;
-				}
-			} else {
+		this.point = p;
+		
+		if (!this.dragging) {
+			SimulationBody body = this.getBodyAt(p);
+			if (body != null) {
+				this.dragging = true;
+				this.body = body;
 				return true;
 			}
+		} else {
+			return true;
 		}
 		
 		return false;
 	}
 	
 	private void onReleaseCleanUp() {
-		synchronized (this.lock) {
-			this.point = null;
-			this.body = null;
-			this.dragging = false;
-		}
+		this.point = null;
+		this.body = null;
+		this.dragging = false;
 	}
 	
 	public SimulationBody getBody() {
@@ -133,28 +136,7 @@ public class MousePickingInputHandler extends AbstractMouseInputHandler implemen
 	}
 	
 	private SimulationBody getBodyAt(Vector2 p) {
-		SimulationBody body = null;
-		
-		// detect bodies under the mouse pointer
-		AABB aabb = new AABB(new Vector2(p.x, p.y), 0.0001);
-		Iterator<DetectResult<SimulationBody, BodyFixture>> it = this.world.detectIterator(aabb, null);
-		while (it.hasNext()) {
-			SimulationBody b = it.next().getBody();
-			
-			// ignore infinite bodies
-			if (b.getMass().isInfinite()) {
-				continue;
-			}
-			
-			// check point contains and take the first
-			// one found
-			if (b.contains(p)) {
-				body = b;
-				break;
-			}
-		}
-		
-		return body;
+		return this.query.query(p);
 	}
 	
 	private Joint<SimulationBody> createControlJoint(SimulationBody body, Vector2 p) {
@@ -169,15 +151,9 @@ public class MousePickingInputHandler extends AbstractMouseInputHandler implemen
 	}
 	
 	public void updateMousePickingState() {
-		boolean dragging = false;
-		Vector2 point = null;
-		SimulationBody body = null;
-		
-		synchronized (this.lock) {
-			dragging = this.dragging;
-			point = this.point;
-			body = this.body;
-		}
+		boolean dragging = this.dragging;
+		Vector2 point = this.point;
+		SimulationBody body = this.body;
 		
 		// 1. mouse picking begins
 		if (dragging && this.mouseHandle == null && point != null) {
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2010-2023 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.samples.framework.input;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.samples.framework.AreaQuery;
+import org.dyn4j.samples.framework.Camera;
+import org.dyn4j.samples.framework.SimulationBody;
+import org.dyn4j.world.World;
+
+public class MouseSelectionInputHandler extends AbstractMouseInputHandler implements InputHandler {
+	/** The minimum distance in pixels between lasso points */
+	private static final double LASSO_SPACING = 4.0;
+
+	private final Camera camera;
+	private final AreaQuery query;
+	private final AreaQuery.Callback callback;
+
+	// state maintained from input events
+	private boolean lasso;
+	private boolean selecting;
+	private boolean pending;
+	private double[] xs;
+	private double[] ys;
+	private int count;
+
+	public MouseSelectionInputHandler(Component component, Camera camera, World<SimulationBody> world, int button) {
+		super(component, button);
+		this.camera = camera;
+		this.query = new AreaQuery(world);
+		this.callback = new AreaQuery.Callback() {
+			@Override
+			public boolean found(SimulationBody body) {
+				return onBodySelected(body);
+			}
+		};
+		this.xs = new double[64];
+		this.ys = new double[64];
+	}
+
+	@Override
+	protected void onMousePressed(Point point) {
+		super.onMousePressed(point);
+		Vector2 p = this.toWorldCoordinates(point);
+		this.selecting = true;
+		this.count = 0;
+		this.addPoint(p.x, p.y);
+		this.addPoint(p.x, p.y);
+	}
+
+	@Override
+	protected void onMouseDrag(Point start, Point current) {
+		super.onMouseDrag(start, current);
+		Vector2 p = this.toWorldCoordinates(current);
+		if (!this.selecting) return;
+
+		if (!this.lasso) {
+			// the first point is one corner and the second the other
+			this.xs[1] = p.x;
+			this.ys[1] = p.y;
+			return;
+		}
+
+		// only keep lasso points that are far enough apart to matter
+		double spacing = LASSO_SPACING / this.camera.scale;
+		double dx = p.x - this.xs[this.count - 1];
+		double dy = p.y - this.ys[this.count - 1];
+		if (dx * dx + dy * dy >= spacing * spacing) {
+			this.addPoint(p.x, p.y);
+		}
+	}
+
+	@Override
+	protected void onMouseRelease() {
+		if (this.selecting) {
+			this.selecting = false;
+			this.pending = true;
+		}
+		super.onMouseRelease();
+	}
+
+	@Override
+	public void setEnabled(boolean flag) {
+		super.setEnabled(flag);
+		if (!flag) {
+			this.clearSelectionState();
+		}
+	}
+
+	@Override
+	public boolean isActive() {
+		return this.selecting;
+	}
+
+	@Override
+	public void uninstall() {
+		super.uninstall();
+		this.clearSelectionState();
+	}
+
+	private Vector2 toWorldCoordinates(Point point) {
+		return this.camera.toWorldCoordinates(this.component.getWidth(), this.component.getHeight(), point);
+	}
+
+	private void addPoint(double x, double y) {
+		if (this.count == this.xs.length) {
+			double[] xs = new double[this.count * 2];
+			double[] ys = new double[this.count * 2];
+			System.arraycopy(this.xs, 0, xs, 0, this.count);
+			System.arraycopy(this.ys, 0, ys, 0, this.count);
+			this.xs = xs;
+			this.ys = ys;
+		}
+		this.xs[this.count] = x;
+		this.ys[this.count] = y;
+		this.count++;
+	}
+
+	private void clearSelectionState() {
+		this.selecting = false;
+		this.pending = false;
+		this.count = 0;
+	}
+
+	/**
+	 * Returns the region being selected, scaled to the given camera scale, or null
+	 * if nothing is being selected.
+	 * @param scale the camera scale
+	 * @return Shape
+	 */
+	public Shape getSelectionShape(double scale) {
+		if (!this.selecting || this.count < 2) {
+			return null;
+		}
+
+		if (!this.lasso) {
+			Rectangle2D.Double r = new Rectangle2D.Double();
+			r.setFrameFromDiagonal(
+					this.xs[0] * scale, this.ys[0] * scale,
+					this.xs[1] * scale, this.ys[1] * scale);
+			return r;
+		}
+
+		Path2D.Double path = new Path2D.Double(Path2D.WIND_EVEN_ODD, this.count);
+		path.moveTo(this.xs[0] * scale, this.ys[0] * scale);
+		for (int i = 1; i < this.count; i++) {
+			path.lineTo(this.xs[i] * scale, this.ys[i] * scale);
+		}
+		path.closePath();
+		return path;
+	}
+
+	/**
+	 * Runs the query for a finished selection, passing each body found to
+	 * {@link #onBodySelected(SimulationBody)}.
+	 * <p>
+	 * This should be called from the thread that updates the world.
+	 */
+	public void updateMouseSelectionState() {
+		if (!this.pending) return;
+		this.pending = false;
+
+		this.onSelectionStart();
+		int found = 0;
+		if (!this.lasso) {
+			found = this.query.queryBox(this.xs[0], this.ys[0], this.xs[1], this.ys[1], this.callback);
+		} else {
+			found = this.query.queryPolygon(this.xs, this.ys, this.count, this.callback);
+		}
+		this.onSelectionEnd(found);
+	}
+
+	public boolean isLassoEnabled() {
+		return this.lasso;
+	}
+
+	public void setLassoEnabled(boolean flag) {
+		this.lasso = flag;
+		this.selecting = false;
+		this.pending = false;
+		this.count = 0;
+	}
+
+	public AreaQuery getQuery() {
+		return this.query;
+	}
+
+	public void onSelectionStart() {
+
+	}
+
+	public boolean onBodySelected(SimulationBody body) {
+		return true;
+	}
+
+	public void onSelectionEnd(int count) {
+
+	}
+}
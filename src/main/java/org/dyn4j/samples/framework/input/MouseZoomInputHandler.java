@@ -27,13 +27,10 @@ package org.dyn4j.samples.framework.input;
 import java.awt.Component;
 
 public final class MouseZoomInputHandler extends AbstractMouseInputHandler implements InputHandler {
-	private final Object lock;
-	
 	private double scale;
 
 	public MouseZoomInputHandler(Component component, int button) {
 		super(component, button);
-		this.lock = new Object();
 		this.scale = 1.0;
 	}
 
@@ -50,26 +47,18 @@ public final class MouseZoomInputHandler extends AbstractMouseInputHandler imple
 		if (rotation == 0)
 			return;
 		
-    	// input from the mouse should be queued for processing
-    	// to avoid mid-render changes to the camera
-    	// input from AWT is coming in from the main thread of
-    	// AWT, but rendering is performed on a different thread
-    	// as such we should lock on the changes just to be sure
-    	// we don't lose information
-		synchronized (this.lock) {
-			if (rotation > 0) {
-				this.scale *= 0.8;
-			} else {
-				this.scale *= 1.2;
-			}	
+		// the scale is accumulated until the game loop applies
+		// it to the camera to avoid mid-render changes to it
+		if (rotation > 0) {
+			this.scale *= 0.8;
+		} else {
+			this.scale *= 1.2;
 		}
 	}
 	
 	public double getScaleAndReset() {
-		synchronized (this.lock) {
-			double scale = this.scale;
-			this.scale = 1.0;
-			return scale;
-		}
+		double scale = this.scale;
+		this.scale = 1.0;
+		return scale;
 	}
 }